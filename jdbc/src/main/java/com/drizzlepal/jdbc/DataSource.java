@@ -4,21 +4,32 @@
  */
 package com.drizzlepal.jdbc;
 
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import com.drizzlepal.jdbc.exception.ConnectionOperationException;
+import com.drizzlepal.jdbc.exception.JdbcException;
 import com.drizzlepal.jdbc.exception.UnknownDatabaseException;
+import com.drizzlepal.jdbc.export.ExportOptions;
 import com.drizzlepal.jdbc.metadata.ColumnMetaData;
 import com.drizzlepal.jdbc.metadata.DatabaseMetaData;
 import com.drizzlepal.jdbc.metadata.IndexMetaData;
 import com.drizzlepal.jdbc.metadata.PrimaryKeyMetaData;
 import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.metadata.TableStatistics;
+import com.drizzlepal.jdbc.metrics.PoolStats;
+import com.drizzlepal.jdbc.sql.SqlBuilder;
+import com.drizzlepal.jdbc.write.BatchWriter;
+import com.drizzlepal.jdbc.write.UpsertWriter;
 import com.drizzlepal.utils.functions.ConsumerThrowable;
+import com.drizzlepal.utils.functions.FunctionThrowable;
 
 /**
  * Datasource接口定义了与数据源进行交互的方法
@@ -42,6 +53,88 @@ public interface DataSource extends AutoCloseable {
 	 */
 	void doWithConnection(ConsumerThrowable<Connection> thingsToDo) throws ConnectionOperationException;
 
+	/**
+	 * 获取连接池当前的借出、空闲与等待数
+	 * 
+	 * @return 连接池状态快照，由多个连接池组成的数据源返回各连接池之和
+	 */
+	PoolStats getPoolStats();
+
+	/**
+	 * 流式执行查询，逐行回调处理结果
+	 * <p>
+	 * 使用服务端游标或逐行读取，结果不会整体加载到内存中，并根据实际行宽调整每批拉取的行数；
+	 * 回调中的 ResultSet 只能读取当前行，不要在回调之外持有
+	 * 
+	 * @param sql        查询sql
+	 * @param rowHandler 行处理函数
+	 * @param params     sql参数
+	 * @return 处理的行数
+	 * @throws ConnectionOperationException 如果执行查询或处理行时发生异常
+	 */
+	long query(String sql, ConsumerThrowable<ResultSet> rowHandler, Object... params)
+			throws ConnectionOperationException;
+
+	/**
+	 * 流式执行查询，以惰性 Stream 返回映射后的结果
+	 * <p>
+	 * 返回的 Stream 在读取完毕前一直占用一个连接，必须在 try-with-resources 中使用或显式关闭；
+	 * 读取过程中的异常以 UncheckedJdbcException 抛出
+	 * 
+	 * @param <T>       行映射结果类型
+	 * @param sql       查询sql
+	 * @param rowMapper 行映射函数
+	 * @param params    sql参数
+	 * @return 查询结果流
+	 * @throws SQLException 如果执行查询时发生SQL异常
+	 */
+	<T> Stream<T> queryForStream(String sql, FunctionThrowable<ResultSet, T> rowMapper, Object... params)
+			throws SQLException;
+
+	/**
+	 * 流式执行查询并把结果导出到文件，行从游标直接编码写入文件，内存占用只与导出缓冲区大小有关
+	 * <p>
+	 * 导出失败时删除已写入的文件；按主键区间并发导出整张表使用 {@link com.drizzlepal.jdbc.export.TableExporter}
+	 * 
+	 * @param sql     查询sql
+	 * @param file    导出文件，已存在时覆盖
+	 * @param options 导出格式、压缩方式等参数
+	 * @param params  sql参数
+	 * @return 导出的行数
+	 * @throws JdbcException 如果压缩方式不可用，或查询、写入文件时发生异常
+	 */
+	long export(String sql, Path file, ExportOptions options, Object... params) throws JdbcException;
+
+	/**
+	 * 获取该数据源方言的 sql 构建器
+	 * 
+	 * @return 线程安全的 sql 构建器
+	 */
+	SqlBuilder getSqlBuilder();
+
+	/**
+	 * 打开按表元数据批量写入的写入器，写入器独占一个连接直到关闭
+	 * 
+	 * @param tableMetaData 目标表元数据，按其中列的顺序写入
+	 * @param batchSize     每批写入的行数
+	 * @param commitRows    每写入多少行提交一次，小于等于 0 时只在 flush 和关闭时提交
+	 * @return 批量写入器
+	 * @throws SQLException 如果获取连接或准备写入时发生SQL异常
+	 */
+	BatchWriter openBatchWriter(TableMetaData tableMetaData, int batchSize, int commitRows) throws SQLException;
+
+	/**
+	 * 打开按键写入或更新的写入器，键已存在的行被更新，否则插入；写入器独占一个连接直到关闭，每批一个事务
+	 * 
+	 * @param tableMetaData 目标表元数据，按其中列的顺序写入
+	 * @param keyColumns    判断行是否已存在的键列，为空时使用主键，没有主键时使用列数最少的唯一索引
+	 * @param batchSize     每批写入的行数
+	 * @return 按键写入器
+	 * @throws SQLException 如果表没有可用的键，或获取连接、准备写入时发生SQL异常
+	 */
+	UpsertWriter openUpsertWriter(TableMetaData tableMetaData, List<String> keyColumns, int batchSize)
+			throws SQLException;
+
 	/**
 	 * 获取数据库元数据
 	 * 
@@ -61,6 +154,81 @@ public interface DataSource extends AutoCloseable {
 	 */
 	DatabaseMetaData getMetaData(String schema, String databaseName) throws SQLException;
 
+	/**
+	 * 并发获取多个数据库的元数据
+	 * <p>
+	 * 并发数不超过连接池最大连接数，任一数据库失败或超时则返回的 future 异常结束并取消其余数据库的加载，
+	 * 取消返回的 future 同样会取消全部加载
+	 * 
+	 * @param schema        数据库模式
+	 * @param databaseNames 数据库名称列表
+	 * @param timeoutMs     单个数据库的加载超时时间，小于等于 0 表示不限时
+	 * @return 按 databaseNames 顺序排列的数据库名称到数据库元数据的映射
+	 */
+	CompletableFuture<Map<String, DatabaseMetaData>> crawlMetaData(String schema, List<String> databaseNames,
+			long timeoutMs);
+
+	/**
+	 * 并发获取同一数据库下多张表的元数据
+	 * 
+	 * @param schema       数据库模式
+	 * @param databaseName 数据库名称
+	 * @param tableNames   表名称列表
+	 * @param timeoutMs    单张表的加载超时时间，小于等于 0 表示不限时
+	 * @return 按 tableNames 顺序排列的表名称到表元数据的映射，表不存在时值为 null
+	 * @see #crawlMetaData(String, List, long)
+	 */
+	CompletableFuture<Map<String, TableMetaData>> crawlTableMetaData(String schema, String databaseName,
+			List<String> tableNames, long timeoutMs);
+
+	/**
+	 * 一次查询获取整个库各表的版本标识
+	 * <p>
+	 * 版本标识由表的创建时间与修改时间组成，DDL 或数据变更后会发生变化，用于低成本判断已加载的表元数据是否过期
+	 * 
+	 * @param schema       数据库模式
+	 * @param databaseName 数据库名称
+	 * @return 表名到版本标识的映射，数据库类型不支持时返回 null
+	 * @throws SQLException 如果查询时发生SQL异常
+	 */
+	Map<String, String> getTableVersions(String schema, String databaseName) throws SQLException;
+
+	/**
+	 * 一次查询获取整个库各表的统计信息：估算行数、数据与索引占用的空间，以及索引首列的不同值个数估算
+	 * <p>
+	 * 数据取自数据库的统计信息视图，不扫描表数据，代价与表的大小无关
+	 * 
+	 * @param schema       数据库模式
+	 * @param databaseName 数据库名称
+	 * @return 表名到统计信息的映射，数据库类型不支持时返回空映射
+	 * @throws SQLException 如果查询时发生SQL异常
+	 */
+	Map<String, TableStatistics> getTableStatistics(String schema, String databaseName) throws SQLException;
+
+	/**
+	 * 获取默认数据库中一张表的统计信息
+	 * 
+	 * @param tableName 表名称
+	 * @param exact     是否执行 COUNT(*) 得到精确行数，会扫描全表
+	 * @return 统计信息，表不存在且不要求精确行数时返回 null
+	 * @throws UnknownDatabaseException 如果连接信息中未指定数据库
+	 * @throws SQLException             如果查询时发生SQL异常
+	 */
+	TableStatistics getTableStatistics(String tableName, boolean exact) throws UnknownDatabaseException, SQLException;
+
+	/**
+	 * 获取一张表的统计信息
+	 * 
+	 * @param schema       数据库模式
+	 * @param databaseName 数据库名称
+	 * @param tableName    表名称
+	 * @param exact        是否执行 COUNT(*) 得到精确行数，会扫描全表
+	 * @return 统计信息，表不存在且不要求精确行数时返回 null
+	 * @throws SQLException 如果查询时发生SQL异常
+	 */
+	TableStatistics getTableStatistics(String schema, String databaseName, String tableName, boolean exact)
+			throws SQLException;
+
 	/**
 	 * 根据表名获取表元数据
 	 * 
@@ -170,13 +338,20 @@ public interface DataSource extends AutoCloseable {
 	 */
 	List<String> getDatabaseNames() throws UnknownDatabaseException, SQLException;
 
+	/**
+	 * 获取连接信息中指定的数据库的所有表名称的列表，包含视图
+	 * 
+	 * @return 包含所有表与视图名称的列表
+	 * @throws UnknownDatabaseException 如果连接信息中未指定数据库
+	 * @throws SQLException             如果获取表名称时发生SQL异常
+	 */
 	List<String> getTableNames() throws UnknownDatabaseException, SQLException;
 
 	/**
-	 * 根据数据库名获取所有表名称的列表
+	 * 根据数据库名获取所有表名称的列表，包含视图
 	 * 
 	 * @param databaseName 数据库名称
-	 * @return 包含指定数据库中所有表名称的列表
+	 * @return 包含指定数据库中所有表与视图名称的列表
 	 * @throws UnknownDatabaseException 如果数据库未知
 	 * @throws SQLException             如果获取表名称时发生SQL异常
 	 */
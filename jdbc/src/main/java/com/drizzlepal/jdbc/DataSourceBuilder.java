@@ -1,11 +1,19 @@
 package com.drizzlepal.jdbc;
 
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.drizzlepal.jdbc.exception.ConfigInvalidException;
 import com.drizzlepal.jdbc.exception.JdbcException;
+import com.drizzlepal.jdbc.metrics.MetricsSink;
 
 public class DataSourceBuilder {
 
     private final DefaultDatabaseConfig databaseConfig;
 
+    private final List<InetSocketAddress> replicas = new ArrayList<>();
+
     private DataSourceBuilder(DatabaseType databaseType) {
         databaseConfig = databaseType.initDataConfig();
     }
@@ -64,9 +72,154 @@ public class DataSourceBuilder {
         return this;
     }
 
+    /**
+     * 启用表元数据缓存
+     * 
+     * @param ttlMs      缓存有效期，过期后通过表版本判断是否需要重新加载
+     * @param maxEntries 最多缓存的表数量
+     * @return 当前构建器
+     */
+    public DataSourceBuilder metaDataCache(long ttlMs, int maxEntries) {
+        databaseConfig.setMetaDataCacheTtlMs(ttlMs);
+        databaseConfig.setMetaDataCacheMaxEntries(maxEntries);
+        return this;
+    }
+
+    /**
+     * 设置流式查询的拉取参数，MySQL 默认逐行流式读取，只有通过连接参数开启 useCursorFetch 时这两个参数才生效
+     * 
+     * @param fetchSize        初始 fetch size
+     * @param fetchBufferBytes 每批拉取的目标字节数，小于等于 0 时固定使用初始 fetch size
+     * @return 当前构建器
+     */
+    public DataSourceBuilder fetch(int fetchSize, long fetchBufferBytes) {
+        databaseConfig.setFetchSize(fetchSize);
+        databaseConfig.setFetchBufferBytes(fetchBufferBytes);
+        return this;
+    }
+
+    /**
+     * 设置指标接收端，接收连接等待、查询延迟与读写行数
+     *
+     * @param metricsSink 指标接收端
+     * @return 当前构建器
+     */
+    public DataSourceBuilder metrics(MetricsSink metricsSink) {
+        databaseConfig.setMetricsSink(metricsSink);
+        return this;
+    }
+
+    /**
+     * 启用慢查询日志，日志中的 sql 为去掉字面量的指纹，不包含参数
+     *
+     * @param thresholdMs 查询从获取连接到读取完毕超过该时间时记录
+     * @return 当前构建器
+     */
+    public DataSourceBuilder slowQueryThresholdMs(long thresholdMs) {
+        databaseConfig.setSlowQueryThresholdMs(thresholdMs);
+        return this;
+    }
+
+    /**
+     * 设置每个连接最多缓存的元数据查询预编译语句数
+     *
+     * @param statementCacheSize 小于等于 0 时每次查询重新创建语句
+     * @return 当前构建器
+     */
+    public DataSourceBuilder statementCacheSize(int statementCacheSize) {
+        databaseConfig.setStatementCacheSize(statementCacheSize);
+        return this;
+    }
+
+    /**
+     * 添加只读副本，副本使用与主库相同的账号、数据库与连接池配置；添加副本后构建读写分离数据源
+     *
+     * @param host 副本地址
+     * @param port 副本端口
+     * @return 当前构建器
+     */
+    public DataSourceBuilder replica(String host, int port) {
+        replicas.add(InetSocketAddress.createUnresolved(host, port));
+        return this;
+    }
+
+    /**
+     * 设置只读副本复制延迟检查参数
+     *
+     * @param maxLagMs        复制延迟超过该值的副本暂停接收读请求
+     * @param checkIntervalMs 检查间隔，小于等于 0 时不检查
+     * @return 当前构建器
+     */
+    public DataSourceBuilder replicaLag(long maxLagMs, long checkIntervalMs) {
+        databaseConfig.setReplicaMaxLagMs(maxLagMs);
+        databaseConfig.setReplicaLagCheckIntervalMs(checkIntervalMs);
+        return this;
+    }
+
     public DataSource build() throws JdbcException {
         databaseConfig.isValid();
-        return databaseConfig.getDatabaseType().initDataSource(databaseConfig);
+        if (!replicas.isEmpty()) {
+            List<DefaultDatabaseConfig> replicaConfigs = new ArrayList<>(replicas.size());
+            for (InetSocketAddress replica : replicas) {
+                DefaultDatabaseConfig replicaConfig = replicaConfig(replica);
+                replicaConfig.isValid();
+                replicaConfigs.add(replicaConfig);
+            }
+            return new RoutingDataSource(databaseConfig, replicaConfigs);
+        }
+        DefaultDataSource dataSource = databaseConfig.getDatabaseType().initDataSource(databaseConfig);
+        if (databaseConfig.getMetaDataCacheTtlMs() > 0) {
+            return new MetaDataCachingDataSource(dataSource, databaseConfig.getMetaDataCacheTtlMs(),
+                    databaseConfig.getMetaDataCacheMaxEntries());
+        }
+        return dataSource;
+    }
+
+    /**
+     * @return 构建出的数据源最多持有的连接数，主库与每个副本各一个连接池
+     */
+    int connectionCapacity() {
+        return databaseConfig.getMaxActive() * (1 + replicas.size());
+    }
+
+    /**
+     * 只校验配置，不创建连接池
+     *
+     * @throws ConfigInvalidException 如果配置无效
+     */
+    void validate() throws ConfigInvalidException {
+        databaseConfig.isValid();
+    }
+
+    long maxWaitMs() {
+        return databaseConfig.getMaxWaitMs();
+    }
+
+    /**
+     * 副本配置除地址外与主库逐项相同
+     */
+    DefaultDatabaseConfig replicaConfig(InetSocketAddress replica) {
+        DefaultDatabaseConfig replicaConfig = databaseConfig.getDatabaseType().initDataConfig();
+        replicaConfig.setHost(replica.getHostString());
+        replicaConfig.setPort(replica.getPort());
+        replicaConfig.setUsername(databaseConfig.getUsername());
+        replicaConfig.setPassword(databaseConfig.getPassword());
+        replicaConfig.setSchema(databaseConfig.getSchema());
+        replicaConfig.setDatabase(databaseConfig.getDatabase());
+        replicaConfig.setMaxActive(databaseConfig.getMaxActive());
+        replicaConfig.setMinIdle(databaseConfig.getMinIdle());
+        replicaConfig.setMaxWaitMs(databaseConfig.getMaxWaitMs());
+        replicaConfig.setMetaDataCacheTtlMs(databaseConfig.getMetaDataCacheTtlMs());
+        replicaConfig.setMetaDataCacheMaxEntries(databaseConfig.getMetaDataCacheMaxEntries());
+        replicaConfig.setFetchSize(databaseConfig.getFetchSize());
+        replicaConfig.setFetchBufferBytes(databaseConfig.getFetchBufferBytes());
+        replicaConfig.setMetricsSink(databaseConfig.getMetricsSink());
+        replicaConfig.setSlowQueryThresholdMs(databaseConfig.getSlowQueryThresholdMs());
+        replicaConfig.setStatementCacheSize(databaseConfig.getStatementCacheSize());
+        replicaConfig.setReplicaMaxLagMs(databaseConfig.getReplicaMaxLagMs());
+        replicaConfig.setReplicaLagCheckIntervalMs(databaseConfig.getReplicaLagCheckIntervalMs());
+        replicaConfig.getConnectionParams().putAll(databaseConfig.getConnectionParams());
+        return replicaConfig;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,346 @@
+package com.drizzlepal.jdbc;
+
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.drizzlepal.jdbc.exception.ConfigInvalidException;
+import com.drizzlepal.jdbc.exception.ConnectionOperationException;
+import com.drizzlepal.jdbc.exception.JdbcException;
+import com.drizzlepal.jdbc.metrics.PoolStats;
+import com.drizzlepal.utils.functions.FunctionThrowable;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 按租户管理数据源的注册表，面向需要连接大量数据库、但同一时间只有少数数据库活跃的场景
+ * <p>
+ * 数据源在第一次 {@link #get(String)} 时创建，同一租户并发的首次访问只会创建一个连接池；创建时最小空闲连接数固定为 0，
+ * 不活跃的连接池不常驻连接。超过空闲有效期未被访问且没有借出连接的数据源由后台关闭，下次访问时重新创建。
+ * <p>
+ * 所有连接池最大连接数之和不超过全局上限：创建数据源前按其最大连接数预留额度，额度不足时先关闭最久未访问且没有借出连接的
+ * 数据源，仍然不足时等待其他数据源关闭，等待时间取该租户配置的获取连接超时时间。
+ * 调用方应在每次使用时通过 {@link #get(String)} 获取数据源而不是长期持有，否则数据源可能在持有期间被关闭
+ */
+@Slf4j
+public class DataSourceRegistry implements AutoCloseable {
+
+    private static final AtomicInteger REGISTRY_SEQUENCE = new AtomicInteger();
+
+    private final FunctionThrowable<String, DataSourceBuilder> builderFactory;
+
+    private final int maxTotalConnections;
+
+    private final long idleTtlNanos;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final ReentrantLock capacityLock = new ReentrantLock();
+
+    private final Condition capacityReleased = capacityLock.newCondition();
+
+    private final ScheduledExecutorService evictor;
+
+    private int reservedConnections;
+
+    private volatile boolean closed;
+
+    /**
+     * @param builderFactory      按租户返回数据源构建器，只在创建数据源时调用
+     * @param maxTotalConnections 所有连接池最大连接数之和的上限
+     * @param idleTtlMs           数据源超过该时间未被访问时关闭
+     */
+    public DataSourceRegistry(FunctionThrowable<String, DataSourceBuilder> builderFactory, int maxTotalConnections,
+            long idleTtlMs) {
+        if (maxTotalConnections <= 0 || idleTtlMs <= 0) {
+            throw new IllegalArgumentException("maxTotalConnections and idleTtlMs must be positive");
+        }
+        this.builderFactory = builderFactory;
+        this.maxTotalConnections = maxTotalConnections;
+        this.idleTtlNanos = TimeUnit.MILLISECONDS.toNanos(idleTtlMs);
+        String threadName = "drizzlepal-datasource-registry-" + REGISTRY_SEQUENCE.incrementAndGet();
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = Math.max(1000, Math.min(idleTtlMs / 2, 60000));
+        evictor.scheduleWithFixedDelay(this::evictExpired, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 获取租户的数据源，不存在时创建
+     *
+     * @param tenant 租户标识
+     * @return 数据源
+     * @throws ConfigInvalidException       如果租户配置无效或单个数据源的最大连接数超过全局上限
+     * @throws ConnectionOperationException 如果等待连接额度超时或创建数据源时发生异常
+     */
+    public DataSource get(String tenant) throws JdbcException {
+        while (true) {
+            if (closed) {
+                throw new IllegalStateException("registry is closed");
+            }
+            Entry entry = entries.computeIfAbsent(tenant, Entry::new);
+            entry.lock.lock();
+            try {
+                if (entry.closed) {
+                    // 已被淘汰，重新从注册表获取
+                    continue;
+                }
+                if (entry.dataSource == null) {
+                    try {
+                        open(entry);
+                    } catch (JdbcException | RuntimeException e) {
+                        // 不保留创建失败的租户，在锁上等待的线程重新获取时再次尝试创建
+                        entry.closed = true;
+                        entries.remove(tenant, entry);
+                        throw e;
+                    }
+                }
+                entry.lastAccessNanos = System.nanoTime();
+                return entry.dataSource;
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 立即关闭租户的数据源，租户配置变化时使用
+     *
+     * @param tenant 租户标识
+     */
+    public void evict(String tenant) {
+        Entry entry = entries.get(tenant);
+        if (entry != null) {
+            entry.lock.lock();
+            try {
+                close(entry);
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return 当前打开的数据源数量
+     */
+    public int size() {
+        int size = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.dataSource != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return 已预留的连接额度，即所有打开的连接池最大连接数之和
+     */
+    public int getReservedConnections() {
+        capacityLock.lock();
+        try {
+            return reservedConnections;
+        } finally {
+            capacityLock.unlock();
+        }
+    }
+
+    /**
+     * @return 所有打开的连接池状态之和
+     */
+    public PoolStats getPoolStats() {
+        PoolStats stats = new PoolStats(0, 0, 0, 0);
+        for (Entry entry : entries.values()) {
+            DataSource dataSource = entry.dataSource;
+            if (dataSource != null) {
+                stats = stats.plus(dataSource.getPoolStats());
+            }
+        }
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        for (Entry entry : new ArrayList<>(entries.values())) {
+            entry.lock.lock();
+            try {
+                close(entry);
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 在持有 entry 锁时调用，并发访问同一租户的线程在锁上等待创建完成
+     */
+    private void open(Entry entry) throws JdbcException {
+        DataSourceBuilder builder;
+        try {
+            builder = builderFactory.apply(entry.tenant);
+        } catch (JdbcException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ConnectionOperationException(e);
+        }
+        builder.minIdle(0);
+        // 先校验配置，无效的配置不占用全局额度，也不会为此淘汰其他租户
+        builder.validate();
+        int connections = builder.connectionCapacity();
+        if (connections > maxTotalConnections) {
+            throw new ConfigInvalidException("租户 " + entry.tenant + " 的最大连接数 " + connections + " 超过全局上限 "
+                    + maxTotalConnections);
+        }
+        reserve(entry, connections, builder.maxWaitMs());
+        try {
+            entry.dataSource = builder.build();
+            entry.connections = connections;
+        } catch (JdbcException | RuntimeException e) {
+            release(connections);
+            throw e;
+        }
+        log.debug("租户 {} 的数据源已创建，最大连接数 {}", entry.tenant, connections);
+    }
+
+    private void reserve(Entry requester, int connections, long maxWaitMs) throws ConnectionOperationException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        capacityLock.lock();
+        try {
+            while (reservedConnections + connections > maxTotalConnections) {
+                // 淘汰需要获取其他租户的锁，释放额度锁避免与正在创建的租户互相等待
+                capacityLock.unlock();
+                boolean evicted;
+                try {
+                    evicted = evictLeastRecentlyUsed(requester);
+                } finally {
+                    capacityLock.lock();
+                }
+                if (evicted) {
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new ConnectionOperationException(new SQLTransientConnectionException("租户 "
+                            + requester.tenant + " 等待连接额度超时，已预留 " + reservedConnections + "/"
+                            + maxTotalConnections));
+                }
+                capacityReleased.awaitNanos(remaining);
+            }
+            reservedConnections += connections;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionOperationException(e);
+        } finally {
+            capacityLock.unlock();
+        }
+    }
+
+    private void release(int connections) {
+        capacityLock.lock();
+        try {
+            reservedConnections -= connections;
+            capacityReleased.signalAll();
+        } finally {
+            capacityLock.unlock();
+        }
+    }
+
+    /**
+     * 关闭最久未访问且没有借出连接的一个数据源，正在被其他线程使用的租户直接跳过
+     */
+    private boolean evictLeastRecentlyUsed(Entry requester) {
+        List<Entry> candidates = new ArrayList<>(entries.values());
+        candidates.sort(Comparator.comparingLong(entry -> entry.lastAccessNanos));
+        for (Entry entry : candidates) {
+            if (entry != requester && entry.dataSource != null && tryEvict(entry, 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void evictExpired() {
+        for (Entry entry : entries.values()) {
+            if (entry.dataSource != null) {
+                tryEvict(entry, idleTtlNanos);
+            }
+        }
+    }
+
+    private boolean tryEvict(Entry entry, long minIdleNanos) {
+        if (!entry.lock.tryLock()) {
+            return false;
+        }
+        try {
+            if (entry.dataSource == null || System.nanoTime() - entry.lastAccessNanos < minIdleNanos) {
+                return false;
+            }
+            PoolStats stats = entry.dataSource.getPoolStats();
+            if (stats.getActive() > 0 || stats.getPending() > 0) {
+                return false;
+            }
+            close(entry);
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("关闭租户 {} 的数据源失败", entry.tenant, e);
+            return false;
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    /**
+     * 在持有 entry 锁时调用
+     */
+    private void close(Entry entry) {
+        entry.closed = true;
+        entries.remove(entry.tenant, entry);
+        DataSource dataSource = entry.dataSource;
+        if (dataSource == null) {
+            return;
+        }
+        entry.dataSource = null;
+        try {
+            dataSource.close();
+        } catch (Exception e) {
+            log.warn("关闭租户 {} 的数据源失败", entry.tenant, e);
+        } finally {
+            release(entry.connections);
+        }
+        log.debug("租户 {} 的数据源已关闭", entry.tenant);
+    }
+
+    private static final class Entry {
+
+        private final String tenant;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private volatile DataSource dataSource;
+
+        private volatile long lastAccessNanos = System.nanoTime();
+
+        private int connections;
+
+        private boolean closed;
+
+        Entry(String tenant) {
+            this.tenant = tenant;
+        }
+
+    }
+
+}
@@ -1,10 +1,33 @@
 package com.drizzlepal.jdbc;
 
-import java.sql.Statement;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 
+/**
+ * 批量元数据查询sql的参数设置器，不同数据库按 schema 或数据库名称过滤
+ */
 @FunctionalInterface
 public interface DatabaseMetaDataQuerySqlParameterSetter {
 
-    void setParameters(Statement statement, String schema, String database);
+    /**
+     * 按数据库名称过滤，sql 中只有一个参数
+     */
+    DatabaseMetaDataQuerySqlParameterSetter DATABASE = (statement, schema, database) -> {
+        statement.setString(1, database);
+        return 1;
+    };
+
+    /**
+     * 按 schema 过滤，sql 中只有一个参数
+     */
+    DatabaseMetaDataQuerySqlParameterSetter SCHEMA = (statement, schema, database) -> {
+        statement.setString(1, schema);
+        return 1;
+    };
+
+    /**
+     * @return 设置的参数个数，按表名过滤时表名参数紧随其后
+     */
+    int setParameters(PreparedStatement statement, String schema, String database) throws SQLException;
 
 }
@@ -3,20 +3,63 @@ package com.drizzlepal.jdbc;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+import com.drizzlepal.jdbc.database.kingbase.DataSourceKingbase;
+import com.drizzlepal.jdbc.database.kingbase.DatabaseConfigKingbase;
+import com.drizzlepal.jdbc.database.kingbase.mode.mysql.DatabaseConfigKingbaseMysqlMode;
+import com.drizzlepal.jdbc.database.kingbase.mode.mysql.SqlBuilderKingbaseMysqlMode;
 import com.drizzlepal.jdbc.database.mysql.DatabaseConfigMysql;
 import com.drizzlepal.jdbc.database.mysql.DataSourceMysql;
+import com.drizzlepal.jdbc.database.mysql.MetaDataQuerySqlMysql;
+import com.drizzlepal.jdbc.database.mysql.SqlBuilderMysql;
+import com.drizzlepal.jdbc.database.postgresql.DataSourcePostgresql;
+import com.drizzlepal.jdbc.database.postgresql.DatabaseConfigPostgresql;
+import com.drizzlepal.jdbc.database.postgresql.MetaDataQuerySqlPostgresql;
+import com.drizzlepal.jdbc.database.postgresql.SqlBuilderPostgresql;
 import com.drizzlepal.jdbc.database.sqlserver.DatabaseConfigSqlServer;
 import com.drizzlepal.jdbc.database.sqlserver.DataSourceSqlServer;
+import com.drizzlepal.jdbc.database.sqlserver.MetaDataQuerySqlSqlServer;
+import com.drizzlepal.jdbc.database.sqlserver.SqlBuilderSqlServer;
+import com.drizzlepal.jdbc.sql.SqlBuilder;
 
 import lombok.Getter;
 
 public enum DatabaseType {
 
     MYSQL(config -> new DataSourceMysql(config), () -> new DatabaseConfigMysql(), "com.mysql.cj.jdbc.Driver",
-            "SELECT 1", new String[] { "TABLE" }, null, null),
+            "SELECT 1", new String[] { "TABLE" }, MetaDataQuerySqlMysql.COLUMNS,
+            DatabaseMetaDataQuerySqlParameterSetter.DATABASE, MetaDataQuerySqlMysql.TABLES,
+            MetaDataQuerySqlMysql.PRIMARY_KEYS, MetaDataQuerySqlMysql.INDEXES,
+            MetaDataQuerySqlMysql.TABLE_VERSIONS, MetaDataQuerySqlMysql.TABLE_STATISTICS,
+            MetaDataQuerySqlMysql.COLUMN_CARDINALITY, new SqlBuilderMysql()),
 
     SQL_SERVER(config -> new DataSourceSqlServer(config), () -> new DatabaseConfigSqlServer(),
-            "com.microsoft.sqlserver.jdbc.SQLServerDriver", "SELECT 1", new String[] { "TABLE" }, null, null);
+            "com.microsoft.sqlserver.jdbc.SQLServerDriver", "SELECT 1", new String[] { "TABLE" },
+            MetaDataQuerySqlSqlServer.COLUMNS, DatabaseMetaDataQuerySqlParameterSetter.SCHEMA,
+            MetaDataQuerySqlSqlServer.TABLES, MetaDataQuerySqlSqlServer.PRIMARY_KEYS,
+            MetaDataQuerySqlSqlServer.INDEXES, MetaDataQuerySqlSqlServer.TABLE_VERSIONS,
+            MetaDataQuerySqlSqlServer.TABLE_STATISTICS, MetaDataQuerySqlSqlServer.COLUMN_CARDINALITY,
+            new SqlBuilderSqlServer()),
+
+    POSTGRESQL(config -> new DataSourcePostgresql(config), () -> new DatabaseConfigPostgresql(),
+            "org.postgresql.Driver", "SELECT 1", new String[] { "TABLE", "PARTITIONED TABLE" },
+            MetaDataQuerySqlPostgresql.COLUMNS, DatabaseMetaDataQuerySqlParameterSetter.SCHEMA,
+            MetaDataQuerySqlPostgresql.TABLES, MetaDataQuerySqlPostgresql.PRIMARY_KEYS,
+            MetaDataQuerySqlPostgresql.INDEXES, null, MetaDataQuerySqlPostgresql.TABLE_STATISTICS,
+            MetaDataQuerySqlPostgresql.COLUMN_CARDINALITY, new SqlBuilderPostgresql()),
+
+    KINGBASE(config -> new DataSourceKingbase(config), () -> new DatabaseConfigKingbase(), "com.kingbase8.Driver",
+            "SELECT 1", new String[] { "TABLE", "PARTITIONED TABLE" }, MetaDataQuerySqlPostgresql.COLUMNS,
+            DatabaseMetaDataQuerySqlParameterSetter.SCHEMA, MetaDataQuerySqlPostgresql.TABLES,
+            MetaDataQuerySqlPostgresql.PRIMARY_KEYS, MetaDataQuerySqlPostgresql.INDEXES, null,
+            MetaDataQuerySqlPostgresql.TABLE_STATISTICS, MetaDataQuerySqlPostgresql.COLUMN_CARDINALITY,
+            new SqlBuilderPostgresql()),
+
+    KINGBASE_MYSQL(config -> new DataSourceKingbase(config), () -> new DatabaseConfigKingbaseMysqlMode(),
+            "com.kingbase8.Driver", "SELECT 1", new String[] { "TABLE", "PARTITIONED TABLE" },
+            MetaDataQuerySqlPostgresql.COLUMNS, DatabaseMetaDataQuerySqlParameterSetter.SCHEMA,
+            MetaDataQuerySqlPostgresql.TABLES, MetaDataQuerySqlPostgresql.PRIMARY_KEYS,
+            MetaDataQuerySqlPostgresql.INDEXES, null, MetaDataQuerySqlPostgresql.TABLE_STATISTICS,
+            MetaDataQuerySqlPostgresql.COLUMN_CARDINALITY, new SqlBuilderKingbaseMysqlMode());
 
     private final Function<DefaultDatabaseConfig, DefaultDataSource> datasourceSupplier;
 
@@ -28,9 +71,54 @@ public enum DatabaseType {
     @Getter
     private final String connectionInitSql;
 
+    /**
+     * 批量查询整个库列元数据的sql，为空时退化为逐表调用 JDBC DatabaseMetaData
+     */
     @Getter
     private final String databaseMetaDataQuerySql;
 
+    /**
+     * 批量查询整个库表信息的sql
+     */
+    @Getter
+    private final String databaseTablesQuerySql;
+
+    /**
+     * 批量查询整个库主键信息的sql
+     */
+    @Getter
+    private final String databasePrimaryKeysQuerySql;
+
+    /**
+     * 批量查询整个库索引信息的sql
+     */
+    @Getter
+    private final String databaseIndexesQuerySql;
+
+    /**
+     * 批量查询整个库各表创建时间与修改时间的sql，用于低成本判断表结构或数据是否发生变化，为空时不支持
+     */
+    @Getter
+    private final String databaseTableVersionsQuerySql;
+
+    /**
+     * 批量查询整个库各表估算行数与占用空间的sql，为空时不支持统计信息
+     */
+    @Getter
+    private final String databaseTableStatisticsQuerySql;
+
+    /**
+     * 批量查询整个库各列不同值个数估算的sql，为空时统计信息中不包含列的基数
+     */
+    @Getter
+    private final String databaseColumnCardinalityQuerySql;
+
+    /**
+     * 该数据库方言的 sql 构建器，线程安全，所有数据源共享
+     */
+    @Getter
+    private final SqlBuilder sqlBuilder;
+
     @Getter
     private final DatabaseMetaDataQuerySqlParameterSetter databaseMetaDataQuerySqlParameterSetter;
 
@@ -41,7 +129,10 @@ public enum DatabaseType {
             Supplier<DefaultDatabaseConfig> databaseConfigSupplier, String driverClassName, String connectionInitSql,
             String[] databaseTableTypes,
             String databaseMetaDataQuerySql,
-            DatabaseMetaDataQuerySqlParameterSetter databaseMetaDataQuerySqlParameterSetter) {
+            DatabaseMetaDataQuerySqlParameterSetter databaseMetaDataQuerySqlParameterSetter,
+            String databaseTablesQuerySql, String databasePrimaryKeysQuerySql, String databaseIndexesQuerySql,
+            String databaseTableVersionsQuerySql, String databaseTableStatisticsQuerySql,
+            String databaseColumnCardinalityQuerySql, SqlBuilder sqlBuilder) {
         this.datasourceSupplier = datasourceSupplier;
         this.databaseConfigSupplier = databaseConfigSupplier;
         this.driverClassName = driverClassName;
@@ -49,6 +140,13 @@ public enum DatabaseType {
         this.databaseMetaDataQuerySql = databaseMetaDataQuerySql;
         this.databaseMetaDataQuerySqlParameterSetter = databaseMetaDataQuerySqlParameterSetter;
         this.databaseTableTypes = databaseTableTypes;
+        this.databaseTablesQuerySql = databaseTablesQuerySql;
+        this.databasePrimaryKeysQuerySql = databasePrimaryKeysQuerySql;
+        this.databaseIndexesQuerySql = databaseIndexesQuerySql;
+        this.databaseTableVersionsQuerySql = databaseTableVersionsQuerySql;
+        this.databaseTableStatisticsQuerySql = databaseTableStatisticsQuerySql;
+        this.databaseColumnCardinalityQuerySql = databaseColumnCardinalityQuerySql;
+        this.sqlBuilder = sqlBuilder;
     }
 
     DefaultDataSource initDataSource(DefaultDatabaseConfig config) {
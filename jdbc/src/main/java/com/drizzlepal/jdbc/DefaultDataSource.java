@@ -1,38 +1,89 @@
 package com.drizzlepal.jdbc;
 
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.drizzlepal.jdbc.exception.ConnectionOperationException;
+import com.drizzlepal.jdbc.exception.JdbcException;
 import com.drizzlepal.jdbc.exception.UnknownDatabaseException;
+import com.drizzlepal.jdbc.export.ExportOptions;
+import com.drizzlepal.jdbc.export.ResultSetExporter;
 import com.drizzlepal.jdbc.metadata.ColumnInfoLabels;
 import com.drizzlepal.jdbc.metadata.ColumnMetaData;
 import com.drizzlepal.jdbc.metadata.DatabaseMetaData;
 import com.drizzlepal.jdbc.metadata.IndexMetaData;
 import com.drizzlepal.jdbc.metadata.PrimaryKeyMetaData;
 import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.metadata.TableStatistics;
+import com.drizzlepal.jdbc.metrics.MetricsSink;
+import com.drizzlepal.jdbc.metrics.PoolStats;
+import com.drizzlepal.jdbc.metrics.SqlFingerprint;
+import com.drizzlepal.jdbc.query.AdaptiveFetchSize;
+import com.drizzlepal.jdbc.query.QueryRowIterator;
+import com.drizzlepal.jdbc.query.StatementCache;
+import com.drizzlepal.jdbc.sql.SqlBuilder;
+import com.drizzlepal.jdbc.write.BatchWriter;
+import com.drizzlepal.jdbc.write.CopyIn;
+import com.drizzlepal.jdbc.write.UpsertWriter;
 import com.drizzlepal.utils.StringUtils;
 import com.drizzlepal.utils.functions.ConsumerThrowable;
+import com.drizzlepal.utils.functions.FunctionThrowable;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
 public abstract class DefaultDataSource implements DataSource {
 
     protected final HikariDataSource dataSource;
 
     protected final DefaultDatabaseConfig configCommon;
 
+    private final MetricsSink metrics;
+
+    /**
+     * 指标接收端是否启用，未启用时获取连接不计时
+     */
+    private final boolean metricsEnabled;
+
+    private final long slowQueryNanos;
+
+    /**
+     * 是否需要对查询计时，指标接收端和慢查询日志都未启用时查询路径上没有任何额外开销
+     */
+    private final boolean queryTimed;
+
+    /**
+     * 元数据查询的预编译语句缓存，按物理连接复用同一条元数据 sql
+     */
+    private final StatementCache statementCache;
+
     public DefaultDataSource(DefaultDatabaseConfig configCommon) {
         this.configCommon = configCommon;
+        this.metrics = configCommon.getMetricsSink() == null ? MetricsSink.NOOP : configCommon.getMetricsSink();
+        this.metricsEnabled = metrics.isEnabled();
+        this.slowQueryNanos = Math.max(0, configCommon.getSlowQueryThresholdMs()) * 1_000_000;
+        this.queryTimed = metricsEnabled || slowQueryNanos > 0;
+        this.statementCache = new StatementCache(configCommon.getStatementCacheSize());
         this.dataSource = new HikariDataSource();
         this.dataSource.setJdbcUrl(buildJdbcUrl(configCommon));
         this.dataSource.setUsername(configCommon.getUsername());
@@ -46,12 +97,29 @@ public abstract class DefaultDataSource implements DataSource {
 
     @Override
     public void close() throws Exception {
+        statementCache.close();
         dataSource.close();
     }
 
     @Override
     public Connection getConnection() throws SQLException {
-        return this.dataSource.getConnection();
+        if (!metricsEnabled) {
+            return this.dataSource.getConnection();
+        }
+        long start = System.nanoTime();
+        Connection connection = this.dataSource.getConnection();
+        metrics.connectionAcquired(System.nanoTime() - start);
+        return connection;
+    }
+
+    @Override
+    public PoolStats getPoolStats() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return new PoolStats(0, 0, 0, configCommon.getMaxActive());
+        }
+        return new PoolStats(pool.getActiveConnections(), pool.getIdleConnections(),
+                pool.getThreadsAwaitingConnection(), configCommon.getMaxActive());
     }
 
     @Override
@@ -63,6 +131,200 @@ public abstract class DefaultDataSource implements DataSource {
         }
     }
 
+    @Override
+    public long query(String sql, ConsumerThrowable<ResultSet> rowHandler, Object... params)
+            throws ConnectionOperationException {
+        long startNanos = queryTimed ? System.nanoTime() : 0;
+        try (Connection connection = getConnection()) {
+            long connectedNanos = queryTimed ? System.nanoTime() : 0;
+            try (PreparedStatement statement = prepareStreamingStatement(connection, sql, params);
+                    ResultSet resultSet = statement.executeQuery()) {
+                long executedNanos = queryTimed ? System.nanoTime() : 0;
+                AdaptiveFetchSize fetchSize = new AdaptiveFetchSize(resultSet, configCommon.getFetchBufferBytes());
+                try {
+                    while (resultSet.next()) {
+                        fetchSize.onRow();
+                        rowHandler.accept(resultSet);
+                    }
+                } catch (Throwable e) {
+                    cancelStreaming(statement, e);
+                    throw e;
+                }
+                if (queryTimed) {
+                    recordQuery(sql, startNanos, connectedNanos, executedNanos, fetchSize.getRows());
+                }
+                return fetchSize.getRows();
+            }
+        } catch (Throwable e) {
+            throw new ConnectionOperationException(e);
+        }
+    }
+
+    /**
+     * 返回的 Stream 关闭时记录查询指标，遍历时间从执行完成算到关闭
+     */
+    @Override
+    public <T> Stream<T> queryForStream(String sql, FunctionThrowable<ResultSet, T> rowMapper, Object... params)
+            throws SQLException {
+        long startNanos = queryTimed ? System.nanoTime() : 0;
+        Connection connection = getConnection();
+        long connectedNanos = queryTimed ? System.nanoTime() : 0;
+        QueryRowIterator<T> iterator;
+        try {
+            PreparedStatement statement = prepareStreamingStatement(connection, sql, params);
+            ResultSet resultSet = statement.executeQuery();
+            iterator = new QueryRowIterator<>(connection, statement, resultSet, rowMapper,
+                    new AdaptiveFetchSize(resultSet, configCommon.getFetchBufferBytes()));
+        } catch (SQLException | RuntimeException e) {
+            // 关闭连接时连接池会一并关闭其上打开的语句
+            try {
+                connection.close();
+            } catch (SQLException closeException) {
+                e.addSuppressed(closeException);
+            }
+            throw e;
+        }
+        Stream<T> stream = StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(iterator::close);
+        if (queryTimed) {
+            long executedNanos = System.nanoTime();
+            stream = stream.onClose(
+                    () -> recordQuery(sql, startNanos, connectedNanos, executedNanos, iterator.getRows()));
+        }
+        return stream;
+    }
+
+    /**
+     * 逐行流式读取的结果集关闭时会读完剩余的行，提前结束时先取消查询
+     */
+    private static void cancelStreaming(PreparedStatement statement, Throwable cause) {
+        try {
+            if (statement.getFetchSize() == Integer.MIN_VALUE) {
+                statement.cancel();
+            }
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void recordQuery(String sql, long startNanos, long connectedNanos, long executedNanos, long rows) {
+        long endNanos = System.nanoTime();
+        String fingerprint = SqlFingerprint.of(sql);
+        metrics.queryCompleted(fingerprint, executedNanos - connectedNanos, endNanos - executedNanos, rows);
+        if (slowQueryNanos > 0 && endNanos - startNanos >= slowQueryNanos) {
+            log.warn("慢查询 {}ms（等待连接 {}ms，执行 {}ms，读取 {}ms，{} 行）：{}", (endNanos - startNanos) / 1_000_000,
+                    (connectedNanos - startNanos) / 1_000_000, (executedNanos - connectedNanos) / 1_000_000,
+                    (endNanos - executedNanos) / 1_000_000, rows, fingerprint);
+        }
+    }
+
+    /**
+     * 创建流式查询使用的只进只读语句并设置参数，默认按配置的初始 fetch size 分批拉取，
+     * 需要额外连接参数或特殊 fetch size 才能启用服务端游标的数据库由子类覆盖
+     * 
+     * @param connection 数据库连接
+     * @param sql        查询sql
+     * @param params     sql参数
+     * @return 已设置参数的语句
+     * @throws SQLException 如果创建语句时发生SQL异常
+     */
+    protected PreparedStatement prepareStreamingStatement(Connection connection, String sql, Object... params)
+            throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(configCommon.getFetchSize());
+        for (int i = 0; i < params.length; i++) {
+            statement.setObject(i + 1, params[i]);
+        }
+        return statement;
+    }
+
+    @Override
+    public long export(String sql, Path file, ExportOptions options, Object... params) throws JdbcException {
+        return ResultSetExporter.export(this, sql, file, options, params);
+    }
+
+    @Override
+    public SqlBuilder getSqlBuilder() {
+        return configCommon.getDatabaseType().getSqlBuilder();
+    }
+
+    @Override
+    public BatchWriter openBatchWriter(TableMetaData tableMetaData, int batchSize, int commitRows) throws SQLException {
+        Connection connection = getConnection();
+        try {
+            BatchWriter writer = new BatchWriter(connection, getSqlBuilder(), tableMetaData, batchSize, commitRows,
+                    isDriverBatchRewriteEnabled()).metrics(metrics);
+            CopyIn copyIn = getCopyIn();
+            return copyIn == null ? writer : writer.copy(copyIn);
+        } catch (SQLException | RuntimeException e) {
+            try {
+                connection.close();
+            } catch (SQLException closeException) {
+                e.addSuppressed(closeException);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public UpsertWriter openUpsertWriter(TableMetaData tableMetaData, List<String> keyColumns, int batchSize)
+            throws SQLException {
+        List<String> keys = keyColumns == null || keyColumns.isEmpty() ? UpsertWriter.keyColumns(this, tableMetaData)
+                : keyColumns;
+        Connection connection = getConnection();
+        try {
+            return new UpsertWriter(connection, getSqlBuilder(), tableMetaData, keys, batchSize,
+                    isDriverBatchRewriteEnabled(), isStagedUpsert()).metrics(metrics);
+        } catch (SQLException | RuntimeException e) {
+            try {
+                connection.close();
+            } catch (SQLException closeException) {
+                e.addSuppressed(closeException);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 驱动是否会把 JDBC batch 改写为多行插入或批量复制，不会改写时批量写入器自行生成多行 INSERT
+     * 
+     * @return 驱动是否改写 JDBC batch
+     */
+    protected boolean isDriverBatchRewriteEnabled() {
+        return false;
+    }
+
+    /**
+     * 驱动支持 COPY 协议时批量写入器通过 COPY 导入数据，比多行 INSERT 少了 sql 解析与参数绑定
+     * 
+     * @return 执行 COPY 的驱动接口，不支持时返回 null
+     */
+    protected CopyIn getCopyIn() {
+        return null;
+    }
+
+    /**
+     * 方言没有单语句 upsert 时，按键写入器先把每批写入暂存表，再通过 MERGE 合并到目标表
+     * 
+     * @return 是否通过暂存表合并
+     */
+    protected boolean isStagedUpsert() {
+        return false;
+    }
+
+    /**
+     * 查询连接所在只读副本相对主库的复制延迟
+     *
+     * @param connection 副本上的连接
+     * @return 延迟毫秒数，复制中断时返回 Long.MAX_VALUE，不是副本或数据库类型不支持时返回 null
+     * @throws SQLException 如果查询时发生SQL异常
+     */
+    protected Long getReplicationLagMs(Connection connection) throws SQLException {
+        return null;
+    }
+
     public abstract String buildJdbcUrl(DefaultDatabaseConfig configCommon);
 
     @Override
@@ -91,26 +353,12 @@ public abstract class DefaultDataSource implements DataSource {
         DatabaseMetaData databaseMetaData = new DatabaseMetaData();
         databaseMetaData.setName(databaseName);
         databaseMetaData.setSchema(schema);
-        LinkedList<TableMetaData> tableMetaDataList = new LinkedList<>();
         try (Connection connection = getConnection();) {
             if (StringUtils.isNotBlank(configCommon.getDatabaseType().getDatabaseMetaDataQuerySql())) {
-                try (PreparedStatement statement = connection
-                        .prepareStatement(configCommon.getDatabaseType().getDatabaseMetaDataQuerySql());) {
-                    configCommon.getDatabaseType().getDatabaseMetaDataQuerySqlParameterSetter().setParameters(statement,
-                            schema, databaseName);
-                    HashMap<String, LinkedList<ColumnMetaData>> tableColumnMap = new HashMap<>();
-                    try (ResultSet columns = statement.executeQuery();) {
-                        while (columns.next()) {
-                            String tableName = columns.getString("TABLE_NAME");
-                            if (!tableColumnMap.containsKey(tableName)) {
-                                tableColumnMap.put(tableName, new LinkedList<>());
-                            }
-                            tableColumnMap.get(tableName).addLast(readColumnMetaDataFromResultSet(columns));
-                        }
-                    }
-                }
+                databaseMetaData.setTables(getTableMetaDataInBulk(connection, schema, databaseName));
             } else {
-                java.sql.DatabaseMetaData metaData = connection.getMetaData();
+                LinkedList<TableMetaData> tableMetaDataList = new LinkedList<>();
+                java.sql.DatabaseMetaData metaData = metaDataOf(connection, databaseName);
                 HashMap<String, LinkedList<ColumnMetaData>> tableColumnMap = new HashMap<>();
                 try (ResultSet columns = metaData.getColumns(databaseName, schema, "%", "%");) {
                     while (columns.next()) {
@@ -126,6 +374,7 @@ public abstract class DefaultDataSource implements DataSource {
                     while (tables.next()) {
                         TableMetaData tableMetaData = new TableMetaData();
                         tableMetaData.setDatabase(databaseName);
+                        tableMetaData.setSchema(schema);
                         tableMetaData.setName(tables.getString("TABLE_NAME"));
                         tableMetaData.setRemarks(tables.getString("REMARKS"));
                         if (tableColumnMap.containsKey(tableMetaData.getName())) {
@@ -135,17 +384,286 @@ public abstract class DefaultDataSource implements DataSource {
                                     .forEachOrdered(c -> columns.add(c));
                             tableMetaData.setColumns(columns);
                         }
-                        tableMetaData.setPrimaryKeys(getPrimaryKeys(schema, databaseName, databaseName));
-                        tableMetaData.setIndexes(getIndexMetaData(schema, databaseName, databaseName, false));
                         tableMetaDataList.addLast(tableMetaData);
                     }
                 }
+                databaseMetaData.setTables(new ArrayList<>(tableMetaDataList));
+                // 主键与索引在同一个连接上逐表获取
+                for (TableMetaData tableMetaData : databaseMetaData.getTables()) {
+                    tableMetaData.setPrimaryKeys(getPrimaryKeys(metaData, schema, databaseName,
+                            tableMetaData.getName()));
+                    tableMetaData.setIndexes(getIndexMetaData(metaData, schema, databaseName, tableMetaData.getName(),
+                            false));
+                }
             }
         }
-        databaseMetaData.setTables(new ArrayList<>(tableMetaDataList));
         return databaseMetaData;
     }
 
+    /**
+     * 使用数据库类型提供的批量元数据查询sql获取整个库的表元数据
+     * <p>
+     * 表、列、主键、索引各执行一次集合查询，在同一个连接上完成后于内存中按表名组装，
+     * 查询次数与表数量无关
+     * 
+     * @param connection   数据库连接
+     * @param schema       数据库模式
+     * @param databaseName 数据库名称
+     * @return 按表名排序的表元数据列表
+     * @throws SQLException 如果查询元数据时发生SQL异常
+     */
+    protected ArrayList<TableMetaData> getTableMetaDataInBulk(Connection connection, String schema,
+            String databaseName) throws SQLException {
+        DatabaseType databaseType = configCommon.getDatabaseType();
+        useDatabase(connection, databaseName);
+        LinkedHashMap<String, TableMetaData> tableMetaDataMap = new LinkedHashMap<>();
+        queryDatabaseMetaData(connection, databaseType.getDatabaseTablesQuerySql(), schema, databaseName, tables -> {
+            TableMetaData tableMetaData = new TableMetaData();
+            tableMetaData.setDatabase(databaseName);
+            tableMetaData.setSchema(schema);
+            tableMetaData.setName(tables.getString(ColumnInfoLabels.TABLE_NAME));
+            tableMetaData.setRemarks(tables.getString(ColumnInfoLabels.REMARKS));
+            tableMetaData.setColumns(new ArrayList<>());
+            tableMetaData.setPrimaryKeys(new ArrayList<>());
+            tableMetaData.setIndexes(new HashMap<>());
+            tableMetaDataMap.put(tableMetaData.getName(), tableMetaData);
+        });
+        queryDatabaseMetaData(connection, databaseType.getDatabaseMetaDataQuerySql(), schema, databaseName,
+                columns -> {
+                    TableMetaData tableMetaData = tableMetaDataMap.get(columns.getString(ColumnInfoLabels.TABLE_NAME));
+                    if (tableMetaData != null) {
+                        tableMetaData.getColumns().add(readColumnMetaDataFromResultSet(columns));
+                    }
+                });
+        queryDatabaseMetaData(connection, databaseType.getDatabasePrimaryKeysQuerySql(), schema, databaseName,
+                primaryKeys -> {
+                    TableMetaData tableMetaData = tableMetaDataMap
+                            .get(primaryKeys.getString(ColumnInfoLabels.TABLE_NAME));
+                    if (tableMetaData != null) {
+                        tableMetaData.getPrimaryKeys().add(readPrimaryKeyMetaDataFromResultSet(primaryKeys));
+                    }
+                });
+        queryDatabaseMetaData(connection, databaseType.getDatabaseIndexesQuerySql(), schema, databaseName,
+                indexes -> {
+                    TableMetaData tableMetaData = tableMetaDataMap.get(indexes.getString(ColumnInfoLabels.TABLE_NAME));
+                    if (tableMetaData != null) {
+                        IndexMetaData indexMetaData = readIndexMetaDataFromResultSet(indexes);
+                        tableMetaData.getIndexes()
+                                .computeIfAbsent(indexMetaData.getIndexName(), k -> new ArrayList<>())
+                                .add(indexMetaData);
+                    }
+                });
+        ArrayList<TableMetaData> result = new ArrayList<>(tableMetaDataMap.size());
+        for (TableMetaData tableMetaData : tableMetaDataMap.values()) {
+            tableMetaData.getColumns().sort((a, b) -> a.getOrdinalPosition() - b.getOrdinalPosition());
+            tableMetaData.getPrimaryKeys().sort((a, b) -> a.getKeySeq() - b.getKeySeq());
+            tableMetaData.getIndexes().values()
+                    .forEach(index -> index.sort((a, b) -> a.getOrdinalPosition() - b.getOrdinalPosition()));
+            result.add(tableMetaData);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, String> getTableVersions(String schema, String databaseName) throws SQLException {
+        String sql = configCommon.getDatabaseType().getDatabaseTableVersionsQuerySql();
+        if (StringUtils.isBlank(sql)) {
+            return null;
+        }
+        HashMap<String, String> versions = new HashMap<>();
+        try (Connection connection = getConnection();) {
+            useDatabase(connection, databaseName);
+            queryDatabaseMetaData(connection, sql, schema, databaseName,
+                    resultSet -> versions.put(resultSet.getString(ColumnInfoLabels.TABLE_NAME),
+                            resultSet.getTimestamp("CREATE_TIME") + "/" + resultSet.getTimestamp("UPDATE_TIME")));
+        }
+        return versions;
+    }
+
+    @Override
+    public Map<String, TableStatistics> getTableStatistics(String schema, String databaseName) throws SQLException {
+        return queryTableStatistics(schema, databaseName, null);
+    }
+
+    /**
+     * 查询整个库或单个表的估算统计信息，单个表时在库级统计查询外按表名过滤，不扫描其他表的统计信息
+     *
+     * @param schema       数据库模式
+     * @param databaseName 数据库名称
+     * @param tableName    表名称，为 null 时查询整个库
+     * @return 表名到统计信息的映射
+     * @throws SQLException 如果查询时发生SQL异常
+     */
+    private Map<String, TableStatistics> queryTableStatistics(String schema, String databaseName, String tableName)
+            throws SQLException {
+        DatabaseType databaseType = configCommon.getDatabaseType();
+        HashMap<String, TableStatistics> statistics = new HashMap<>();
+        if (StringUtils.isBlank(databaseType.getDatabaseTableStatisticsQuerySql())) {
+            return statistics;
+        }
+        try (Connection connection = getConnection();) {
+            useDatabase(connection, databaseName);
+            queryDatabaseMetaData(connection, databaseType.getDatabaseTableStatisticsQuerySql(), schema, databaseName,
+                    tableName, tables -> {
+                        TableStatistics tableStatistics = new TableStatistics();
+                        tableStatistics.setDatabase(databaseName);
+                        tableStatistics.setName(tables.getString(ColumnInfoLabels.TABLE_NAME));
+                        tableStatistics.setRowCount(getNullableLong(tables, "ROW_COUNT"));
+                        tableStatistics.setDataBytes(getNullableLong(tables, "DATA_BYTES"));
+                        tableStatistics.setIndexBytes(getNullableLong(tables, "INDEX_BYTES"));
+                        tableStatistics.setColumnCardinality(new HashMap<>());
+                        statistics.put(tableStatistics.getName(), tableStatistics);
+                    });
+            if (StringUtils.isNotBlank(databaseType.getDatabaseColumnCardinalityQuerySql())) {
+                try {
+                    queryDatabaseMetaData(connection, databaseType.getDatabaseColumnCardinalityQuerySql(), schema,
+                            databaseName, tableName, columns -> {
+                                TableStatistics tableStatistics = statistics
+                                        .get(columns.getString(ColumnInfoLabels.TABLE_NAME));
+                                Long cardinality = getNullableLong(columns, "CARDINALITY");
+                                if (tableStatistics != null && cardinality != null) {
+                                    tableStatistics.getColumnCardinality()
+                                            .put(columns.getString(ColumnInfoLabels.COLUMN_NAME), cardinality);
+                                }
+                            });
+                } catch (SQLException e) {
+                    // 较早的数据库版本没有对应的统计信息视图，只返回表级统计信息
+                    log.debug("查询库 {} 的列基数失败", databaseName, e);
+                }
+            }
+        }
+        return statistics;
+    }
+
+    @Override
+    public TableStatistics getTableStatistics(String tableName, boolean exact)
+            throws UnknownDatabaseException, SQLException {
+        if (!checkDatabaseNameConfigExists()) {
+            throw new UnknownDatabaseException("连接信息中未指定获取哪个数据库");
+        }
+        return getTableStatistics(configCommon.getSchema(), configCommon.getDatabase(), tableName, exact);
+    }
+
+    @Override
+    public TableStatistics getTableStatistics(String schema, String databaseName, String tableName, boolean exact)
+            throws SQLException {
+        TableStatistics statistics = queryTableStatistics(schema, databaseName, tableName).get(tableName);
+        return exact ? withExactRowCount(statistics, schema, databaseName, tableName) : statistics;
+    }
+
+    /**
+     * 执行 COUNT(*) 得到精确行数，返回估算统计信息的副本，不修改传入的对象
+     *
+     * @param estimated    估算的统计信息，可以为 null
+     * @param schema       数据库模式
+     * @param databaseName 数据库名称
+     * @param tableName    表名称
+     * @return 带精确行数的统计信息
+     * @throws SQLException 如果查询时发生SQL异常
+     */
+    TableStatistics withExactRowCount(TableStatistics estimated, String schema, String databaseName,
+            String tableName) throws SQLException {
+        TableMetaData tableMetaData = new TableMetaData();
+        tableMetaData.setDatabase(databaseName);
+        tableMetaData.setSchema(schema);
+        tableMetaData.setName(tableName);
+        TableStatistics statistics = new TableStatistics();
+        statistics.setDatabase(databaseName);
+        statistics.setName(tableName);
+        if (estimated != null) {
+            statistics.setDataBytes(estimated.getDataBytes());
+            statistics.setIndexBytes(estimated.getIndexBytes());
+            statistics.setColumnCardinality(estimated.getColumnCardinality());
+        } else {
+            statistics.setColumnCardinality(new HashMap<>());
+        }
+        try (Connection connection = getConnection();) {
+            checkDatabase(connection, databaseName);
+            try (PreparedStatement statement = connection.prepareStatement(getSqlBuilder().Count(tableMetaData));
+                    ResultSet resultSet = statement.executeQuery();) {
+                resultSet.next();
+                statistics.setRowCount(resultSet.getLong(1));
+            }
+        }
+        statistics.setExact(true);
+        return statistics;
+    }
+
+    private static Long getNullableLong(ResultSet resultSet, String columnLabel) throws SQLException {
+        long value = resultSet.getLong(columnLabel);
+        return resultSet.wasNull() ? null : value;
+    }
+
+    /**
+     * 执行数据库类型提供的元数据查询sql并逐行回调，语句从预编译语句缓存中取得，执行失败时从缓存中移除
+     *
+     * @param connection   数据库连接
+     * @param sql          元数据查询sql
+     * @param schema       数据库模式
+     * @param databaseName 数据库名称
+     * @param rowReader    行处理函数
+     * @throws SQLException 如果查询元数据时发生SQL异常
+     */
+    protected void queryDatabaseMetaData(Connection connection, String sql, String schema, String databaseName,
+            MetaDataRowReader rowReader) throws SQLException {
+        queryDatabaseMetaData(connection, sql, schema, databaseName, null, rowReader);
+    }
+
+    /**
+     * 同 {@link #queryDatabaseMetaData(Connection, String, String, String, MetaDataRowReader)}，tableName 不为 null
+     * 时把元数据查询sql作为子查询按 TABLE_NAME 列过滤，过滤条件的参数排在元数据查询sql的参数之后
+     */
+    protected void queryDatabaseMetaData(Connection connection, String sql, String schema, String databaseName,
+            String tableName, MetaDataRowReader rowReader) throws SQLException {
+        String query = tableName == null ? sql : "SELECT * FROM (" + sql + ") q WHERE q.TABLE_NAME = ?";
+        PreparedStatement statement = prepareDatabaseMetaDataQuery(connection, query, schema, databaseName, tableName);
+        try (ResultSet resultSet = statement.executeQuery();) {
+            while (resultSet.next()) {
+                rowReader.read(resultSet);
+            }
+        } catch (SQLException | RuntimeException e) {
+            statementCache.evict(connection, query);
+            throw e;
+        } finally {
+            statementCache.release(statement);
+        }
+    }
+
+    /**
+     * 从预编译语句缓存中取得元数据查询语句并设置参数，返回的语句归缓存所有，调用方不关闭；
+     * tableName 不为 null 时绑定在数据库类型设置的参数之后，参数位置由参数设置器给出，不解析 sql 文本
+     */
+    protected PreparedStatement prepareDatabaseMetaDataQuery(Connection connection, String sql, String schema,
+            String databaseName, String tableName) throws SQLException {
+        PreparedStatement statement = statementCache.prepare(connection, sql);
+        try {
+            int parameters = configCommon.getDatabaseType().getDatabaseMetaDataQuerySqlParameterSetter()
+                    .setParameters(statement, schema, databaseName);
+            if (tableName != null) {
+                statement.setString(parameters + 1, tableName);
+            }
+        } catch (SQLException | RuntimeException e) {
+            statementCache.evict(connection, sql);
+            statementCache.release(statement);
+            throw e;
+        }
+        return statement;
+    }
+
+    @Override
+    public CompletableFuture<Map<String, DatabaseMetaData>> crawlMetaData(String schema, List<String> databaseNames,
+            long timeoutMs) {
+        return new MetaDataCrawler(configCommon.getMaxActive(), timeoutMs).crawl(databaseNames,
+                databaseName -> getMetaData(schema, databaseName));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, TableMetaData>> crawlTableMetaData(String schema, String databaseName,
+            List<String> tableNames, long timeoutMs) {
+        return new MetaDataCrawler(configCommon.getMaxActive(), timeoutMs).crawl(tableNames,
+                tableName -> getTableMetaData(schema, databaseName, tableName));
+    }
+
     @Override
     public TableMetaData getTableMetaData(String tableName) throws UnknownDatabaseException, SQLException {
         if (!checkDatabaseNameConfigExists()) {
@@ -156,27 +674,27 @@ public abstract class DefaultDataSource implements DataSource {
 
     @Override
     public TableMetaData getTableMetaData(String schema, String databaseName, String tableName) throws SQLException {
+        TableMetaData tableMetaData = null;
+        // 表、列、索引、主键在同一个连接上依次获取，只向连接池借一次连接
         try (Connection connection = getConnection();) {
-            if (StringUtils.isNotBlank(configCommon.getDatabaseType().getDatabaseMetaDataQuerySql())) {
-
-            } else {
-                java.sql.DatabaseMetaData metaData = connection.getMetaData();
-                try (ResultSet tables = metaData.getTables(databaseName, schema, tableName,
-                        configCommon.getDatabaseType().getDatabaseTableTypes());) {
-                    while (tables.next()) {
-                        TableMetaData tableMetaData = new TableMetaData();
-                        tableMetaData.setDatabase(databaseName);
-                        tableMetaData.setName(tables.getString("TABLE_NAME"));
-                        tableMetaData.setRemarks(tables.getString("REMARKS"));
-                        tableMetaData.setColumns(getColumnMetaData(schema, databaseName, tableName));
-                        tableMetaData.setIndexes(getIndexMetaData(schema, databaseName, tableName, false));
-                        tableMetaData.setPrimaryKeys(getPrimaryKeys(schema, databaseName, tableName));
-                        return tableMetaData;
-                    }
+            java.sql.DatabaseMetaData metaData = metaDataOf(connection, databaseName);
+            try (ResultSet tables = metaData.getTables(databaseName, schema, tableName,
+                    configCommon.getDatabaseType().getDatabaseTableTypes());) {
+                if (tables.next()) {
+                    tableMetaData = new TableMetaData();
+                    tableMetaData.setDatabase(databaseName);
+                    tableMetaData.setSchema(schema);
+                    tableMetaData.setName(tables.getString("TABLE_NAME"));
+                    tableMetaData.setRemarks(tables.getString("REMARKS"));
                 }
             }
+            if (tableMetaData != null) {
+                tableMetaData.setColumns(getColumnMetaData(metaData, schema, databaseName, tableName));
+                tableMetaData.setIndexes(getIndexMetaData(metaData, schema, databaseName, tableName, false));
+                tableMetaData.setPrimaryKeys(getPrimaryKeys(metaData, schema, databaseName, tableName));
+            }
         }
-        return null;
+        return tableMetaData;
     }
 
     @Override
@@ -220,14 +738,10 @@ public abstract class DefaultDataSource implements DataSource {
     public ColumnMetaData getColumnMetaData(String schema, String databaseName, String tableName, String columnName)
             throws SQLException {
         try (Connection connection = getConnection();) {
-            if (StringUtils.isNotBlank(configCommon.getDatabaseType().getDatabaseMetaDataQuerySql())) {
-
-            } else {
-                java.sql.DatabaseMetaData metaData = connection.getMetaData();
-                try (ResultSet columns = metaData.getColumns(databaseName, schema, tableName, columnName);) {
-                    while (columns.next()) {
-                        return readColumnMetaDataFromResultSet(columns);
-                    }
+            java.sql.DatabaseMetaData metaData = metaDataOf(connection, databaseName);
+            try (ResultSet columns = metaData.getColumns(databaseName, schema, tableName, columnName);) {
+                while (columns.next()) {
+                    return readColumnMetaDataFromResultSet(columns);
                 }
             }
         }
@@ -245,19 +759,17 @@ public abstract class DefaultDataSource implements DataSource {
     @Override
     public ArrayList<ColumnMetaData> getColumnMetaData(String schema, String databaseName, String tableName)
             throws SQLException {
-        LinkedList<ColumnMetaData> columnMetaDataList = new LinkedList<>();
         try (Connection connection = getConnection();) {
-            if (StringUtils.isNotBlank(configCommon.getDatabaseType().getDatabaseMetaDataQuerySql())) {
-
-            } else {
-                java.sql.DatabaseMetaData metaData = connection.getMetaData();
+            return getColumnMetaData(metaDataOf(connection, databaseName), schema, databaseName, tableName);
+        }
+    }
 
-                try (ResultSet columns = metaData.getColumns(databaseName, schema, tableName,
-                        "%");) {
-                    while (columns.next()) {
-                        columnMetaDataList.addLast(readColumnMetaDataFromResultSet(columns));
-                    }
-                }
+    private ArrayList<ColumnMetaData> getColumnMetaData(java.sql.DatabaseMetaData metaData, String schema,
+            String databaseName, String tableName) throws SQLException {
+        LinkedList<ColumnMetaData> columnMetaDataList = new LinkedList<>();
+        try (ResultSet columns = metaData.getColumns(databaseName, schema, tableName, "%");) {
+            while (columns.next()) {
+                columnMetaDataList.addLast(readColumnMetaDataFromResultSet(columns));
             }
         }
         ArrayList<ColumnMetaData> res = new ArrayList<>();
@@ -279,27 +791,21 @@ public abstract class DefaultDataSource implements DataSource {
     public Map<String, ArrayList<IndexMetaData>> getIndexMetaData(String schema, String databaseName, String tableName,
             boolean unique)
             throws SQLException {
-        HashMap<String, LinkedList<IndexMetaData>> indexColumnMetaDataMap = new HashMap<>();
         try (Connection connection = getConnection();) {
-            if (StringUtils.isNotBlank(configCommon.getDatabaseType().getDatabaseMetaDataQuerySql())) {
+            return getIndexMetaData(metaDataOf(connection, databaseName), schema, databaseName, tableName, unique);
+        }
+    }
 
-            } else {
-                java.sql.DatabaseMetaData metaData = connection.getMetaData();
-                try (ResultSet indexInfo = metaData.getIndexInfo(databaseName, schema, tableName, unique, false);) {
-                    while (indexInfo.next()) {
-                        IndexMetaData indexMetaData = new IndexMetaData();
-                        indexMetaData.setIndexName(indexInfo.getString("INDEX_NAME"));
-                        indexMetaData.setType(indexInfo.getString("TYPE"));
-                        indexMetaData.setNonUnique(indexInfo.getBoolean("NON_UNIQUE"));
-                        indexMetaData.setColumnName(indexInfo.getString("COLUMN_NAME"));
-                        indexMetaData.setOrdinalPosition(indexInfo.getInt("ORDINAL_POSITION"));
-                        indexMetaData.setAscOrDesc(indexInfo.getString("ASC_OR_DESC"));
-                        if (!indexColumnMetaDataMap.containsKey(indexMetaData.getIndexName())) {
-                            indexColumnMetaDataMap.put(indexMetaData.getIndexName(), new LinkedList<>());
-                        }
-                        indexColumnMetaDataMap.get(indexMetaData.getIndexName()).addLast(indexMetaData);
-                    }
+    private Map<String, ArrayList<IndexMetaData>> getIndexMetaData(java.sql.DatabaseMetaData metaData,
+            String schema, String databaseName, String tableName, boolean unique) throws SQLException {
+        HashMap<String, LinkedList<IndexMetaData>> indexColumnMetaDataMap = new HashMap<>();
+        try (ResultSet indexInfo = metaData.getIndexInfo(databaseName, schema, tableName, unique, false);) {
+            while (indexInfo.next()) {
+                IndexMetaData indexMetaData = readIndexMetaDataFromResultSet(indexInfo);
+                if (!indexColumnMetaDataMap.containsKey(indexMetaData.getIndexName())) {
+                    indexColumnMetaDataMap.put(indexMetaData.getIndexName(), new LinkedList<>());
                 }
+                indexColumnMetaDataMap.get(indexMetaData.getIndexName()).addLast(indexMetaData);
             }
         }
         if (indexColumnMetaDataMap.size() > 0) {
@@ -328,21 +834,17 @@ public abstract class DefaultDataSource implements DataSource {
     @Override
     public ArrayList<PrimaryKeyMetaData> getPrimaryKeys(String schema, String databaseName, String tableName)
             throws SQLException {
-        LinkedList<PrimaryKeyMetaData> temp = new LinkedList<>();
         try (Connection connection = getConnection();) {
-            if (StringUtils.isNotBlank(configCommon.getDatabaseType().getDatabaseMetaDataQuerySql())) {
+            return getPrimaryKeys(metaDataOf(connection, databaseName), schema, databaseName, tableName);
+        }
+    }
 
-            } else {
-                java.sql.DatabaseMetaData metaData = connection.getMetaData();
-                try (ResultSet resultSet = metaData.getPrimaryKeys(databaseName, schema, tableName)) {
-                    while (resultSet.next()) {
-                        PrimaryKeyMetaData primaryKey = new PrimaryKeyMetaData();
-                        primaryKey.setPkName(resultSet.getString("PK_NAME"));
-                        primaryKey.setColumnName(resultSet.getString("COLUMN_NAME"));
-                        primaryKey.setKeySeq(resultSet.getInt("KEY_SEQ"));
-                        temp.add(primaryKey);
-                    }
-                }
+    private ArrayList<PrimaryKeyMetaData> getPrimaryKeys(java.sql.DatabaseMetaData metaData, String schema,
+            String databaseName, String tableName) throws SQLException {
+        LinkedList<PrimaryKeyMetaData> temp = new LinkedList<>();
+        try (ResultSet resultSet = metaData.getPrimaryKeys(databaseName, schema, tableName)) {
+            while (resultSet.next()) {
+                temp.add(readPrimaryKeyMetaDataFromResultSet(resultSet));
             }
         }
         ArrayList<PrimaryKeyMetaData> primaryKeys = new ArrayList<>(temp.size());
@@ -366,7 +868,8 @@ public abstract class DefaultDataSource implements DataSource {
     public List<String> getDefaultColumnsResultSetMetaDataColumnLabels(String schema, String databaseName,
             String tableName) throws SQLException {
         try (Connection connection = getConnection();
-                ResultSet resultSet = connection.getMetaData().getColumns(databaseName, schema, tableName, "%");) {
+                ResultSet resultSet = metaDataOf(connection, databaseName).getColumns(databaseName, schema,
+                        tableName, "%");) {
             return getResultSetMetaDataColumnLabels(resultSet);
         }
     }
@@ -385,8 +888,8 @@ public abstract class DefaultDataSource implements DataSource {
     public List<String> getDefaultIndexesResultSetMetaDataColumnLabels(String schema, String databaseName,
             String tableName) throws SQLException {
         try (Connection connection = getConnection();
-                ResultSet indexInfo = connection.getMetaData().getIndexInfo(databaseName, schema, tableName, false,
-                        false);) {
+                ResultSet indexInfo = metaDataOf(connection, databaseName).getIndexInfo(databaseName, schema,
+                        tableName, false, false);) {
             return getResultSetMetaDataColumnLabels(indexInfo);
         }
     }
@@ -405,7 +908,7 @@ public abstract class DefaultDataSource implements DataSource {
     public List<String> getDefaultTableResultSetMetaDataColumnLabels(String schema, String databaseName,
             String tableName) throws SQLException {
         try (Connection connection = getConnection();
-                ResultSet tables = connection.getMetaData().getTables(databaseName, schema, tableName,
+                ResultSet tables = metaDataOf(connection, databaseName).getTables(databaseName, schema, tableName,
                         configCommon.getDatabaseType().getDatabaseTableTypes());) {
             return getResultSetMetaDataColumnLabels(tables);
         }
@@ -429,16 +932,20 @@ public abstract class DefaultDataSource implements DataSource {
         return getTableNames(configCommon.getDatabase());
     }
 
+    /**
+     * 表名与视图名一起返回，元数据批量查询只包含基本表，这里使用 JDBC DatabaseMetaData 按表类型加视图查询
+     */
     @Override
     public List<String> getTableNames(String databaseName) throws UnknownDatabaseException, SQLException {
         LinkedList<String> res = new LinkedList<>();
-        try (Connection connection = getConnection();) {
-            connection.setAutoCommit(false);
-            connection.prepareStatement("use " + databaseName).execute();
-            try (ResultSet executeQuery = connection.prepareStatement("show tables").executeQuery();) {
-                while (executeQuery.next()) {
-                    res.add(executeQuery.getString(1));
-                }
+        String[] baseTypes = configCommon.getDatabaseType().getDatabaseTableTypes();
+        String[] tableTypes = Arrays.copyOf(baseTypes, baseTypes.length + 1);
+        tableTypes[baseTypes.length] = "VIEW";
+        try (Connection connection = getConnection();
+                ResultSet tables = metaDataOf(connection, databaseName).getTables(databaseName,
+                        configCommon.getSchema(), "%", tableTypes);) {
+            while (tables.next()) {
+                res.add(tables.getString("TABLE_NAME"));
             }
         }
         return res;
@@ -446,6 +953,44 @@ public abstract class DefaultDataSource implements DataSource {
 
     protected abstract boolean checkDatabaseNameConfigExists();
 
+    /**
+     * 检查连接能否访问指定的数据库，能够通过 catalog 跨库访问的数据源不做限制
+     *
+     * @param connection   数据库连接
+     * @param databaseName 数据库名称，为空时表示连接当前的数据库
+     * @throws SQLException 如果连接不能访问该数据库
+     */
+    protected void checkDatabase(Connection connection, String databaseName) throws SQLException {
+    }
+
+    /**
+     * 检查后把连接切换到指定的数据库，未指定或已在该库上时不切换，连接归还连接池时恢复
+     */
+    protected void useDatabase(Connection connection, String databaseName) throws SQLException {
+        checkDatabase(connection, databaseName);
+        if (StringUtils.isNotBlank(databaseName) && !databaseName.equals(connection.getCatalog())) {
+            connection.setCatalog(databaseName);
+        }
+    }
+
+    /**
+     * 检查连接能否访问指定的数据库后返回 JDBC 元数据，JDBC 元数据按 catalog 参数过滤，不切换连接的数据库
+     */
+    private java.sql.DatabaseMetaData metaDataOf(Connection connection, String databaseName) throws SQLException {
+        checkDatabase(connection, databaseName);
+        return connection.getMetaData();
+    }
+
+    /**
+     * 元数据查询的行处理函数
+     */
+    @FunctionalInterface
+    protected interface MetaDataRowReader {
+
+        void read(ResultSet resultSet) throws SQLException;
+
+    }
+
     protected ColumnMetaData readColumnMetaDataFromResultSet(ResultSet columns) throws SQLException {
         ColumnMetaData columnMetaData = new ColumnMetaData();
         columnMetaData.setName(columns.getString(ColumnInfoLabels.COLUMN_NAME));
@@ -459,4 +1004,23 @@ public abstract class DefaultDataSource implements DataSource {
         return columnMetaData;
     }
 
+    protected PrimaryKeyMetaData readPrimaryKeyMetaDataFromResultSet(ResultSet primaryKeys) throws SQLException {
+        PrimaryKeyMetaData primaryKey = new PrimaryKeyMetaData();
+        primaryKey.setPkName(primaryKeys.getString("PK_NAME"));
+        primaryKey.setColumnName(primaryKeys.getString("COLUMN_NAME"));
+        primaryKey.setKeySeq(primaryKeys.getInt("KEY_SEQ"));
+        return primaryKey;
+    }
+
+    protected IndexMetaData readIndexMetaDataFromResultSet(ResultSet indexInfo) throws SQLException {
+        IndexMetaData indexMetaData = new IndexMetaData();
+        indexMetaData.setIndexName(indexInfo.getString("INDEX_NAME"));
+        indexMetaData.setType(indexInfo.getString("TYPE"));
+        indexMetaData.setNonUnique(indexInfo.getBoolean("NON_UNIQUE"));
+        indexMetaData.setColumnName(indexInfo.getString("COLUMN_NAME"));
+        indexMetaData.setOrdinalPosition(indexInfo.getInt("ORDINAL_POSITION"));
+        indexMetaData.setAscOrDesc(indexInfo.getString("ASC_OR_DESC"));
+        return indexMetaData;
+    }
+
 }
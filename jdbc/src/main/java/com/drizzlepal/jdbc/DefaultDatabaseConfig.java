@@ -3,6 +3,7 @@ package com.drizzlepal.jdbc;
 import java.util.Map;
 
 import com.drizzlepal.jdbc.exception.ConfigInvalidException;
+import com.drizzlepal.jdbc.metrics.MetricsSink;
 import com.drizzlepal.utils.StringUtils;
 
 import lombok.Data;
@@ -10,6 +11,11 @@ import lombok.Data;
 @Data
 public abstract class DefaultDatabaseConfig implements DatabaseConfig {
 
+    /**
+     * HikariCP 连接超时的下限
+     */
+    public static final long MIN_MAX_WAIT_MS = 250;
+
     private final DatabaseType databaseType;
 
     private String host;
@@ -28,8 +34,56 @@ public abstract class DefaultDatabaseConfig implements DatabaseConfig {
 
     private int minIdle = 0;
 
+    /**
+     * 获取连接的最长等待时间，连接池要求不小于 {@value #MIN_MAX_WAIT_MS} 毫秒
+     */
     private long maxWaitMs = 10000;
 
+    /**
+     * 元数据缓存有效期，小于等于 0 时不启用元数据缓存
+     */
+    private long metaDataCacheTtlMs = 0;
+
+    /**
+     * 元数据缓存最多缓存的表数量，超出后按最近最少使用淘汰
+     */
+    private int metaDataCacheMaxEntries = 1024;
+
+    /**
+     * 流式查询的初始 fetch size，读取若干行后按实际行宽调整
+     */
+    private int fetchSize = 1000;
+
+    /**
+     * 流式查询每批拉取的目标字节数，小于等于 0 时不按行宽调整 fetch size
+     */
+    private long fetchBufferBytes = 8L << 20;
+
+    /**
+     * 只读副本复制延迟超过该值时不再路由读请求，恢复到该值以内后重新启用
+     */
+    private long replicaMaxLagMs = 30000;
+
+    /**
+     * 检查只读副本复制延迟的间隔，小于等于 0 时不检查
+     */
+    private long replicaLagCheckIntervalMs = 5000;
+
+    /**
+     * 连接池与查询指标的接收端，默认不采集
+     */
+    private MetricsSink metricsSink = MetricsSink.NOOP;
+
+    /**
+     * 查询从获取连接到读取完毕超过该时间时记录慢查询日志，小于等于 0 时不记录
+     */
+    private long slowQueryThresholdMs = 0;
+
+    /**
+     * 每个连接最多缓存的元数据查询预编译语句数，小于等于 0 时每次查询重新创建语句
+     */
+    private int statementCacheSize = 64;
+
     private final Map<String, String> connectionParams;
 
     @Override
@@ -46,6 +100,18 @@ public abstract class DefaultDatabaseConfig implements DatabaseConfig {
         if (StringUtils.isBlank(password)) {
             throw new ConfigInvalidException("password is blank");
         }
+        if (maxWaitMs < MIN_MAX_WAIT_MS) {
+            throw new ConfigInvalidException("maxWaitMs is invalid, must be at least " + MIN_MAX_WAIT_MS);
+        }
+        if (fetchSize <= 0) {
+            throw new ConfigInvalidException("fetchSize is invalid");
+        }
+        if (metaDataCacheTtlMs > 0 && metaDataCacheMaxEntries <= 0) {
+            throw new ConfigInvalidException("metaDataCacheMaxEntries is invalid");
+        }
+        if (replicaLagCheckIntervalMs > 0 && replicaMaxLagMs <= 0) {
+            throw new ConfigInvalidException("replicaMaxLagMs is invalid");
+        }
     }
 
 }
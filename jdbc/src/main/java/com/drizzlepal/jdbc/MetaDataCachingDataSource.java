@@ -0,0 +1,562 @@
+package com.drizzlepal.jdbc;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import com.drizzlepal.jdbc.exception.ConnectionOperationException;
+import com.drizzlepal.jdbc.exception.JdbcException;
+import com.drizzlepal.jdbc.exception.UnknownDatabaseException;
+import com.drizzlepal.jdbc.export.ExportOptions;
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.DatabaseMetaData;
+import com.drizzlepal.jdbc.metadata.IndexMetaData;
+import com.drizzlepal.jdbc.metadata.PrimaryKeyMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.metadata.TableStatistics;
+import com.drizzlepal.jdbc.metrics.PoolStats;
+import com.drizzlepal.jdbc.sql.SqlBuilder;
+import com.drizzlepal.jdbc.write.BatchWriter;
+import com.drizzlepal.jdbc.write.UpsertWriter;
+import com.drizzlepal.utils.functions.ConsumerThrowable;
+import com.drizzlepal.utils.functions.FunctionThrowable;
+
+/**
+ * 带表元数据缓存的数据源装饰器
+ * <p>
+ * 表、列、主键、索引元数据按表缓存，超过最大缓存数量时按最近最少使用淘汰。缓存过期后不会直接重新加载，
+ * 而是通过一次批量查询整个库各表的创建时间与修改时间判断表是否变化，未变化的表只续期，变化的表才失效重新加载。
+ * 表统计信息按库缓存，有效期与表元数据相同，要求精确行数时总是重新计数并更新缓存。
+ * 返回的元数据对象在缓存内共享，调用方不应修改
+ */
+public class MetaDataCachingDataSource implements DataSource {
+
+    private final DefaultDataSource delegate;
+
+    private final long ttlMs;
+
+    private final LinkedHashMap<String, CacheEntry> entries;
+
+    private final ConcurrentHashMap<String, TableVersions> tableVersions = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Statistics> statistics = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    public MetaDataCachingDataSource(DefaultDataSource delegate, long ttlMs, int maxEntries) {
+        this.delegate = delegate;
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                if (size() > maxEntries) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+
+        };
+    }
+
+    /**
+     * 使指定表的缓存失效
+     *
+     * @param tableName 表名称
+     * @throws UnknownDatabaseException 如果连接信息中未指定数据库
+     */
+    public void invalidate(String tableName) throws UnknownDatabaseException {
+        checkDatabaseNameConfigExists();
+        invalidate(delegate.configCommon.getSchema(), delegate.configCommon.getDatabase(), tableName);
+    }
+
+    /**
+     * 使指定表的缓存失效
+     *
+     * @param schema       数据库模式
+     * @param databaseName 数据库名称
+     * @param tableName    表名称
+     */
+    public void invalidate(String schema, String databaseName, String tableName) {
+        synchronized (entries) {
+            if (entries.remove(cacheKey(schema, databaseName, tableName)) != null) {
+                invalidationCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 清空全部缓存
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidationCount.addAndGet(entries.size());
+            entries.clear();
+        }
+        tableVersions.clear();
+        statistics.clear();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        invalidateAll();
+        delegate.close();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return delegate.getConnection();
+    }
+
+    @Override
+    public void doWithConnection(ConsumerThrowable<Connection> thingsToDo) throws ConnectionOperationException {
+        delegate.doWithConnection(thingsToDo);
+    }
+
+    @Override
+    public PoolStats getPoolStats() {
+        return delegate.getPoolStats();
+    }
+
+    @Override
+    public long query(String sql, ConsumerThrowable<ResultSet> rowHandler, Object... params)
+            throws ConnectionOperationException {
+        return delegate.query(sql, rowHandler, params);
+    }
+
+    @Override
+    public <T> Stream<T> queryForStream(String sql, FunctionThrowable<ResultSet, T> rowMapper, Object... params)
+            throws SQLException {
+        return delegate.queryForStream(sql, rowMapper, params);
+    }
+
+    @Override
+    public long export(String sql, Path file, ExportOptions options, Object... params) throws JdbcException {
+        return delegate.export(sql, file, options, params);
+    }
+
+    @Override
+    public SqlBuilder getSqlBuilder() {
+        return delegate.getSqlBuilder();
+    }
+
+    @Override
+    public BatchWriter openBatchWriter(TableMetaData tableMetaData, int batchSize, int commitRows) throws SQLException {
+        return delegate.openBatchWriter(tableMetaData, batchSize, commitRows);
+    }
+
+    @Override
+    public UpsertWriter openUpsertWriter(TableMetaData tableMetaData, List<String> keyColumns, int batchSize)
+            throws SQLException {
+        return delegate.openUpsertWriter(tableMetaData, keyColumns, batchSize);
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData() throws UnknownDatabaseException, SQLException {
+        checkDatabaseNameConfigExists();
+        return getMetaData(delegate.configCommon.getSchema(), delegate.configCommon.getDatabase());
+    }
+
+    /**
+     * 整库元数据总是从数据库读取，读取结果同时用于预热表元数据缓存
+     */
+    @Override
+    public DatabaseMetaData getMetaData(String schema, String databaseName) throws SQLException {
+        Map<String, String> versions = currentTableVersions(schema, databaseName, true);
+        DatabaseMetaData databaseMetaData = delegate.getMetaData(schema, databaseName);
+        if (databaseMetaData.getTables() != null) {
+            long now = System.currentTimeMillis();
+            synchronized (entries) {
+                for (TableMetaData tableMetaData : databaseMetaData.getTables()) {
+                    String version = versions == null ? null : versions.get(tableMetaData.getName());
+                    entries.put(cacheKey(schema, databaseName, tableMetaData.getName()),
+                            new CacheEntry(tableMetaData, version, now));
+                }
+            }
+        }
+        return databaseMetaData;
+    }
+
+    @Override
+    public CompletableFuture<Map<String, DatabaseMetaData>> crawlMetaData(String schema, List<String> databaseNames,
+            long timeoutMs) {
+        return new MetaDataCrawler(delegate.configCommon.getMaxActive(), timeoutMs).crawl(databaseNames,
+                databaseName -> getMetaData(schema, databaseName));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, TableMetaData>> crawlTableMetaData(String schema, String databaseName,
+            List<String> tableNames, long timeoutMs) {
+        return new MetaDataCrawler(delegate.configCommon.getMaxActive(), timeoutMs).crawl(tableNames,
+                tableName -> getTableMetaData(schema, databaseName, tableName));
+    }
+
+    @Override
+    public Map<String, String> getTableVersions(String schema, String databaseName) throws SQLException {
+        return delegate.getTableVersions(schema, databaseName);
+    }
+
+    @Override
+    public Map<String, TableStatistics> getTableStatistics(String schema, String databaseName) throws SQLException {
+        return Collections.unmodifiableMap(currentStatistics(schema, databaseName).tables);
+    }
+
+    @Override
+    public TableStatistics getTableStatistics(String tableName, boolean exact)
+            throws UnknownDatabaseException, SQLException {
+        checkDatabaseNameConfigExists();
+        return getTableStatistics(delegate.configCommon.getSchema(), delegate.configCommon.getDatabase(), tableName,
+                exact);
+    }
+
+    @Override
+    public TableStatistics getTableStatistics(String schema, String databaseName, String tableName, boolean exact)
+            throws SQLException {
+        Statistics current = currentStatistics(schema, databaseName);
+        TableStatistics tableStatistics = current.tables.get(tableName);
+        if (!exact) {
+            return tableStatistics;
+        }
+        tableStatistics = delegate.withExactRowCount(tableStatistics, schema, databaseName, tableName);
+        current.tables.put(tableName, tableStatistics);
+        return tableStatistics;
+    }
+
+    @Override
+    public TableMetaData getTableMetaData(String tableName) throws UnknownDatabaseException, SQLException {
+        checkDatabaseNameConfigExists();
+        return getTableMetaData(delegate.configCommon.getSchema(), delegate.configCommon.getDatabase(), tableName);
+    }
+
+    @Override
+    public TableMetaData getTableMetaData(String schema, String databaseName, String tableName) throws SQLException {
+        String key = cacheKey(schema, databaseName, tableName);
+        CacheEntry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null) {
+            long now = System.currentTimeMillis();
+            if (now - entry.checkedAt < ttlMs) {
+                hitCount.incrementAndGet();
+                return entry.tableMetaData;
+            }
+            Map<String, String> versions = currentTableVersions(schema, databaseName, false);
+            if (versions != null && entry.version != null
+                    && Objects.equals(entry.version, versions.get(tableName))) {
+                entry.checkedAt = now;
+                hitCount.incrementAndGet();
+                return entry.tableMetaData;
+            }
+            invalidate(schema, databaseName, tableName);
+        }
+        missCount.incrementAndGet();
+        Map<String, String> versions = currentTableVersions(schema, databaseName, false);
+        TableMetaData tableMetaData = delegate.getTableMetaData(schema, databaseName, tableName);
+        if (tableMetaData != null) {
+            String version = versions == null ? null : versions.get(tableName);
+            synchronized (entries) {
+                entries.put(key, new CacheEntry(tableMetaData, version, System.currentTimeMillis()));
+            }
+        }
+        return tableMetaData;
+    }
+
+    @Override
+    public ColumnMetaData getColumnMetaData(String tableName, String columnName)
+            throws UnknownDatabaseException, SQLException {
+        checkDatabaseNameConfigExists();
+        return getColumnMetaData(delegate.configCommon.getSchema(), delegate.configCommon.getDatabase(), tableName,
+                columnName);
+    }
+
+    @Override
+    public ColumnMetaData getColumnMetaData(String schema, String databaseName, String tableName, String columnName)
+            throws SQLException {
+        TableMetaData tableMetaData = getTableMetaData(schema, databaseName, tableName);
+        if (tableMetaData == null || tableMetaData.getColumns() == null) {
+            return null;
+        }
+        for (ColumnMetaData columnMetaData : tableMetaData.getColumns()) {
+            if (columnMetaData.getName().equals(columnName)) {
+                return columnMetaData;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public ArrayList<ColumnMetaData> getColumnMetaData(String tableName) throws UnknownDatabaseException, SQLException {
+        checkDatabaseNameConfigExists();
+        return getColumnMetaData(delegate.configCommon.getSchema(), delegate.configCommon.getDatabase(), tableName);
+    }
+
+    @Override
+    public ArrayList<ColumnMetaData> getColumnMetaData(String schema, String databaseName, String tableName)
+            throws SQLException {
+        TableMetaData tableMetaData = getTableMetaData(schema, databaseName, tableName);
+        if (tableMetaData == null || tableMetaData.getColumns() == null) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(tableMetaData.getColumns());
+    }
+
+    @Override
+    public Map<String, ArrayList<IndexMetaData>> getIndexMetaData(String tableName, boolean unique)
+            throws UnknownDatabaseException, SQLException {
+        checkDatabaseNameConfigExists();
+        return getIndexMetaData(delegate.configCommon.getSchema(), delegate.configCommon.getDatabase(), tableName,
+                unique);
+    }
+
+    @Override
+    public Map<String, ArrayList<IndexMetaData>> getIndexMetaData(String schema, String databaseName, String tableName,
+            boolean unique) throws SQLException {
+        TableMetaData tableMetaData = getTableMetaData(schema, databaseName, tableName);
+        HashMap<String, ArrayList<IndexMetaData>> result = new HashMap<>();
+        if (tableMetaData == null || tableMetaData.getIndexes() == null) {
+            return result;
+        }
+        tableMetaData.getIndexes().forEach((indexName, index) -> {
+            if (!unique || index.isEmpty() || !Boolean.TRUE.equals(index.get(0).getNonUnique())) {
+                result.put(indexName, new ArrayList<>(index));
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public ArrayList<PrimaryKeyMetaData> getPrimaryKeys(String tableName)
+            throws SQLException, UnknownDatabaseException {
+        checkDatabaseNameConfigExists();
+        return getPrimaryKeys(delegate.configCommon.getSchema(), delegate.configCommon.getDatabase(), tableName);
+    }
+
+    @Override
+    public ArrayList<PrimaryKeyMetaData> getPrimaryKeys(String schema, String databaseName, String tableName)
+            throws SQLException {
+        TableMetaData tableMetaData = getTableMetaData(schema, databaseName, tableName);
+        if (tableMetaData == null || tableMetaData.getPrimaryKeys() == null) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(tableMetaData.getPrimaryKeys());
+    }
+
+    @Override
+    public List<String> getDatabaseNames() throws UnknownDatabaseException, SQLException {
+        return delegate.getDatabaseNames();
+    }
+
+    @Override
+    public List<String> getTableNames() throws UnknownDatabaseException, SQLException {
+        return delegate.getTableNames();
+    }
+
+    @Override
+    public List<String> getTableNames(String databaseName) throws UnknownDatabaseException, SQLException {
+        return delegate.getTableNames(databaseName);
+    }
+
+    @Override
+    public List<String> getResultSetMetaDataColumnLabels(ResultSet resultSet) throws SQLException {
+        return delegate.getResultSetMetaDataColumnLabels(resultSet);
+    }
+
+    @Override
+    public List<String> getDefaultColumnsResultSetMetaDataColumnLabels(String tableName)
+            throws UnknownDatabaseException, SQLException {
+        return delegate.getDefaultColumnsResultSetMetaDataColumnLabels(tableName);
+    }
+
+    @Override
+    public List<String> getDefaultColumnsResultSetMetaDataColumnLabels(String schema, String databaseName,
+            String tableName) throws SQLException {
+        return delegate.getDefaultColumnsResultSetMetaDataColumnLabels(schema, databaseName, tableName);
+    }
+
+    @Override
+    public List<String> getDefaultIndexesResultSetMetaDataColumnLabels(String tableName)
+            throws UnknownDatabaseException, SQLException {
+        return delegate.getDefaultIndexesResultSetMetaDataColumnLabels(tableName);
+    }
+
+    @Override
+    public List<String> getDefaultIndexesResultSetMetaDataColumnLabels(String schema, String databaseName,
+            String tableName) throws SQLException {
+        return delegate.getDefaultIndexesResultSetMetaDataColumnLabels(schema, databaseName, tableName);
+    }
+
+    @Override
+    public List<String> getDefaultTableResultSetMetaDataColumnLabels(String tableName)
+            throws UnknownDatabaseException, SQLException {
+        return delegate.getDefaultTableResultSetMetaDataColumnLabels(tableName);
+    }
+
+    @Override
+    public List<String> getDefaultTableResultSetMetaDataColumnLabels(String schema, String databaseName,
+            String tableName) throws SQLException {
+        return delegate.getDefaultTableResultSetMetaDataColumnLabels(schema, databaseName, tableName);
+    }
+
+    @Override
+    public ArrayList<ColumnMetaData> getColumnMetaDataFormSql(String sql) throws SQLException {
+        return delegate.getColumnMetaDataFormSql(sql);
+    }
+
+    /**
+     * 获取库内各表的版本标识，同一个库在缓存有效期内只查询一次
+     *
+     * @param force 是否忽略有效期强制重新查询
+     * @return 表名到版本标识的映射，数据库类型不支持时返回 null
+     */
+    private Map<String, String> currentTableVersions(String schema, String databaseName, boolean force)
+            throws SQLException {
+        String key = cacheKey(schema, databaseName, null);
+        long now = System.currentTimeMillis();
+        TableVersions versions = tableVersions.get(key);
+        if (force || versions == null || now - versions.fetchedAt >= ttlMs) {
+            versions = new TableVersions(delegate.getTableVersions(schema, databaseName), now);
+            tableVersions.put(key, versions);
+            if (versions.versions != null) {
+                dropChangedTables(schema, databaseName, versions.versions);
+            }
+        }
+        return versions.versions;
+    }
+
+    /**
+     * 获取库内各表的统计信息，同一个库在缓存有效期内只查询一次
+     */
+    private Statistics currentStatistics(String schema, String databaseName) throws SQLException {
+        String key = cacheKey(schema, databaseName, null);
+        long now = System.currentTimeMillis();
+        Statistics current = statistics.get(key);
+        if (current == null || now - current.fetchedAt >= ttlMs) {
+            current = new Statistics(new ConcurrentHashMap<>(delegate.getTableStatistics(schema, databaseName)), now);
+            statistics.put(key, current);
+        }
+        return current;
+    }
+
+    /**
+     * 新的表版本查询结果同时用于批量校验同库内其他已缓存的表，变化的表直接失效
+     */
+    private void dropChangedTables(String schema, String databaseName, Map<String, String> versions) {
+        String prefix = cacheKey(schema, databaseName, "");
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Iterator<Map.Entry<String, CacheEntry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, CacheEntry> cached = iterator.next();
+                if (!cached.getKey().startsWith(prefix)) {
+                    continue;
+                }
+                CacheEntry entry = cached.getValue();
+                if (entry.version != null
+                        && entry.version.equals(versions.get(entry.tableMetaData.getName()))) {
+                    entry.checkedAt = now;
+                } else {
+                    iterator.remove();
+                    invalidationCount.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void checkDatabaseNameConfigExists() throws UnknownDatabaseException {
+        if (!delegate.checkDatabaseNameConfigExists()) {
+            throw new UnknownDatabaseException("连接信息中未指定获取哪个数据库");
+        }
+    }
+
+    private static String cacheKey(String schema, String databaseName, String tableName) {
+        return schema + "\u0000" + databaseName + "\u0000" + (tableName == null ? "" : tableName);
+    }
+
+    private static class CacheEntry {
+
+        private final TableMetaData tableMetaData;
+
+        private final String version;
+
+        private volatile long checkedAt;
+
+        private CacheEntry(TableMetaData tableMetaData, String version, long checkedAt) {
+            this.tableMetaData = tableMetaData;
+            this.version = version;
+            this.checkedAt = checkedAt;
+        }
+
+    }
+
+    private static class Statistics {
+
+        private final ConcurrentHashMap<String, TableStatistics> tables;
+
+        private final long fetchedAt;
+
+        private Statistics(ConcurrentHashMap<String, TableStatistics> tables, long fetchedAt) {
+            this.tables = tables;
+            this.fetchedAt = fetchedAt;
+        }
+
+    }
+
+    private static class TableVersions {
+
+        private final Map<String, String> versions;
+
+        private final long fetchedAt;
+
+        private TableVersions(Map<String, String> versions, long fetchedAt) {
+            this.versions = versions;
+            this.fetchedAt = fetchedAt;
+        }
+
+    }
+
+}
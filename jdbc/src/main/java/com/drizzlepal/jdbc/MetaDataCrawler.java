@@ -0,0 +1,117 @@
+package com.drizzlepal.jdbc;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.drizzlepal.utils.functions.FunctionThrowable;
+
+/**
+ * 元数据并发抓取器，在固定大小的线程池上并发加载多个库或多张表的元数据
+ * <p>
+ * 线程数不超过连接池最大连接数。数据源的元数据方法同一时刻只占用一个连接池连接，因此所有任务同时运行也不会因互相等待连接而死锁。
+ * 任一任务失败或超时，返回的 future 以该异常结束并取消其余任务；调用方取消返回的 future 同样会取消全部任务
+ */
+public class MetaDataCrawler {
+
+    private static final AtomicInteger CRAWLER_SEQUENCE = new AtomicInteger();
+
+    private final int parallelism;
+
+    private final long timeoutMs;
+
+    /**
+     * @param parallelism 最大并发数，通常为连接池最大连接数
+     * @param timeoutMs   单个库或表的加载超时时间，从任务开始执行时计时，小于等于 0 表示不限时
+     */
+    public MetaDataCrawler(int parallelism, long timeoutMs) {
+        this.parallelism = Math.max(1, parallelism);
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * 并发加载给定名称对应的元数据
+     *
+     * @param <T>    元数据类型
+     * @param names  库名或表名列表
+     * @param loader 按名称加载元数据的函数
+     * @return 按 names 顺序排列的名称到元数据的映射
+     */
+    public <T> CompletableFuture<Map<String, T>> crawl(List<String> names, FunctionThrowable<String, T> loader) {
+        CompletableFuture<Map<String, T>> result = new CompletableFuture<>();
+        if (names.isEmpty()) {
+            result.complete(new LinkedHashMap<>());
+            return result;
+        }
+        String threadNamePrefix = "drizzlepal-metadata-crawler-" + CRAWLER_SEQUENCE.incrementAndGet() + "-";
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, names.size()),
+                daemonThreadFactory(threadNamePrefix));
+        ScheduledExecutorService watchdog = timeoutMs > 0
+                ? Executors.newSingleThreadScheduledExecutor(daemonThreadFactory(threadNamePrefix + "watchdog-"))
+                : null;
+        AtomicReferenceArray<T> values = new AtomicReferenceArray<>(names.size());
+        AtomicInteger remaining = new AtomicInteger(names.size());
+        List<Future<?>> tasks = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            int index = i;
+            String name = names.get(i);
+            tasks.add(executor.submit(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+                ScheduledFuture<?> timeout = watchdog == null ? null
+                        : watchdog.schedule(() -> result.completeExceptionally(
+                                new TimeoutException("加载 " + name + " 的元数据超过 " + timeoutMs + "ms")),
+                                timeoutMs, TimeUnit.MILLISECONDS);
+                try {
+                    values.set(index, loader.apply(name));
+                    if (remaining.decrementAndGet() == 0) {
+                        LinkedHashMap<String, T> map = new LinkedHashMap<>();
+                        for (int j = 0; j < names.size(); j++) {
+                            map.put(names.get(j), values.get(j));
+                        }
+                        result.complete(map);
+                    }
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    if (timeout != null) {
+                        timeout.cancel(false);
+                    }
+                }
+            }));
+        }
+        result.whenComplete((map, e) -> {
+            if (e != null) {
+                tasks.forEach(task -> task.cancel(true));
+            }
+            executor.shutdown();
+            if (watchdog != null) {
+                watchdog.shutdownNow();
+            }
+        });
+        return result;
+    }
+
+    private static ThreadFactory daemonThreadFactory(String namePrefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+}
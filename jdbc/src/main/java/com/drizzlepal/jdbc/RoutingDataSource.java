@@ -0,0 +1,564 @@
+package com.drizzlepal.jdbc;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import com.drizzlepal.jdbc.exception.ConnectionOperationException;
+import com.drizzlepal.jdbc.exception.JdbcException;
+import com.drizzlepal.jdbc.exception.UnknownDatabaseException;
+import com.drizzlepal.jdbc.export.ExportOptions;
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.DatabaseMetaData;
+import com.drizzlepal.jdbc.metadata.IndexMetaData;
+import com.drizzlepal.jdbc.metadata.PrimaryKeyMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.metadata.TableStatistics;
+import com.drizzlepal.jdbc.metrics.PoolStats;
+import com.drizzlepal.jdbc.sql.SqlBuilder;
+import com.drizzlepal.jdbc.write.BatchWriter;
+import com.drizzlepal.jdbc.write.UpsertWriter;
+import com.drizzlepal.utils.functions.ConsumerThrowable;
+import com.drizzlepal.utils.functions.FunctionThrowable;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 读写分离数据源，由一个主库和若干只读副本组成，每个节点各自持有连接池
+ * <p>
+ * 查询与元数据读取路由到当前未完成请求最少的副本，写入以及 {@link #getConnection()}、
+ * {@link #doWithConnection(ConsumerThrowable)} 这类调用方可能写入或开启事务的操作路由到主库。
+ * 后台按固定间隔检查各副本的复制延迟，超过阈值或无法连接的副本暂停接收读请求，恢复后重新启用；
+ * 没有可用副本时读请求回退到主库
+ */
+@Slf4j
+public class RoutingDataSource implements DataSource {
+
+    private static final AtomicInteger ROUTER_SEQUENCE = new AtomicInteger();
+
+    private final Node primary;
+
+    private final List<Node> replicas;
+
+    private final long maxLagMs;
+
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    private final ScheduledExecutorService lagChecker;
+
+    /**
+     * @param primaryConfig  主库配置，副本延迟阈值与检查间隔取自该配置
+     * @param replicaConfigs 只读副本配置
+     */
+    public RoutingDataSource(DefaultDatabaseConfig primaryConfig, List<DefaultDatabaseConfig> replicaConfigs) {
+        this.maxLagMs = primaryConfig.getReplicaMaxLagMs();
+        this.primary = new Node("primary", primaryConfig);
+        this.replicas = new ArrayList<>(replicaConfigs.size());
+        for (DefaultDatabaseConfig replicaConfig : replicaConfigs) {
+            replicas.add(new Node(replicaConfig.getHost() + ":" + replicaConfig.getPort(), replicaConfig));
+        }
+        long intervalMs = primaryConfig.getReplicaLagCheckIntervalMs();
+        if (intervalMs > 0 && !replicas.isEmpty()) {
+            String threadName = "drizzlepal-replica-lag-" + ROUTER_SEQUENCE.incrementAndGet();
+            this.lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+            lagChecker.scheduleWithFixedDelay(this::checkReplicationLag, 0, intervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.lagChecker = null;
+        }
+    }
+
+    /**
+     * @return 当前可以接收读请求的副本数
+     */
+    public int getAvailableReplicaCount() {
+        int count = 0;
+        for (Node replica : replicas) {
+            if (!replica.ejected) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (lagChecker != null) {
+            lagChecker.shutdownNow();
+        }
+        Exception failure = null;
+        for (Node replica : replicas) {
+            try {
+                replica.dataSource.close();
+            } catch (Exception e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        primary.dataSource.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return primary.dataSource.getConnection();
+    }
+
+    @Override
+    public void doWithConnection(ConsumerThrowable<Connection> thingsToDo) throws ConnectionOperationException {
+        primary.dataSource.doWithConnection(thingsToDo);
+    }
+
+    @Override
+    public PoolStats getPoolStats() {
+        PoolStats stats = primary.dataSource.getPoolStats();
+        for (Node replica : replicas) {
+            stats = stats.plus(replica.dataSource.getPoolStats());
+        }
+        return stats;
+    }
+
+    @Override
+    public long query(String sql, ConsumerThrowable<ResultSet> rowHandler, Object... params)
+            throws ConnectionOperationException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.query(sql, rowHandler, params);
+        } finally {
+            node.release();
+        }
+    }
+
+    /**
+     * 返回的 Stream 关闭后才释放所在副本的未完成请求计数
+     */
+    @Override
+    public <T> Stream<T> queryForStream(String sql, FunctionThrowable<ResultSet, T> rowMapper, Object... params)
+            throws SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.queryForStream(sql, rowMapper, params).onClose(node::release);
+        } catch (SQLException | RuntimeException e) {
+            node.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public long export(String sql, Path file, ExportOptions options, Object... params) throws JdbcException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.export(sql, file, options, params);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public SqlBuilder getSqlBuilder() {
+        return primary.dataSource.getSqlBuilder();
+    }
+
+    @Override
+    public BatchWriter openBatchWriter(TableMetaData tableMetaData, int batchSize, int commitRows) throws SQLException {
+        return primary.dataSource.openBatchWriter(tableMetaData, batchSize, commitRows);
+    }
+
+    @Override
+    public UpsertWriter openUpsertWriter(TableMetaData tableMetaData, List<String> keyColumns, int batchSize)
+            throws SQLException {
+        return primary.dataSource.openUpsertWriter(tableMetaData, keyColumns, batchSize);
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData() throws UnknownDatabaseException, SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getMetaData();
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData(String schema, String databaseName) throws SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getMetaData(schema, databaseName);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Map<String, DatabaseMetaData>> crawlMetaData(String schema, List<String> databaseNames,
+            long timeoutMs) {
+        Node node = acquireReader();
+        CompletableFuture<Map<String, DatabaseMetaData>> future = node.dataSource.crawlMetaData(schema,
+                databaseNames, timeoutMs);
+        future.whenComplete((result, failure) -> node.release());
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Map<String, TableMetaData>> crawlTableMetaData(String schema, String databaseName,
+            List<String> tableNames, long timeoutMs) {
+        Node node = acquireReader();
+        CompletableFuture<Map<String, TableMetaData>> future = node.dataSource.crawlTableMetaData(schema,
+                databaseName, tableNames, timeoutMs);
+        future.whenComplete((result, failure) -> node.release());
+        return future;
+    }
+
+    @Override
+    public Map<String, String> getTableVersions(String schema, String databaseName) throws SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getTableVersions(schema, databaseName);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public Map<String, TableStatistics> getTableStatistics(String schema, String databaseName) throws SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getTableStatistics(schema, databaseName);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public TableStatistics getTableStatistics(String tableName, boolean exact)
+            throws UnknownDatabaseException, SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getTableStatistics(tableName, exact);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public TableStatistics getTableStatistics(String schema, String databaseName, String tableName, boolean exact)
+            throws SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getTableStatistics(schema, databaseName, tableName, exact);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public TableMetaData getTableMetaData(String tableName) throws UnknownDatabaseException, SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getTableMetaData(tableName);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public TableMetaData getTableMetaData(String schema, String databaseName, String tableName) throws SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getTableMetaData(schema, databaseName, tableName);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public ColumnMetaData getColumnMetaData(String tableName, String columnName)
+            throws UnknownDatabaseException, SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getColumnMetaData(tableName, columnName);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public ColumnMetaData getColumnMetaData(String schema, String databaseName, String tableName, String columnName)
+            throws SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getColumnMetaData(schema, databaseName, tableName, columnName);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public ArrayList<ColumnMetaData> getColumnMetaData(String tableName) throws UnknownDatabaseException, SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getColumnMetaData(tableName);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public ArrayList<ColumnMetaData> getColumnMetaData(String schema, String databaseName, String tableName)
+            throws SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getColumnMetaData(schema, databaseName, tableName);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public Map<String, ArrayList<IndexMetaData>> getIndexMetaData(String tableName, boolean unique)
+            throws UnknownDatabaseException, SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getIndexMetaData(tableName, unique);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public Map<String, ArrayList<IndexMetaData>> getIndexMetaData(String schema, String databaseName, String tableName,
+            boolean unique) throws SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getIndexMetaData(schema, databaseName, tableName, unique);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public ArrayList<PrimaryKeyMetaData> getPrimaryKeys(String tableName)
+            throws SQLException, UnknownDatabaseException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getPrimaryKeys(tableName);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public ArrayList<PrimaryKeyMetaData> getPrimaryKeys(String schema, String databaseName, String tableName)
+            throws SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getPrimaryKeys(schema, databaseName, tableName);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public List<String> getDatabaseNames() throws UnknownDatabaseException, SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getDatabaseNames();
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public List<String> getTableNames() throws UnknownDatabaseException, SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getTableNames();
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public List<String> getTableNames(String databaseName) throws UnknownDatabaseException, SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getTableNames(databaseName);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public List<String> getResultSetMetaDataColumnLabels(ResultSet resultSet) throws SQLException {
+        return primary.dataSource.getResultSetMetaDataColumnLabels(resultSet);
+    }
+
+    @Override
+    public List<String> getDefaultColumnsResultSetMetaDataColumnLabels(String tableName)
+            throws UnknownDatabaseException, SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getDefaultColumnsResultSetMetaDataColumnLabels(tableName);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public List<String> getDefaultColumnsResultSetMetaDataColumnLabels(String schema, String databaseName,
+            String tableName) throws SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getDefaultColumnsResultSetMetaDataColumnLabels(schema, databaseName, tableName);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public List<String> getDefaultIndexesResultSetMetaDataColumnLabels(String tableName)
+            throws UnknownDatabaseException, SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getDefaultIndexesResultSetMetaDataColumnLabels(tableName);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public List<String> getDefaultIndexesResultSetMetaDataColumnLabels(String schema, String databaseName,
+            String tableName) throws SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getDefaultIndexesResultSetMetaDataColumnLabels(schema, databaseName, tableName);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public List<String> getDefaultTableResultSetMetaDataColumnLabels(String tableName)
+            throws UnknownDatabaseException, SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getDefaultTableResultSetMetaDataColumnLabels(tableName);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public List<String> getDefaultTableResultSetMetaDataColumnLabels(String schema, String databaseName,
+            String tableName) throws SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getDefaultTableResultSetMetaDataColumnLabels(schema, databaseName, tableName);
+        } finally {
+            node.release();
+        }
+    }
+
+    @Override
+    public ArrayList<ColumnMetaData> getColumnMetaDataFormSql(String sql) throws SQLException {
+        Node node = acquireReader();
+        try {
+            return node.dataSource.getColumnMetaDataFormSql(sql);
+        } finally {
+            node.release();
+        }
+    }
+
+    /**
+     * 选择未完成请求最少的可用副本，从轮转位置开始比较，请求数相同时依次分摊到各副本
+     */
+    private Node acquireReader() {
+        Node selected = null;
+        int size = replicas.size();
+        if (size > 0) {
+            int start = Math.floorMod(cursor.getAndIncrement(), size);
+            int least = Integer.MAX_VALUE;
+            for (int i = 0; i < size; i++) {
+                Node replica = replicas.get((start + i) % size);
+                int outstanding = replica.outstanding.get();
+                if (!replica.ejected && outstanding < least) {
+                    selected = replica;
+                    least = outstanding;
+                }
+            }
+        }
+        if (selected == null) {
+            selected = primary;
+        }
+        selected.outstanding.incrementAndGet();
+        return selected;
+    }
+
+    private void checkReplicationLag() {
+        for (Node replica : replicas) {
+            boolean eject;
+            try (Connection connection = replica.pool.getConnection()) {
+                Long lagMs = replica.pool.getReplicationLagMs(connection);
+                eject = lagMs != null && lagMs > maxLagMs;
+                if (eject && !replica.ejected) {
+                    log.warn("只读副本 {} 复制延迟 {}ms 超过 {}ms，暂停读请求路由", replica.name, lagMs, maxLagMs);
+                }
+            } catch (Exception e) {
+                eject = true;
+                if (!replica.ejected) {
+                    log.warn("只读副本 {} 检查复制延迟失败，暂停读请求路由", replica.name, e);
+                }
+            }
+            if (!eject && replica.ejected) {
+                log.info("只读副本 {} 已恢复，重新启用读请求路由", replica.name);
+            }
+            replica.ejected = eject;
+        }
+    }
+
+    /**
+     * 一个数据库节点，元数据缓存按节点各自启用
+     */
+    private static final class Node {
+
+        private final String name;
+
+        private final DefaultDataSource pool;
+
+        private final DataSource dataSource;
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private volatile boolean ejected;
+
+        Node(String name, DefaultDatabaseConfig config) {
+            this.name = name;
+            this.pool = config.getDatabaseType().initDataSource(config);
+            this.dataSource = config.getMetaDataCacheTtlMs() > 0
+                    ? new MetaDataCachingDataSource(pool, config.getMetaDataCacheTtlMs(),
+                            config.getMetaDataCacheMaxEntries())
+                    : pool;
+        }
+
+        void release() {
+            outstanding.decrementAndGet();
+        }
+
+    }
+
+}
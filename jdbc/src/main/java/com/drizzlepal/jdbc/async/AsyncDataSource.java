@@ -0,0 +1,339 @@
+package com.drizzlepal.jdbc.async;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.drizzlepal.jdbc.DataSource;
+import com.drizzlepal.utils.functions.ConsumerThrowable;
+import com.drizzlepal.utils.functions.FunctionThrowable;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 以 CompletableFuture 返回结果的异步查询门面，查询在执行器线程中阻塞执行，调用线程不等待连接和结果
+ * <p>
+ * 同时执行的查询数不超过连接池最大连接数，超出的调用在内存队列中排队，排队不占用线程；
+ * 默认执行器在支持虚拟线程的运行时（Java 21 及以上）为每个查询创建虚拟线程，否则使用与并发上限相同大小的固定线程池。
+ * 超时从调用时开始计算，排队期间超时的调用不再执行，执行期间超时或返回的 future 被取消时通过 Statement.cancel
+ * 中止正在执行的语句
+ */
+@Slf4j
+public class AsyncDataSource implements AutoCloseable {
+
+    private static final AtomicInteger ASYNC_SEQUENCE = new AtomicInteger();
+
+    private final DataSource dataSource;
+
+    private final Executor executor;
+
+    private final ExecutorService ownedExecutor;
+
+    private final int maxConcurrency;
+
+    private final ScheduledExecutorService timer;
+
+    private final ConcurrentLinkedQueue<Call<?>> waiting = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    /**
+     * 使用默认执行器，并发上限为连接池最大连接数
+     *
+     * @param dataSource 数据源
+     */
+    public AsyncDataSource(DataSource dataSource) {
+        this(dataSource, null, dataSource.getPoolStats().getMaximum());
+    }
+
+    /**
+     * @param dataSource     数据源
+     * @param executor       执行查询的执行器，为 null 时使用默认执行器，传入的执行器不随门面关闭
+     * @param maxConcurrency 同时执行的查询数上限，通常为连接池最大连接数
+     */
+    public AsyncDataSource(DataSource dataSource, Executor executor, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        String prefix = "drizzlepal-async-" + ASYNC_SEQUENCE.incrementAndGet() + "-";
+        this.dataSource = dataSource;
+        this.maxConcurrency = maxConcurrency;
+        this.ownedExecutor = executor == null ? defaultExecutor(prefix, maxConcurrency) : null;
+        this.executor = executor == null ? ownedExecutor : executor;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, prefix + "timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 运行时支持虚拟线程时返回每个任务一个虚拟线程的执行器，否则返回固定大小的守护线程池
+     *
+     * @param threadNamePrefix 平台线程名前缀
+     * @param threads          平台线程数
+     * @return 执行器
+     */
+    public static ExecutorService defaultExecutor(String threadNamePrefix, int threads) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadSequence = new AtomicInteger();
+            return Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, threadNamePrefix + threadSequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * 执行查询并逐行回调，回调在执行器线程中执行
+     *
+     * @param sql        查询sql
+     * @param rowHandler 行处理函数
+     * @param timeoutMs  超时时间，小于等于 0 表示不限时
+     * @param params     sql参数
+     * @return 处理的行数
+     */
+    public CompletableFuture<Long> query(String sql, ConsumerThrowable<ResultSet> rowHandler, long timeoutMs,
+            Object... params) {
+        return submit(timeoutMs, call -> {
+            long rows = 0;
+            try (PreparedStatement statement = call.prepare(sql, params);
+                    ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    rowHandler.accept(resultSet);
+                    rows++;
+                }
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * 执行查询并把映射后的全部行加载到内存中
+     *
+     * @param <T>       行映射结果类型
+     * @param sql       查询sql
+     * @param rowMapper 行映射函数
+     * @param timeoutMs 超时时间，小于等于 0 表示不限时
+     * @param params    sql参数
+     * @return 映射后的行
+     */
+    public <T> CompletableFuture<List<T>> queryForList(String sql, FunctionThrowable<ResultSet, T> rowMapper,
+            long timeoutMs, Object... params) {
+        return submit(timeoutMs, call -> {
+            ArrayList<T> rows = new ArrayList<>();
+            try (PreparedStatement statement = call.prepare(sql, params);
+                    ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    rows.add(rowMapper.apply(resultSet));
+                }
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * 执行 INSERT、UPDATE、DELETE 或 DDL
+     *
+     * @param sql       sql
+     * @param timeoutMs 超时时间，小于等于 0 表示不限时
+     * @param params    sql参数
+     * @return 影响的行数
+     */
+    public CompletableFuture<Integer> update(String sql, long timeoutMs, Object... params) {
+        return submit(timeoutMs, call -> {
+            try (PreparedStatement statement = call.prepare(sql, params)) {
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * 在一个连接上执行任意操作，操作中自行创建的语句不受超时控制，超时只让返回的 future 提前结束
+     *
+     * @param <T>        结果类型
+     * @param thingsToDo 使用连接的操作
+     * @param timeoutMs  超时时间，小于等于 0 表示不限时
+     * @return 操作结果
+     */
+    public <T> CompletableFuture<T> withConnection(FunctionThrowable<Connection, T> thingsToDo, long timeoutMs) {
+        return submit(timeoutMs, call -> thingsToDo.apply(call.connection));
+    }
+
+    /**
+     * @return 排队等待执行的调用数
+     */
+    public int getQueuedCount() {
+        return waiting.size();
+    }
+
+    /**
+     * @return 正在执行的调用数
+     */
+    public int getRunningCount() {
+        return running.get();
+    }
+
+    /**
+     * 关闭默认执行器与超时计时器，不关闭数据源；排队中的调用以 RejectedExecutionException 结束
+     */
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+        Call<?> call;
+        while ((call = waiting.poll()) != null) {
+            call.future.completeExceptionally(new RejectedExecutionException("async data source is closed"));
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(long timeoutMs, Work<T> work) {
+        Call<T> call = new Call<>(work);
+        if (timeoutMs > 0) {
+            try {
+                call.timeoutTask = timer.schedule(() -> call.future.completeExceptionally(
+                        new TimeoutException("查询超过 " + timeoutMs + "ms 未完成")), timeoutMs,
+                        TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                call.future.completeExceptionally(e);
+                return call.future;
+            }
+        }
+        waiting.add(call);
+        drain();
+        return call.future;
+    }
+
+    /**
+     * 在并发上限内从队列取出调用交给执行器，调用结束后再次检查队列
+     */
+    private void drain() {
+        while (!waiting.isEmpty()) {
+            int current = running.get();
+            if (current >= maxConcurrency) {
+                return;
+            }
+            if (!running.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Call<?> call = waiting.poll();
+            if (call == null) {
+                running.decrementAndGet();
+                continue;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        call.run();
+                    } finally {
+                        running.decrementAndGet();
+                        drain();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                running.decrementAndGet();
+                call.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Work<T> {
+
+        T run(Call<T> call) throws Throwable;
+
+    }
+
+    /**
+     * 一次异步调用，future 提前结束（超时或被取消）时中止正在执行的语句
+     */
+    private final class Call<T> {
+
+        private final Work<T> work;
+
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private final AtomicReference<PreparedStatement> statement = new AtomicReference<>();
+
+        private volatile ScheduledFuture<?> timeoutTask;
+
+        private Connection connection;
+
+        Call(Work<T> work) {
+            this.work = work;
+            future.whenComplete((result, failure) -> {
+                if (failure != null) {
+                    cancelStatement();
+                }
+            });
+        }
+
+        PreparedStatement prepare(String sql, Object... params) throws SQLException {
+            PreparedStatement prepared = connection.prepareStatement(sql);
+            statement.set(prepared);
+            for (int i = 0; i < params.length; i++) {
+                prepared.setObject(i + 1, params[i]);
+            }
+            if (future.isDone()) {
+                // 超时或取消发生在语句创建之前
+                cancelStatement();
+            }
+            return prepared;
+        }
+
+        void run() {
+            if (future.isDone()) {
+                return;
+            }
+            try (Connection borrowed = dataSource.getConnection()) {
+                connection = borrowed;
+                T result = work.run(this);
+                statement.set(null);
+                future.complete(result);
+            } catch (Throwable e) {
+                statement.set(null);
+                future.completeExceptionally(e);
+            } finally {
+                ScheduledFuture<?> task = timeoutTask;
+                if (task != null) {
+                    task.cancel(false);
+                }
+            }
+        }
+
+        private void cancelStatement() {
+            PreparedStatement executing = statement.getAndSet(null);
+            if (executing != null) {
+                try {
+                    executing.cancel();
+                } catch (SQLException e) {
+                    log.debug("取消语句失败", e);
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.drizzlepal.jdbc.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * 一列数据，值连续存放在基本类型数组中，NULL 记录在位图中，没有 NULL 的列不分配位图
+ * <p>
+ * 切片与原列共享底层数组，只记录起始位置和长度；读取时的行号从 0 开始，相对于切片起点
+ */
+public abstract class ColumnVector {
+
+    private final String name;
+
+    private final int sqlType;
+
+    final int offset;
+
+    int length;
+
+    long[] nulls;
+
+    ColumnVector(String name, int sqlType, int offset, int length, long[] nulls) {
+        this.name = name;
+        this.sqlType = sqlType;
+        this.offset = offset;
+        this.length = length;
+        this.nulls = nulls;
+    }
+
+    /**
+     * @return 列标签
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return 列的 java.sql.Types 类型代码
+     */
+    public int getSqlType() {
+        return sqlType;
+    }
+
+    /**
+     * @return 行数
+     */
+    public int size() {
+        return length;
+    }
+
+    public boolean isNull(int row) {
+        int index = index(row);
+        long[] bitmap = nulls;
+        return bitmap != null && (bitmap[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return NULL 值的个数
+     */
+    public int getNullCount() {
+        if (nulls == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            if ((nulls[i >>> 6] & (1L << i)) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 按列类型装箱读取，NULL 返回 null
+     *
+     * @param row 行号
+     * @return 值
+     */
+    public abstract Object getObject(int row);
+
+    /**
+     * 返回与当前列共享底层数组的切片
+     *
+     * @param from   起始行号
+     * @param length 行数
+     * @return 切片
+     */
+    public abstract ColumnVector slice(int from, int length);
+
+    /**
+     * @return 底层数组占用内存的估算值，对象列不含对象本身
+     */
+    public abstract long getMemoryBytes();
+
+    /**
+     * 读取结果集当前行的一列追加到末尾，只在构建时调用
+     */
+    abstract void append(ResultSet resultSet, int column) throws SQLException;
+
+    /**
+     * 把底层数组收缩到实际行数，只在构建结束时调用
+     */
+    abstract void trim();
+
+    final int index(int row) {
+        if (row < 0 || row >= length) {
+            throw new IndexOutOfBoundsException("row " + row + ", size " + length);
+        }
+        return offset + row;
+    }
+
+    final int checkSlice(int from, int sliceLength) {
+        if (from < 0 || sliceLength < 0 || from > length - sliceLength) {
+            throw new IndexOutOfBoundsException("slice [" + from + ", " + (from + sliceLength) + "), size " + length);
+        }
+        return offset + from;
+    }
+
+    final void markNull(int index) {
+        int word = index >>> 6;
+        if (nulls == null) {
+            nulls = new long[Math.max(word + 1, 16)];
+        } else if (word >= nulls.length) {
+            nulls = Arrays.copyOf(nulls, Math.max(word + 1, nulls.length + (nulls.length >> 1)));
+        }
+        nulls[word] |= 1L << index;
+    }
+
+    /**
+     * 位图只在出现 NULL 时按需扩展，构建结束时按行数调整为恰好覆盖全部行，读取时不再检查越界
+     */
+    final void trimNulls() {
+        int words = (length + 63) >>> 6;
+        if (nulls != null && nulls.length != words) {
+            nulls = Arrays.copyOf(nulls, words);
+        }
+    }
+
+    final long nullsBytes() {
+        return nulls == null ? 0 : 8L * nulls.length;
+    }
+
+    static int grow(int capacity, int required) {
+        int grown = capacity + (capacity >> 1) + 16;
+        return grown < required || grown < 0 ? required : grown;
+    }
+
+}
@@ -0,0 +1,235 @@
+package com.drizzlepal.jdbc.columnar;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.drizzlepal.jdbc.DataSource;
+import com.drizzlepal.jdbc.exception.ConnectionOperationException;
+
+/**
+ * 按列存放的内存查询结果，数值列不装箱，字符串列字典编码，用于把大结果集整体加载到内存中分析
+ * <p>
+ * 结果构建完成后只读，可以在线程间共享；切片与原结果共享各列的底层数组。
+ * 按列扫描时直接使用 {@link #getColumn(int)} 返回的列，按行处理时使用迭代器返回的行视图，行视图在迭代过程中复用
+ */
+public final class ColumnarResult implements Iterable<ColumnarResult.RowView> {
+
+    private final ColumnVector[] columns;
+
+    private final int rowCount;
+
+    private final Map<String, Integer> indexOfName;
+
+    ColumnarResult(ColumnVector[] columns, int rowCount) {
+        this.columns = columns;
+        this.rowCount = rowCount;
+        this.indexOfName = new HashMap<>();
+        for (int i = columns.length - 1; i >= 0; i--) {
+            // 重名的列按名称访问时取第一列
+            indexOfName.put(columns[i].getName(), i);
+        }
+    }
+
+    private ColumnarResult(ColumnVector[] columns, int rowCount, Map<String, Integer> indexOfName) {
+        this.columns = columns;
+        this.rowCount = rowCount;
+        this.indexOfName = indexOfName;
+    }
+
+    /**
+     * 流式执行查询并把全部行读入列式存储
+     *
+     * @param dataSource 数据源
+     * @param sql        查询sql
+     * @param params     sql参数
+     * @return 列式结果
+     * @throws ConnectionOperationException 如果执行查询时发生异常
+     */
+    public static ColumnarResult query(DataSource dataSource, String sql, Object... params)
+            throws ConnectionOperationException {
+        ColumnarResultBuilder builder = new ColumnarResultBuilder();
+        dataSource.query(sql, builder, params);
+        return builder.build();
+    }
+
+    /**
+     * @return 行数
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return 列数
+     */
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * @param index 列序号，从 0 开始
+     * @return 列
+     */
+    public ColumnVector getColumn(int index) {
+        return columns[index];
+    }
+
+    /**
+     * @param name 列标签，区分大小写
+     * @return 列
+     * @throws IllegalArgumentException 如果列不存在
+     */
+    public ColumnVector getColumn(String name) {
+        return columns[getColumnIndex(name)];
+    }
+
+    /**
+     * @param name 列标签，区分大小写
+     * @return 列序号，从 0 开始
+     * @throws IllegalArgumentException 如果列不存在
+     */
+    public int getColumnIndex(String name) {
+        Integer index = indexOfName.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("列 " + name + " 不存在");
+        }
+        return index;
+    }
+
+    /**
+     * 返回与当前结果共享底层数组的切片，不复制数据
+     *
+     * @param from   起始行号
+     * @param length 行数
+     * @return 切片
+     */
+    public ColumnarResult slice(int from, int length) {
+        if (from < 0 || length < 0 || from > rowCount - length) {
+            throw new IndexOutOfBoundsException("slice [" + from + ", " + (from + length) + "), size " + rowCount);
+        }
+        ColumnVector[] sliced = new ColumnVector[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            sliced[i] = columns[i].slice(from, length);
+        }
+        return new ColumnarResult(sliced, length, indexOfName);
+    }
+
+    /**
+     * @return 各列底层数组占用内存的估算值，切片返回的是共享数组的大小
+     */
+    public long getMemoryBytes() {
+        long bytes = 0;
+        for (ColumnVector column : columns) {
+            bytes += column.getMemoryBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * 返回的迭代器每次 next 返回同一个行视图对象，指向下一行；需要保留某一行时读取出其中的值
+     */
+    @Override
+    public Iterator<RowView> iterator() {
+        RowView view = new RowView();
+        return new Iterator<RowView>() {
+
+            @Override
+            public boolean hasNext() {
+                return view.row + 1 < rowCount;
+            }
+
+            @Override
+            public RowView next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                view.row++;
+                return view;
+            }
+
+        };
+    }
+
+    /**
+     * 结果中一行的只读视图，按列序号（从 0 开始）或列标签读取，类型化读取方法在 NULL 时返回 0
+     */
+    public final class RowView {
+
+        private int row = -1;
+
+        private RowView() {
+        }
+
+        /**
+         * @return 当前行号
+         */
+        public int getRow() {
+            return row;
+        }
+
+        public boolean isNull(int column) {
+            return columns[column].isNull(row);
+        }
+
+        public long getLong(int column) {
+            ColumnVector vector = columns[column];
+            if (vector instanceof LongColumnVector) {
+                return ((LongColumnVector) vector).getLong(row);
+            }
+            Object value = vector.getObject(row);
+            return value == null ? 0 : ((Number) value).longValue();
+        }
+
+        public int getInt(int column) {
+            return (int) getLong(column);
+        }
+
+        public double getDouble(int column) {
+            ColumnVector vector = columns[column];
+            if (vector instanceof DoubleColumnVector) {
+                return ((DoubleColumnVector) vector).getDouble(row);
+            } else if (vector instanceof LongColumnVector) {
+                return ((LongColumnVector) vector).getLong(row);
+            }
+            Object value = vector.getObject(row);
+            return value == null ? 0 : ((Number) value).doubleValue();
+        }
+
+        public String getString(int column) {
+            ColumnVector vector = columns[column];
+            if (vector instanceof StringColumnVector) {
+                return ((StringColumnVector) vector).getString(row);
+            }
+            Object value = vector.getObject(row);
+            return value == null ? null : value.toString();
+        }
+
+        public Object getObject(int column) {
+            return columns[column].getObject(row);
+        }
+
+        public boolean isNull(String column) {
+            return isNull(getColumnIndex(column));
+        }
+
+        public long getLong(String column) {
+            return getLong(getColumnIndex(column));
+        }
+
+        public double getDouble(String column) {
+            return getDouble(getColumnIndex(column));
+        }
+
+        public String getString(String column) {
+            return getString(getColumnIndex(column));
+        }
+
+        public Object getObject(String column) {
+            return getObject(getColumnIndex(column));
+        }
+
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.drizzlepal.jdbc.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Locale;
+
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.utils.MetaDataUtils;
+import com.drizzlepal.utils.functions.ConsumerThrowable;
+
+/**
+ * 逐行把结果集读入列式存储，可以直接作为 {@link com.drizzlepal.jdbc.DataSource#query} 的行处理函数
+ * <p>
+ * 列的存储方式按 ColumnMetaData.datatype 选择：整数与布尔使用 long 数组，浮点使用 double 数组，
+ * 定长与变长字符串使用字典编码，其余类型以对象保存；BIGINT UNSIGNED 可能超出 long 的范围，以对象保存
+ */
+public class ColumnarResultBuilder implements ConsumerThrowable<ResultSet> {
+
+    private final int initialCapacity;
+
+    private ColumnVector[] columns;
+
+    private int rows;
+
+    private boolean built;
+
+    /**
+     * 读取第一行时按结果集元数据创建列
+     */
+    public ColumnarResultBuilder() {
+        this(null, 1024);
+    }
+
+    /**
+     * @param columnMetaDatas 按顺序排列的查询列，为 null 时读取第一行时按结果集元数据创建列
+     * @param initialCapacity 预计行数，按此分配各列数组的初始容量
+     */
+    public ColumnarResultBuilder(List<ColumnMetaData> columnMetaDatas, int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must not be negative");
+        }
+        this.initialCapacity = initialCapacity;
+        if (columnMetaDatas != null) {
+            init(columnMetaDatas);
+        }
+    }
+
+    /**
+     * 读取结果集剩余的全部行
+     *
+     * @param resultSet 结果集
+     * @return 列式结果
+     * @throws SQLException 如果读取结果集时发生SQL异常
+     */
+    public static ColumnarResult read(ResultSet resultSet) throws SQLException {
+        ColumnarResultBuilder builder = new ColumnarResultBuilder(
+                MetaDataUtils.resultSetMetaDataAsColumnMetaDatas(resultSet.getMetaData()), 1024);
+        while (resultSet.next()) {
+            builder.append(resultSet);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void accept(ResultSet resultSet) throws SQLException {
+        if (columns == null) {
+            init(MetaDataUtils.resultSetMetaDataAsColumnMetaDatas(resultSet.getMetaData()));
+        }
+        append(resultSet);
+    }
+
+    /**
+     * 结束构建，收缩各列数组到实际行数；之后不能再追加行
+     *
+     * @return 列式结果，没有读取到任何行且没有指定列时不含列
+     */
+    public ColumnarResult build() {
+        if (built) {
+            throw new IllegalStateException("columnar result is already built");
+        }
+        built = true;
+        if (columns == null) {
+            return new ColumnarResult(new ColumnVector[0], 0);
+        }
+        for (ColumnVector column : columns) {
+            column.trim();
+        }
+        return new ColumnarResult(columns, rows);
+    }
+
+    private void append(ResultSet resultSet) throws SQLException {
+        if (built) {
+            throw new IllegalStateException("columnar result is already built");
+        }
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].append(resultSet, i + 1);
+        }
+        rows++;
+    }
+
+    private void init(List<ColumnMetaData> columnMetaDatas) {
+        this.columns = new ColumnVector[columnMetaDatas.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = vector(columnMetaDatas.get(i), initialCapacity);
+        }
+    }
+
+    static ColumnVector vector(ColumnMetaData column, int capacity) {
+        String name = column.getName();
+        int sqlType = column.getDatatype();
+        switch (sqlType) {
+            case Types.BIGINT:
+                String typeName = column.getTypeName();
+                if (typeName != null && typeName.toUpperCase(Locale.ROOT).contains("UNSIGNED")) {
+                    return new ObjectColumnVector(name, sqlType, capacity);
+                }
+                return new LongColumnVector(name, sqlType, capacity);
+            case Types.BIT:
+            case Types.BOOLEAN:
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return new LongColumnVector(name, sqlType, capacity);
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return new DoubleColumnVector(name, sqlType, capacity);
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+                return new StringColumnVector(name, sqlType, capacity);
+            default:
+                return new ObjectColumnVector(name, sqlType, capacity);
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.drizzlepal.jdbc.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * 浮点列，值存放在 double 数组中
+ */
+public final class DoubleColumnVector extends ColumnVector {
+
+    private double[] values;
+
+    DoubleColumnVector(String name, int sqlType, int capacity) {
+        super(name, sqlType, 0, 0, null);
+        this.values = new double[capacity];
+    }
+
+    private DoubleColumnVector(DoubleColumnVector source, int offset, int length) {
+        super(source.getName(), source.getSqlType(), offset, length, source.nulls);
+        this.values = source.values;
+    }
+
+    /**
+     * @param row 行号
+     * @return 值，NULL 读取为 0
+     */
+    public double getDouble(int row) {
+        return values[index(row)];
+    }
+
+    @Override
+    public Object getObject(int row) {
+        if (isNull(row)) {
+            return null;
+        }
+        double value = values[offset + row];
+        int sqlType = getSqlType();
+        return sqlType == Types.REAL || sqlType == Types.FLOAT ? (Object) (float) value : (Object) value;
+    }
+
+    @Override
+    public DoubleColumnVector slice(int from, int length) {
+        return new DoubleColumnVector(this, checkSlice(from, length), length);
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        return 8L * values.length + nullsBytes();
+    }
+
+    @Override
+    void append(ResultSet resultSet, int column) throws SQLException {
+        double value = resultSet.getDouble(column);
+        if (length == values.length) {
+            values = Arrays.copyOf(values, grow(values.length, length + 1));
+        }
+        if (resultSet.wasNull()) {
+            markNull(length);
+        }
+        values[length++] = value;
+    }
+
+    @Override
+    void trim() {
+        if (values.length != length) {
+            values = Arrays.copyOf(values, length);
+        }
+        trimNulls();
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.drizzlepal.jdbc.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * 整数与布尔列，值存放在 long 数组中
+ */
+public final class LongColumnVector extends ColumnVector {
+
+    private long[] values;
+
+    LongColumnVector(String name, int sqlType, int capacity) {
+        super(name, sqlType, 0, 0, null);
+        this.values = new long[capacity];
+    }
+
+    private LongColumnVector(LongColumnVector source, int offset, int length) {
+        super(source.getName(), source.getSqlType(), offset, length, source.nulls);
+        this.values = source.values;
+    }
+
+    /**
+     * @param row 行号
+     * @return 值，NULL 读取为 0
+     */
+    public long getLong(int row) {
+        return values[index(row)];
+    }
+
+    /**
+     * TINYINT 与 SMALLINT 按 Integer 返回，无符号类型（MySQL UNSIGNED、SQL Server TINYINT）的值不会被截断为负数
+     */
+    @Override
+    public Object getObject(int row) {
+        if (isNull(row)) {
+            return null;
+        }
+        long value = values[offset + row];
+        switch (getSqlType()) {
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return value != 0;
+            case Types.TINYINT:
+            case Types.SMALLINT:
+                return (int) value;
+            case Types.INTEGER:
+                if (value == (int) value) {
+                    return (int) value;
+                }
+                // INT UNSIGNED 超出 int 范围时与驱动一样返回 Long
+                return value;
+            default:
+                return value;
+        }
+    }
+
+    @Override
+    public LongColumnVector slice(int from, int length) {
+        return new LongColumnVector(this, checkSlice(from, length), length);
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        return 8L * values.length + nullsBytes();
+    }
+
+    @Override
+    void append(ResultSet resultSet, int column) throws SQLException {
+        long value;
+        int sqlType = getSqlType();
+        if (sqlType == Types.BIT || sqlType == Types.BOOLEAN) {
+            value = resultSet.getBoolean(column) ? 1 : 0;
+        } else {
+            value = resultSet.getLong(column);
+        }
+        if (length == values.length) {
+            values = Arrays.copyOf(values, grow(values.length, length + 1));
+        }
+        if (resultSet.wasNull()) {
+            markNull(length);
+        }
+        values[length++] = value;
+    }
+
+    @Override
+    void trim() {
+        if (values.length != length) {
+            values = Arrays.copyOf(values, length);
+        }
+        trimNulls();
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.drizzlepal.jdbc.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * 没有基本类型表示的列（定点数、日期时间、二进制、长文本等），值以对象形式保存
+ */
+public final class ObjectColumnVector extends ColumnVector {
+
+    private Object[] values;
+
+    ObjectColumnVector(String name, int sqlType, int capacity) {
+        super(name, sqlType, 0, 0, null);
+        this.values = new Object[capacity];
+    }
+
+    private ObjectColumnVector(ObjectColumnVector source, int offset, int length) {
+        super(source.getName(), source.getSqlType(), offset, length, source.nulls);
+        this.values = source.values;
+    }
+
+    @Override
+    public Object getObject(int row) {
+        return values[index(row)];
+    }
+
+    @Override
+    public ObjectColumnVector slice(int from, int length) {
+        return new ObjectColumnVector(this, checkSlice(from, length), length);
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        return 8L * values.length + nullsBytes();
+    }
+
+    @Override
+    void append(ResultSet resultSet, int column) throws SQLException {
+        Object value;
+        switch (getSqlType()) {
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                value = resultSet.getBigDecimal(column);
+                break;
+            case Types.DATE:
+                value = resultSet.getDate(column);
+                break;
+            case Types.TIME:
+                value = resultSet.getTime(column);
+                break;
+            case Types.TIMESTAMP:
+                value = resultSet.getTimestamp(column);
+                break;
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+                value = resultSet.getBytes(column);
+                break;
+            default:
+                value = resultSet.getObject(column);
+        }
+        if (length == values.length) {
+            values = Arrays.copyOf(values, grow(values.length, length + 1));
+        }
+        if (value == null) {
+            markNull(length);
+        }
+        values[length++] = value;
+    }
+
+    @Override
+    void trim() {
+        if (values.length != length) {
+            values = Arrays.copyOf(values, length);
+        }
+        trimNulls();
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.drizzlepal.jdbc.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * 字典编码的字符串列，每个不同的值只保存一份，每行保存值在字典中的 int 编号
+ * <p>
+ * 低基数的列（状态、类型、地区等）内存占用接近 int 数组；全部不同的列比字符串数组多占用一个 int 数组
+ */
+public final class StringColumnVector extends ColumnVector {
+
+    private int[] codes;
+
+    private String[] dictionary;
+
+    private int dictionarySize;
+
+    private HashMap<String, Integer> codeOfValue;
+
+    StringColumnVector(String name, int sqlType, int capacity) {
+        super(name, sqlType, 0, 0, null);
+        this.codes = new int[capacity];
+        this.dictionary = new String[16];
+        this.codeOfValue = new HashMap<>();
+    }
+
+    private StringColumnVector(StringColumnVector source, int offset, int length) {
+        super(source.getName(), source.getSqlType(), offset, length, source.nulls);
+        this.codes = source.codes;
+        this.dictionary = source.dictionary;
+        this.dictionarySize = source.dictionarySize;
+    }
+
+    /**
+     * @param row 行号
+     * @return 值，NULL 返回 null
+     */
+    public String getString(int row) {
+        return isNull(row) ? null : dictionary[codes[offset + row]];
+    }
+
+    /**
+     * 同一列中相同的值编号相同，可以代替字符串比较用于分组和过滤；切片与原列共享字典
+     *
+     * @param row 行号
+     * @return 值在字典中的编号，NULL 返回 -1
+     */
+    public int getCode(int row) {
+        return isNull(row) ? -1 : codes[offset + row];
+    }
+
+    /**
+     * @param code 字典编号
+     * @return 编号对应的值
+     */
+    public String getDictionaryValue(int code) {
+        if (code < 0 || code >= dictionarySize) {
+            throw new IndexOutOfBoundsException("code " + code + ", dictionary size " + dictionarySize);
+        }
+        return dictionary[code];
+    }
+
+    /**
+     * @return 字典中不同值的个数
+     */
+    public int getDictionarySize() {
+        return dictionarySize;
+    }
+
+    @Override
+    public Object getObject(int row) {
+        return getString(row);
+    }
+
+    @Override
+    public StringColumnVector slice(int from, int length) {
+        return new StringColumnVector(this, checkSlice(from, length), length);
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        long bytes = 4L * codes.length + 8L * dictionary.length + nullsBytes();
+        for (int i = 0; i < dictionarySize; i++) {
+            // 对象头、字段与字符数组，按单字节字符估算
+            bytes += 56 + dictionary[i].length();
+        }
+        return bytes;
+    }
+
+    @Override
+    void append(ResultSet resultSet, int column) throws SQLException {
+        String value = resultSet.getString(column);
+        if (length == codes.length) {
+            codes = Arrays.copyOf(codes, grow(codes.length, length + 1));
+        }
+        if (value == null) {
+            markNull(length++);
+            return;
+        }
+        Integer code = codeOfValue.get(value);
+        if (code == null) {
+            if (dictionarySize == dictionary.length) {
+                dictionary = Arrays.copyOf(dictionary, grow(dictionary.length, dictionarySize + 1));
+            }
+            code = dictionarySize;
+            dictionary[dictionarySize++] = value;
+            codeOfValue.put(value, code);
+        }
+        codes[length++] = code;
+    }
+
+    @Override
+    void trim() {
+        if (codes.length != length) {
+            codes = Arrays.copyOf(codes, length);
+        }
+        if (dictionary.length != dictionarySize) {
+            dictionary = Arrays.copyOf(dictionary, dictionarySize);
+        }
+        // 构建结束后只按编号读取，不再需要反向索引
+        codeOfValue = null;
+        trimNulls();
+    }
+
+}
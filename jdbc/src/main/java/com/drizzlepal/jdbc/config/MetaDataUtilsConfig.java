@@ -5,6 +5,14 @@ import lombok.Data;
 @Data
 public class MetaDataUtilsConfig {
 
+    /**
+     * 记录所在的 JSONPath，指向对象时该对象为唯一一条记录，指向数组时数组中的每个对象为一条记录
+     */
     private String rowJsonPath;
 
+    /**
+     * 最多用于推断的记录数，小于等于 0 时使用全部记录
+     */
+    private long sampleRows;
+
 }
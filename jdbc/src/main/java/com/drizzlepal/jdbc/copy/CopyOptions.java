@@ -0,0 +1,60 @@
+package com.drizzlepal.jdbc.copy;
+
+import com.drizzlepal.utils.functions.FunctionThrowable;
+
+import lombok.Data;
+
+/**
+ * 表复制参数
+ */
+@Data
+public class CopyOptions {
+
+    /**
+     * 目标数据库，为 null 时写入目标连接的默认数据库
+     */
+    private String targetDatabase;
+
+    /**
+     * 同时运行的复制管道数，每个管道占用源端和目标端各一个连接，不应超过两端连接池的最大连接数
+     */
+    private int parallelism = 4;
+
+    /**
+     * 每张有主键的表拆分的区间数，没有主键的表整表由一个管道复制
+     */
+    private int rangesPerTable = 4;
+
+    private int batchSize = 1000;
+
+    /**
+     * 每写入多少行提交一次
+     */
+    private int commitRows = 10000;
+
+    /**
+     * 阶段之间每个队列最多缓存的行块数
+     */
+    private int queueCapacity = 16;
+
+    /**
+     * 阶段之间每次传递的行数
+     */
+    private int chunkRows = 500;
+
+    /**
+     * 目标表不存在时按源表结构建表
+     */
+    private boolean createTables = true;
+
+    /**
+     * 复制前清空已存在的目标表
+     */
+    private boolean truncateTables = false;
+
+    /**
+     * 行转换函数，在内置的类型转换之后执行，为 null 时不转换
+     */
+    private FunctionThrowable<Object[], Object[]> rowConverter;
+
+}
@@ -0,0 +1,255 @@
+package com.drizzlepal.jdbc.copy;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import com.drizzlepal.jdbc.DataSource;
+import com.drizzlepal.jdbc.exception.UncheckedJdbcException;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.split.KeyRange;
+import com.drizzlepal.jdbc.sql.SqlBuilder;
+import com.drizzlepal.jdbc.write.BatchWriter;
+import com.drizzlepal.jdbc.write.BatchWriterStats;
+import com.drizzlepal.utils.functions.FunctionThrowable;
+
+/**
+ * 复制一个主键区间的管道：读取 → 转换 → 写入三个阶段各占一个线程，阶段之间用有界队列按行块传递，
+ * 任一阶段变慢时上游在队列满后阻塞，内存占用只与队列容量有关。任一阶段失败时中断其余阶段，
+ * 写入阶段丢弃尚未提交的行，已经提交的行保留在目标表中
+ */
+final class CopyPipeline implements Callable<Void> {
+
+    private static final List<Object[]> END = new ArrayList<>(0);
+
+    private final DataSource source;
+
+    private final DataSource target;
+
+    private final CopyOptions options;
+
+    private final TableMetaData sourceTable;
+
+    private final TableMetaData targetTable;
+
+    private final KeyRange range;
+
+    private final TableCopyStats stats;
+
+    private final ExecutorService stageExecutor;
+
+    private final int[] sourceTypes;
+
+    private final int[] targetTypes;
+
+    private final BlockingQueue<List<Object[]>> readQueue;
+
+    private final BlockingQueue<List<Object[]>> writeQueue;
+
+    private long readBlockedNanos;
+
+    private long writeWaitNanos;
+
+    CopyPipeline(DataSource source, DataSource target, CopyOptions options, TableMetaData sourceTable,
+            TableMetaData targetTable, KeyRange range, TableCopyStats stats, ExecutorService stageExecutor) {
+        this.source = source;
+        this.target = target;
+        this.options = options;
+        this.sourceTable = sourceTable;
+        this.targetTable = targetTable;
+        this.range = range;
+        this.stats = stats;
+        this.stageExecutor = stageExecutor;
+        this.sourceTypes = new int[sourceTable.getColumns().size()];
+        this.targetTypes = new int[targetTable.getColumns().size()];
+        for (int i = 0; i < sourceTypes.length; i++) {
+            sourceTypes[i] = sourceTable.getColumns().get(i).getDatatype();
+            targetTypes[i] = targetTable.getColumns().get(i).getDatatype();
+        }
+        this.readQueue = new ArrayBlockingQueue<>(options.getQueueCapacity());
+        this.writeQueue = new ArrayBlockingQueue<>(options.getQueueCapacity());
+    }
+
+    @Override
+    public Void call() throws Exception {
+        stats.onStart();
+        ExecutorCompletionService<BatchWriterStats> completion = new ExecutorCompletionService<>(stageExecutor);
+        List<Future<BatchWriterStats>> stages = new ArrayList<>(3);
+        stages.add(completion.submit(this::read));
+        stages.add(completion.submit(this::convert));
+        stages.add(completion.submit(this::write));
+        BatchWriterStats writerStats = null;
+        try {
+            for (int i = 0; i < stages.size(); i++) {
+                BatchWriterStats result = completion.take().get();
+                if (result != null) {
+                    writerStats = result;
+                }
+            }
+        } catch (ExecutionException e) {
+            stages.forEach(stage -> stage.cancel(true));
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        } catch (InterruptedException e) {
+            stages.forEach(stage -> stage.cancel(true));
+            throw e;
+        }
+        stats.onRangeFinished(readBlockedNanos, writeWaitNanos, writerStats);
+        return null;
+    }
+
+    private BatchWriterStats read() throws Exception {
+        SqlBuilder sqlBuilder = source.getSqlBuilder();
+        String sql = sqlBuilder.Select(sourceTable) + range.where(sqlBuilder);
+        int chunkRows = options.getChunkRows();
+        ArrayList<Object[]> chunk = new ArrayList<>(chunkRows);
+        try (Stream<Object[]> rows = source.queryForStream(sql, this::readRow, range.parameters())) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() >= chunkRows) {
+                    readBlockedNanos += put(readQueue, chunk);
+                    chunk = new ArrayList<>(chunkRows);
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            readBlockedNanos += put(readQueue, chunk);
+        }
+        readBlockedNanos += put(readQueue, END);
+        return null;
+    }
+
+    private BatchWriterStats convert() throws Exception {
+        while (true) {
+            List<Object[]> chunk = readQueue.take();
+            if (chunk != END) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    chunk.set(i, convertRow(chunk.get(i)));
+                }
+            }
+            writeQueue.put(chunk);
+            if (chunk == END) {
+                return null;
+            }
+        }
+    }
+
+    private BatchWriterStats write() throws Exception {
+        BatchWriter writer = target.openBatchWriter(targetTable, options.getBatchSize(), options.getCommitRows());
+        try {
+            while (true) {
+                long start = System.nanoTime();
+                List<Object[]> chunk = writeQueue.take();
+                writeWaitNanos += System.nanoTime() - start;
+                if (chunk == END) {
+                    break;
+                }
+                for (Object[] row : chunk) {
+                    writer.write(row);
+                }
+                stats.onRows(chunk.size());
+            }
+        } catch (Exception e) {
+            try {
+                writer.abort();
+            } catch (SQLException abortException) {
+                e.addSuppressed(abortException);
+            }
+            throw e;
+        }
+        writer.close();
+        return writer.getStats();
+    }
+
+    /**
+     * 大对象依赖结果集的当前位置，在读取线程上读成字符串或字节数组；
+     * 带时区的时间戳按 JDBC 4.2 读成 OffsetDateTime，避免传出驱动私有类型
+     */
+    private Object[] readRow(ResultSet resultSet) throws SQLException {
+        Object[] row = new Object[sourceTypes.length];
+        for (int i = 0; i < row.length; i++) {
+            Object value = sourceTypes[i] == Types.TIMESTAMP_WITH_TIMEZONE
+                    ? resultSet.getObject(i + 1, OffsetDateTime.class)
+                    : resultSet.getObject(i + 1);
+            if (value instanceof Clob) {
+                Clob clob = (Clob) value;
+                value = clob.getSubString(1, (int) clob.length());
+            } else if (value instanceof Blob) {
+                Blob blob = (Blob) value;
+                value = blob.getBytes(1, (int) blob.length());
+            }
+            row[i] = value;
+        }
+        return row;
+    }
+
+    private Object[] convertRow(Object[] row) throws Exception {
+        for (int i = 0; i < row.length; i++) {
+            row[i] = convertValue(row[i], targetTypes[i]);
+        }
+        FunctionThrowable<Object[], Object[]> rowConverter = options.getRowConverter();
+        if (rowConverter == null) {
+            return row;
+        }
+        try {
+            return rowConverter.apply(row);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UncheckedJdbcException(e);
+        }
+    }
+
+    /**
+     * 把驱动返回的值转换为目标驱动可以绑定的值：无符号 BIGINT 读出的 BigInteger 转为 BigDecimal，
+     * 写入不带时区的时间戳时保留本地时间，写入字符列的非字符串值（如 UUID）转为字符串
+     */
+    private static Object convertValue(Object value, int targetType) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        }
+        switch (targetType) {
+            case Types.TIMESTAMP:
+                return value instanceof OffsetDateTime
+                        ? Timestamp.valueOf(((OffsetDateTime) value).toLocalDateTime())
+                        : value;
+            case Types.CHAR:
+            case Types.NCHAR:
+            case Types.VARCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+                return value instanceof String || value instanceof byte[] ? value : value.toString();
+            default:
+                return value;
+        }
+    }
+
+    private static long put(BlockingQueue<List<Object[]>> queue, List<Object[]> chunk) throws InterruptedException {
+        long start = System.nanoTime();
+        queue.put(chunk);
+        return System.nanoTime() - start;
+    }
+
+}
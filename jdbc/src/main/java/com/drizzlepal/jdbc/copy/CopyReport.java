@@ -0,0 +1,50 @@
+package com.drizzlepal.jdbc.copy;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一次复制的吞吐报告，按表列出行数、耗时、速度以及读写两端的等待时间
+ */
+public class CopyReport {
+
+    private final List<TableCopyStats> tables;
+
+    private final long elapsedMs;
+
+    CopyReport(List<TableCopyStats> tables, long elapsedMs) {
+        this.tables = Collections.unmodifiableList(tables);
+        this.elapsedMs = elapsedMs;
+    }
+
+    public List<TableCopyStats> getTables() {
+        return tables;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public long getRows() {
+        long rows = 0;
+        for (TableCopyStats table : tables) {
+            rows += table.getRows();
+        }
+        return rows;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMs <= 0 ? 0 : getRows() * 1000D / elapsedMs;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(String.format("tables=%d, rows=%d, elapsedMs=%d, rows/s=%.1f",
+                tables.size(), getRows(), elapsedMs, getRowsPerSecond()));
+        for (TableCopyStats table : tables) {
+            builder.append(System.lineSeparator()).append("  ").append(table);
+        }
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.drizzlepal.jdbc.copy;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.drizzlepal.jdbc.DataSource;
+import com.drizzlepal.jdbc.exception.ConnectionOperationException;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.split.KeyRange;
+import com.drizzlepal.jdbc.split.KeyRangeSplitter;
+import com.drizzlepal.jdbc.sql.SqlBuilder;
+import com.drizzlepal.jdbc.utils.MetaDataUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 在两个数据源之间复制表：按目标方言翻译建表语句，再把每张表按主键拆分为若干区间，
+ * 每个区间由一条 读取 → 转换 → 批量写入 的管道复制
+ * <p>
+ * 最多同时运行 parallelism 条管道，不同表的区间与同一张表的区间共用这些管道，
+ * 大表拆分后可以让两端同时有多个连接在工作。复制完成后返回按表统计的吞吐报告
+ */
+@Slf4j
+public class TableCopyEngine {
+
+    private static final AtomicInteger ENGINE_SEQUENCE = new AtomicInteger();
+
+    private final DataSource source;
+
+    private final DataSource target;
+
+    private final CopyOptions options;
+
+    /**
+     * @param source  源数据源
+     * @param target  目标数据源
+     * @param options 复制参数
+     */
+    public TableCopyEngine(DataSource source, DataSource target, CopyOptions options) {
+        if (options.getParallelism() <= 0 || options.getRangesPerTable() <= 0 || options.getQueueCapacity() <= 0
+                || options.getChunkRows() <= 0 || options.getBatchSize() <= 0) {
+            throw new IllegalArgumentException("parallelism, rangesPerTable, queueCapacity, chunkRows and batchSize "
+                    + "must be positive");
+        }
+        this.source = source;
+        this.target = target;
+        this.options = options;
+    }
+
+    /**
+     * 把源表元数据翻译为目标端的表元数据，两端方言相同时保留原类型，否则按类型代码映射
+     *
+     * @param sourceTable 源表元数据，需要包含列
+     * @return 目标表元数据，数据库为 {@link CopyOptions#getTargetDatabase()}
+     */
+    public TableMetaData translate(TableMetaData sourceTable) {
+        TableMetaData translated;
+        if (source.getSqlBuilder().getClass() == target.getSqlBuilder().getClass()) {
+            translated = new TableMetaData();
+            translated.setName(sourceTable.getName());
+            translated.setRemarks(sourceTable.getRemarks());
+            translated.setColumns(sourceTable.getColumns());
+            translated.setPrimaryKeys(sourceTable.getPrimaryKeys());
+        } else {
+            translated = target.getSqlBuilder().TranslateTable(sourceTable);
+        }
+        translated.setDatabase(options.getTargetDatabase());
+        return translated;
+    }
+
+    /**
+     * 复制全部表，任一区间失败时中断其余管道并抛出异常，已经提交的行保留在目标表中
+     *
+     * @param tables 源表，缺少列或主键元数据时从源数据源加载
+     * @return 吞吐报告
+     * @throws ConnectionOperationException 如果建表、读取或写入时发生异常
+     */
+    public CopyReport copy(List<TableMetaData> tables) throws ConnectionOperationException {
+        long start = System.nanoTime();
+        ArrayList<TableCopyStats> tableStats = new ArrayList<>(tables.size());
+        ArrayList<CopyPipeline> pipelines = new ArrayList<>();
+        String prefix = "drizzlepal-table-copy-" + ENGINE_SEQUENCE.incrementAndGet() + "-";
+        ThreadPoolExecutor stageExecutor = newExecutor(prefix + "stage-", 0, Integer.MAX_VALUE,
+                new SynchronousQueue<>());
+        ThreadPoolExecutor pipelineExecutor = newExecutor(prefix + "pipeline-", options.getParallelism(),
+                options.getParallelism(), new LinkedBlockingQueue<>());
+        try {
+            KeyRangeSplitter splitter = new KeyRangeSplitter(source);
+            for (TableMetaData table : tables) {
+                TableMetaData sourceTable = MetaDataUtils.complete(source, table);
+                TableMetaData targetTable = translate(sourceTable);
+                prepareTarget(targetTable);
+                List<KeyRange> ranges = plan(splitter, sourceTable);
+                TableCopyStats stats = new TableCopyStats(sourceTable.getName(), ranges.size());
+                tableStats.add(stats);
+                for (KeyRange range : ranges) {
+                    pipelines.add(new CopyPipeline(source, target, options, sourceTable, targetTable, range, stats,
+                            stageExecutor));
+                }
+            }
+            ExecutorCompletionService<Void> completion = new ExecutorCompletionService<>(pipelineExecutor);
+            pipelines.forEach(completion::submit);
+            for (int i = 0; i < pipelines.size(); i++) {
+                completion.take().get();
+            }
+        } catch (ExecutionException e) {
+            throw new ConnectionOperationException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionOperationException(e);
+        } catch (ConnectionOperationException e) {
+            throw e;
+        } catch (SQLException | RuntimeException e) {
+            throw new ConnectionOperationException(e);
+        } finally {
+            pipelineExecutor.shutdownNow();
+            stageExecutor.shutdownNow();
+        }
+        CopyReport report = new CopyReport(tableStats, (System.nanoTime() - start) / 1_000_000);
+        log.info("表复制完成：{}", report);
+        return report;
+    }
+
+    /**
+     * 没有主键的表无法按区间拆分，整表作为一个没有边界的区间
+     */
+    private List<KeyRange> plan(KeyRangeSplitter splitter, TableMetaData sourceTable) throws SQLException {
+        if (sourceTable.getPrimaryKeys() == null || sourceTable.getPrimaryKeys().isEmpty()) {
+            return Collections.singletonList(new KeyRange(Collections.emptyList(), null, null, false));
+        }
+        return splitter.split(sourceTable, options.getRangesPerTable());
+    }
+
+    private void prepareTarget(TableMetaData targetTable) throws ConnectionOperationException {
+        SqlBuilder sqlBuilder = target.getSqlBuilder();
+        target.doWithConnection(connection -> {
+            // 为 null 时 MySQL 驱动默认搜索全部库，其他库中的同名表会被误判为已存在，因此限定为连接当前的库与模式
+            String catalog = targetTable.getDatabase() == null ? connection.getCatalog() : targetTable.getDatabase();
+            String schema = targetTable.getSchema() == null ? connection.getSchema() : targetTable.getSchema();
+            boolean exists;
+            try (ResultSet tables = connection.getMetaData().getTables(catalog, schema, targetTable.getName(),
+                    new String[] { "TABLE" })) {
+                exists = tables.next();
+            }
+            try (Statement statement = connection.createStatement()) {
+                if (!exists && options.isCreateTables()) {
+                    statement.execute(sqlBuilder.CreateTable(targetTable));
+                    log.info("已在目标端创建表 {}", sqlBuilder.tableName(targetTable));
+                } else if (exists && options.isTruncateTables()) {
+                    statement.execute(sqlBuilder.TruncateTable(targetTable));
+                }
+            }
+        });
+    }
+
+    private static ThreadPoolExecutor newExecutor(String prefix, int coreSize, int maxSize,
+            BlockingQueue<Runnable> queue) {
+        AtomicInteger threadSequence = new AtomicInteger();
+        return new ThreadPoolExecutor(coreSize, maxSize, 60, TimeUnit.SECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadSequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+}
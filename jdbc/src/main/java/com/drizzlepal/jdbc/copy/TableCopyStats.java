@@ -0,0 +1,118 @@
+package com.drizzlepal.jdbc.copy;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.drizzlepal.jdbc.write.BatchWriterStats;
+
+/**
+ * 单张表的复制统计，由多个管道并发更新
+ * <p>
+ * 读取阻塞时间是读取阶段等待队列空位的时间，写入等待时间是写入阶段等待数据的时间，
+ * 前者较大说明目标端写入是瓶颈，后者较大说明源端读取是瓶颈
+ */
+public class TableCopyStats {
+
+    private final String table;
+
+    private final int ranges;
+
+    private final AtomicLong rows = new AtomicLong();
+
+    private long startNanos;
+
+    private long endNanos;
+
+    private int finishedRanges;
+
+    private long readBlockedNanos;
+
+    private long writeWaitNanos;
+
+    private long batches;
+
+    private long totalBatchNanos;
+
+    private long maxBatchNanos;
+
+    TableCopyStats(String table, int ranges) {
+        this.table = table;
+        this.ranges = ranges;
+    }
+
+    synchronized void onStart() {
+        if (startNanos == 0) {
+            startNanos = System.nanoTime();
+        }
+    }
+
+    void onRows(int count) {
+        rows.addAndGet(count);
+    }
+
+    synchronized void onRangeFinished(long rangeReadBlockedNanos, long rangeWriteWaitNanos,
+            BatchWriterStats writerStats) {
+        readBlockedNanos += rangeReadBlockedNanos;
+        writeWaitNanos += rangeWriteWaitNanos;
+        batches += writerStats.getBatches();
+        totalBatchNanos += writerStats.getTotalBatchNanos();
+        maxBatchNanos = Math.max(maxBatchNanos, writerStats.getMaxBatchNanos());
+        if (++finishedRanges == ranges) {
+            endNanos = System.nanoTime();
+        }
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public int getRanges() {
+        return ranges;
+    }
+
+    /**
+     * @return 已写入的行数，复制过程中可用于观察进度
+     */
+    public long getRows() {
+        return rows.get();
+    }
+
+    public synchronized boolean isFinished() {
+        return finishedRanges == ranges;
+    }
+
+    public synchronized long getElapsedMs() {
+        if (startNanos == 0) {
+            return 0;
+        }
+        return ((endNanos == 0 ? System.nanoTime() : endNanos) - startNanos) / 1_000_000;
+    }
+
+    public double getRowsPerSecond() {
+        long elapsed = getElapsedMs();
+        return elapsed <= 0 ? 0 : getRows() * 1000D / elapsed;
+    }
+
+    public synchronized long getReadBlockedMs() {
+        return readBlockedNanos / 1_000_000;
+    }
+
+    public synchronized long getWriteWaitMs() {
+        return writeWaitNanos / 1_000_000;
+    }
+
+    public synchronized double getAverageBatchLatencyMs() {
+        return batches == 0 ? 0 : totalBatchNanos / 1_000_000D / batches;
+    }
+
+    public synchronized double getMaxBatchLatencyMs() {
+        return maxBatchNanos / 1_000_000D;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: rows=%d, ranges=%d, elapsedMs=%d, rows/s=%.1f, readBlockedMs=%d, writeWaitMs=%d, "
+                + "avgBatchMs=%.2f, maxBatchMs=%.2f", table, getRows(), ranges, getElapsedMs(), getRowsPerSecond(),
+                getReadBlockedMs(), getWriteWaitMs(), getAverageBatchLatencyMs(), getMaxBatchLatencyMs());
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.drizzlepal.jdbc.database.kingbase;
+
+import com.drizzlepal.jdbc.DefaultDatabaseConfig;
+import com.drizzlepal.jdbc.database.postgresql.DataSourcePostgresql;
+import com.drizzlepal.jdbc.database.postgresql.DriverCopyIn;
+import com.drizzlepal.jdbc.write.CopyIn;
+
+/**
+ * 人大金仓数据源，驱动由 pgjdbc 派生，原生模式与 MySQL 兼容模式共用，只是 sql 方言不同
+ */
+public class DataSourceKingbase extends DataSourcePostgresql {
+
+    private static final CopyIn COPY_IN = new DriverCopyIn("com.kingbase8.KBConnection");
+
+    public DataSourceKingbase(DefaultDatabaseConfig configCommon) {
+        super(configCommon);
+    }
+
+    @Override
+    protected String jdbcUrlPrefix() {
+        return "jdbc:kingbase8://";
+    }
+
+    @Override
+    protected CopyIn getCopyIn() {
+        return COPY_IN;
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.drizzlepal.jdbc.database.kingbase;
+
+import java.util.HashMap;
+
+import com.drizzlepal.jdbc.DefaultDatabaseConfig;
+import com.drizzlepal.jdbc.DatabaseType;
+
+public class DatabaseConfigKingbase extends DefaultDatabaseConfig {
+
+    public DatabaseConfigKingbase() {
+        super(DatabaseType.KINGBASE, new HashMap<String, String>() {
+            {
+                // 预编译 INSERT 的 JDBC batch 改写为多行插入
+                put("reWriteBatchedInserts", "true");
+            }
+        });
+        setSchema("public");
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.drizzlepal.jdbc.database.kingbase.mode.mysql;
+
+import com.drizzlepal.jdbc.database.postgresql.SqlBuilderPostgresql;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+
+/**
+ * 人大金仓 MySQL 兼容模式方言，标识符使用反引号转义，其余语法与原生模式相同
+ */
+public class SqlBuilderKingbaseMysqlMode extends SqlBuilderPostgresql {
+
+    private static final SqlBuilderPostgresql NATIVE = new SqlBuilderPostgresql();
+
+    @Override
+    public String escape(String identifier) {
+        return "`" + identifier.replace("`", "``") + "`";
+    }
+
+    /**
+     * COPY 语句始终按原生语法解析，不接受反引号，标识符使用双引号转义
+     */
+    @Override
+    public String CopyIn(TableMetaData tableMetaData) {
+        return NATIVE.CopyIn(tableMetaData);
+    }
+
+}
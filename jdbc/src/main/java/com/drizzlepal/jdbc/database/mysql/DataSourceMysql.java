@@ -1,11 +1,25 @@
 package com.drizzlepal.jdbc.database.mysql;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+
 import com.drizzlepal.jdbc.DefaultDatabaseConfig;
 import com.drizzlepal.jdbc.DefaultDataSource;
 import com.drizzlepal.utils.StringUtils;
 
 public class DataSourceMysql extends DefaultDataSource {
 
+    private static final int ER_PARSE_ERROR = 1064;
+
+    /**
+     * 8.0.22 之前的版本不支持 SHOW REPLICA STATUS，第一次执行失败后改用 SHOW SLAVE STATUS
+     */
+    private volatile boolean legacyReplicaStatus;
+
     public DataSourceMysql(DefaultDatabaseConfig configCommon) {
         super(configCommon);
     }
@@ -25,9 +39,71 @@ public class DataSourceMysql extends DefaultDataSource {
         return stringBuilder.toString();
     }
 
+    /**
+     * 默认使用 Integer.MIN_VALUE 逐行流式读取，只作用于流式查询的语句，逐行读取期间该连接不能执行其他语句。
+     * useCursorFetch 会让连接上的所有语句改用服务端预编译，默认不开启；通过连接参数开启后按 fetch size 通过服务端游标分批拉取，
+     * 自适应 fetch size 也只在这种情况下生效
+     */
+    @Override
+    protected PreparedStatement prepareStreamingStatement(Connection connection, String sql, Object... params)
+            throws SQLException {
+        PreparedStatement statement = super.prepareStreamingStatement(connection, sql, params);
+        if (!"true".equalsIgnoreCase(configCommon.getConnectionParams().get("useCursorFetch"))) {
+            statement.setFetchSize(Integer.MIN_VALUE);
+        }
+        return statement;
+    }
+
+    @Override
+    protected boolean isDriverBatchRewriteEnabled() {
+        return "true".equalsIgnoreCase(configCommon.getConnectionParams().get("rewriteBatchedStatements"));
+    }
+
     @Override
     protected boolean checkDatabaseNameConfigExists() {
         return configCommon.getDatabase() != null && !configCommon.getDatabase().isEmpty();
     }
 
+    /**
+     * 多源复制时取各复制通道中最大的延迟，复制线程未运行时 Seconds_Behind_Source 为 NULL，视为复制中断
+     */
+    @Override
+    protected Long getReplicationLagMs(Connection connection) throws SQLException {
+        if (!legacyReplicaStatus) {
+            try (Statement statement = connection.createStatement();
+                    ResultSet resultSet = statement.executeQuery("SHOW REPLICA STATUS")) {
+                return readReplicationLagMs(resultSet, "Seconds_Behind_Source");
+            } catch (SQLException e) {
+                if (e.getErrorCode() != ER_PARSE_ERROR) {
+                    throw e;
+                }
+                legacyReplicaStatus = true;
+            }
+        }
+        try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SHOW SLAVE STATUS")) {
+            return readReplicationLagMs(resultSet, "Seconds_Behind_Master");
+        }
+    }
+
+    private static Long readReplicationLagMs(ResultSet resultSet, String lagColumn) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int lagIndex = 0;
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (lagColumn.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                lagIndex = i;
+            }
+        }
+        if (lagIndex == 0) {
+            throw new SQLException("复制状态中没有 " + lagColumn + " 列");
+        }
+        Long lagMs = null;
+        while (resultSet.next()) {
+            long seconds = resultSet.getLong(lagIndex);
+            long channelLagMs = resultSet.wasNull() ? Long.MAX_VALUE : seconds * 1000;
+            lagMs = lagMs == null ? channelLagMs : Math.max(lagMs, channelLagMs);
+        }
+        return lagMs;
+    }
+
 }
@@ -15,6 +15,11 @@ public class DatabaseConfigMysql extends DefaultDatabaseConfig {
                 put("zeroDateTimeBehavior", "convertToNull");
                 put("transformedBitIsBoolean", "true");
                 put("allowMultiQueries", "true");
+                put("rewriteBatchedStatements", "true");
+                // 驱动按连接缓存预编译语句，元数据查询 sql 较长，放宽可缓存的 sql 长度
+                put("cachePrepStmts", "true");
+                put("prepStmtCacheSize", "256");
+                put("prepStmtCacheSqlLimit", "8192");
             }
         });
     }
@@ -0,0 +1,98 @@
+package com.drizzlepal.jdbc.database.mysql;
+
+/**
+ * MySQL 批量元数据查询sql，基于 information_schema 一次性查询整个库的表、列、主键和索引信息
+ * <p>
+ * 所有sql只有一个参数：数据库名称，结果列标签与 JDBC DatabaseMetaData 返回的标签保持一致
+ */
+public final class MetaDataQuerySqlMysql {
+
+    private MetaDataQuerySqlMysql() {
+    }
+
+    public static final String TABLES = "SELECT t.TABLE_NAME AS TABLE_NAME, t.TABLE_COMMENT AS REMARKS"
+            + " FROM information_schema.TABLES t"
+            + " WHERE t.TABLE_SCHEMA = ? AND t.TABLE_TYPE = 'BASE TABLE'"
+            + " ORDER BY t.TABLE_NAME";
+
+    public static final String COLUMNS = "SELECT c.TABLE_NAME AS TABLE_NAME, c.COLUMN_NAME AS COLUMN_NAME,"
+            + " c.COLUMN_COMMENT AS REMARKS,"
+            + " UPPER(IF(c.COLUMN_TYPE LIKE '%unsigned%', CONCAT(c.DATA_TYPE, ' UNSIGNED'), c.DATA_TYPE)) AS TYPE_NAME,"
+            + " CASE c.DATA_TYPE"
+            + " WHEN 'bit' THEN -7"
+            + " WHEN 'tinyint' THEN -6"
+            + " WHEN 'smallint' THEN 5"
+            + " WHEN 'mediumint' THEN 4"
+            + " WHEN 'int' THEN IF(c.COLUMN_TYPE LIKE '%unsigned%', -5, 4)"
+            + " WHEN 'integer' THEN IF(c.COLUMN_TYPE LIKE '%unsigned%', -5, 4)"
+            + " WHEN 'bigint' THEN -5"
+            + " WHEN 'float' THEN 7"
+            + " WHEN 'double' THEN 8"
+            + " WHEN 'decimal' THEN 3"
+            + " WHEN 'char' THEN 1"
+            + " WHEN 'enum' THEN 1"
+            + " WHEN 'set' THEN 1"
+            + " WHEN 'varchar' THEN 12"
+            + " WHEN 'tinytext' THEN 12"
+            + " WHEN 'text' THEN -1"
+            + " WHEN 'mediumtext' THEN -1"
+            + " WHEN 'longtext' THEN -1"
+            + " WHEN 'json' THEN -1"
+            + " WHEN 'date' THEN 91"
+            + " WHEN 'year' THEN 91"
+            + " WHEN 'time' THEN 92"
+            + " WHEN 'datetime' THEN 93"
+            + " WHEN 'timestamp' THEN 93"
+            + " WHEN 'binary' THEN -2"
+            + " WHEN 'varbinary' THEN -3"
+            + " WHEN 'tinyblob' THEN -3"
+            + " WHEN 'blob' THEN -4"
+            + " WHEN 'mediumblob' THEN -4"
+            + " WHEN 'longblob' THEN -4"
+            + " ELSE 1111 END AS DATA_TYPE,"
+            + " LEAST(COALESCE(c.CHARACTER_MAXIMUM_LENGTH, c.NUMERIC_PRECISION, c.DATETIME_PRECISION, 0), 2147483647)"
+            + " AS COLUMN_SIZE,"
+            + " COALESCE(c.NUMERIC_SCALE, 0) AS DECIMAL_DIGITS,"
+            + " IF(c.IS_NULLABLE = 'YES', 1, 0) AS NULLABLE,"
+            + " c.ORDINAL_POSITION AS ORDINAL_POSITION,"
+            + " c.COLUMN_DEFAULT AS COLUMN_DEF"
+            + " FROM information_schema.COLUMNS c"
+            + " WHERE c.TABLE_SCHEMA = ?"
+            + " ORDER BY c.TABLE_NAME, c.ORDINAL_POSITION";
+
+    public static final String PRIMARY_KEYS = "SELECT k.TABLE_NAME AS TABLE_NAME, k.COLUMN_NAME AS COLUMN_NAME,"
+            + " k.ORDINAL_POSITION AS KEY_SEQ, k.CONSTRAINT_NAME AS PK_NAME"
+            + " FROM information_schema.KEY_COLUMN_USAGE k"
+            + " WHERE k.TABLE_SCHEMA = ? AND k.CONSTRAINT_NAME = 'PRIMARY'"
+            + " ORDER BY k.TABLE_NAME, k.ORDINAL_POSITION";
+
+    public static final String INDEXES = "SELECT s.TABLE_NAME AS TABLE_NAME, s.INDEX_NAME AS INDEX_NAME,"
+            + " s.NON_UNIQUE AS NON_UNIQUE, s.COLUMN_NAME AS COLUMN_NAME, s.SEQ_IN_INDEX AS ORDINAL_POSITION,"
+            + " s.COLLATION AS ASC_OR_DESC, IF(s.INDEX_TYPE = 'HASH', 2, 3) AS TYPE"
+            + " FROM information_schema.STATISTICS s"
+            + " WHERE s.TABLE_SCHEMA = ?"
+            + " ORDER BY s.TABLE_NAME, s.INDEX_NAME, s.SEQ_IN_INDEX";
+
+    public static final String TABLE_VERSIONS = "SELECT t.TABLE_NAME AS TABLE_NAME, t.CREATE_TIME AS CREATE_TIME,"
+            + " t.UPDATE_TIME AS UPDATE_TIME"
+            + " FROM information_schema.TABLES t"
+            + " WHERE t.TABLE_SCHEMA = ? AND t.TABLE_TYPE = 'BASE TABLE'";
+
+    /**
+     * TABLE_ROWS 来自 InnoDB 的采样估算，MySQL 8 默认缓存 information_schema_stats_expiry 秒
+     */
+    public static final String TABLE_STATISTICS = "SELECT t.TABLE_NAME AS TABLE_NAME, t.TABLE_ROWS AS ROW_COUNT,"
+            + " t.DATA_LENGTH AS DATA_BYTES, t.INDEX_LENGTH AS INDEX_BYTES"
+            + " FROM information_schema.TABLES t"
+            + " WHERE t.TABLE_SCHEMA = ? AND t.TABLE_TYPE = 'BASE TABLE'";
+
+    /**
+     * 索引首列的 CARDINALITY 即该列的不同值个数估算，同一列出现在多个索引中时取最大值
+     */
+    public static final String COLUMN_CARDINALITY = "SELECT s.TABLE_NAME AS TABLE_NAME, s.COLUMN_NAME AS COLUMN_NAME,"
+            + " MAX(s.CARDINALITY) AS CARDINALITY"
+            + " FROM information_schema.STATISTICS s"
+            + " WHERE s.TABLE_SCHEMA = ? AND s.SEQ_IN_INDEX = 1 AND s.CARDINALITY IS NOT NULL"
+            + " GROUP BY s.TABLE_NAME, s.COLUMN_NAME";
+
+}
@@ -0,0 +1,210 @@
+package com.drizzlepal.jdbc.database.mysql;
+
+import java.sql.Types;
+import java.util.List;
+
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.sql.DefaultSqlBuilder;
+import com.drizzlepal.utils.StringUtils;
+
+/**
+ * MySQL 方言，标识符使用反引号转义，建表语句带列注释
+ */
+public class SqlBuilderMysql extends DefaultSqlBuilder {
+
+    /**
+     * utf8mb4 下单列 VARCHAR 不超过行大小上限 65535 字节的最大字符数
+     */
+    private static final int MAX_VARCHAR_LENGTH = 16383;
+
+    private static final int MAX_CHAR_LENGTH = 255;
+
+    private static final int MAX_DECIMAL_PRECISION = 65;
+
+    private static final int MAX_DECIMAL_SCALE = 30;
+
+    private static final int MAX_FRACTIONAL_SECONDS = 6;
+
+    /**
+     * CONCAT_WS 会跳过 NULL，末尾追加各列的 ISNULL 标记区分 NULL 与空字符串以及 NULL 出现的位置
+     */
+    @Override
+    public String RowChecksum(List<String> columns) {
+        StringBuilder values = new StringBuilder();
+        StringBuilder nulls = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            String column = escape(columns.get(i));
+            values.append(", ").append(column);
+            nulls.append(i == 0 ? "" : ", ").append("ISNULL(").append(column).append(')');
+        }
+        return "CRC32(CONCAT_WS('#'" + values + ", CONCAT(" + nulls + ")))";
+    }
+
+    @Override
+    public String ChunkChecksum(List<String> columns) {
+        return "COUNT(*), COALESCE(BIT_XOR(" + RowChecksum(columns) + "), 0)";
+    }
+
+    /**
+     * 键冲突由表上的全部主键与唯一索引判断，keyColumns 只决定哪些列不被更新；全部列都是键列时冲突的行保持不变
+     */
+    @Override
+    public String Upsert(TableMetaData tableMetaData, List<String> keyColumns, int rows) {
+        StringBuilder builder = new StringBuilder(Insert(tableMetaData, null, rows));
+        builder.append(" ON DUPLICATE KEY UPDATE ");
+        List<String> updates = nonKeyColumns(tableMetaData, keyColumns);
+        if (updates.isEmpty()) {
+            String column = escape(keyColumns.get(0));
+            return builder.append(column).append(" = ").append(column).toString();
+        }
+        for (int i = 0; i < updates.size(); i++) {
+            String column = escape(updates.get(i));
+            builder.append(i == 0 ? "" : ", ").append(column).append(" = VALUES(").append(column).append(')');
+        }
+        return builder.toString();
+    }
+
+    @Override
+    protected String columnDefinition(ColumnMetaData column) {
+        String definition = super.columnDefinition(column);
+        if (StringUtils.isNotBlank(column.getRemarks())) {
+            definition += " COMMENT " + quoteLiteral(column.getRemarks());
+        }
+        return definition;
+    }
+
+    /**
+     * information_schema 中字符串默认值不带引号，数值、NULL 与 CURRENT_TIMESTAMP 之类的函数默认值原样使用
+     */
+    @Override
+    protected String defaultValue(ColumnMetaData column) {
+        String defaultValue = column.getDefaultValue();
+        if (defaultValue == null) {
+            return null;
+        }
+        switch (column.getDatatype()) {
+            case Types.BIT:
+            case Types.BOOLEAN:
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return defaultValue;
+            default:
+                String upper = defaultValue.toUpperCase();
+                if ("NULL".equals(upper) || upper.startsWith("CURRENT_TIMESTAMP") || upper.startsWith("NOW(")) {
+                    return defaultValue;
+                }
+                return quoteLiteral(defaultValue);
+        }
+    }
+
+    /**
+     * TINYINT 在各数据库中的取值范围不同（SQL Server 为 0~255），有符号时放宽为 SMALLINT；
+     * 时间戳保留最多 6 位小数秒，带时区的类型转换为 DATETIME，时区偏移不保留
+     */
+    @Override
+    protected void translateType(ColumnMetaData column, boolean unsigned) {
+        int length = lengthOf(column);
+        String suffix = unsigned ? " UNSIGNED" : "";
+        switch (column.getDatatype()) {
+            case Types.BIT:
+                setType(column, Types.BIT, length > 1 ? "BIT(" + length + ")" : "BIT", null);
+                break;
+            case Types.BOOLEAN:
+                setType(column, Types.BIT, "BIT", null);
+                break;
+            case Types.TINYINT:
+                setType(column, Types.TINYINT, unsigned ? "TINYINT UNSIGNED" : "SMALLINT", null);
+                break;
+            case Types.SMALLINT:
+                setType(column, Types.SMALLINT, "SMALLINT" + suffix, null);
+                break;
+            case Types.INTEGER:
+                setType(column, Types.INTEGER, "INT" + suffix, null);
+                break;
+            case Types.BIGINT:
+                setType(column, Types.BIGINT, "BIGINT" + suffix, null);
+                break;
+            case Types.REAL:
+                setType(column, Types.REAL, "FLOAT", null);
+                break;
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                setType(column, Types.DOUBLE, "DOUBLE", null);
+                break;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                setType(column, Types.DECIMAL, "DECIMAL", length <= 0 ? null : Math.min(length, MAX_DECIMAL_PRECISION));
+                if (column.getDecimalDigits() != null) {
+                    column.setDecimalDigits(Math.min(column.getDecimalDigits(), MAX_DECIMAL_SCALE));
+                }
+                break;
+            case Types.CHAR:
+            case Types.NCHAR:
+                if (length > 0 && length <= MAX_CHAR_LENGTH) {
+                    setType(column, Types.CHAR, "CHAR", length);
+                } else {
+                    translateVarchar(column, length);
+                }
+                break;
+            case Types.VARCHAR:
+            case Types.NVARCHAR:
+                translateVarchar(column, length);
+                break;
+            case Types.DATE:
+                setType(column, Types.DATE, "DATE", null);
+                break;
+            case Types.TIME:
+            case Types.TIME_WITH_TIMEZONE:
+                setType(column, Types.TIME, "TIME", null);
+                break;
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                int fraction = column.getDecimalDigits() == null ? MAX_FRACTIONAL_SECONDS
+                        : Math.min(column.getDecimalDigits(), MAX_FRACTIONAL_SECONDS);
+                setType(column, Types.TIMESTAMP, "DATETIME(" + fraction + ")", null);
+                break;
+            case Types.BINARY:
+                if (length > 0 && length <= MAX_CHAR_LENGTH) {
+                    setType(column, Types.BINARY, "BINARY", length);
+                } else {
+                    translateVarbinary(column, length);
+                }
+                break;
+            case Types.VARBINARY:
+                translateVarbinary(column, length);
+                break;
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                setType(column, Types.LONGVARBINARY, "LONGBLOB", null);
+                break;
+            default:
+                setType(column, Types.LONGVARCHAR, "LONGTEXT", null);
+                break;
+        }
+    }
+
+    private static void translateVarchar(ColumnMetaData column, int length) {
+        if (length > 0 && length <= MAX_VARCHAR_LENGTH) {
+            setType(column, Types.VARCHAR, "VARCHAR", length);
+        } else {
+            setType(column, Types.LONGVARCHAR, "LONGTEXT", null);
+        }
+    }
+
+    private static void translateVarbinary(ColumnMetaData column, int length) {
+        if (length > 0 && length <= MAX_VARCHAR_LENGTH) {
+            setType(column, Types.VARBINARY, "VARBINARY", length);
+        } else {
+            setType(column, Types.LONGVARBINARY, "LONGBLOB", null);
+        }
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.drizzlepal.jdbc.database.postgresql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedList;
+import java.util.List;
+
+import com.drizzlepal.jdbc.DefaultDatabaseConfig;
+import com.drizzlepal.jdbc.DefaultDataSource;
+import com.drizzlepal.jdbc.exception.UnknownDatabaseException;
+import com.drizzlepal.jdbc.write.CopyIn;
+import com.drizzlepal.utils.StringUtils;
+
+/**
+ * PostgreSQL 数据源，人大金仓沿用
+ * <p>
+ * 连接建立后只能访问 jdbc url 中的数据库，驱动忽略 setCatalog 与元数据方法的 catalog 参数，元数据查询也只按模式过滤。
+ * 元数据、表名与统计信息等方法传入其他数据库名时抛出 SQLState 为 3D000 的 {@link SQLException}，
+ * 原因为 {@link UnknownDatabaseException}；{@link #getTableNames(String)} 直接抛出 {@link UnknownDatabaseException}。
+ * 访问其他数据库需要为该库单独创建数据源
+ * <p>
+ * 与 SQL Server 相同，本模块不依赖 PostgreSQL 驱动，调用方需要在运行时提供 org.postgresql:postgresql
+ */
+public class DataSourcePostgresql extends DefaultDataSource {
+
+    /**
+     * 数据库不存在或不可访问
+     */
+    private static final String INVALID_CATALOG_NAME = "3D000";
+
+    private static final String DATABASE_NAMES = "SELECT datname FROM pg_catalog.pg_database"
+            + " WHERE NOT datistemplate AND datallowconn ORDER BY datname";
+
+    /**
+     * 备库上最后一个已重放事务的提交时间与当前时间之差，已接收的日志全部重放完时主库可能只是空闲，延迟为 0
+     */
+    private static final String REPLICATION_LAG = "SELECT pg_is_in_recovery(),"
+            + " CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE CAST(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 AS BIGINT) END";
+
+    private static final CopyIn COPY_IN = new DriverCopyIn("org.postgresql.PGConnection");
+
+    public DataSourcePostgresql(DefaultDatabaseConfig configCommon) {
+        super(configCommon);
+    }
+
+    @Override
+    public String buildJdbcUrl(DefaultDatabaseConfig configCommon) {
+        StringBuilder stringBuilder = new StringBuilder(jdbcUrlPrefix());
+        stringBuilder.append(configCommon.getHost());
+        stringBuilder.append(":");
+        stringBuilder.append(configCommon.getPort());
+        stringBuilder.append("/");
+        if (StringUtils.isNotBlank(configCommon.getDatabase())) {
+            stringBuilder.append(configCommon.getDatabase());
+        }
+        stringBuilder.append("?");
+        configCommon.getConnectionParams().forEach((k, v) -> stringBuilder.append("&").append(k).append("=").append(v));
+        if (StringUtils.isNotBlank(configCommon.getSchema())
+                && !configCommon.getConnectionParams().containsKey("currentSchema")) {
+            stringBuilder.append("&currentSchema=").append(configCommon.getSchema());
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * @return jdbc url 中主机之前的部分
+     */
+    protected String jdbcUrlPrefix() {
+        return "jdbc:postgresql://";
+    }
+
+    /**
+     * 驱动只在关闭自动提交时按 fetch size 通过服务端游标分批拉取，否则一次读取整个结果集；
+     * 连接归还连接池时回滚并恢复自动提交
+     */
+    @Override
+    protected PreparedStatement prepareStreamingStatement(Connection connection, String sql, Object... params)
+            throws SQLException {
+        if (connection.getAutoCommit()) {
+            connection.setAutoCommit(false);
+        }
+        return super.prepareStreamingStatement(connection, sql, params);
+    }
+
+    @Override
+    protected boolean isDriverBatchRewriteEnabled() {
+        return "true".equalsIgnoreCase(configCommon.getConnectionParams().get("reWriteBatchedInserts"));
+    }
+
+    @Override
+    protected CopyIn getCopyIn() {
+        return COPY_IN;
+    }
+
+    @Override
+    public List<String> getDatabaseNames() throws UnknownDatabaseException, SQLException {
+        LinkedList<String> res = new LinkedList<>();
+        try (Connection connection = getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(DATABASE_NAMES)) {
+            while (resultSet.next()) {
+                res.add(resultSet.getString(1));
+            }
+        }
+        return res;
+    }
+
+    @Override
+    public List<String> getTableNames(String databaseName) throws UnknownDatabaseException, SQLException {
+        try {
+            return super.getTableNames(databaseName);
+        } catch (SQLException e) {
+            if (e.getCause() instanceof UnknownDatabaseException) {
+                throw (UnknownDatabaseException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 连接不能跨库访问，数据库名与连接的数据库不同时拒绝，避免静默返回连接所在库的元数据
+     */
+    @Override
+    protected void checkDatabase(Connection connection, String databaseName) throws SQLException {
+        String current = connection.getCatalog();
+        if (StringUtils.isNotBlank(databaseName) && !databaseName.equals(current)) {
+            String message = "连接的数据库为 " + current + "，不能跨库访问 " + databaseName;
+            throw new SQLException(message, INVALID_CATALOG_NAME, new UnknownDatabaseException(message));
+        }
+    }
+
+    @Override
+    protected boolean checkDatabaseNameConfigExists() {
+        return configCommon.getSchema() != null && !configCommon.getSchema().isEmpty()
+                && configCommon.getDatabase() != null && !configCommon.getDatabase().isEmpty();
+    }
+
+    /**
+     * 从未重放过事务时提交时间为 NULL，视为复制中断
+     */
+    @Override
+    protected Long getReplicationLagMs(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(REPLICATION_LAG)) {
+            if (!resultSet.next() || !resultSet.getBoolean(1)) {
+                return null;
+            }
+            long lagMs = resultSet.getLong(2);
+            return resultSet.wasNull() ? Long.valueOf(Long.MAX_VALUE) : Long.valueOf(Math.max(lagMs, 0));
+        }
+    }
+
+}
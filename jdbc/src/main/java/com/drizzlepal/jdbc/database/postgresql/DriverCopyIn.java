@@ -0,0 +1,66 @@
+package com.drizzlepal.jdbc.database.postgresql;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+import com.drizzlepal.jdbc.write.CopyIn;
+
+/**
+ * 通过 PostgreSQL 系驱动的 CopyManager 执行 COPY ... FROM STDIN
+ * <p>
+ * 驱动只在运行时提供，通过反射调用连接接口的 getCopyAPI().copyIn(String, Reader)，人大金仓的驱动由 pgjdbc 派生，
+ * 接口与方法名相同，只是包名不同。反射得到的方法在第一次调用后缓存
+ */
+public class DriverCopyIn implements CopyIn {
+
+    private final String connectionClassName;
+
+    private volatile Method getCopyApi;
+
+    private volatile Method copyIn;
+
+    /**
+     * @param connectionClassName 驱动的连接接口，如 org.postgresql.PGConnection
+     */
+    public DriverCopyIn(String connectionClassName) {
+        this.connectionClassName = connectionClassName;
+    }
+
+    @Override
+    public long copyIn(Connection connection, String sql, Reader data) throws SQLException, IOException {
+        Class<?> connectionClass;
+        try {
+            connectionClass = Class.forName(connectionClassName);
+        } catch (ClassNotFoundException e) {
+            throw new SQLFeatureNotSupportedException("驱动中没有 " + connectionClassName + "，不支持 COPY", e);
+        }
+        Object driverConnection = connection.unwrap(connectionClass);
+        try {
+            if (getCopyApi == null) {
+                getCopyApi = connectionClass.getMethod("getCopyAPI");
+            }
+            Object copyManager = getCopyApi.invoke(driverConnection);
+            if (copyIn == null) {
+                copyIn = copyManager.getClass().getMethod("copyIn", String.class, Reader.class);
+            }
+            return ((Number) copyIn.invoke(copyManager, sql, data)).longValue();
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new SQLException("执行 COPY 失败", cause);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new SQLFeatureNotSupportedException(connectionClassName + " 不支持 COPY", e);
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.drizzlepal.jdbc.database.postgresql;
+
+/**
+ * PostgreSQL 批量元数据查询sql，基于 pg_catalog 系统表一次性查询整个 schema 的表、列、主键和索引信息，
+ * 人大金仓沿用同一套系统表
+ * <p>
+ * 系统表只包含连接所在数据库的对象，所有sql只有一个参数：schema 名称，结果列标签与 JDBC DatabaseMetaData
+ * 返回的标签保持一致。分区表只返回父表，需要 PostgreSQL 11 及以上
+ */
+public final class MetaDataQuerySqlPostgresql {
+
+    private MetaDataQuerySqlPostgresql() {
+    }
+
+    public static final String TABLES = "SELECT c.relname AS TABLE_NAME, obj_description(c.oid, 'pg_class') AS REMARKS"
+            + " FROM pg_catalog.pg_class c"
+            + " JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace"
+            + " WHERE n.nspname = ? AND c.relkind IN ('r', 'p') AND NOT c.relispartition"
+            + " ORDER BY c.relname";
+
+    /**
+     * 字符类型的 atttypmod 为长度加 4，numeric 的高 16 位为精度、低 16 位为小数位数加 4，
+     * 时间类型的 atttypmod 为小数秒位数，未指定时为 -1
+     */
+    public static final String COLUMNS = "SELECT c.relname AS TABLE_NAME, a.attname AS COLUMN_NAME,"
+            + " col_description(c.oid, a.attnum) AS REMARKS, t.typname AS TYPE_NAME,"
+            + " CASE t.typname"
+            + " WHEN 'bool' THEN -7"
+            + " WHEN 'bit' THEN -7"
+            + " WHEN 'int2' THEN 5"
+            + " WHEN 'int4' THEN 4"
+            + " WHEN 'int8' THEN -5"
+            + " WHEN 'oid' THEN -5"
+            + " WHEN 'float4' THEN 7"
+            + " WHEN 'float8' THEN 8"
+            + " WHEN 'money' THEN 8"
+            + " WHEN 'numeric' THEN 2"
+            + " WHEN 'bpchar' THEN 1"
+            + " WHEN 'char' THEN 1"
+            + " WHEN 'varchar' THEN 12"
+            + " WHEN 'name' THEN 12"
+            + " WHEN 'text' THEN -1"
+            + " WHEN 'date' THEN 91"
+            + " WHEN 'time' THEN 92"
+            + " WHEN 'timetz' THEN 2013"
+            + " WHEN 'timestamp' THEN 93"
+            + " WHEN 'timestamptz' THEN 2014"
+            + " WHEN 'bytea' THEN -2"
+            + " WHEN 'xml' THEN 2009"
+            + " ELSE 1111 END AS DATA_TYPE,"
+            + " CASE"
+            + " WHEN t.typname IN ('varchar', 'bpchar') THEN"
+            + " CASE WHEN a.atttypmod > 4 THEN a.atttypmod - 4 ELSE 2147483647 END"
+            + " WHEN t.typname = 'numeric' THEN"
+            + " CASE WHEN a.atttypmod > 4 THEN ((a.atttypmod - 4) >> 16) & 65535 ELSE 0 END"
+            + " WHEN t.typname IN ('bit', 'varbit') THEN GREATEST(a.atttypmod, 1)"
+            + " WHEN t.typname = 'int2' THEN 5"
+            + " WHEN t.typname = 'int4' THEN 10"
+            + " WHEN t.typname = 'int8' THEN 19"
+            + " WHEN t.typname = 'float4' THEN 8"
+            + " WHEN t.typname = 'float8' THEN 17"
+            + " WHEN t.typlen > 0 THEN t.typlen"
+            + " ELSE 2147483647 END AS COLUMN_SIZE,"
+            + " CASE"
+            + " WHEN t.typname = 'numeric' THEN CASE WHEN a.atttypmod > 4 THEN (a.atttypmod - 4) & 65535 ELSE 0 END"
+            + " WHEN t.typname IN ('time', 'timetz', 'timestamp', 'timestamptz') THEN"
+            + " CASE WHEN a.atttypmod >= 0 THEN a.atttypmod ELSE 6 END"
+            + " ELSE 0 END AS DECIMAL_DIGITS,"
+            + " CASE WHEN a.attnotnull THEN 0 ELSE 1 END AS NULLABLE,"
+            + " ROW_NUMBER() OVER (PARTITION BY a.attrelid ORDER BY a.attnum) AS ORDINAL_POSITION,"
+            + " pg_get_expr(d.adbin, d.adrelid) AS COLUMN_DEF"
+            + " FROM pg_catalog.pg_attribute a"
+            + " JOIN pg_catalog.pg_class c ON c.oid = a.attrelid"
+            + " JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace"
+            + " JOIN pg_catalog.pg_type t ON t.oid = a.atttypid"
+            + " LEFT JOIN pg_catalog.pg_attrdef d ON d.adrelid = a.attrelid AND d.adnum = a.attnum"
+            + " WHERE n.nspname = ? AND c.relkind IN ('r', 'p') AND NOT c.relispartition"
+            + " AND a.attnum > 0 AND NOT a.attisdropped"
+            + " ORDER BY c.relname, a.attnum";
+
+    public static final String PRIMARY_KEYS = "SELECT c.relname AS TABLE_NAME, a.attname AS COLUMN_NAME,"
+            + " k.seq AS KEY_SEQ, con.conname AS PK_NAME"
+            + " FROM pg_catalog.pg_constraint con"
+            + " JOIN pg_catalog.pg_class c ON c.oid = con.conrelid"
+            + " JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace"
+            + " CROSS JOIN LATERAL unnest(con.conkey) WITH ORDINALITY AS k(attnum, seq)"
+            + " JOIN pg_catalog.pg_attribute a ON a.attrelid = con.conrelid AND a.attnum = k.attnum"
+            + " WHERE con.contype = 'p' AND n.nspname = ?"
+            + " ORDER BY c.relname, k.seq";
+
+    /**
+     * 表达式索引列在 indkey 中为 0，不在结果中；INCLUDE 列不是索引键，不在结果中
+     */
+    public static final String INDEXES = "SELECT c.relname AS TABLE_NAME, ic.relname AS INDEX_NAME,"
+            + " CASE WHEN i.indisunique THEN 0 ELSE 1 END AS NON_UNIQUE, a.attname AS COLUMN_NAME,"
+            + " k.seq AS ORDINAL_POSITION,"
+            + " CASE WHEN pg_index_column_has_property(i.indexrelid, k.seq::int, 'desc') THEN 'D' ELSE 'A' END"
+            + " AS ASC_OR_DESC,"
+            + " CASE WHEN am.amname = 'hash' THEN 2 ELSE 3 END AS TYPE"
+            + " FROM pg_catalog.pg_index i"
+            + " JOIN pg_catalog.pg_class c ON c.oid = i.indrelid"
+            + " JOIN pg_catalog.pg_class ic ON ic.oid = i.indexrelid"
+            + " JOIN pg_catalog.pg_am am ON am.oid = ic.relam"
+            + " JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace"
+            + " CROSS JOIN LATERAL unnest(i.indkey::int2[]) WITH ORDINALITY AS k(attnum, seq)"
+            + " JOIN pg_catalog.pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = k.attnum"
+            + " WHERE n.nspname = ? AND k.seq <= i.indnkeyatts"
+            + " ORDER BY c.relname, ic.relname, k.seq";
+
+    /**
+     * reltuples 为最近一次 VACUUM 或 ANALYZE 的估算，从未统计过的表为 -1（PostgreSQL 14 之前为 0）；
+     * 数据大小包括 TOAST，不包括索引。分区表的父表本身不存储数据，不在结果中
+     */
+    public static final String TABLE_STATISTICS = "SELECT c.relname AS TABLE_NAME,"
+            + " CASE WHEN c.reltuples < 0 THEN NULL ELSE CAST(c.reltuples AS BIGINT) END AS ROW_COUNT,"
+            + " pg_table_size(c.oid) AS DATA_BYTES, pg_indexes_size(c.oid) AS INDEX_BYTES"
+            + " FROM pg_catalog.pg_class c"
+            + " JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace"
+            + " WHERE n.nspname = ? AND c.relkind = 'r' AND NOT c.relispartition";
+
+    /**
+     * pg_stats 的 n_distinct 为负数时表示不同值个数占行数的比例，按表的估算行数换算
+     */
+    public static final String COLUMN_CARDINALITY = "SELECT s.tablename AS TABLE_NAME, s.attname AS COLUMN_NAME,"
+            + " CAST(CASE WHEN s.n_distinct >= 0 THEN s.n_distinct"
+            + " ELSE -s.n_distinct * GREATEST(c.reltuples, 0) END AS BIGINT) AS CARDINALITY"
+            + " FROM pg_catalog.pg_stats s"
+            + " JOIN pg_catalog.pg_namespace n ON n.nspname = s.schemaname"
+            + " JOIN pg_catalog.pg_class c ON c.relnamespace = n.oid AND c.relname = s.tablename"
+            + " WHERE s.schemaname = ? AND NOT s.inherited";
+
+}
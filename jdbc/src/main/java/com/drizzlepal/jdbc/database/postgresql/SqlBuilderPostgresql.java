@@ -0,0 +1,217 @@
+package com.drizzlepal.jdbc.database.postgresql;
+
+import java.sql.Types;
+import java.util.List;
+
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.sql.DefaultSqlBuilder;
+import com.drizzlepal.utils.StringUtils;
+
+/**
+ * PostgreSQL 方言，人大金仓沿用，标识符使用双引号转义
+ * <p>
+ * 连接不能跨库访问，表名不带数据库限定，按连接的 search_path（连接参数 currentSchema）解析
+ */
+public class SqlBuilderPostgresql extends DefaultSqlBuilder {
+
+    /**
+     * 字符类型长度上限，超过时使用 TEXT
+     */
+    private static final int MAX_VARCHAR_LENGTH = 10485760;
+
+    private static final int MAX_NUMERIC_PRECISION = 1000;
+
+    private static final int MAX_FRACTIONAL_SECONDS = 6;
+
+    @Override
+    public String escape(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    @Override
+    public String tableName(TableMetaData tableMetaData) {
+        return escape(tableMetaData.getName());
+    }
+
+    /**
+     * 取 md5 的前 64 位作为 BIGINT，concat_ws 会跳过 NULL，末尾追加各列的 IS NULL 标记区分 NULL 与空字符串
+     */
+    @Override
+    public String RowChecksum(List<String> columns) {
+        StringBuilder values = new StringBuilder();
+        StringBuilder nulls = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            String column = escape(columns.get(i));
+            values.append(", ").append(column);
+            nulls.append(i == 0 ? "" : ", ").append('(').append(column).append(" IS NULL)::int");
+        }
+        return "('x' || substr(md5(concat_ws('#'" + values + ", concat(" + nulls + "))), 1, 16))::bit(64)::bigint";
+    }
+
+    /**
+     * PostgreSQL 14 之前与人大金仓没有 BIT_XOR，改为对各行校验和求和后取模，同样与行的顺序无关
+     */
+    @Override
+    public String ChunkChecksum(List<String> columns) {
+        return "COUNT(*), CAST(COALESCE(SUM(" + RowChecksum(columns) + ") % 9223372036854775807, 0) AS BIGINT)";
+    }
+
+    /**
+     * ON CONFLICT 的键列必须有对应的主键或唯一索引；全部列都是键列时冲突的行保持不变
+     */
+    @Override
+    public String Upsert(TableMetaData tableMetaData, List<String> keyColumns, int rows) {
+        StringBuilder builder = new StringBuilder(Insert(tableMetaData, null, rows)).append(" ON CONFLICT (");
+        for (int i = 0; i < keyColumns.size(); i++) {
+            builder.append(i == 0 ? "" : ", ").append(escape(keyColumns.get(i)));
+        }
+        builder.append(')');
+        List<String> updates = nonKeyColumns(tableMetaData, keyColumns);
+        if (updates.isEmpty()) {
+            return builder.append(" DO NOTHING").toString();
+        }
+        builder.append(" DO UPDATE SET ");
+        for (int i = 0; i < updates.size(); i++) {
+            String column = escape(updates.get(i));
+            builder.append(i == 0 ? "" : ", ").append(column).append(" = EXCLUDED.").append(column);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String CopyIn(TableMetaData tableMetaData) {
+        StringBuilder builder = new StringBuilder("COPY ").append(tableName(tableMetaData)).append(" (");
+        List<ColumnMetaData> columns = tableMetaData.getColumns();
+        if (columns == null || columns.isEmpty()) {
+            throw new IllegalArgumentException("表 " + tableMetaData.getName() + " 没有列元数据");
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            builder.append(i == 0 ? "" : ", ").append(escape(columns.get(i).getName()));
+        }
+        return builder.append(") FROM STDIN").toString();
+    }
+
+    /**
+     * 只修改类型与是否可为空，不能隐式转换的类型需要手工加 USING 子句
+     */
+    @Override
+    public String ModifyColumn(TableMetaData tableMetaData, ColumnMetaData column) {
+        String alterColumn = " ALTER COLUMN " + escape(column.getName());
+        boolean notNull = column.getNullable() != null && column.getNullable() == 0;
+        return ALTER_TABLE + tableName(tableMetaData) + alterColumn + " TYPE " + columnType(column) + ","
+                + alterColumn + (notNull ? " SET NOT NULL" : " DROP NOT NULL");
+    }
+
+    /**
+     * 未指定约束名时使用默认的主键约束名 表名_pkey
+     */
+    @Override
+    public String DropPrimaryKey(TableMetaData tableMetaData, String primaryKeyName) {
+        String constraint = StringUtils.isBlank(primaryKeyName) ? tableMetaData.getName() + "_pkey" : primaryKeyName;
+        return ALTER_TABLE + tableName(tableMetaData) + " DROP CONSTRAINT " + escape(constraint);
+    }
+
+    @Override
+    public String DropIndex(TableMetaData tableMetaData, String indexName) {
+        return "DROP INDEX " + escape(indexName);
+    }
+
+    /**
+     * 没有无符号整数，无符号列放宽一级，无符号 BIGINT 使用 NUMERIC(20, 0)；没有单字节整数，TINYINT 使用 SMALLINT
+     */
+    @Override
+    protected void translateType(ColumnMetaData column, boolean unsigned) {
+        int length = lengthOf(column);
+        switch (column.getDatatype()) {
+            case Types.BIT:
+                if (length > 1) {
+                    setType(column, Types.BIT, "BIT(" + length + ")", null);
+                } else {
+                    setType(column, Types.BOOLEAN, "BOOLEAN", null);
+                }
+                break;
+            case Types.BOOLEAN:
+                setType(column, Types.BOOLEAN, "BOOLEAN", null);
+                break;
+            case Types.TINYINT:
+                setType(column, Types.SMALLINT, "SMALLINT", null);
+                break;
+            case Types.SMALLINT:
+                setType(column, unsigned ? Types.INTEGER : Types.SMALLINT, unsigned ? "INTEGER" : "SMALLINT", null);
+                break;
+            case Types.INTEGER:
+                setType(column, unsigned ? Types.BIGINT : Types.INTEGER, unsigned ? "BIGINT" : "INTEGER", null);
+                break;
+            case Types.BIGINT:
+                if (unsigned) {
+                    setType(column, Types.NUMERIC, "NUMERIC", 20);
+                    column.setDecimalDigits(0);
+                } else {
+                    setType(column, Types.BIGINT, "BIGINT", null);
+                }
+                break;
+            case Types.REAL:
+                setType(column, Types.REAL, "REAL", null);
+                break;
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                setType(column, Types.DOUBLE, "DOUBLE PRECISION", null);
+                break;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                setType(column, Types.NUMERIC, "NUMERIC", length <= 0 ? null : Math.min(length, MAX_NUMERIC_PRECISION));
+                if (column.getDecimalDigits() != null && column.getLength() != null) {
+                    column.setDecimalDigits(Math.min(column.getDecimalDigits(), column.getLength()));
+                }
+                break;
+            case Types.CHAR:
+            case Types.NCHAR:
+                if (length > 0 && length <= MAX_VARCHAR_LENGTH) {
+                    setType(column, Types.CHAR, "CHAR", length);
+                } else {
+                    setType(column, Types.LONGVARCHAR, "TEXT", null);
+                }
+                break;
+            case Types.VARCHAR:
+            case Types.NVARCHAR:
+                if (length > 0 && length <= MAX_VARCHAR_LENGTH) {
+                    setType(column, Types.VARCHAR, "VARCHAR", length);
+                } else {
+                    setType(column, Types.LONGVARCHAR, "TEXT", null);
+                }
+                break;
+            case Types.DATE:
+                setType(column, Types.DATE, "DATE", null);
+                break;
+            case Types.TIME:
+                setType(column, Types.TIME, "TIME", null);
+                break;
+            case Types.TIME_WITH_TIMEZONE:
+                setType(column, Types.TIME_WITH_TIMEZONE, "TIME WITH TIME ZONE", null);
+                break;
+            case Types.TIMESTAMP:
+                setType(column, Types.TIMESTAMP, "TIMESTAMP(" + fractionalSeconds(column) + ")", null);
+                break;
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                setType(column, Types.TIMESTAMP_WITH_TIMEZONE,
+                        "TIMESTAMP(" + fractionalSeconds(column) + ") WITH TIME ZONE", null);
+                break;
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                setType(column, Types.LONGVARBINARY, "BYTEA", null);
+                break;
+            default:
+                setType(column, Types.LONGVARCHAR, "TEXT", null);
+                break;
+        }
+    }
+
+    private static int fractionalSeconds(ColumnMetaData column) {
+        return column.getDecimalDigits() == null ? MAX_FRACTIONAL_SECONDS
+                : Math.min(column.getDecimalDigits(), MAX_FRACTIONAL_SECONDS);
+    }
+
+}
@@ -1,18 +1,44 @@
 package com.drizzlepal.jdbc.database.sqlserver;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
 import com.drizzlepal.jdbc.DefaultDatabaseConfig;
 import com.drizzlepal.jdbc.DefaultDataSource;
 
 public class DataSourceSqlServer extends DefaultDataSource {
 
+    /**
+     * Always On 可读辅助副本上当前数据库的重做延迟：已接收但尚未重做的日志对应的时间差，
+     * 主库空闲时两者同时停止推进，延迟为 0
+     */
+    private static final String REPLICATION_LAG = "SELECT CASE WHEN last_redone_time >= last_received_time THEN 0"
+            + " ELSE CAST(DATEDIFF(SECOND, last_redone_time, last_received_time) AS BIGINT) * 1000 END"
+            + " FROM sys.dm_hadr_database_replica_states"
+            + " WHERE is_local = 1 AND is_primary_replica = 0 AND database_id = DB_ID()";
+
     public DataSourceSqlServer(DefaultDatabaseConfig configCommon) {
         super(configCommon);
     }
 
     @Override
     public String buildJdbcUrl(DefaultDatabaseConfig configCommon) {
-        return String.format("jdbc:sqlserver://%s:%s;databaseName=%s", configCommon.getHost(), configCommon.getPort(),
-                configCommon.getDatabase());
+        StringBuilder stringBuilder = new StringBuilder(String.format("jdbc:sqlserver://%s:%s;databaseName=%s",
+                configCommon.getHost(), configCommon.getPort(), configCommon.getDatabase()));
+        configCommon.getConnectionParams().forEach((k, v) -> stringBuilder.append(";").append(k).append("=").append(v));
+        return stringBuilder.toString();
+    }
+
+    @Override
+    protected boolean isDriverBatchRewriteEnabled() {
+        return "true".equalsIgnoreCase(configCommon.getConnectionParams().get("useBulkCopyForBatchInsert"));
+    }
+
+    @Override
+    protected boolean isStagedUpsert() {
+        return true;
     }
 
     @Override
@@ -21,4 +47,16 @@ public class DataSourceSqlServer extends DefaultDataSource {
                 && configCommon.getDatabase() != null && !configCommon.getDatabase().isEmpty();
     }
 
+    @Override
+    protected Long getReplicationLagMs(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(REPLICATION_LAG)) {
+            if (!resultSet.next()) {
+                return null;
+            }
+            long lagMs = resultSet.getLong(1);
+            return resultSet.wasNull() ? Long.valueOf(Long.MAX_VALUE) : Long.valueOf(lagMs);
+        }
+    }
+
 }
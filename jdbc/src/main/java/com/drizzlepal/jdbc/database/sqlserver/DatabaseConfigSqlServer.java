@@ -8,7 +8,17 @@ import com.drizzlepal.jdbc.DatabaseType;
 public class DatabaseConfigSqlServer extends DefaultDatabaseConfig {
 
     public DatabaseConfigSqlServer() {
-        super(DatabaseType.SQL_SERVER, new HashMap<>());
+        super(DatabaseType.SQL_SERVER, new HashMap<String, String>() {
+            {
+                // 只进只读结果集按需从网络读取，流式查询时不缓存整个结果集
+                put("responseBuffering", "adaptive");
+                // 预编译 INSERT 的 JDBC batch 改为批量复制
+                put("useBulkCopyForBatchInsert", "true");
+                // 驱动按连接缓存预编译语句句柄，重复执行的语句不再重新准备
+                put("disableStatementPooling", "false");
+                put("statementPoolingCacheSize", "256");
+            }
+        });
     }
 
 }
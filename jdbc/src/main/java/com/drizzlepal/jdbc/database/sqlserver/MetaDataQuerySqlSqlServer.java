@@ -0,0 +1,133 @@
+package com.drizzlepal.jdbc.database.sqlserver;
+
+/**
+ * SQL Server 批量元数据查询sql，基于 sys.* 目录视图一次性查询整个库的表、列、主键和索引信息
+ * <p>
+ * sys.* 视图只作用于连接当前所在的数据库，所有sql只有一个参数：schema 名称，结果列标签与 JDBC DatabaseMetaData
+ * 返回的标签保持一致
+ */
+public final class MetaDataQuerySqlSqlServer {
+
+    private MetaDataQuerySqlSqlServer() {
+    }
+
+    public static final String TABLES = "SELECT t.name AS TABLE_NAME, CAST(ep.value AS NVARCHAR(4000)) AS REMARKS"
+            + " FROM sys.tables t"
+            + " JOIN sys.schemas s ON s.schema_id = t.schema_id"
+            + " LEFT JOIN sys.extended_properties ep ON ep.class = 1 AND ep.major_id = t.object_id"
+            + " AND ep.minor_id = 0 AND ep.name = 'MS_Description'"
+            + " WHERE s.name = ?"
+            + " ORDER BY t.name";
+
+    public static final String COLUMNS = "SELECT t.name AS TABLE_NAME, c.name AS COLUMN_NAME,"
+            + " CAST(ep.value AS NVARCHAR(4000)) AS REMARKS, ty.name AS TYPE_NAME,"
+            + " CASE ty.name"
+            + " WHEN 'bit' THEN -7"
+            + " WHEN 'tinyint' THEN -6"
+            + " WHEN 'smallint' THEN 5"
+            + " WHEN 'int' THEN 4"
+            + " WHEN 'bigint' THEN -5"
+            + " WHEN 'real' THEN 7"
+            + " WHEN 'float' THEN 8"
+            + " WHEN 'decimal' THEN 3"
+            + " WHEN 'numeric' THEN 2"
+            + " WHEN 'money' THEN 3"
+            + " WHEN 'smallmoney' THEN 3"
+            + " WHEN 'char' THEN 1"
+            + " WHEN 'uniqueidentifier' THEN 1"
+            + " WHEN 'varchar' THEN 12"
+            + " WHEN 'text' THEN -1"
+            + " WHEN 'nchar' THEN -15"
+            + " WHEN 'nvarchar' THEN -9"
+            + " WHEN 'ntext' THEN -16"
+            + " WHEN 'xml' THEN -16"
+            + " WHEN 'date' THEN 91"
+            + " WHEN 'time' THEN 92"
+            + " WHEN 'datetime' THEN 93"
+            + " WHEN 'datetime2' THEN 93"
+            + " WHEN 'smalldatetime' THEN 93"
+            + " WHEN 'datetimeoffset' THEN -155"
+            + " WHEN 'binary' THEN -2"
+            + " WHEN 'timestamp' THEN -2"
+            + " WHEN 'varbinary' THEN -3"
+            + " WHEN 'image' THEN -4"
+            + " ELSE 1111 END AS DATA_TYPE,"
+            + " CASE WHEN c.max_length = -1 THEN 2147483647"
+            + " WHEN ty.name IN ('nchar', 'nvarchar') THEN c.max_length / 2"
+            + " WHEN c.precision > 0 THEN c.precision"
+            + " ELSE c.max_length END AS COLUMN_SIZE,"
+            + " c.scale AS DECIMAL_DIGITS,"
+            + " CASE WHEN c.is_nullable = 1 THEN 1 ELSE 0 END AS NULLABLE,"
+            + " ROW_NUMBER() OVER (PARTITION BY c.object_id ORDER BY c.column_id) AS ORDINAL_POSITION,"
+            + " OBJECT_DEFINITION(c.default_object_id) AS COLUMN_DEF"
+            + " FROM sys.columns c"
+            + " JOIN sys.tables t ON t.object_id = c.object_id"
+            + " JOIN sys.schemas s ON s.schema_id = t.schema_id"
+            + " JOIN sys.types ty ON ty.user_type_id = c.user_type_id"
+            + " LEFT JOIN sys.extended_properties ep ON ep.class = 1 AND ep.major_id = c.object_id"
+            + " AND ep.minor_id = c.column_id AND ep.name = 'MS_Description'"
+            + " WHERE s.name = ?"
+            + " ORDER BY t.name, c.column_id";
+
+    public static final String PRIMARY_KEYS = "SELECT t.name AS TABLE_NAME, c.name AS COLUMN_NAME,"
+            + " ic.key_ordinal AS KEY_SEQ, i.name AS PK_NAME"
+            + " FROM sys.indexes i"
+            + " JOIN sys.index_columns ic ON ic.object_id = i.object_id AND ic.index_id = i.index_id"
+            + " JOIN sys.columns c ON c.object_id = ic.object_id AND c.column_id = ic.column_id"
+            + " JOIN sys.tables t ON t.object_id = i.object_id"
+            + " JOIN sys.schemas s ON s.schema_id = t.schema_id"
+            + " WHERE i.is_primary_key = 1 AND s.name = ?"
+            + " ORDER BY t.name, ic.key_ordinal";
+
+    public static final String INDEXES = "SELECT t.name AS TABLE_NAME, i.name AS INDEX_NAME,"
+            + " CASE WHEN i.is_unique = 1 THEN 0 ELSE 1 END AS NON_UNIQUE, c.name AS COLUMN_NAME,"
+            + " ic.key_ordinal AS ORDINAL_POSITION,"
+            + " CASE WHEN ic.is_descending_key = 1 THEN 'D' ELSE 'A' END AS ASC_OR_DESC,"
+            + " CASE WHEN i.type = 1 THEN 1 ELSE 3 END AS TYPE"
+            + " FROM sys.indexes i"
+            + " JOIN sys.index_columns ic ON ic.object_id = i.object_id AND ic.index_id = i.index_id"
+            + " JOIN sys.columns c ON c.object_id = ic.object_id AND c.column_id = ic.column_id"
+            + " JOIN sys.tables t ON t.object_id = i.object_id"
+            + " JOIN sys.schemas s ON s.schema_id = t.schema_id"
+            + " WHERE i.type > 0 AND ic.key_ordinal > 0 AND s.name = ?"
+            + " ORDER BY t.name, i.name, ic.key_ordinal";
+
+    public static final String TABLE_VERSIONS = "SELECT t.name AS TABLE_NAME, t.create_date AS CREATE_TIME,"
+            + " t.modify_date AS UPDATE_TIME"
+            + " FROM sys.tables t"
+            + " JOIN sys.schemas s ON s.schema_id = t.schema_id"
+            + " WHERE s.name = ?";
+
+    /**
+     * index_id 为 0（堆）或 1（聚集索引）的分区行数之和为表行数，页大小 8KB
+     */
+    public static final String TABLE_STATISTICS = "SELECT t.name AS TABLE_NAME,"
+            + " SUM(CASE WHEN ps.index_id IN (0, 1) THEN ps.row_count ELSE 0 END) AS ROW_COUNT,"
+            + " SUM(CASE WHEN ps.index_id IN (0, 1) THEN CAST(ps.used_page_count AS BIGINT) ELSE 0 END) * 8192"
+            + " AS DATA_BYTES,"
+            + " SUM(CASE WHEN ps.index_id > 1 THEN CAST(ps.used_page_count AS BIGINT) ELSE 0 END) * 8192"
+            + " AS INDEX_BYTES"
+            + " FROM sys.dm_db_partition_stats ps"
+            + " JOIN sys.tables t ON t.object_id = ps.object_id"
+            + " JOIN sys.schemas s ON s.schema_id = t.schema_id"
+            + " WHERE s.name = ?"
+            + " GROUP BY t.name";
+
+    /**
+     * 统计信息直方图各步骤的范围内不同值个数加上步骤数即首列的不同值个数估算，需要 SQL Server 2016 SP1 CU2 及以上。
+     * 直方图在表过滤之后逐个统计对象展开，按表名过滤时只读取该表的直方图
+     */
+    public static final String COLUMN_CARDINALITY = "SELECT t.name AS TABLE_NAME, c.name AS COLUMN_NAME,"
+            + " MAX(h.distinct_count) AS CARDINALITY"
+            + " FROM sys.tables t"
+            + " JOIN sys.schemas s ON s.schema_id = t.schema_id"
+            + " JOIN sys.stats st ON st.object_id = t.object_id"
+            + " JOIN sys.stats_columns sc ON sc.object_id = st.object_id AND sc.stats_id = st.stats_id"
+            + " AND sc.stats_column_id = 1"
+            + " JOIN sys.columns c ON c.object_id = sc.object_id AND c.column_id = sc.column_id"
+            + " CROSS APPLY (SELECT CAST(SUM(hg.distinct_range_rows) + COUNT(*) AS BIGINT) AS distinct_count"
+            + " FROM sys.dm_db_stats_histogram(st.object_id, st.stats_id) hg) h"
+            + " WHERE s.name = ?"
+            + " GROUP BY t.name, c.name";
+
+}
@@ -0,0 +1,263 @@
+package com.drizzlepal.jdbc.database.sqlserver;
+
+import java.sql.Types;
+import java.util.List;
+
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.sql.DefaultSqlBuilder;
+import com.drizzlepal.utils.StringUtils;
+
+/**
+ * SQL Server 方言，标识符使用方括号转义，表元数据没有模式时带数据库限定的表名使用连接用户的默认 schema
+ */
+public class SqlBuilderSqlServer extends DefaultSqlBuilder {
+
+    private static final int MAX_VARCHAR_LENGTH = 8000;
+
+    private static final int MAX_NVARCHAR_LENGTH = 4000;
+
+    private static final int MAX_DECIMAL_PRECISION = 38;
+
+    private static final int MAX_FRACTIONAL_SECONDS = 7;
+
+    @Override
+    public String escape(String identifier) {
+        return "[" + identifier.replace("]", "]]") + "]";
+    }
+
+    @Override
+    public String tableName(TableMetaData tableMetaData) {
+        String schema = StringUtils.isNotBlank(tableMetaData.getSchema()) ? escape(tableMetaData.getSchema()) : "";
+        if (StringUtils.isNotBlank(tableMetaData.getDatabase())) {
+            return escape(tableMetaData.getDatabase()) + "." + schema + "." + escape(tableMetaData.getName());
+        }
+        return schema.isEmpty() ? escape(tableMetaData.getName()) : schema + "." + escape(tableMetaData.getName());
+    }
+
+    @Override
+    protected String limit(int rows) {
+        return "OFFSET 0 ROWS FETCH NEXT " + rows + " ROWS ONLY";
+    }
+
+    @Override
+    public String Limit(int rows, long offset) {
+        return "OFFSET " + offset + " ROWS FETCH NEXT " + rows + " ROWS ONLY";
+    }
+
+    /**
+     * BINARY_CHECKSUM 会忽略 text、ntext、image、xml 等不可比较类型的列
+     */
+    @Override
+    public String RowChecksum(List<String> columns) {
+        StringBuilder builder = new StringBuilder("BINARY_CHECKSUM(");
+        for (int i = 0; i < columns.size(); i++) {
+            builder.append(i == 0 ? "" : ", ").append(escape(columns.get(i)));
+        }
+        return builder.append(')').toString();
+    }
+
+    @Override
+    public String ChunkChecksum(List<String> columns) {
+        return "COUNT_BIG(*), COALESCE(CHECKSUM_AGG(" + RowChecksum(columns) + "), 0)";
+    }
+
+    /**
+     * 通过 SELECT INTO 复制列定义，UNION ALL 使暂存表不继承 IDENTITY 属性，键值可以直接写入
+     */
+    @Override
+    public String CreateStagingTable(TableMetaData tableMetaData, TableMetaData stagingTable) {
+        StringBuilder columns = new StringBuilder();
+        for (ColumnMetaData column : tableMetaData.getColumns()) {
+            columns.append(columns.length() == 0 ? "" : ", ").append(escape(column.getName()));
+        }
+        String staging = tableName(stagingTable);
+        String select = "SELECT TOP 0 " + columns + " FROM " + tableName(tableMetaData);
+        return "IF OBJECT_ID(" + quoteLiteral("tempdb.." + stagingTable.getName()) + ") IS NOT NULL DROP TABLE "
+                + staging + "; SELECT TOP 0 " + columns + " INTO " + staging + " FROM " + tableName(tableMetaData)
+                + " UNION ALL " + select;
+    }
+
+    /**
+     * HOLDLOCK 使判断与写入之间持有键范围锁，避免并发合并同一个键时重复插入；
+     * 目标表的 IDENTITY 列作为键时需要调用方先开启 IDENTITY_INSERT
+     */
+    @Override
+    public String Merge(TableMetaData tableMetaData, TableMetaData stagingTable, List<String> keyColumns) {
+        StringBuilder builder = new StringBuilder("MERGE INTO ").append(tableName(tableMetaData))
+                .append(" WITH (HOLDLOCK) AS t USING ").append(tableName(stagingTable)).append(" AS s ON ");
+        for (int i = 0; i < keyColumns.size(); i++) {
+            String column = escape(keyColumns.get(i));
+            builder.append(i == 0 ? "" : " AND ").append("t.").append(column).append(" = s.").append(column);
+        }
+        List<String> updates = nonKeyColumns(tableMetaData, keyColumns);
+        if (!updates.isEmpty()) {
+            builder.append(" WHEN MATCHED THEN UPDATE SET ");
+            for (int i = 0; i < updates.size(); i++) {
+                String column = escape(updates.get(i));
+                builder.append(i == 0 ? "" : ", ").append("t.").append(column).append(" = s.").append(column);
+            }
+        }
+        StringBuilder columns = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (ColumnMetaData column : tableMetaData.getColumns()) {
+            String name = escape(column.getName());
+            columns.append(columns.length() == 0 ? "" : ", ").append(name);
+            values.append(values.length() == 0 ? "" : ", ").append("s.").append(name);
+        }
+        return builder.append(" WHEN NOT MATCHED THEN INSERT (").append(columns).append(") VALUES (").append(values)
+                .append(");").toString();
+    }
+
+    /**
+     * COUNT 的结果为 int，超过 2^31-1 行时溢出
+     */
+    @Override
+    public String Count(TableMetaData tableMetaData) {
+        return "SELECT COUNT_BIG(*) FROM " + tableName(tableMetaData);
+    }
+
+    @Override
+    public String AddColumn(TableMetaData tableMetaData, ColumnMetaData column) {
+        return ALTER_TABLE + tableName(tableMetaData) + " ADD " + columnDefinition(column);
+    }
+
+    /**
+     * ALTER COLUMN 只能修改类型与是否可为空，默认值是独立的约束，不在该语句中修改
+     */
+    @Override
+    public String ModifyColumn(TableMetaData tableMetaData, ColumnMetaData column) {
+        boolean notNull = column.getNullable() != null && column.getNullable() == 0;
+        return ALTER_TABLE + tableName(tableMetaData) + " ALTER COLUMN " + escape(column.getName()) + " "
+                + columnType(column) + (notNull ? " NOT NULL" : " NULL");
+    }
+
+    @Override
+    public String DropPrimaryKey(TableMetaData tableMetaData, String primaryKeyName) {
+        if (StringUtils.isBlank(primaryKeyName)) {
+            throw new IllegalArgumentException("表 " + tableMetaData.getName() + " 删除主键需要主键约束名");
+        }
+        return ALTER_TABLE + tableName(tableMetaData) + " DROP CONSTRAINT " + escape(primaryKeyName);
+    }
+
+    /**
+     * 长度为 -1 或超过类型上限的变长类型使用 (MAX)
+     */
+    @Override
+    protected String columnType(ColumnMetaData column) {
+        Integer length = column.getLength();
+        switch (column.getDatatype()) {
+            case Types.VARCHAR:
+            case Types.VARBINARY:
+                if (length != null && (length < 0 || length > MAX_VARCHAR_LENGTH)) {
+                    return column.getTypeName() + "(MAX)";
+                }
+                break;
+            case Types.NVARCHAR:
+                if (length != null && (length < 0 || length > MAX_NVARCHAR_LENGTH)) {
+                    return column.getTypeName() + "(MAX)";
+                }
+                break;
+            default:
+                break;
+        }
+        return super.columnType(column);
+    }
+
+    /**
+     * 字符类型统一使用 NCHAR/NVARCHAR 保存 Unicode，超出长度上限时使用 (MAX)；
+     * SQL Server 没有无符号整数，无符号列放宽一级，无符号 BIGINT 使用 DECIMAL(20, 0)
+     */
+    @Override
+    protected void translateType(ColumnMetaData column, boolean unsigned) {
+        int length = lengthOf(column);
+        switch (column.getDatatype()) {
+            case Types.BIT:
+                if (length > 1) {
+                    setType(column, Types.BINARY, "BINARY", (length + 7) / 8);
+                } else {
+                    setType(column, Types.BIT, "BIT", null);
+                }
+                break;
+            case Types.BOOLEAN:
+                setType(column, Types.BIT, "BIT", null);
+                break;
+            case Types.TINYINT:
+                setType(column, unsigned ? Types.TINYINT : Types.SMALLINT, unsigned ? "TINYINT" : "SMALLINT", null);
+                break;
+            case Types.SMALLINT:
+                setType(column, unsigned ? Types.INTEGER : Types.SMALLINT, unsigned ? "INT" : "SMALLINT", null);
+                break;
+            case Types.INTEGER:
+                setType(column, unsigned ? Types.BIGINT : Types.INTEGER, unsigned ? "BIGINT" : "INT", null);
+                break;
+            case Types.BIGINT:
+                if (unsigned) {
+                    setType(column, Types.DECIMAL, "DECIMAL", 20);
+                    column.setDecimalDigits(0);
+                } else {
+                    setType(column, Types.BIGINT, "BIGINT", null);
+                }
+                break;
+            case Types.REAL:
+                setType(column, Types.REAL, "REAL", null);
+                break;
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                setType(column, Types.DOUBLE, "FLOAT", null);
+                break;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                setType(column, Types.DECIMAL, "DECIMAL", length <= 0 ? null : Math.min(length, MAX_DECIMAL_PRECISION));
+                if (column.getDecimalDigits() != null && column.getLength() != null) {
+                    column.setDecimalDigits(Math.min(column.getDecimalDigits(), column.getLength()));
+                }
+                break;
+            case Types.CHAR:
+            case Types.NCHAR:
+                if (length > 0 && length <= MAX_NVARCHAR_LENGTH) {
+                    setType(column, Types.NCHAR, "NCHAR", length);
+                } else {
+                    setType(column, Types.NVARCHAR, "NVARCHAR", -1);
+                }
+                break;
+            case Types.VARCHAR:
+            case Types.NVARCHAR:
+                setType(column, Types.NVARCHAR, "NVARCHAR", length > 0 && length <= MAX_NVARCHAR_LENGTH ? length : -1);
+                break;
+            case Types.DATE:
+                setType(column, Types.DATE, "DATE", null);
+                break;
+            case Types.TIME:
+            case Types.TIME_WITH_TIMEZONE:
+                setType(column, Types.TIME, "TIME", null);
+                break;
+            case Types.TIMESTAMP:
+                int fraction = column.getDecimalDigits() == null ? MAX_FRACTIONAL_SECONDS
+                        : Math.min(column.getDecimalDigits(), MAX_FRACTIONAL_SECONDS);
+                setType(column, Types.TIMESTAMP, "DATETIME2(" + fraction + ")", null);
+                break;
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                setType(column, Types.TIMESTAMP_WITH_TIMEZONE, "DATETIMEOFFSET", null);
+                break;
+            case Types.BINARY:
+                if (length > 0 && length <= MAX_VARCHAR_LENGTH) {
+                    setType(column, Types.BINARY, "BINARY", length);
+                } else {
+                    setType(column, Types.VARBINARY, "VARBINARY", -1);
+                }
+                break;
+            case Types.VARBINARY:
+                setType(column, Types.VARBINARY, "VARBINARY", length > 0 && length <= MAX_VARCHAR_LENGTH ? length : -1);
+                break;
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                setType(column, Types.VARBINARY, "VARBINARY", -1);
+                break;
+            default:
+                setType(column, Types.NVARCHAR, "NVARCHAR", -1);
+                break;
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.drizzlepal.jdbc.diff;
+
+import java.util.Collections;
+import java.util.Set;
+
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+
+import lombok.Getter;
+
+/**
+ * 两侧都存在但定义不同的列
+ */
+@Getter
+public class ColumnChange {
+
+    /**
+     * 列的可比较属性
+     */
+    public enum Attribute {
+        TYPE, LENGTH, SCALE, NULLABLE, DEFAULT, REMARKS, POSITION
+    }
+
+    private final ColumnMetaData source;
+
+    private final ColumnMetaData target;
+
+    private final Set<Attribute> attributes;
+
+    ColumnChange(ColumnMetaData source, ColumnMetaData target, Set<Attribute> attributes) {
+        this.source = source;
+        this.target = target;
+        this.attributes = Collections.unmodifiableSet(attributes);
+    }
+
+    /**
+     * @return 除位置以外还有其他属性不同，需要修改列定义
+     */
+    public boolean isDefinitionChanged() {
+        return attributes.size() > (attributes.contains(Attribute.POSITION) ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return source.getName() + attributes;
+    }
+
+}
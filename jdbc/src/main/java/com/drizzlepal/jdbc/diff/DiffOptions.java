@@ -0,0 +1,31 @@
+package com.drizzlepal.jdbc.diff;
+
+import lombok.Data;
+
+/**
+ * 表结构比较参数
+ */
+@Data
+public class DiffOptions {
+
+    /**
+     * 表名、列名、索引名是否忽略大小写
+     */
+    private boolean ignoreCase = true;
+
+    /**
+     * 是否比较表与列的备注
+     */
+    private boolean compareRemarks = true;
+
+    /**
+     * 是否比较列默认值，比较前去掉外层括号与引号，如 SQL Server 的 ((0)) 与 0 视为相同
+     */
+    private boolean compareDefaults = true;
+
+    /**
+     * 是否比较列的位置，列位置变化不生成迁移语句
+     */
+    private boolean comparePosition = false;
+
+}
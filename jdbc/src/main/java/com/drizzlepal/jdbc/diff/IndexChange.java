@@ -0,0 +1,25 @@
+package com.drizzlepal.jdbc.diff;
+
+import lombok.Getter;
+
+/**
+ * 两侧同名但列或唯一性不同的索引，迁移时先删除再重建
+ */
+@Getter
+public class IndexChange {
+
+    private final IndexDefinition source;
+
+    private final IndexDefinition target;
+
+    IndexChange(IndexDefinition source, IndexDefinition target) {
+        this.source = source;
+        this.target = target;
+    }
+
+    @Override
+    public String toString() {
+        return source + " -> " + target;
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.drizzlepal.jdbc.diff;
+
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * 由同一索引各列的 IndexMetaData 合并得到的索引定义
+ */
+@Getter
+public class IndexDefinition {
+
+    private final String name;
+
+    /**
+     * 索引列，按在索引中的顺序
+     */
+    private final List<String> columns;
+
+    private final boolean unique;
+
+    IndexDefinition(String name, List<String> columns, boolean unique) {
+        this.name = name;
+        this.columns = Collections.unmodifiableList(columns);
+        this.unique = unique;
+    }
+
+    @Override
+    public String toString() {
+        return (unique ? "UNIQUE " : "") + name + columns;
+    }
+
+}
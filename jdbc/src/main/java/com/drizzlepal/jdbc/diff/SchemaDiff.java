@@ -0,0 +1,91 @@
+package com.drizzlepal.jdbc.diff;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.sql.SqlBuilder;
+import com.drizzlepal.utils.StringUtils;
+
+import lombok.Getter;
+
+/**
+ * 两个库的表结构差异，新增与删除均以源端为基准：目标端有而源端没有的表为新增
+ */
+@Getter
+public class SchemaDiff {
+
+    /**
+     * 源端数据库名，迁移语句中的表名使用该库限定
+     */
+    private final String sourceDatabase;
+
+    private final List<TableMetaData> addedTables = new ArrayList<>();
+
+    private final List<TableMetaData> droppedTables = new ArrayList<>();
+
+    /**
+     * 两侧都存在且结构不同的表，结构相同的表不在其中
+     */
+    private final List<TableDiff> changedTables = new ArrayList<>();
+
+    SchemaDiff(String sourceDatabase) {
+        this.sourceDatabase = sourceDatabase;
+    }
+
+    public boolean isEmpty() {
+        return addedTables.isEmpty() && droppedTables.isEmpty() && changedTables.isEmpty();
+    }
+
+    /**
+     * 生成把源端表结构改为目标端表结构的语句：依次修改已有的表、创建新增的表及其索引，includeDrops 为 true 时
+     * 最后删除目标端没有的表
+     * <p>
+     * 列定义原样使用目标端的类型，两端为不同数据库时先用 {@link SqlBuilder#TranslateTable(TableMetaData)} 转换目标端元数据
+     *
+     * @param sqlBuilder   源端方言的 sql 构建器
+     * @param includeDrops 是否删除目标端没有的表和列
+     * @return 迁移sql，按执行顺序
+     */
+    public List<String> migration(SqlBuilder sqlBuilder, boolean includeDrops) {
+        ArrayList<String> ddl = new ArrayList<>();
+        for (TableDiff table : changedTables) {
+            ddl.addAll(table.migration(sqlBuilder, includeDrops));
+        }
+        for (TableMetaData table : addedTables) {
+            TableMetaData created = inSourceDatabase(table);
+            ddl.add(sqlBuilder.CreateTable(created));
+            for (IndexDefinition index : SchemaDiffer.indexDefinitions(table, false).values()) {
+                ddl.add(sqlBuilder.CreateIndex(created, index.getName(), index.getColumns(), index.isUnique()));
+            }
+        }
+        if (includeDrops) {
+            for (TableMetaData table : droppedTables) {
+                ddl.add(sqlBuilder.DropTable(table));
+            }
+        }
+        return ddl;
+    }
+
+    private TableMetaData inSourceDatabase(TableMetaData table) {
+        if (StringUtils.isBlank(sourceDatabase)) {
+            return table;
+        }
+        TableMetaData copy = new TableMetaData();
+        copy.setDatabase(sourceDatabase);
+        copy.setSchema(table.getSchema());
+        copy.setName(table.getName());
+        copy.setRemarks(table.getRemarks());
+        copy.setColumns(table.getColumns());
+        copy.setPrimaryKeys(table.getPrimaryKeys());
+        copy.setIndexes(table.getIndexes());
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("addedTables=%d, droppedTables=%d, changedTables=%d", addedTables.size(),
+                droppedTables.size(), changedTables.size());
+    }
+
+}
@@ -0,0 +1,300 @@
+package com.drizzlepal.jdbc.diff;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import com.drizzlepal.jdbc.diff.ColumnChange.Attribute;
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.DatabaseMetaData;
+import com.drizzlepal.jdbc.metadata.IndexMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.snapshot.MetaDataSnapshot;
+import com.drizzlepal.jdbc.utils.MetaDataUtils;
+
+/**
+ * 比较两个库或两张表的结构，报告新增、删除与变化的表、列、索引和主键
+ * <p>
+ * 比较只依赖元数据对象，不访问数据库，可以直接比较从文件加载的两个元数据快照。一侧的表、列、索引先按名称建立哈希索引，
+ * 再遍历另一侧逐个查找，耗时与表和列的总数成正比
+ */
+public class SchemaDiffer {
+
+    private final DiffOptions options;
+
+    public SchemaDiffer() {
+        this(new DiffOptions());
+    }
+
+    public SchemaDiffer(DiffOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * 比较从文件加载的两个元数据快照
+     *
+     * @param sourceSnapshot 源端快照文件
+     * @param targetSnapshot 目标端快照文件
+     * @return 结构差异
+     * @throws IOException 如果读取快照文件时发生IO异常
+     */
+    public SchemaDiff diff(Path sourceSnapshot, Path targetSnapshot) throws IOException {
+        return diff(MetaDataSnapshot.readFrom(sourceSnapshot), MetaDataSnapshot.readFrom(targetSnapshot));
+    }
+
+    public SchemaDiff diff(MetaDataSnapshot source, MetaDataSnapshot target) {
+        return diff(source.getDatabaseMetaData(), target.getDatabaseMetaData());
+    }
+
+    /**
+     * @param source 源端库元数据
+     * @param target 目标端库元数据
+     * @return 结构差异，目标端有而源端没有的表为新增
+     */
+    public SchemaDiff diff(DatabaseMetaData source, DatabaseMetaData target) {
+        SchemaDiff schemaDiff = new SchemaDiff(source.getName());
+        List<TableMetaData> sourceTables = orEmpty(source.getTables());
+        List<TableMetaData> targetTables = orEmpty(target.getTables());
+        HashMap<String, TableMetaData> sourceByName = new HashMap<>(sourceTables.size() * 4 / 3 + 1);
+        for (TableMetaData table : sourceTables) {
+            sourceByName.put(key(table.getName()), table);
+        }
+        for (TableMetaData table : targetTables) {
+            TableMetaData sourceTable = sourceByName.remove(key(table.getName()));
+            if (sourceTable == null) {
+                schemaDiff.getAddedTables().add(table);
+                continue;
+            }
+            TableDiff tableDiff = diff(sourceTable, table);
+            if (!tableDiff.isEmpty()) {
+                schemaDiff.getChangedTables().add(tableDiff);
+            }
+        }
+        if (!sourceByName.isEmpty()) {
+            // 按源端顺序输出删除的表
+            for (TableMetaData table : sourceTables) {
+                if (sourceByName.containsKey(key(table.getName()))) {
+                    schemaDiff.getDroppedTables().add(table);
+                }
+            }
+        }
+        return schemaDiff;
+    }
+
+    /**
+     * @param source 源端表元数据
+     * @param target 目标端表元数据
+     * @return 表结构差异，结构相同时 {@link TableDiff#isEmpty()} 为 true
+     */
+    public TableDiff diff(TableMetaData source, TableMetaData target) {
+        TableDiff tableDiff = new TableDiff(source, target);
+        diffColumns(tableDiff, orEmpty(source.getColumns()), orEmpty(target.getColumns()));
+        List<String> sourcePrimaryKey = MetaDataUtils.primaryKeyColumns(source);
+        List<String> targetPrimaryKey = MetaDataUtils.primaryKeyColumns(target);
+        tableDiff.setPrimaryKeys(sourcePrimaryKey, targetPrimaryKey, !sameNames(sourcePrimaryKey, targetPrimaryKey));
+        diffIndexes(tableDiff, indexDefinitions(source, options.isIgnoreCase()),
+                indexDefinitions(target, options.isIgnoreCase()));
+        tableDiff.setRemarksChanged(options.isCompareRemarks()
+                && !Objects.equals(emptyToNull(source.getRemarks()), emptyToNull(target.getRemarks())));
+        return tableDiff;
+    }
+
+    private void diffColumns(TableDiff tableDiff, List<ColumnMetaData> sourceColumns,
+            List<ColumnMetaData> targetColumns) {
+        HashMap<String, ColumnMetaData> sourceByName = new HashMap<>(sourceColumns.size() * 4 / 3 + 1);
+        for (ColumnMetaData column : sourceColumns) {
+            sourceByName.put(key(column.getName()), column);
+        }
+        for (ColumnMetaData column : targetColumns) {
+            ColumnMetaData sourceColumn = sourceByName.remove(key(column.getName()));
+            if (sourceColumn == null) {
+                tableDiff.getAddedColumns().add(column);
+                continue;
+            }
+            EnumSet<Attribute> attributes = compare(sourceColumn, column);
+            if (!attributes.isEmpty()) {
+                tableDiff.getChangedColumns().add(new ColumnChange(sourceColumn, column, attributes));
+            }
+        }
+        for (ColumnMetaData column : sourceColumns) {
+            if (sourceByName.containsKey(key(column.getName()))) {
+                tableDiff.getDroppedColumns().add(column);
+            }
+        }
+    }
+
+    private EnumSet<Attribute> compare(ColumnMetaData source, ColumnMetaData target) {
+        EnumSet<Attribute> attributes = EnumSet.noneOf(Attribute.class);
+        if (source.getDatatype() != target.getDatatype() || !equalsIgnoreCase(source.getTypeName(),
+                target.getTypeName())) {
+            attributes.add(Attribute.TYPE);
+        }
+        if (hasLength(target.getDatatype()) && !Objects.equals(source.getLength(), target.getLength())) {
+            attributes.add(Attribute.LENGTH);
+        }
+        if (hasScale(target.getDatatype()) && !Objects.equals(source.getDecimalDigits(), target.getDecimalDigits())) {
+            attributes.add(Attribute.SCALE);
+        }
+        if (!Objects.equals(source.getNullable(), target.getNullable())) {
+            attributes.add(Attribute.NULLABLE);
+        }
+        if (options.isCompareDefaults()
+                && !Objects.equals(normalizeDefault(source.getDefaultValue()),
+                        normalizeDefault(target.getDefaultValue()))) {
+            attributes.add(Attribute.DEFAULT);
+        }
+        if (options.isCompareRemarks()
+                && !Objects.equals(emptyToNull(source.getRemarks()), emptyToNull(target.getRemarks()))) {
+            attributes.add(Attribute.REMARKS);
+        }
+        if (options.isComparePosition()
+                && !Objects.equals(source.getOrdinalPosition(), target.getOrdinalPosition())) {
+            attributes.add(Attribute.POSITION);
+        }
+        return attributes;
+    }
+
+    private void diffIndexes(TableDiff tableDiff, Map<String, IndexDefinition> sourceIndexes,
+            Map<String, IndexDefinition> targetIndexes) {
+        for (Map.Entry<String, IndexDefinition> entry : targetIndexes.entrySet()) {
+            IndexDefinition sourceIndex = sourceIndexes.get(entry.getKey());
+            IndexDefinition targetIndex = entry.getValue();
+            if (sourceIndex == null) {
+                tableDiff.getAddedIndexes().add(targetIndex);
+            } else if (sourceIndex.isUnique() != targetIndex.isUnique()
+                    || !sameNames(sourceIndex.getColumns(), targetIndex.getColumns())) {
+                tableDiff.getChangedIndexes().add(new IndexChange(sourceIndex, targetIndex));
+            }
+        }
+        for (Map.Entry<String, IndexDefinition> entry : sourceIndexes.entrySet()) {
+            if (!targetIndexes.containsKey(entry.getKey())) {
+                tableDiff.getDroppedIndexes().add(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 合并各列的索引元数据，主键对应的索引（MySQL 的 PRIMARY、SQL Server 与主键约束同名的索引）与统计信息行不计入
+     *
+     * @param table      表元数据
+     * @param ignoreCase 索引名作为键时是否转换为小写
+     * @return 索引名到索引定义的映射，按索引名排序
+     */
+    static Map<String, IndexDefinition> indexDefinitions(TableMetaData table, boolean ignoreCase) {
+        if (table.getIndexes() == null || table.getIndexes().isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String primaryKeyName = table.getPrimaryKeys() == null || table.getPrimaryKeys().isEmpty() ? null
+                : table.getPrimaryKeys().get(0).getPkName();
+        List<String> names = new ArrayList<>(table.getIndexes().keySet());
+        names.removeIf(Objects::isNull);
+        Collections.sort(names);
+        LinkedHashMap<String, IndexDefinition> definitions = new LinkedHashMap<>();
+        for (String name : names) {
+            if ("PRIMARY".equalsIgnoreCase(name) || name.equals(primaryKeyName)) {
+                continue;
+            }
+            List<IndexMetaData> indexColumns = new ArrayList<>(table.getIndexes().get(name));
+            indexColumns.sort((a, b) -> Integer.compare(position(a), position(b)));
+            ArrayList<String> columns = new ArrayList<>(indexColumns.size());
+            boolean unique = true;
+            for (IndexMetaData column : indexColumns) {
+                columns.add(column.getColumnName());
+                unique &= Boolean.FALSE.equals(column.getNonUnique());
+            }
+            definitions.put(ignoreCase ? name.toLowerCase(Locale.ROOT) : name,
+                    new IndexDefinition(name, columns, unique));
+        }
+        return definitions;
+    }
+
+    private boolean sameNames(List<String> a, List<String> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (!key(a.get(i)).equals(key(b.get(i)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String key(String name) {
+        if (name == null) {
+            return "";
+        }
+        return options.isIgnoreCase() ? name.toLowerCase(Locale.ROOT) : name;
+    }
+
+    private static boolean hasLength(int datatype) {
+        switch (datatype) {
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean hasScale(int datatype) {
+        switch (datatype) {
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+            case Types.TIME:
+            case Types.TIMESTAMP:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 去掉外层空白、括号与单引号，SQL Server 的默认值约束定义形如 ((0)) 或 ('abc')
+     */
+    private static String normalizeDefault(String defaultValue) {
+        if (defaultValue == null) {
+            return null;
+        }
+        String value = defaultValue.trim();
+        while (value.length() >= 2 && value.charAt(0) == '(' && value.charAt(value.length() - 1) == ')') {
+            value = value.substring(1, value.length() - 1).trim();
+        }
+        if (value.length() >= 2 && value.charAt(0) == '\'' && value.charAt(value.length() - 1) == '\'') {
+            value = value.substring(1, value.length() - 1);
+        }
+        return "NULL".equalsIgnoreCase(value) ? null : value;
+    }
+
+    private static boolean equalsIgnoreCase(String a, String b) {
+        return a == null ? b == null : a.equalsIgnoreCase(b);
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static int position(IndexMetaData column) {
+        return column.getOrdinalPosition() == null ? Integer.MAX_VALUE : column.getOrdinalPosition();
+    }
+
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list == null ? Collections.emptyList() : list;
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.drizzlepal.jdbc.diff;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.sql.SqlBuilder;
+
+import lombok.Getter;
+
+/**
+ * 两侧都存在的一张表的结构差异，新增与删除均以源端为基准：目标端有而源端没有的为新增
+ */
+@Getter
+public class TableDiff {
+
+    private final TableMetaData source;
+
+    private final TableMetaData target;
+
+    private final List<ColumnMetaData> addedColumns = new ArrayList<>();
+
+    private final List<ColumnMetaData> droppedColumns = new ArrayList<>();
+
+    private final List<ColumnChange> changedColumns = new ArrayList<>();
+
+    private final List<IndexDefinition> addedIndexes = new ArrayList<>();
+
+    private final List<IndexDefinition> droppedIndexes = new ArrayList<>();
+
+    private final List<IndexChange> changedIndexes = new ArrayList<>();
+
+    /**
+     * 源端主键列，没有主键时为空
+     */
+    private List<String> sourcePrimaryKey;
+
+    /**
+     * 目标端主键列，没有主键时为空
+     */
+    private List<String> targetPrimaryKey;
+
+    private boolean primaryKeyChanged;
+
+    private boolean remarksChanged;
+
+    TableDiff(TableMetaData source, TableMetaData target) {
+        this.source = source;
+        this.target = target;
+    }
+
+    public String getName() {
+        return source.getName();
+    }
+
+    public boolean isEmpty() {
+        return addedColumns.isEmpty() && droppedColumns.isEmpty() && changedColumns.isEmpty()
+                && addedIndexes.isEmpty() && droppedIndexes.isEmpty() && changedIndexes.isEmpty()
+                && !primaryKeyChanged && !remarksChanged;
+    }
+
+    void setPrimaryKeys(List<String> sourcePrimaryKey, List<String> targetPrimaryKey, boolean changed) {
+        this.sourcePrimaryKey = sourcePrimaryKey;
+        this.targetPrimaryKey = targetPrimaryKey;
+        this.primaryKeyChanged = changed;
+    }
+
+    void setRemarksChanged(boolean remarksChanged) {
+        this.remarksChanged = remarksChanged;
+    }
+
+    /**
+     * 按先删除索引与主键、再调整列、最后重建主键与索引的顺序生成把源表改为目标表结构的语句，
+     * 表备注与只有位置变化的列不生成语句
+     *
+     * @param sqlBuilder   源端方言的 sql 构建器
+     * @param includeDrops 是否删除目标端没有的列
+     * @return 修改表sql
+     */
+    public List<String> migration(SqlBuilder sqlBuilder, boolean includeDrops) {
+        ArrayList<String> ddl = new ArrayList<>();
+        for (IndexDefinition index : droppedIndexes) {
+            ddl.add(sqlBuilder.DropIndex(source, index.getName()));
+        }
+        for (IndexChange index : changedIndexes) {
+            ddl.add(sqlBuilder.DropIndex(source, index.getSource().getName()));
+        }
+        if (primaryKeyChanged && !sourcePrimaryKey.isEmpty()) {
+            String primaryKeyName = source.getPrimaryKeys().get(0).getPkName();
+            ddl.add(sqlBuilder.DropPrimaryKey(source, primaryKeyName));
+        }
+        if (includeDrops) {
+            for (ColumnMetaData column : droppedColumns) {
+                ddl.add(sqlBuilder.DropColumn(source, column.getName()));
+            }
+        }
+        for (ColumnMetaData column : addedColumns) {
+            ddl.add(sqlBuilder.AddColumn(source, column));
+        }
+        for (ColumnChange column : changedColumns) {
+            if (column.isDefinitionChanged()) {
+                ddl.add(sqlBuilder.ModifyColumn(source, column.getTarget()));
+            }
+        }
+        if (primaryKeyChanged && !targetPrimaryKey.isEmpty()) {
+            ddl.add(sqlBuilder.AddPrimaryKey(source, targetPrimaryKey));
+        }
+        for (IndexChange index : changedIndexes) {
+            IndexDefinition definition = index.getTarget();
+            ddl.add(sqlBuilder.CreateIndex(source, definition.getName(), definition.getColumns(),
+                    definition.isUnique()));
+        }
+        for (IndexDefinition index : addedIndexes) {
+            ddl.add(sqlBuilder.CreateIndex(source, index.getName(), index.getColumns(), index.isUnique()));
+        }
+        return ddl;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: addedColumns=%d, droppedColumns=%d, changedColumns=%s, addedIndexes=%d, "
+                + "droppedIndexes=%d, changedIndexes=%d, primaryKeyChanged=%b, remarksChanged=%b", getName(),
+                addedColumns.size(), droppedColumns.size(), changedColumns, addedIndexes.size(),
+                droppedIndexes.size(), changedIndexes.size(), primaryKeyChanged, remarksChanged);
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.drizzlepal.jdbc.exception;
+
+/**
+ * 用于 Stream、Iterator 等无法抛出受检异常的场景，包装查询过程中发生的异常
+ */
+public class UncheckedJdbcException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UncheckedJdbcException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
+
+    public UncheckedJdbcException(Throwable cause) {
+        super(cause);
+    }
+
+}
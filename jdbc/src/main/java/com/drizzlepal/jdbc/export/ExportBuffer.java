@@ -0,0 +1,172 @@
+package com.drizzlepal.jdbc.export;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 复用的堆外编码缓冲区，写满时整块写入通道；数值与日期直接按字节写入，不经过 String
+ */
+final class ExportBuffer {
+
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes();
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final ByteBuffer buffer;
+
+    private final WritableByteChannel channel;
+
+    private final byte[] digits = new byte[20];
+
+    private long written;
+
+    ExportBuffer(WritableByteChannel channel, int capacity) {
+        // 单个值至少需要 4 字节（一个 UTF-8 字符）和 20 字节（一个 long）的连续空间
+        this.buffer = ByteBuffer.allocateDirect(Math.max(capacity, 64));
+        this.channel = channel;
+    }
+
+    void put(byte value) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put(value);
+    }
+
+    void put(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int length = Math.min(bytes.length - offset, buffer.remaining());
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    void putAscii(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            put((byte) value.charAt(i));
+        }
+    }
+
+    void putLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            put(MIN_LONG);
+            return;
+        }
+        ensure(20);
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        buffer.put(digits, position, digits.length - position);
+    }
+
+    /**
+     * 写入固定位数的非负整数，不足时左侧补 0
+     */
+    void putPadded(int value, int width) throws IOException {
+        ensure(10);
+        int position = digits.length;
+        for (int i = 0; i < width || value != 0; i++) {
+            digits[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        buffer.put(digits, position, digits.length - position);
+    }
+
+    /**
+     * 按 UTF-8 编码写入字符串，jsonEscape 为 true 时按 JSON 字符串规则转义，csvQuote 为 true 时把引号写为两个引号
+     */
+    void putUtf8(CharSequence value, boolean jsonEscape, boolean csvQuote) throws IOException {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (buffer.remaining() < 6) {
+                flush();
+            }
+            if (c < 0x80) {
+                if (jsonEscape && (c < 0x20 || c == '"' || c == '\\')) {
+                    putJsonEscape(c);
+                } else {
+                    if (csvQuote && c == '"') {
+                        buffer.put((byte) '"');
+                    }
+                    buffer.put((byte) c);
+                }
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xc0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xf0 | codePoint >> 18));
+                buffer.put((byte) (0x80 | codePoint >> 12 & 0x3f));
+                buffer.put((byte) (0x80 | codePoint >> 6 & 0x3f));
+                buffer.put((byte) (0x80 | codePoint & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                // 不成对的代理字符无法编码为 UTF-8
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xe0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3f));
+                buffer.put((byte) (0x80 | c & 0x3f));
+            }
+        }
+    }
+
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * @return 已写入通道的字节数，启用压缩时为压缩前的字节数
+     */
+    long getWritten() {
+        return written + buffer.position();
+    }
+
+    private void putJsonEscape(char c) {
+        buffer.put((byte) '\\');
+        switch (c) {
+            case '"':
+            case '\\':
+                buffer.put((byte) c);
+                break;
+            case '\n':
+                buffer.put((byte) 'n');
+                break;
+            case '\r':
+                buffer.put((byte) 'r');
+                break;
+            case '\t':
+                buffer.put((byte) 't');
+                break;
+            default:
+                buffer.put((byte) 'u');
+                buffer.put((byte) '0');
+                buffer.put((byte) '0');
+                buffer.put(HEX[c >> 4]);
+                buffer.put(HEX[c & 0xf]);
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+}
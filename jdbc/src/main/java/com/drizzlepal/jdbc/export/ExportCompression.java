@@ -0,0 +1,27 @@
+package com.drizzlepal.jdbc.export;
+
+/**
+ * 导出文件压缩方式
+ */
+public enum ExportCompression {
+
+    NONE(""),
+
+    GZIP(".gz"),
+
+    /**
+     * 需要运行时类路径上存在 com.github.luben:zstd-jni
+     */
+    ZSTD(".zst");
+
+    private final String extension;
+
+    ExportCompression(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+}
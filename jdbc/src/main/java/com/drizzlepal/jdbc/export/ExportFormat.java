@@ -0,0 +1,28 @@
+package com.drizzlepal.jdbc.export;
+
+/**
+ * 导出文件格式
+ */
+public enum ExportFormat {
+
+    /**
+     * RFC 4180 CSV，包含分隔符、引号或换行的值加引号，值中的引号写为两个引号
+     */
+    CSV(".csv"),
+
+    /**
+     * 每行一个 JSON 对象，键为列标签，日期时间以字符串表示，二进制以 Base64 字符串表示
+     */
+    JSON_LINES(".jsonl");
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.drizzlepal.jdbc.export;
+
+import lombok.Data;
+
+/**
+ * 导出参数
+ */
+@Data
+public class ExportOptions {
+
+    private ExportFormat format = ExportFormat.CSV;
+
+    private ExportCompression compression = ExportCompression.NONE;
+
+    /**
+     * CSV 是否输出列标签行
+     */
+    private boolean header = true;
+
+    /**
+     * CSV 列分隔符，只能是 ASCII 字符
+     */
+    private char delimiter = ',';
+
+    /**
+     * CSV 中 NULL 的表示，默认为空
+     */
+    private String nullValue = "";
+
+    /**
+     * 编码缓冲区大小，每个导出文件使用一个，导出占用的堆外内存只与该值有关
+     */
+    private int bufferBytes = 1 << 20;
+
+    /**
+     * 按主键区间导出表时拆分的文件数
+     */
+    private int files = 4;
+
+    /**
+     * 按主键区间导出表时同时导出的文件数，每个占用一个连接，不应超过连接池最大连接数
+     */
+    private int parallelism = 4;
+
+}
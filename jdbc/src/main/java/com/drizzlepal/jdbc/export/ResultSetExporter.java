@@ -0,0 +1,514 @@
+package com.drizzlepal.jdbc.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+import com.drizzlepal.jdbc.DataSource;
+import com.drizzlepal.jdbc.exception.ConfigInvalidException;
+import com.drizzlepal.jdbc.exception.ConnectionOperationException;
+import com.drizzlepal.jdbc.exception.JdbcException;
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.utils.MetaDataUtils;
+import com.drizzlepal.utils.functions.ConsumerThrowable;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 把结果集逐行编码写入文件，可以直接作为 {@link DataSource#query} 的行处理函数，结果不在内存中累积
+ * <p>
+ * 每列按类型选择编码方式：整数、日期和时间直接按字节写入复用的堆外缓冲区，不创建中间字符串；
+ * 缓冲区写满时整块写入 FileChannel，启用压缩时先经过压缩流。未指定列时在第一行按结果集元数据确定列，
+ * 此时没有任何行的结果不输出 CSV 列标签行
+ */
+@Slf4j
+public class ResultSetExporter implements ConsumerThrowable<ResultSet>, AutoCloseable {
+
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+
+    private final Path file;
+
+    private final ExportOptions options;
+
+    private final boolean json;
+
+    private final byte[] csvNull;
+
+    private final WritableByteChannel channel;
+
+    private final ExportBuffer out;
+
+    private Kind[] kinds;
+
+    private byte[][] jsonKeys;
+
+    private long rows;
+
+    private boolean closed;
+
+    /**
+     * 列在第一行时按结果集元数据确定
+     *
+     * @param file    导出文件，已存在时覆盖
+     * @param options 导出参数
+     * @throws IOException            如果打开文件时发生IO异常
+     * @throws ConfigInvalidException 如果压缩方式在当前运行时不可用
+     */
+    public ResultSetExporter(Path file, ExportOptions options) throws IOException, ConfigInvalidException {
+        this(file, options, null);
+    }
+
+    /**
+     * @param file    导出文件，已存在时覆盖
+     * @param options 导出参数
+     * @param columns 按顺序排列的查询列，为 null 时在第一行按结果集元数据确定
+     * @throws IOException            如果打开文件时发生IO异常
+     * @throws ConfigInvalidException 如果压缩方式在当前运行时不可用
+     */
+    public ResultSetExporter(Path file, ExportOptions options, List<ColumnMetaData> columns)
+            throws IOException, ConfigInvalidException {
+        if (options.getDelimiter() >= 0x80) {
+            throw new ConfigInvalidException("CSV 分隔符只能是 ASCII 字符");
+        }
+        this.file = file;
+        this.options = options;
+        this.json = options.getFormat() == ExportFormat.JSON_LINES;
+        this.csvNull = options.getNullValue() == null ? new byte[0]
+                : options.getNullValue().getBytes(StandardCharsets.UTF_8);
+        this.channel = open(file, options.getCompression(), options.getBufferBytes());
+        this.out = new ExportBuffer(channel, options.getBufferBytes());
+        if (columns != null) {
+            try {
+                init(columns);
+            } catch (IOException e) {
+                abort();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 执行查询并导出到一个文件，失败时删除已写入的文件
+     *
+     * @param dataSource 数据源
+     * @param sql        查询sql
+     * @param file       导出文件
+     * @param options    导出参数
+     * @param params     sql参数
+     * @return 导出的行数
+     * @throws ConfigInvalidException       如果压缩方式在当前运行时不可用
+     * @throws ConnectionOperationException 如果查询或写入文件时发生异常
+     */
+    public static long export(DataSource dataSource, String sql, Path file, ExportOptions options, Object... params)
+            throws JdbcException {
+        return export(dataSource, sql, file, options, null, params);
+    }
+
+    static long export(DataSource dataSource, String sql, Path file, ExportOptions options,
+            List<ColumnMetaData> columns, Object... params) throws JdbcException {
+        ResultSetExporter exporter;
+        try {
+            exporter = new ResultSetExporter(file, options, columns);
+        } catch (IOException e) {
+            throw new ConnectionOperationException(e);
+        }
+        try {
+            dataSource.query(sql, exporter, params);
+            exporter.close();
+            return exporter.getRows();
+        } catch (JdbcException | RuntimeException e) {
+            exporter.abort();
+            throw e;
+        } catch (IOException e) {
+            exporter.abort();
+            throw new ConnectionOperationException(e);
+        }
+    }
+
+    @Override
+    public void accept(ResultSet resultSet) throws SQLException, IOException {
+        if (kinds == null) {
+            init(MetaDataUtils.resultSetMetaDataAsColumnMetaDatas(resultSet.getMetaData()));
+        }
+        if (json) {
+            out.put((byte) '{');
+            for (int i = 0; i < kinds.length; i++) {
+                out.put(jsonKeys[i]);
+                writeValue(resultSet, i);
+            }
+            out.put((byte) '}');
+        } else {
+            for (int i = 0; i < kinds.length; i++) {
+                if (i > 0) {
+                    out.put((byte) options.getDelimiter());
+                }
+                writeValue(resultSet, i);
+            }
+        }
+        out.put((byte) '\n');
+        rows++;
+    }
+
+    /**
+     * @return 已导出的行数
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return 编码后写出的字节数，启用压缩时为压缩前的字节数
+     */
+    public long getBytes() {
+        return out.getWritten();
+    }
+
+    /**
+     * 写出缓冲区中剩余的数据，结束压缩流并关闭文件
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            out.flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * 关闭并删除导出文件，导出失败时使用
+     */
+    public void abort() {
+        try {
+            closed = true;
+            channel.close();
+        } catch (IOException e) {
+            log.debug("关闭导出文件 {} 失败", file, e);
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除导出失败的文件 {} 失败", file, e);
+        }
+    }
+
+    private void init(List<ColumnMetaData> columns) throws IOException {
+        kinds = new Kind[columns.size()];
+        jsonKeys = json ? new byte[columns.size()][] : null;
+        for (int i = 0; i < kinds.length; i++) {
+            ColumnMetaData column = columns.get(i);
+            kinds[i] = Kind.of(column);
+            if (json) {
+                jsonKeys[i] = jsonKey(column.getName(), i == 0);
+            }
+        }
+        if (!json && options.isHeader()) {
+            for (int i = 0; i < kinds.length; i++) {
+                if (i > 0) {
+                    out.put((byte) options.getDelimiter());
+                }
+                writeText(columns.get(i).getName());
+            }
+            out.put((byte) '\n');
+        }
+    }
+
+    private void writeValue(ResultSet resultSet, int index) throws SQLException, IOException {
+        int column = index + 1;
+        switch (kinds[index]) {
+            case LONG: {
+                long value = resultSet.getLong(column);
+                if (resultSet.wasNull()) {
+                    writeNull();
+                } else {
+                    out.putLong(value);
+                }
+                break;
+            }
+            case BOOLEAN: {
+                boolean value = resultSet.getBoolean(column);
+                if (resultSet.wasNull()) {
+                    writeNull();
+                } else {
+                    out.put(value ? TRUE : FALSE);
+                }
+                break;
+            }
+            case FLOAT: {
+                float value = resultSet.getFloat(column);
+                if (resultSet.wasNull() || json && (Float.isNaN(value) || Float.isInfinite(value))) {
+                    writeNull();
+                } else {
+                    out.putAscii(Float.toString(value));
+                }
+                break;
+            }
+            case DOUBLE: {
+                double value = resultSet.getDouble(column);
+                if (resultSet.wasNull() || json && (Double.isNaN(value) || Double.isInfinite(value))) {
+                    writeNull();
+                } else if (value == (long) value && Math.abs(value) < 1e15) {
+                    out.putLong((long) value);
+                } else {
+                    out.putAscii(Double.toString(value));
+                }
+                break;
+            }
+            case DECIMAL: {
+                BigDecimal value = resultSet.getBigDecimal(column);
+                if (value == null) {
+                    writeNull();
+                } else if (value.scale() == 0 && value.precision() < 19) {
+                    out.putLong(value.longValue());
+                } else {
+                    out.putAscii(value.toPlainString());
+                }
+                break;
+            }
+            case DATE: {
+                Date value = resultSet.getDate(column);
+                if (value == null) {
+                    writeNull();
+                } else {
+                    quoteIfJson();
+                    writeDate(value.toLocalDate());
+                    quoteIfJson();
+                }
+                break;
+            }
+            case TIME: {
+                Time value = resultSet.getTime(column);
+                if (value == null) {
+                    writeNull();
+                } else {
+                    quoteIfJson();
+                    writeTime(value.toLocalTime(), 0);
+                    quoteIfJson();
+                }
+                break;
+            }
+            case TIMESTAMP: {
+                Timestamp value = resultSet.getTimestamp(column);
+                if (value == null) {
+                    writeNull();
+                } else {
+                    LocalDateTime dateTime = value.toLocalDateTime();
+                    quoteIfJson();
+                    writeDate(dateTime.toLocalDate());
+                    out.put((byte) ' ');
+                    writeTime(dateTime.toLocalTime(), dateTime.getNano());
+                    quoteIfJson();
+                }
+                break;
+            }
+            case BINARY: {
+                byte[] value = resultSet.getBytes(column);
+                if (value == null) {
+                    writeNull();
+                } else {
+                    quoteIfJson();
+                    out.put(Base64.getEncoder().encode(value));
+                    quoteIfJson();
+                }
+                break;
+            }
+            default: {
+                String value = resultSet.getString(column);
+                if (value == null) {
+                    writeNull();
+                } else {
+                    writeText(value);
+                }
+            }
+        }
+    }
+
+    private void writeNull() throws IOException {
+        out.put(json ? NULL : csvNull);
+    }
+
+    private void quoteIfJson() throws IOException {
+        if (json) {
+            out.put((byte) '"');
+        }
+    }
+
+    private void writeText(String value) throws IOException {
+        if (json) {
+            out.put((byte) '"');
+            out.putUtf8(value, true, false);
+            out.put((byte) '"');
+        } else if (needsQuote(value)) {
+            out.put((byte) '"');
+            out.putUtf8(value, false, true);
+            out.put((byte) '"');
+        } else {
+            out.putUtf8(value, false, false);
+        }
+    }
+
+    private boolean needsQuote(String value) {
+        char delimiter = options.getDelimiter();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == delimiter || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        // 与 NULL 的表示相同的空字符串加引号以示区分
+        return value.isEmpty() && csvNull.length == 0;
+    }
+
+    private void writeDate(LocalDate date) throws IOException {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            out.putLong(year);
+        } else {
+            out.putPadded(year, 4);
+        }
+        out.put((byte) '-');
+        out.putPadded(date.getMonthValue(), 2);
+        out.put((byte) '-');
+        out.putPadded(date.getDayOfMonth(), 2);
+    }
+
+    private void writeTime(LocalTime time, int nanos) throws IOException {
+        out.putPadded(time.getHour(), 2);
+        out.put((byte) ':');
+        out.putPadded(time.getMinute(), 2);
+        out.put((byte) ':');
+        out.putPadded(time.getSecond(), 2);
+        if (nanos != 0) {
+            int width = 9;
+            while (nanos % 10 == 0) {
+                nanos /= 10;
+                width--;
+            }
+            out.put((byte) '.');
+            out.putPadded(nanos, width);
+        }
+    }
+
+    private static byte[] jsonKey(String name, boolean first) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ExportBuffer key = new ExportBuffer(Channels.newChannel(bytes), 64);
+        if (!first) {
+            key.put((byte) ',');
+        }
+        key.put((byte) '"');
+        key.putUtf8(name, true, false);
+        key.put((byte) '"');
+        key.put((byte) ':');
+        key.flush();
+        return bytes.toByteArray();
+    }
+
+    private static WritableByteChannel open(Path file, ExportCompression compression, int bufferBytes)
+            throws IOException, ConfigInvalidException {
+        FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        if (compression == ExportCompression.NONE) {
+            return fileChannel;
+        }
+        OutputStream fileStream = Channels.newOutputStream(fileChannel);
+        try {
+            if (compression == ExportCompression.GZIP) {
+                return Channels.newChannel(new GZIPOutputStream(fileStream, Math.min(bufferBytes, 1 << 16)));
+            }
+            return Channels.newChannel(zstd(fileStream));
+        } catch (IOException | ConfigInvalidException | RuntimeException e) {
+            fileChannel.close();
+            throw e;
+        }
+    }
+
+    private static OutputStream zstd(OutputStream out) throws ConfigInvalidException, IOException {
+        Class<?> streamClass;
+        try {
+            streamClass = Class.forName("com.github.luben.zstd.ZstdOutputStream");
+        } catch (ClassNotFoundException e) {
+            throw new ConfigInvalidException("zstd 压缩需要 com.github.luben:zstd-jni");
+        }
+        try {
+            return (OutputStream) streamClass.getConstructor(OutputStream.class).newInstance(out);
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("创建 zstd 压缩流失败", e);
+        }
+    }
+
+    /**
+     * 列的编码方式
+     */
+    private enum Kind {
+
+        LONG, BOOLEAN, FLOAT, DOUBLE, DECIMAL, DATE, TIME, TIMESTAMP, BINARY, TEXT;
+
+        static Kind of(ColumnMetaData column) {
+            switch (column.getDatatype()) {
+                case Types.BIGINT:
+                    String typeName = column.getTypeName();
+                    return typeName != null && typeName.toUpperCase(Locale.ROOT).contains("UNSIGNED") ? DECIMAL
+                            : LONG;
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                    return LONG;
+                case Types.BIT:
+                case Types.BOOLEAN:
+                    return BOOLEAN;
+                case Types.REAL:
+                    return FLOAT;
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                    return DOUBLE;
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                    return DECIMAL;
+                case Types.DATE:
+                    return DATE;
+                case Types.TIME:
+                    return TIME;
+                case Types.TIMESTAMP:
+                    return TIMESTAMP;
+                case Types.BINARY:
+                case Types.VARBINARY:
+                case Types.LONGVARBINARY:
+                case Types.BLOB:
+                    return BINARY;
+                default:
+                    return TEXT;
+            }
+        }
+
+    }
+
+}
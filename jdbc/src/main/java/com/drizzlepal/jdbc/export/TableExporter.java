@@ -0,0 +1,148 @@
+package com.drizzlepal.jdbc.export;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.drizzlepal.jdbc.DataSource;
+import com.drizzlepal.jdbc.exception.ConnectionOperationException;
+import com.drizzlepal.jdbc.exception.JdbcException;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.split.KeyRange;
+import com.drizzlepal.jdbc.split.KeyRangeSplitter;
+import com.drizzlepal.jdbc.sql.SqlBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 按主键区间把一张表并发导出为多个文件，每个区间一个文件、一个连接
+ * <p>
+ * 文件名为 表名-序号 加格式与压缩扩展名，序号与区间的主键顺序一致，按序号拼接文件即得到完整的表，
+ * CSV 的列标签行只写在第一个文件中；拆分为一个文件时不需要主键。任一区间失败时取消其余区间并删除本次导出的全部文件
+ */
+@Slf4j
+public class TableExporter {
+
+    private static final AtomicInteger EXPORTER_SEQUENCE = new AtomicInteger();
+
+    private final DataSource dataSource;
+
+    private final ExportOptions options;
+
+    public TableExporter(DataSource dataSource, ExportOptions options) {
+        if (options.getFiles() <= 0 || options.getParallelism() <= 0) {
+            throw new IllegalArgumentException("files and parallelism must be positive");
+        }
+        this.dataSource = dataSource;
+        this.options = options;
+    }
+
+    /**
+     * @param tableMetaData 表元数据，需要包含列，拆分为多个文件时需要包含主键
+     * @param directory     导出目录，同名文件被覆盖
+     * @return 按主键顺序排列的导出文件
+     * @throws JdbcException 如果拆分区间、查询或写入文件时发生异常
+     */
+    public List<Path> export(TableMetaData tableMetaData, Path directory) throws JdbcException {
+        SqlBuilder sqlBuilder = dataSource.getSqlBuilder();
+        String select = sqlBuilder.Select(tableMetaData);
+        String extension = options.getFormat().getExtension() + options.getCompression().getExtension();
+        if (options.getFiles() == 1) {
+            Path file = directory.resolve(tableMetaData.getName() + extension);
+            ResultSetExporter.export(dataSource, select, file, options, tableMetaData.getColumns());
+            return Collections.singletonList(file);
+        }
+        List<KeyRange> ranges;
+        try {
+            ranges = new KeyRangeSplitter(dataSource).split(tableMetaData, options.getFiles());
+        } catch (SQLException e) {
+            throw new ConnectionOperationException(e);
+        }
+        List<Path> files = new ArrayList<>(ranges.size());
+        for (int i = 0; i < ranges.size(); i++) {
+            files.add(directory.resolve(String.format("%s-%04d%s", tableMetaData.getName(), i + 1, extension)));
+        }
+        String prefix = "drizzlepal-table-exporter-" + EXPORTER_SEQUENCE.incrementAndGet() + "-";
+        AtomicInteger threadSequence = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(options.getParallelism(), ranges.size()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, prefix + threadSequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        List<Future<Long>> futures = new ArrayList<>(ranges.size());
+        AtomicBoolean aborted = new AtomicBoolean();
+        ExportOptions continuation = withoutHeader(options);
+        try {
+            for (int i = 0; i < ranges.size(); i++) {
+                KeyRange range = ranges.get(i);
+                Path file = files.get(i);
+                ExportOptions fileOptions = i == 0 ? options : continuation;
+                futures.add(executor.submit(() -> {
+                    long rows = ResultSetExporter.export(dataSource, select + range.where(sqlBuilder), file,
+                            fileOptions, tableMetaData.getColumns(), range.parameters());
+                    if (aborted.get()) {
+                        // 其他区间已经失败，删除在清理之后才写完的文件
+                        Files.deleteIfExists(file);
+                    }
+                    return rows;
+                }));
+            }
+            long rows = 0;
+            for (Future<Long> future : futures) {
+                rows += future.get();
+            }
+            log.debug("表 {} 导出 {} 行到 {} 个文件", tableMetaData.getName(), rows, files.size());
+            return files;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(aborted, executor, files);
+            throw new ConnectionOperationException(e);
+        } catch (ExecutionException e) {
+            abort(aborted, executor, files);
+            Throwable cause = e.getCause();
+            throw cause instanceof JdbcException ? (JdbcException) cause : new ConnectionOperationException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 第一个文件之后的文件不输出列标签行，拼接后的文件只在开头有一行列标签
+     */
+    private static ExportOptions withoutHeader(ExportOptions options) {
+        ExportOptions copy = new ExportOptions();
+        copy.setFormat(options.getFormat());
+        copy.setCompression(options.getCompression());
+        copy.setHeader(false);
+        copy.setDelimiter(options.getDelimiter());
+        copy.setNullValue(options.getNullValue());
+        copy.setBufferBytes(options.getBufferBytes());
+        copy.setFiles(options.getFiles());
+        copy.setParallelism(options.getParallelism());
+        return copy;
+    }
+
+    private void abort(AtomicBoolean aborted, ExecutorService executor, List<Path> files) {
+        aborted.set(true);
+        executor.shutdownNow();
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("删除导出文件 {} 失败", file, e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.drizzlepal.jdbc.mapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.utils.functions.FunctionThrowable;
+
+/**
+ * 绑定到一组列的行映射函数，绑定在创建时一次完成，映射每一行时不再查找列或反射调用
+ * <p>
+ * 目标类有无参构造方法时按列名匹配 setter，列名与属性名忽略大小写和下划线比较，没有对应 setter 的列被忽略；
+ * 否则使用参数个数与列数相同的公开构造方法，按列的顺序传参
+ *
+ * @param <T> 目标类型
+ */
+final class BeanRowMapper<T> implements FunctionThrowable<ResultSet, T> {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Supplier<T> instantiator;
+
+    private final ColumnBinder[] binders;
+
+    private final MethodHandle constructor;
+
+    private final ColumnReader[] arguments;
+
+    private BeanRowMapper(Supplier<T> instantiator, ColumnBinder[] binders, MethodHandle constructor,
+            ColumnReader[] arguments) {
+        this.instantiator = instantiator;
+        this.binders = binders;
+        this.constructor = constructor;
+        this.arguments = arguments;
+    }
+
+    static <T> FunctionThrowable<ResultSet, T> bind(List<ColumnMetaData> columns, Class<T> type)
+            throws IllegalAccessException {
+        if (ColumnReader.isValueType(type)) {
+            if (columns.size() != 1) {
+                throw new IllegalArgumentException("映射到 " + type.getName() + " 的查询只能有一列，实际为 "
+                        + columns.size() + " 列");
+            }
+            ColumnReader reader = ColumnReader.of(type, columns.get(0).getDatatype());
+            @SuppressWarnings("unchecked")
+            Class<T> boxed = (Class<T>) MethodType.methodType(type).wrap().returnType();
+            return resultSet -> boxed.cast(reader.read(resultSet, 1));
+        }
+        Constructor<T> noArgs = noArgsConstructor(type);
+        if (noArgs != null) {
+            return new BeanRowMapper<>(instantiator(noArgs), setterBinders(columns, type), null, null);
+        }
+        for (Constructor<?> candidate : type.getConstructors()) {
+            if (candidate.getParameterCount() == columns.size()) {
+                Class<?>[] parameterTypes = candidate.getParameterTypes();
+                ColumnReader[] arguments = new ColumnReader[parameterTypes.length];
+                for (int i = 0; i < parameterTypes.length; i++) {
+                    arguments[i] = ColumnReader.of(parameterTypes[i], columns.get(i).getDatatype());
+                }
+                MethodHandle handle = LOOKUP.unreflectConstructor(candidate)
+                        .asType(MethodType.methodType(Object.class, parameterTypes))
+                        .asSpreader(Object[].class, parameterTypes.length);
+                return new BeanRowMapper<>(null, null, handle, arguments);
+            }
+        }
+        throw new IllegalArgumentException(type.getName() + " 既没有无参构造方法，也没有 " + columns.size()
+                + " 个参数的公开构造方法");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T apply(ResultSet resultSet) throws Throwable {
+        if (constructor != null) {
+            Object[] values = new Object[arguments.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = arguments[i].read(resultSet, i + 1);
+            }
+            return (T) constructor.invokeExact(values);
+        }
+        T target = instantiator.get();
+        for (ColumnBinder binder : binders) {
+            binder.bind(resultSet, target);
+        }
+        return target;
+    }
+
+    private static <T> Constructor<T> noArgsConstructor(Class<T> type) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            throw new IllegalArgumentException(type.getName() + " 不能实例化");
+        }
+        try {
+            return type.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static <T> Supplier<T> instantiator(Constructor<T> constructor) throws IllegalAccessException {
+        MethodHandle handle;
+        try {
+            handle = LOOKUP.unreflectConstructor(constructor);
+        } catch (IllegalAccessException e) {
+            constructor.setAccessible(true);
+            handle = LOOKUP.unreflectConstructor(constructor);
+        }
+        Supplier<T> supplier = Setters.spinConstructor(constructor, handle);
+        if (supplier != null) {
+            return supplier;
+        }
+        MethodHandle adapted = handle.asType(MethodType.methodType(Object.class));
+        Class<T> type = constructor.getDeclaringClass();
+        return () -> {
+            try {
+                return type.cast(adapted.invokeExact());
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("创建 " + type.getName() + " 实例失败", e);
+            }
+        };
+    }
+
+    private static ColumnBinder[] setterBinders(List<ColumnMetaData> columns, Class<?> type)
+            throws IllegalAccessException {
+        Map<String, Method> setters = new HashMap<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current
+                .getSuperclass()) {
+            for (Method method : current.getDeclaredMethods()) {
+                String name = method.getName();
+                if (name.length() > 3 && name.startsWith("set") && method.getParameterCount() == 1
+                        && !Modifier.isStatic(method.getModifiers()) && !method.isBridge()) {
+                    // 子类的 setter 覆盖父类的同名 setter
+                    setters.putIfAbsent(normalize(name.substring(3)), method);
+                }
+            }
+        }
+        ColumnBinder[] binders = new ColumnBinder[columns.size()];
+        int bound = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnMetaData column = columns.get(i);
+            Method setter = setters.get(normalize(column.getName()));
+            if (setter != null) {
+                binders[bound++] = ColumnBinder.of(setter, i + 1, column.getDatatype());
+            }
+        }
+        ColumnBinder[] result = new ColumnBinder[bound];
+        System.arraycopy(binders, 0, result, 0, bound);
+        return result;
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+}
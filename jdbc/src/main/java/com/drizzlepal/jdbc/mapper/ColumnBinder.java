@@ -0,0 +1,78 @@
+package com.drizzlepal.jdbc.mapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+
+/**
+ * 把一列的值写入目标对象的一个 setter
+ * <p>
+ * setter 通过 LambdaMetafactory 生成为按参数类型特化的接口实现，基本类型参数直接使用 getLong、getInt 这类 getter，
+ * 读取与调用全程不装箱；目标类对本模块不可见等原因无法生成时退化为调整过签名的 MethodHandle
+ */
+@FunctionalInterface
+interface ColumnBinder {
+
+    void bind(ResultSet resultSet, Object target) throws Throwable;
+
+    static ColumnBinder of(Method setter, int column, int sqlType) throws IllegalAccessException {
+        Class<?> type = setter.getParameterTypes()[0];
+        MethodHandle handle = Setters.unreflect(setter);
+        if (type == long.class) {
+            Setters.LongSetter set = Setters.spin(Setters.LongSetter.class, setter, handle);
+            if (set == null) {
+                MethodHandle adapted = Setters.adapt(handle, long.class);
+                set = (target, value) -> adapted.invokeExact(target, value);
+            }
+            Setters.LongSetter bound = set;
+            return (resultSet, target) -> bound.set(target, resultSet.getLong(column));
+        } else if (type == int.class) {
+            Setters.IntSetter set = Setters.spin(Setters.IntSetter.class, setter, handle);
+            if (set == null) {
+                MethodHandle adapted = Setters.adapt(handle, int.class);
+                set = (target, value) -> adapted.invokeExact(target, value);
+            }
+            Setters.IntSetter bound = set;
+            return (resultSet, target) -> bound.set(target, resultSet.getInt(column));
+        } else if (type == double.class) {
+            Setters.DoubleSetter set = Setters.spin(Setters.DoubleSetter.class, setter, handle);
+            if (set == null) {
+                MethodHandle adapted = Setters.adapt(handle, double.class);
+                set = (target, value) -> adapted.invokeExact(target, value);
+            }
+            Setters.DoubleSetter bound = set;
+            return (resultSet, target) -> bound.set(target, resultSet.getDouble(column));
+        } else if (type == boolean.class) {
+            Setters.BooleanSetter set = Setters.spin(Setters.BooleanSetter.class, setter, handle);
+            if (set == null) {
+                MethodHandle adapted = Setters.adapt(handle, boolean.class);
+                set = (target, value) -> adapted.invokeExact(target, value);
+            }
+            Setters.BooleanSetter bound = set;
+            return (resultSet, target) -> bound.set(target, resultSet.getBoolean(column));
+        } else if (type == short.class || type == byte.class || type == float.class) {
+            // 不常用的基本类型经 int、double 参数转换，仍然不装箱
+            Class<?> widened = type == float.class ? double.class : int.class;
+            MethodHandle converted = MethodHandles.explicitCastArguments(
+                    Setters.adapt(handle, type), MethodType.methodType(void.class, Object.class, widened));
+            if (widened == int.class) {
+                Setters.IntSetter set = (target, value) -> converted.invokeExact(target, value);
+                return type == short.class ? (resultSet, target) -> set.set(target, resultSet.getShort(column))
+                        : (resultSet, target) -> set.set(target, resultSet.getByte(column));
+            }
+            Setters.DoubleSetter set = (target, value) -> converted.invokeExact(target, value);
+            return (resultSet, target) -> set.set(target, resultSet.getFloat(column));
+        }
+        Setters.ObjectSetter set = Setters.spin(Setters.ObjectSetter.class, setter, handle);
+        if (set == null) {
+            MethodHandle adapted = Setters.adapt(handle, Object.class);
+            set = (target, value) -> adapted.invokeExact(target, value);
+        }
+        Setters.ObjectSetter bound = set;
+        ColumnReader reader = ColumnReader.of(type, sqlType);
+        return (resultSet, target) -> bound.set(target, reader.read(resultSet, column));
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.drizzlepal.jdbc.mapper;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+import com.drizzlepal.jdbc.utils.MetaDataUtils;
+
+/**
+ * 按目标类型读取一列的值，包装类型通过基本类型 getter 读取后再判断 wasNull
+ */
+@FunctionalInterface
+interface ColumnReader {
+
+    Object read(ResultSet resultSet, int column) throws SQLException;
+
+    /**
+     * @param type    目标类型，基本类型的列为 SQL NULL 时读取为 0 或 false
+     * @param sqlType 列的 java.sql.Types 类型代码，目标类型为 Object、Number 这类宽泛类型时按列类型选择 getter
+     * @return 列读取器
+     */
+    static ColumnReader of(Class<?> type, int sqlType) {
+        ColumnReader reader = type.isPrimitive() ? primitive(type) : exact(type);
+        if (reader != null) {
+            return reader;
+        }
+        if (type.isEnum()) {
+            return enumReader(type);
+        }
+        Class<?> columnClass = MetaDataUtils.mapSqlTypeToJavaClass(sqlType);
+        if (type.isAssignableFrom(columnClass)) {
+            reader = exact(columnClass);
+            return reader != null ? reader : ResultSet::getObject;
+        }
+        return (resultSet, column) -> resultSet.getObject(column, type);
+    }
+
+    /**
+     * @param type 类型
+     * @return 是否为按单列读取的值类型而不是按列绑定属性的对象
+     */
+    static boolean isValueType(Class<?> type) {
+        return type.isPrimitive() || type.isEnum() || type.isArray() || type.getName().startsWith("java.");
+    }
+
+    static ColumnReader primitive(Class<?> type) {
+        if (type == long.class) {
+            return ResultSet::getLong;
+        } else if (type == int.class) {
+            return ResultSet::getInt;
+        } else if (type == short.class) {
+            return ResultSet::getShort;
+        } else if (type == byte.class) {
+            return ResultSet::getByte;
+        } else if (type == double.class) {
+            return ResultSet::getDouble;
+        } else if (type == float.class) {
+            return ResultSet::getFloat;
+        } else if (type == boolean.class) {
+            return ResultSet::getBoolean;
+        }
+        return null;
+    }
+
+    static ColumnReader exact(Class<?> type) {
+        if (type == String.class) {
+            return ResultSet::getString;
+        } else if (type == Long.class) {
+            return (resultSet, column) -> {
+                long value = resultSet.getLong(column);
+                return resultSet.wasNull() ? null : value;
+            };
+        } else if (type == Integer.class) {
+            return (resultSet, column) -> {
+                int value = resultSet.getInt(column);
+                return resultSet.wasNull() ? null : value;
+            };
+        } else if (type == Short.class) {
+            return (resultSet, column) -> {
+                short value = resultSet.getShort(column);
+                return resultSet.wasNull() ? null : value;
+            };
+        } else if (type == Byte.class) {
+            return (resultSet, column) -> {
+                byte value = resultSet.getByte(column);
+                return resultSet.wasNull() ? null : value;
+            };
+        } else if (type == Double.class) {
+            return (resultSet, column) -> {
+                double value = resultSet.getDouble(column);
+                return resultSet.wasNull() ? null : value;
+            };
+        } else if (type == Float.class) {
+            return (resultSet, column) -> {
+                float value = resultSet.getFloat(column);
+                return resultSet.wasNull() ? null : value;
+            };
+        } else if (type == Boolean.class) {
+            return (resultSet, column) -> {
+                boolean value = resultSet.getBoolean(column);
+                return resultSet.wasNull() ? null : value;
+            };
+        } else if (type == BigDecimal.class) {
+            return ResultSet::getBigDecimal;
+        } else if (type == java.math.BigInteger.class) {
+            return (resultSet, column) -> {
+                BigDecimal value = resultSet.getBigDecimal(column);
+                return value == null ? null : value.toBigInteger();
+            };
+        } else if (type == Timestamp.class || type == java.util.Date.class) {
+            return ResultSet::getTimestamp;
+        } else if (type == java.sql.Date.class) {
+            return ResultSet::getDate;
+        } else if (type == Time.class) {
+            return ResultSet::getTime;
+        } else if (type == byte[].class) {
+            return ResultSet::getBytes;
+        }
+        return null;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static ColumnReader enumReader(Class<?> type) {
+        return (resultSet, column) -> {
+            String value = resultSet.getString(column);
+            return value == null ? null : Enum.valueOf((Class) type, value);
+        };
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.drizzlepal.jdbc.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.drizzlepal.jdbc.DataSource;
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.utils.MetaDataUtils;
+import com.drizzlepal.utils.functions.FunctionThrowable;
+
+/**
+ * 行映射函数工厂，按查询的列把结果集的行映射为指定类型的对象
+ * <p>
+ * 列与 setter 或构造方法的绑定只在第一次使用时完成一次：setter 和无参构造方法通过 LambdaMetafactory 生成直接调用的实现，
+ * 基本类型属性使用 getLong、getInt 这类 getter 读取，映射过程中不反射、不装箱。
+ * 映射函数按 (sql, 目标类型) 缓存，缓存超过上限时整体清空；同一条 sql 的列不随参数变化，动态拼接的 sql 不应使用缓存版本
+ */
+public final class RowMapperFactory {
+
+    private static final int MAX_CACHED = 1024;
+
+    private static final ConcurrentHashMap<Key, FunctionThrowable<ResultSet, ?>> CACHE = new ConcurrentHashMap<>();
+
+    private RowMapperFactory() {
+    }
+
+    /**
+     * 返回在第一行时按结果集元数据绑定的映射函数
+     *
+     * @param <T>  目标类型
+     * @param sql  查询sql，作为缓存键
+     * @param type 目标类型，值类型（基本类型、包装类型、String、枚举等）映射结果集的第一列
+     * @return 行映射函数
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> FunctionThrowable<ResultSet, T> mapper(String sql, Class<T> type) {
+        return (FunctionThrowable<ResultSet, T>) cached(new Key(sql, type), key -> new LazyMapper<>(type));
+    }
+
+    /**
+     * 返回通过预编译语句的元数据立即绑定的映射函数，映射函数与查询不匹配时在此处而不是读取第一行时失败
+     *
+     * @param <T>        目标类型
+     * @param dataSource 数据源
+     * @param sql        查询sql
+     * @param type       目标类型
+     * @return 行映射函数
+     * @throws SQLException 如果获取查询的列元数据时发生SQL异常
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> FunctionThrowable<ResultSet, T> mapper(DataSource dataSource, String sql, Class<T> type)
+            throws SQLException {
+        Key key = new Key(sql, type);
+        FunctionThrowable<ResultSet, ?> mapper = CACHE.get(key);
+        if (mapper == null || mapper instanceof LazyMapper && !((LazyMapper<?>) mapper).isBound()) {
+            mapper = bind(dataSource.getColumnMetaDataFormSql(sql), type);
+            if (CACHE.size() >= MAX_CACHED) {
+                CACHE.clear();
+            }
+            CACHE.put(key, mapper);
+        }
+        return (FunctionThrowable<ResultSet, T>) mapper;
+    }
+
+    /**
+     * 把给定的列绑定到目标类型，结果不缓存
+     *
+     * @param <T>     目标类型
+     * @param columns 按顺序排列的查询列
+     * @param type    目标类型
+     * @return 行映射函数
+     * @throws IllegalArgumentException 如果目标类型无法映射这些列
+     */
+    public static <T> FunctionThrowable<ResultSet, T> bind(List<ColumnMetaData> columns, Class<T> type) {
+        try {
+            return BeanRowMapper.bind(columns, type);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("无法访问 " + type.getName() + " 的构造方法或 setter", e);
+        }
+    }
+
+    /**
+     * 清空映射函数缓存，目标类型被重新加载时使用
+     */
+    public static void clearCache() {
+        CACHE.clear();
+    }
+
+    private static FunctionThrowable<ResultSet, ?> cached(Key key,
+            Function<Key, FunctionThrowable<ResultSet, ?>> factory) {
+        FunctionThrowable<ResultSet, ?> mapper = CACHE.get(key);
+        if (mapper == null) {
+            if (CACHE.size() >= MAX_CACHED) {
+                CACHE.clear();
+            }
+            mapper = CACHE.computeIfAbsent(key, factory);
+        }
+        return mapper;
+    }
+
+    /**
+     * 读取第一行时按结果集元数据绑定，之后直接委托给绑定结果
+     */
+    private static final class LazyMapper<T> implements FunctionThrowable<ResultSet, T> {
+
+        private final Class<T> type;
+
+        private volatile FunctionThrowable<ResultSet, T> delegate;
+
+        LazyMapper(Class<T> type) {
+            this.type = type;
+        }
+
+        boolean isBound() {
+            return delegate != null;
+        }
+
+        @Override
+        public T apply(ResultSet resultSet) throws Throwable {
+            FunctionThrowable<ResultSet, T> bound = delegate;
+            if (bound == null) {
+                // 并发的首次绑定结果相同，不加锁
+                bound = bind(MetaDataUtils.resultSetMetaDataAsColumnMetaDatas(resultSet.getMetaData()), type);
+                delegate = bound;
+            }
+            return bound.apply(resultSet);
+        }
+
+    }
+
+    private static final class Key {
+
+        private final String sql;
+
+        private final Class<?> type;
+
+        Key(String sql, Class<?> type) {
+            this.sql = Objects.requireNonNull(sql, "sql");
+            this.type = Objects.requireNonNull(type, "type");
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return type == other.type && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return sql.hashCode() * 31 + type.hashCode();
+        }
+
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.drizzlepal.jdbc.mapper;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Supplier;
+
+/**
+ * 按参数类型特化的 setter 接口，供 LambdaMetafactory 生成实现
+ */
+final class Setters {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private Setters() {
+    }
+
+    @FunctionalInterface
+    interface LongSetter {
+        void set(Object target, long value) throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface IntSetter {
+        void set(Object target, int value) throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface DoubleSetter {
+        void set(Object target, double value) throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface BooleanSetter {
+        void set(Object target, boolean value) throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface ObjectSetter {
+        void set(Object target, Object value) throws Throwable;
+    }
+
+    static MethodHandle unreflect(Method method) throws IllegalAccessException {
+        try {
+            return LOOKUP.unreflect(method);
+        } catch (IllegalAccessException e) {
+            method.setAccessible(true);
+            return LOOKUP.unreflect(method);
+        }
+    }
+
+    static MethodHandle adapt(MethodHandle handle, Class<?> valueType) {
+        return handle.asType(MethodType.methodType(void.class, Object.class, valueType));
+    }
+
+    /**
+     * 生成的实现类从外部直接调用 setter，只对公开类的公开方法生成
+     *
+     * @return 生成的 setter 实现，无法生成时返回 null
+     */
+    static <S> S spin(Class<S> setterType, Method setter, MethodHandle handle) {
+        if (!Modifier.isPublic(setter.getModifiers())
+                || !Modifier.isPublic(setter.getDeclaringClass().getModifiers())) {
+            return null;
+        }
+        Class<?> valueType = setterType.getDeclaredMethods()[0].getParameterTypes()[1];
+        try {
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "set", MethodType.methodType(setterType),
+                    MethodType.methodType(void.class, Object.class, valueType), handle,
+                    MethodType.methodType(void.class, setter.getDeclaringClass(), setter.getParameterTypes()[0]));
+            return setterType.cast(site.getTarget().invoke());
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return 调用无参构造方法的 Supplier，无法生成时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Supplier<T> spinConstructor(Constructor<T> constructor, MethodHandle handle) {
+        if (!Modifier.isPublic(constructor.getModifiers())
+                || !Modifier.isPublic(constructor.getDeclaringClass().getModifiers())) {
+            return null;
+        }
+        try {
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get", MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class), handle,
+                    MethodType.methodType(constructor.getDeclaringClass()));
+            return (Supplier<T>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+}
@@ -10,6 +10,11 @@ public class TableMetaData {
 
     private String database;
 
+    /**
+     * 表所在的模式，为 null 时按连接的默认模式解析
+     */
+    private String schema;
+
     private String name;
 
     private String remarks;
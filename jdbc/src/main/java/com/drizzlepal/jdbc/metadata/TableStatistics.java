@@ -0,0 +1,42 @@
+package com.drizzlepal.jdbc.metadata;
+
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * 表的统计信息，默认取自数据库的统计信息视图，是估算值
+ */
+@Data
+public class TableStatistics {
+
+    private String database;
+
+    private String name;
+
+    /**
+     * 行数，exact 为 false 时是数据库统计信息中的估算值，InnoDB 的误差可能达到 40% 以上
+     */
+    private Long rowCount;
+
+    /**
+     * 是否通过 COUNT(*) 得到的精确行数
+     */
+    private boolean exact;
+
+    /**
+     * 数据占用的字节数，SQL Server 为堆或聚集索引已使用的页
+     */
+    private Long dataBytes;
+
+    /**
+     * 索引占用的字节数，不包括聚集索引
+     */
+    private Long indexBytes;
+
+    /**
+     * 列名到不同值个数估算值的映射，只包含作为索引或统计信息首列的列
+     */
+    private Map<String, Long> columnCardinality;
+
+}
@@ -0,0 +1,91 @@
+package com.drizzlepal.jdbc.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 在内存中汇总指标的接收端，按 sql 指纹分别记录查询延迟分布，可由调用方定期读取后导出到监控系统
+ * <p>
+ * 指纹数量超过上限后新的指纹统一记录到 {@link #OTHER}，避免拼接字面量的 sql 撑满内存
+ */
+public class InMemoryMetricsSink implements MetricsSink {
+
+    public static final String OTHER = "<other>";
+
+    private final int maxFingerprints;
+
+    private final LatencyHistogram connectionWait = new LatencyHistogram();
+
+    private final LatencyHistogram writeBatch = new LatencyHistogram();
+
+    private final ConcurrentHashMap<String, QueryMetrics> queries = new ConcurrentHashMap<>();
+
+    private final LongAdder rowsRead = new LongAdder();
+
+    private final LongAdder rowsWritten = new LongAdder();
+
+    public InMemoryMetricsSink() {
+        this(1000);
+    }
+
+    /**
+     * @param maxFingerprints 分别记录的 sql 指纹数量上限
+     */
+    public InMemoryMetricsSink(int maxFingerprints) {
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    @Override
+    public void connectionAcquired(long waitNanos) {
+        connectionWait.record(waitNanos);
+    }
+
+    @Override
+    public void queryCompleted(String fingerprint, long executeNanos, long fetchNanos, long rows) {
+        QueryMetrics metrics = queries.get(fingerprint);
+        if (metrics == null) {
+            String key = queries.size() < maxFingerprints ? fingerprint : OTHER;
+            metrics = queries.computeIfAbsent(key, k -> new QueryMetrics());
+        }
+        metrics.record(executeNanos, fetchNanos, rows);
+        rowsRead.add(rows);
+    }
+
+    @Override
+    public void rowsWritten(String table, int rows, long batchNanos) {
+        writeBatch.record(batchNanos);
+        rowsWritten.add(rows);
+    }
+
+    /**
+     * @return 从连接池获取连接的等待时间分布
+     */
+    public LatencyHistogram getConnectionWait() {
+        return connectionWait;
+    }
+
+    /**
+     * @return 批量写入每批的执行时间分布
+     */
+    public LatencyHistogram getWriteBatch() {
+        return writeBatch;
+    }
+
+    /**
+     * @return sql 指纹到查询指标的只读视图
+     */
+    public Map<String, QueryMetrics> getQueries() {
+        return Collections.unmodifiableMap(queries);
+    }
+
+    public long getRowsRead() {
+        return rowsRead.sum();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.sum();
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.drizzlepal.jdbc.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 固定精度的延迟直方图，按微秒记录，可并发写入，多个直方图可以合并
+ * <p>
+ * 与 HdrHistogram 相同的对数线性分桶：128 微秒以内每微秒一个桶，之后每翻一倍的区间再均分为 64 个桶，
+ * 相对误差不超过 1/64；最大记录约 71 分钟，超出按最大值记录。桶数固定为 1728 个，记录只做一次原子加
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+
+    private static final long MAX_MICROS = (1L << 32) - 1;
+
+    static final int BUCKETS = bucketIndex(MAX_MICROS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong totalMicros = new AtomicLong();
+
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * @param nanos 延迟纳秒数，负数按 0 记录
+     */
+    public void record(long nanos) {
+        long micros = Math.min(Math.max(nanos, 0) / 1000, MAX_MICROS);
+        counts.incrementAndGet(bucketIndex(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * 把另一个直方图的记录累加到当前直方图
+     *
+     * @param other 另一个直方图
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucketCount = other.counts.get(i);
+            if (bucketCount > 0) {
+                counts.addAndGet(i, bucketCount);
+            }
+        }
+        count.addAndGet(other.count.get());
+        totalMicros.addAndGet(other.totalMicros.get());
+        maxMicros.accumulateAndGet(other.maxMicros.get(), Math::max);
+    }
+
+    /**
+     * @return 当前记录的副本
+     */
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.merge(this);
+        return copy;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    public double getMeanMicros() {
+        long current = count.get();
+        return current == 0 ? 0 : (double) totalMicros.get() / current;
+    }
+
+    /**
+     * 并发写入时结果是近似值
+     *
+     * @param percentile 百分位，取值 0 到 100
+     * @return 不小于该百分位的记录所在桶的上界，没有记录时返回 0
+     */
+    public long getPercentileMicros(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(i), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, meanUs=%.1f, p50Us=%d, p99Us=%d, maxUs=%d", getCount(), getMeanMicros(),
+                getPercentileMicros(50), getPercentileMicros(99), getMaxMicros());
+    }
+
+    static int bucketIndex(long micros) {
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS);
+        return (int) ((shift << SUB_BUCKET_BITS) + (micros >>> shift));
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < 2 << SUB_BUCKET_BITS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = index - ((long) shift << SUB_BUCKET_BITS);
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.drizzlepal.jdbc.metrics;
+
+/**
+ * 数据源运行指标的接收端，实现需要线程安全且不能阻塞，回调在执行查询的线程中同步调用
+ * <p>
+ * 默认使用 {@link #NOOP}，数据源创建时检查 {@link #isEnabled()}，未启用时不计时也不计算 sql 指纹
+ */
+public interface MetricsSink {
+
+    /**
+     * 不记录任何指标
+     */
+    MetricsSink NOOP = new MetricsSink() {
+
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+    };
+
+    /**
+     * @return 是否需要采集指标
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * 从连接池获取到连接
+     *
+     * @param waitNanos 等待连接的时间
+     */
+    default void connectionAcquired(long waitNanos) {
+    }
+
+    /**
+     * 查询读取完毕或结果流关闭
+     *
+     * @param fingerprint  sql 指纹，见 {@link SqlFingerprint}
+     * @param executeNanos 执行语句到返回第一批结果的时间
+     * @param fetchNanos   遍历结果集的时间，包含行处理函数的耗时
+     * @param rows         读取的行数
+     */
+    default void queryCompleted(String fingerprint, long executeNanos, long fetchNanos, long rows) {
+    }
+
+    /**
+     * 批量写入器执行完一批
+     *
+     * @param table      表名
+     * @param rows       写入的行数
+     * @param batchNanos 执行这一批的时间
+     */
+    default void rowsWritten(String table, int rows, long batchNanos) {
+    }
+
+}
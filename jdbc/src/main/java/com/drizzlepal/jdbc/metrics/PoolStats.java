@@ -0,0 +1,54 @@
+package com.drizzlepal.jdbc.metrics;
+
+import lombok.Getter;
+
+/**
+ * 连接池状态快照
+ */
+@Getter
+public class PoolStats {
+
+    /**
+     * 已借出的连接数
+     */
+    private final int active;
+
+    /**
+     * 池中空闲的连接数
+     */
+    private final int idle;
+
+    /**
+     * 正在等待连接的线程数
+     */
+    private final int pending;
+
+    /**
+     * 连接池最大连接数
+     */
+    private final int maximum;
+
+    public PoolStats(int active, int idle, int pending, int maximum) {
+        this.active = active;
+        this.idle = idle;
+        this.pending = pending;
+        this.maximum = maximum;
+    }
+
+    /**
+     * 合并多个连接池的状态
+     *
+     * @param other 另一个连接池的状态
+     * @return 各项之和
+     */
+    public PoolStats plus(PoolStats other) {
+        return new PoolStats(active + other.active, idle + other.idle, pending + other.pending,
+                maximum + other.maximum);
+    }
+
+    @Override
+    public String toString() {
+        return "active=" + active + ", idle=" + idle + ", pending=" + pending + ", maximum=" + maximum;
+    }
+
+}
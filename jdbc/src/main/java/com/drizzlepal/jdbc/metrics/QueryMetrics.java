@@ -0,0 +1,49 @@
+package com.drizzlepal.jdbc.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 同一 sql 指纹的查询指标
+ */
+public class QueryMetrics {
+
+    private final LatencyHistogram execute = new LatencyHistogram();
+
+    private final LatencyHistogram fetch = new LatencyHistogram();
+
+    private final LongAdder rows = new LongAdder();
+
+    void record(long executeNanos, long fetchNanos, long queryRows) {
+        execute.record(executeNanos);
+        fetch.record(fetchNanos);
+        rows.add(queryRows);
+    }
+
+    /**
+     * @return 执行语句的延迟分布
+     */
+    public LatencyHistogram getExecute() {
+        return execute;
+    }
+
+    /**
+     * @return 遍历结果集的延迟分布
+     */
+    public LatencyHistogram getFetch() {
+        return fetch;
+    }
+
+    public long getCount() {
+        return execute.getCount();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + ", rows=" + getRows() + ", execute={" + execute + "}, fetch={" + fetch + "}";
+    }
+
+}
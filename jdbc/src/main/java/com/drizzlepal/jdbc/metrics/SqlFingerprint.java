@@ -0,0 +1,109 @@
+package com.drizzlepal.jdbc.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * sql 指纹：把字符串与数值字面量替换为 ?，去掉注释并压缩空白，IN 列表与多行 VALUES 折叠为一项，
+ * 只有字面量不同的 sql 得到相同的指纹
+ * <p>
+ * SqlBuilder 生成的 sql 重复度很高，计算结果按原 sql 缓存，缓存超过上限时整体清空
+ */
+public final class SqlFingerprint {
+
+    private static final int MAX_LENGTH = 1024;
+
+    private static final int MAX_CACHED = 4096;
+
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\?(?: ?, ?\\?)*\\)");
+
+    private static final Pattern REPEATED_ROWS = Pattern.compile("\\(\\?\\+\\)(?: ?, ?\\(\\?\\+\\))+");
+
+    private static final ConcurrentHashMap<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        String fingerprint = CACHE.get(sql);
+        if (fingerprint == null) {
+            fingerprint = compute(sql);
+            if (CACHE.size() >= MAX_CACHED) {
+                CACHE.clear();
+            }
+            CACHE.put(sql, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    static String compute(String sql) {
+        StringBuilder builder = new StringBuilder(Math.min(sql.length(), MAX_LENGTH));
+        int length = sql.length();
+        int i = 0;
+        while (i < length && builder.length() < MAX_LENGTH) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                appendSpace(builder);
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                while (i < length && sql.charAt(i) != '\n') {
+                    i++;
+                }
+                appendSpace(builder);
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                appendSpace(builder);
+            } else if (c == '\'') {
+                i = skipQuoted(sql, i, '\'');
+                builder.append('?');
+            } else if (c == '"' || c == '`' || c == '[') {
+                int end = skipQuoted(sql, i, c == '[' ? ']' : c);
+                builder.append(sql, i, end);
+                i = end;
+            } else if (Character.isDigit(c) && !isIdentifierPart(builder)) {
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                builder.append('?');
+            } else {
+                builder.append(c);
+                i++;
+            }
+        }
+        String fingerprint = PARAMETER_LIST.matcher(builder.toString().trim()).replaceAll("(?+)");
+        return REPEATED_ROWS.matcher(fingerprint).replaceAll("(?+)");
+    }
+
+    private static int skipQuoted(String sql, int start, char close) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == close) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == close) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static void appendSpace(StringBuilder builder) {
+        if (builder.length() > 0 && builder.charAt(builder.length() - 1) != ' ') {
+            builder.append(' ');
+        }
+    }
+
+    private static boolean isIdentifierPart(StringBuilder builder) {
+        if (builder.length() == 0) {
+            return false;
+        }
+        char last = builder.charAt(builder.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$';
+    }
+
+}
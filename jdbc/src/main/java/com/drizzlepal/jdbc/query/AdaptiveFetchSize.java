@@ -0,0 +1,158 @@
+package com.drizzlepal.jdbc.query;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * 根据实际读取到的行宽自适应调整结果集的 fetch size
+ * <p>
+ * 前若干行逐行估算行宽，之后每隔固定行数抽样一行做滑动平均，使每批拉取的数据量接近目标字节数：
+ * 窄行一次多拉，宽行一次少拉，堆内存占用与表的行数无关。结果集 fetch size 不大于 0 时（如 MySQL 逐行流式读取）不做调整
+ */
+public class AdaptiveFetchSize {
+
+    private static final int SAMPLE_ROWS = 64;
+
+    private static final long RESAMPLE_INTERVAL = 1 << 16;
+
+    private static final int MIN_FETCH_SIZE = 16;
+
+    private static final int MAX_FETCH_SIZE = 1 << 16;
+
+    private static final int MAX_LOB_ESTIMATE = 1 << 16;
+
+    private final ResultSet resultSet;
+
+    private final long targetBytes;
+
+    private final int[] columnTypes;
+
+    private final int[] displaySizes;
+
+    private final boolean enabled;
+
+    private long rows;
+
+    private double sampledBytes;
+
+    private double averageRowBytes;
+
+    private int fetchSize;
+
+    /**
+     * @param resultSet   结果集
+     * @param targetBytes 每批拉取的目标字节数
+     * @throws SQLException 如果读取结果集元数据时发生SQL异常
+     */
+    public AdaptiveFetchSize(ResultSet resultSet, long targetBytes) throws SQLException {
+        this.resultSet = resultSet;
+        this.targetBytes = targetBytes;
+        this.fetchSize = resultSet.getFetchSize();
+        this.enabled = targetBytes > 0 && fetchSize > 0;
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        this.columnTypes = new int[columnCount];
+        this.displaySizes = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columnTypes[i] = metaData.getColumnType(i + 1);
+            displaySizes[i] = metaData.getColumnDisplaySize(i + 1);
+        }
+    }
+
+    /**
+     * 在结果集移动到新的一行之后、读取该行之前调用
+     *
+     * @throws SQLException 如果读取当前行时发生SQL异常
+     */
+    public void onRow() throws SQLException {
+        rows++;
+        if (!enabled) {
+            return;
+        }
+        if (rows <= SAMPLE_ROWS) {
+            sampledBytes += estimateCurrentRowBytes();
+            if (rows == SAMPLE_ROWS) {
+                averageRowBytes = sampledBytes / SAMPLE_ROWS;
+                adjust();
+            }
+        } else if (rows % RESAMPLE_INTERVAL == 0) {
+            averageRowBytes = averageRowBytes * 0.8 + estimateCurrentRowBytes() * 0.2;
+            adjust();
+        }
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public double getAverageRowBytes() {
+        return averageRowBytes;
+    }
+
+    private void adjust() throws SQLException {
+        long size = (long) (targetBytes / Math.max(averageRowBytes, 1));
+        int adjusted = (int) Math.max(MIN_FETCH_SIZE, Math.min(MAX_FETCH_SIZE, size));
+        if (Math.abs(adjusted - fetchSize) * 4 > fetchSize) {
+            resultSet.setFetchSize(adjusted);
+            fetchSize = adjusted;
+        }
+    }
+
+    /**
+     * 定长类型按类型估算，变长类型读取实际值，大对象类型按声明长度估算且不读取，避免消费只能读取一次的流
+     */
+    private long estimateCurrentRowBytes() throws SQLException {
+        long bytes = 0;
+        for (int i = 0; i < columnTypes.length; i++) {
+            switch (columnTypes[i]) {
+                case Types.BIT:
+                case Types.BOOLEAN:
+                case Types.TINYINT:
+                    bytes += 1;
+                    break;
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                case Types.REAL:
+                case Types.DATE:
+                case Types.TIME:
+                    bytes += 4;
+                    break;
+                case Types.BIGINT:
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                case Types.TIMESTAMP:
+                    bytes += 8;
+                    break;
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                case Types.TIME_WITH_TIMEZONE:
+                case Types.TIMESTAMP_WITH_TIMEZONE:
+                    bytes += 16;
+                    break;
+                case Types.CHAR:
+                case Types.VARCHAR:
+                case Types.NCHAR:
+                case Types.NVARCHAR:
+                    String value = resultSet.getString(i + 1);
+                    bytes += value == null ? 1 : value.length() * 2L;
+                    break;
+                case Types.BINARY:
+                case Types.VARBINARY:
+                    byte[] binary = resultSet.getBytes(i + 1);
+                    bytes += binary == null ? 1 : binary.length;
+                    break;
+                default:
+                    bytes += Math.min(Math.max(displaySizes[i], 1), MAX_LOB_ESTIMATE);
+                    break;
+            }
+        }
+        return bytes;
+    }
+
+}
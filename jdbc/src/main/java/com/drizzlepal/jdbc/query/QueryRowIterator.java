@@ -0,0 +1,144 @@
+package com.drizzlepal.jdbc.query;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.drizzlepal.jdbc.exception.UncheckedJdbcException;
+import com.drizzlepal.utils.functions.FunctionThrowable;
+
+/**
+ * 惰性读取结果集的迭代器，持有查询所用的连接、语句和结果集，读取完毕或关闭时一并释放
+ * <p>
+ * 每次 next 只映射当前行，不缓存已读取的行；读取过程中的异常包装为 UncheckedJdbcException 抛出，并立即释放资源
+ *
+ * @param <T> 行映射结果类型
+ */
+public class QueryRowIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private final Connection connection;
+
+    private final Statement statement;
+
+    private final ResultSet resultSet;
+
+    private final FunctionThrowable<ResultSet, T> rowMapper;
+
+    private final AdaptiveFetchSize fetchSize;
+
+    private boolean hasNext;
+
+    private boolean advanced;
+
+    private boolean exhausted;
+
+    private boolean closed;
+
+    public QueryRowIterator(Connection connection, Statement statement, ResultSet resultSet,
+            FunctionThrowable<ResultSet, T> rowMapper, AdaptiveFetchSize fetchSize) {
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.rowMapper = rowMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (!advanced) {
+            try {
+                hasNext = resultSet.next();
+                if (hasNext) {
+                    fetchSize.onRow();
+                }
+            } catch (SQLException e) {
+                throw failed("读取查询结果失败", e);
+            }
+            advanced = true;
+            if (!hasNext) {
+                exhausted = true;
+                close();
+            }
+        }
+        return hasNext;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        advanced = false;
+        try {
+            return rowMapper.apply(resultSet);
+        } catch (Throwable e) {
+            throw failed("映射查询结果失败", e);
+        }
+    }
+
+    /**
+     * 已读取的行数
+     *
+     * @return 行数
+     */
+    public long getRows() {
+        return fetchSize.getRows();
+    }
+
+    @Override
+    public void close() {
+        SQLException exception = release();
+        if (exception != null) {
+            throw new UncheckedJdbcException("关闭查询结果失败", exception);
+        }
+    }
+
+    private UncheckedJdbcException failed(String msg, Throwable cause) {
+        SQLException exception = release();
+        if (exception != null) {
+            cause.addSuppressed(exception);
+        }
+        return new UncheckedJdbcException(msg, cause);
+    }
+
+    private SQLException release() {
+        if (closed) {
+            return null;
+        }
+        closed = true;
+        SQLException exception = null;
+        if (!exhausted) {
+            try {
+                // 逐行流式读取的结果集关闭时会读完剩余的行，提前结束时先取消查询
+                if (statement.getFetchSize() == Integer.MIN_VALUE) {
+                    statement.cancel();
+                }
+            } catch (SQLException e) {
+                exception = e;
+            }
+        }
+        try {
+            resultSet.close();
+        } catch (SQLException e) {
+            exception = e;
+        }
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            exception = exception == null ? e : exception;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            exception = exception == null ? e : exception;
+        }
+        return exception;
+    }
+
+}
@@ -0,0 +1,232 @@
+package com.drizzlepal.jdbc.query;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 按物理连接缓存预编译语句，供同一条 sql 在连接池的同一个连接上被反复执行的场景使用，如逐表、逐库的元数据查询
+ * <p>
+ * 连接池借出的是代理连接，归还时会关闭通过代理创建的语句，因此语句在解包得到的物理连接上创建并以物理连接为键缓存，
+ * 连接归还后仍可在下次借到同一物理连接时复用。每个物理连接最多缓存固定数量的语句，超出后按最近最少使用关闭并淘汰；
+ * 物理连接被连接池关闭后，其缓存在下次新建连接缓存时清理，连接池稳定不再新建连接时每隔固定时间清理一次。语句按连接当前所在的库区分，切换库后不会复用在其他库上编译的语句。
+ * <p>
+ * 取得的语句归缓存所有，调用方只关闭由它得到的结果集，不关闭语句本身；同一物理连接同一时间只被一个线程借出，
+ * 每个连接的缓存不需要额外同步
+ */
+@Slf4j
+public class StatementCache implements AutoCloseable {
+
+    private static final long PURGE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final int maxStatementsPerConnection;
+
+    private final long purgeIntervalNanos;
+
+    private final Map<Connection, Statements> connections = new IdentityHashMap<>();
+
+    private long lastPurgeNanos = System.nanoTime();
+
+    /**
+     * @param maxStatementsPerConnection 每个物理连接最多缓存的语句数，小于等于 0 时不缓存
+     */
+    public StatementCache(int maxStatementsPerConnection) {
+        this(maxStatementsPerConnection, PURGE_INTERVAL_NANOS);
+    }
+
+    StatementCache(int maxStatementsPerConnection, long purgeIntervalNanos) {
+        this.maxStatementsPerConnection = maxStatementsPerConnection;
+        this.purgeIntervalNanos = purgeIntervalNanos;
+    }
+
+    /**
+     * 取得连接上 sql 对应的预编译语句，已缓存时清空上次设置的参数后返回
+     * <p>
+     * 未启用缓存时返回新创建的语句，此时与已缓存的语句一样由 {@link #release(PreparedStatement)} 处理
+     *
+     * @param connection 借出的连接
+     * @param sql        sql
+     * @return 预编译语句
+     * @throws SQLException 如果创建语句时发生异常
+     */
+    public PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        if (maxStatementsPerConnection <= 0) {
+            return connection.prepareStatement(sql);
+        }
+        Connection physical = unwrap(connection);
+        Statements statements;
+        synchronized (connections) {
+            long now = System.nanoTime();
+            if (now - lastPurgeNanos >= purgeIntervalNanos) {
+                purgeClosed();
+                lastPurgeNanos = now;
+            }
+            statements = connections.get(physical);
+            if (statements == null) {
+                purgeClosed();
+                statements = new Statements(maxStatementsPerConnection);
+                connections.put(physical, statements);
+            }
+        }
+        String key = key(physical, sql);
+        PreparedStatement statement = statements.get(key);
+        if (statement != null) {
+            if (!statement.isClosed()) {
+                statement.clearParameters();
+                return statement;
+            }
+            statements.remove(key);
+        }
+        statement = physical.prepareStatement(sql);
+        statements.put(key, statement);
+        return statement;
+    }
+
+    /**
+     * 使用完 {@link #prepare(Connection, String)} 取得的语句后调用，未启用缓存时关闭语句，否则保留在缓存中
+     *
+     * @param statement 语句
+     * @throws SQLException 如果关闭语句时发生异常
+     */
+    public void release(PreparedStatement statement) throws SQLException {
+        if (maxStatementsPerConnection <= 0) {
+            statement.close();
+        }
+    }
+
+    /**
+     * 执行失败后调用，关闭并移除语句，下次取得时重新创建
+     *
+     * @param connection 借出的连接
+     * @param sql        sql
+     */
+    public void evict(Connection connection, String sql) {
+        if (maxStatementsPerConnection <= 0) {
+            return;
+        }
+        Connection physical = unwrap(connection);
+        Statements statements;
+        synchronized (connections) {
+            statements = connections.get(physical);
+        }
+        if (statements != null) {
+            try {
+                closeQuietly(statements.remove(key(physical, sql)));
+            } catch (SQLException e) {
+                log.debug("移除缓存的语句失败", e);
+            }
+        }
+    }
+
+    /**
+     * @return 所有连接上缓存的语句数
+     */
+    public int size() {
+        int size = 0;
+        synchronized (connections) {
+            for (Statements statements : connections.values()) {
+                size += statements.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 关闭所有缓存的语句
+     */
+    @Override
+    public void close() {
+        List<Statements> closing;
+        synchronized (connections) {
+            closing = new ArrayList<>(connections.values());
+            connections.clear();
+        }
+        for (Statements statements : closing) {
+            statements.values().forEach(StatementCache::closeQuietly);
+        }
+    }
+
+    /**
+     * 在持有 connections 锁时调用
+     */
+    private void purgeClosed() {
+        Iterator<Map.Entry<Connection, Statements>> iterator = connections.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Connection, Statements> entry = iterator.next();
+            boolean closed;
+            try {
+                closed = entry.getKey().isClosed();
+            } catch (SQLException e) {
+                closed = true;
+            }
+            if (closed) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static String key(Connection physical, String sql) throws SQLException {
+        String catalog = physical.getCatalog();
+        return catalog == null ? sql : catalog + '\u0000' + sql;
+    }
+
+    private static Connection unwrap(Connection connection) {
+        try {
+            if (connection.isWrapperFor(Connection.class)) {
+                Connection physical = connection.unwrap(Connection.class);
+                if (physical != null) {
+                    return physical;
+                }
+            }
+        } catch (SQLException e) {
+            log.debug("解包连接失败，按借出的连接缓存语句", e);
+        }
+        return connection;
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        if (statement == null) {
+            return;
+        }
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            log.debug("关闭缓存的语句失败", e);
+        }
+    }
+
+    /**
+     * 单个物理连接上按访问顺序排列的语句
+     */
+    private static final class Statements extends LinkedHashMap<String, PreparedStatement> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxStatements;
+
+        Statements(int maxStatements) {
+            super(16, 0.75f, true);
+            this.maxStatements = maxStatements;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            if (size() > maxStatements) {
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+
+    }
+
+}
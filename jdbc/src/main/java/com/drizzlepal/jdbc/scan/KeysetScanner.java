@@ -0,0 +1,163 @@
+package com.drizzlepal.jdbc.scan;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.drizzlepal.jdbc.DataSource;
+import com.drizzlepal.jdbc.exception.ConnectionOperationException;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.sql.SqlBuilder;
+import com.drizzlepal.jdbc.utils.MetaDataUtils;
+import com.drizzlepal.utils.functions.ConsumerThrowable;
+import com.drizzlepal.utils.functions.FunctionThrowable;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 基于主键的键集分页扫描，可从断点继续
+ * <p>
+ * 每页使用 WHERE (pk) &gt; (上一页最后一个键) ORDER BY pk 取固定行数，通过主键索引直接定位，
+ * 每页的代价与翻到第几页无关。每页处理完成后写入断点文件，进程崩溃后重新扫描会从最后一个断点继续，
+ * 崩溃前最后一页可能被处理两次；扫描正常结束后删除断点文件。每页单独借用一个连接，处理页数据期间不占用连接
+ */
+@Slf4j
+public class KeysetScanner {
+
+    private final DataSource dataSource;
+
+    private final TableMetaData tableMetaData;
+
+    private final int pageSize;
+
+    private final Path checkpointFile;
+
+    /**
+     * @param dataSource     数据源
+     * @param tableMetaData  表元数据，需要包含列和主键
+     * @param pageSize       每页行数
+     * @param checkpointFile 断点文件，为 null 时不保存断点
+     */
+    public KeysetScanner(DataSource dataSource, TableMetaData tableMetaData, int pageSize, Path checkpointFile) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize is invalid");
+        }
+        this.dataSource = dataSource;
+        this.tableMetaData = tableMetaData;
+        this.pageSize = pageSize;
+        this.checkpointFile = checkpointFile;
+    }
+
+    /**
+     * 扫描整张表，存在断点文件时从断点之后继续
+     *
+     * @param <T>         行映射结果类型
+     * @param rowMapper   行映射函数
+     * @param pageHandler 页处理函数，返回后该页才会记入断点
+     * @return 本次扫描处理的行数
+     * @throws ConnectionOperationException 如果查询、处理或写断点时发生异常
+     */
+    public <T> long scan(FunctionThrowable<ResultSet, T> rowMapper, ConsumerThrowable<List<T>> pageHandler)
+            throws ConnectionOperationException {
+        try {
+            List<String> keyColumns = primaryKeyColumns();
+            ScanCheckpoint checkpoint = readCheckpoint(keyColumns);
+            Object[] lastKey = checkpoint == null ? null : checkpoint.getLastKey();
+            long totalRows = checkpoint == null ? 0 : checkpoint.getRows();
+            long pages = checkpoint == null ? 0 : checkpoint.getPages();
+            SqlBuilder sqlBuilder = dataSource.getSqlBuilder();
+            String firstPageSql = sqlBuilder.SelectPage(tableMetaData, keyColumns, false, pageSize);
+            String nextPageSql = sqlBuilder.SelectPage(tableMetaData, keyColumns, true, pageSize);
+            long rows = 0;
+            while (true) {
+                ArrayList<T> page = new ArrayList<>(pageSize);
+                Object[] pageLastKey = new Object[keyColumns.size()];
+                try (Connection connection = dataSource.getConnection();
+                        PreparedStatement statement = connection
+                                .prepareStatement(lastKey == null ? firstPageSql : nextPageSql)) {
+                    if (lastKey != null) {
+                        Object[] parameters = SqlBuilder.keyParameters(lastKey);
+                        for (int i = 0; i < parameters.length; i++) {
+                            statement.setObject(i + 1, parameters[i]);
+                        }
+                    }
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            page.add(rowMapper.apply(resultSet));
+                            for (int i = 0; i < pageLastKey.length; i++) {
+                                pageLastKey[i] = resultSet.getObject(keyColumns.get(i));
+                            }
+                        }
+                    }
+                }
+                if (page.isEmpty()) {
+                    break;
+                }
+                pageHandler.accept(page);
+                lastKey = pageLastKey;
+                rows += page.size();
+                totalRows += page.size();
+                pages++;
+                if (checkpointFile != null) {
+                    new ScanCheckpoint(tableName(), keyColumns, lastKey, totalRows, pages).writeTo(checkpointFile);
+                }
+                if (page.size() < pageSize) {
+                    break;
+                }
+            }
+            if (checkpointFile != null) {
+                Files.deleteIfExists(checkpointFile);
+            }
+            log.debug("表 {} 扫描完成，本次 {} 行，累计 {} 行 {} 页", tableName(), rows, totalRows, pages);
+            return rows;
+        } catch (ConnectionOperationException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ConnectionOperationException(e);
+        }
+    }
+
+    /**
+     * 删除断点文件，下次从头扫描
+     *
+     * @throws IOException 如果删除文件时发生IO异常
+     */
+    public void reset() throws IOException {
+        if (checkpointFile != null) {
+            Files.deleteIfExists(checkpointFile);
+        }
+    }
+
+    private ScanCheckpoint readCheckpoint(List<String> keyColumns) throws IOException {
+        if (checkpointFile == null || !Files.isRegularFile(checkpointFile)) {
+            return null;
+        }
+        ScanCheckpoint checkpoint = ScanCheckpoint.readFrom(checkpointFile);
+        if (!checkpoint.getTable().equals(tableName()) || !checkpoint.getKeyColumns().equals(keyColumns)) {
+            throw new IOException("断点文件 " + checkpointFile + " 属于 " + checkpoint.getTable() + " "
+                    + checkpoint.getKeyColumns() + "，与当前扫描的表不一致");
+        }
+        log.info("表 {} 从断点继续扫描，已处理 {} 行", tableName(), checkpoint.getRows());
+        return checkpoint;
+    }
+
+    private List<String> primaryKeyColumns() throws SQLException {
+        List<String> keyColumns = MetaDataUtils.primaryKeyColumns(tableMetaData);
+        if (keyColumns.isEmpty()) {
+            throw new SQLException("表 " + tableMetaData.getName() + " 没有主键，无法按键集分页");
+        }
+        return keyColumns;
+    }
+
+    private String tableName() {
+        return tableMetaData.getDatabase() == null ? tableMetaData.getName()
+                : tableMetaData.getDatabase() + "." + tableMetaData.getName();
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.drizzlepal.jdbc.scan;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.drizzlepal.jdbc.utils.AtomicFiles;
+import com.drizzlepal.jdbc.utils.TypedValueCodec;
+
+import lombok.Getter;
+
+/**
+ * 键集扫描的断点，记录已处理完的最后一个键以及累计的行数和页数
+ * <p>
+ * 键值由 {@link TypedValueCodec} 按类型标记写入
+ */
+@Getter
+public class ScanCheckpoint {
+
+    private static final int MAGIC = 0x445A4B53;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final String table;
+
+    private final List<String> keyColumns;
+
+    private final Object[] lastKey;
+
+    private final long rows;
+
+    private final long pages;
+
+    public ScanCheckpoint(String table, List<String> keyColumns, Object[] lastKey, long rows, long pages) {
+        this.table = table;
+        this.keyColumns = keyColumns;
+        this.lastKey = lastKey;
+        this.rows = rows;
+        this.pages = pages;
+    }
+
+    /**
+     * 通过 {@link AtomicFiles#writeAtomically} 写入断点文件
+     *
+     * @param file 断点文件
+     * @throws IOException 如果写文件时发生IO异常或键值类型不支持
+     */
+    public void writeTo(Path file) throws IOException {
+        AtomicFiles.writeAtomically(file, out -> {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(table);
+            out.writeInt(keyColumns.size());
+            for (String keyColumn : keyColumns) {
+                out.writeUTF(keyColumn);
+            }
+            out.writeLong(rows);
+            out.writeLong(pages);
+            out.writeInt(lastKey.length);
+            for (Object value : lastKey) {
+                TypedValueCodec.writeValue(out, value);
+            }
+        });
+    }
+
+    /**
+     * @param file 断点文件
+     * @return 断点
+     * @throws IOException 如果读文件时发生IO异常或文件不是有效的断点
+     */
+    public static ScanCheckpoint readFrom(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("不是有效的扫描断点文件: " + file);
+            }
+            int formatVersion = in.readInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("不支持的扫描断点版本: " + formatVersion);
+            }
+            String table = in.readUTF();
+            int keyColumnCount = in.readInt();
+            ArrayList<String> keyColumns = new ArrayList<>(keyColumnCount);
+            for (int i = 0; i < keyColumnCount; i++) {
+                keyColumns.add(in.readUTF());
+            }
+            long rows = in.readLong();
+            long pages = in.readLong();
+            Object[] lastKey = new Object[in.readInt()];
+            for (int i = 0; i < lastKey.length; i++) {
+                lastKey[i] = TypedValueCodec.readValue(in);
+            }
+            return new ScanCheckpoint(table, Collections.unmodifiableList(keyColumns), lastKey, rows, pages);
+        } catch (EOFException e) {
+            throw new IOException("扫描断点文件不完整: " + file, e);
+        }
+    }
+
+}
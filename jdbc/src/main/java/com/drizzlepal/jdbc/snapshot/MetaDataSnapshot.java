@@ -0,0 +1,280 @@
+package com.drizzlepal.jdbc.snapshot;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.DatabaseMetaData;
+import com.drizzlepal.jdbc.metadata.IndexMetaData;
+import com.drizzlepal.jdbc.metadata.PrimaryKeyMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.utils.AtomicFiles;
+
+import lombok.Getter;
+
+/**
+ * 数据库元数据快照，包含整库元数据以及生成快照时各表的版本标识
+ * <p>
+ * 快照以紧凑的二进制格式保存到文件，读取时通过内存映射一次解码，不依赖数据库连接
+ */
+@Getter
+public class MetaDataSnapshot {
+
+    private static final int MAGIC = 0x445A4D53;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final DatabaseMetaData databaseMetaData;
+
+    /**
+     * 表名到版本标识的映射，用于增量刷新时判断哪些表需要重新加载
+     */
+    private final Map<String, String> tableVersions;
+
+    private final long createdAt;
+
+    public MetaDataSnapshot(DatabaseMetaData databaseMetaData, Map<String, String> tableVersions, long createdAt) {
+        this.databaseMetaData = databaseMetaData;
+        this.tableVersions = tableVersions == null ? Collections.emptyMap() : tableVersions;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * 通过 {@link AtomicFiles#writeAtomically} 将快照写入文件
+     *
+     * @param file 快照文件
+     * @throws IOException 如果写文件时发生IO异常
+     */
+    public void writeTo(Path file) throws IOException {
+        AtomicFiles.writeAtomically(file, out -> {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(createdAt);
+            writeString(out, databaseMetaData.getName());
+            writeString(out, databaseMetaData.getSchema());
+            List<TableMetaData> tables = databaseMetaData.getTables() == null ? Collections.emptyList()
+                    : databaseMetaData.getTables();
+            out.writeInt(tables.size());
+            for (TableMetaData table : tables) {
+                writeString(out, table.getDatabase());
+                writeString(out, table.getName());
+                writeString(out, table.getRemarks());
+                writeString(out, tableVersions.get(table.getName()));
+                writeColumns(out, table.getColumns());
+                writePrimaryKeys(out, table.getPrimaryKeys());
+                writeIndexes(out, table.getIndexes());
+            }
+        });
+    }
+
+    /**
+     * 通过内存映射读取快照文件
+     *
+     * @param file 快照文件
+     * @return 快照
+     * @throws IOException 如果读文件时发生IO异常或文件不是有效的快照
+     */
+    public static MetaDataSnapshot readFrom(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException("不是有效的元数据快照文件: " + file);
+            }
+            int formatVersion = buffer.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("不支持的元数据快照版本: " + formatVersion);
+            }
+            long createdAt = buffer.getLong();
+            DatabaseMetaData databaseMetaData = new DatabaseMetaData();
+            databaseMetaData.setName(readString(buffer));
+            databaseMetaData.setSchema(readString(buffer));
+            int tableCount = buffer.getInt();
+            ArrayList<TableMetaData> tables = new ArrayList<>(tableCount);
+            HashMap<String, String> tableVersions = new HashMap<>(tableCount * 4 / 3 + 1);
+            for (int i = 0; i < tableCount; i++) {
+                TableMetaData table = new TableMetaData();
+                table.setDatabase(readString(buffer));
+                // 快照中的表都在同一个模式下，模式只随库元数据保存一次
+                table.setSchema(databaseMetaData.getSchema());
+                table.setName(readString(buffer));
+                table.setRemarks(readString(buffer));
+                String version = readString(buffer);
+                if (version != null) {
+                    tableVersions.put(table.getName(), version);
+                }
+                table.setColumns(readColumns(buffer));
+                table.setPrimaryKeys(readPrimaryKeys(buffer));
+                table.setIndexes(readIndexes(buffer));
+                tables.add(table);
+            }
+            databaseMetaData.setTables(tables);
+            return new MetaDataSnapshot(databaseMetaData, tableVersions, createdAt);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("元数据快照文件不完整: " + file, e);
+        }
+    }
+
+    private static void writeColumns(DataOutputStream out, List<ColumnMetaData> columns) throws IOException {
+        if (columns == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(columns.size());
+        for (ColumnMetaData column : columns) {
+            writeString(out, column.getName());
+            writeString(out, column.getRemarks());
+            out.writeInt(column.getDatatype());
+            writeString(out, column.getTypeName());
+            writeInteger(out, column.getLength());
+            writeInteger(out, column.getOrdinalPosition());
+            writeInteger(out, column.getNullable());
+            writeInteger(out, column.getDecimalDigits());
+            writeString(out, column.getDefaultValue());
+        }
+    }
+
+    private static ArrayList<ColumnMetaData> readColumns(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count < 0) {
+            return null;
+        }
+        ArrayList<ColumnMetaData> columns = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ColumnMetaData column = new ColumnMetaData();
+            column.setName(readString(buffer));
+            column.setRemarks(readString(buffer));
+            column.setDatatype(buffer.getInt());
+            column.setTypeName(readString(buffer));
+            column.setLength(readInteger(buffer));
+            column.setOrdinalPosition(readInteger(buffer));
+            column.setNullable(readInteger(buffer));
+            column.setDecimalDigits(readInteger(buffer));
+            column.setDefaultValue(readString(buffer));
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    private static void writePrimaryKeys(DataOutputStream out, List<PrimaryKeyMetaData> primaryKeys)
+            throws IOException {
+        if (primaryKeys == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(primaryKeys.size());
+        for (PrimaryKeyMetaData primaryKey : primaryKeys) {
+            writeString(out, primaryKey.getColumnName());
+            out.writeInt(primaryKey.getKeySeq());
+            writeString(out, primaryKey.getPkName());
+        }
+    }
+
+    private static ArrayList<PrimaryKeyMetaData> readPrimaryKeys(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count < 0) {
+            return null;
+        }
+        ArrayList<PrimaryKeyMetaData> primaryKeys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            PrimaryKeyMetaData primaryKey = new PrimaryKeyMetaData();
+            primaryKey.setColumnName(readString(buffer));
+            primaryKey.setKeySeq(buffer.getInt());
+            primaryKey.setPkName(readString(buffer));
+            primaryKeys.add(primaryKey);
+        }
+        return primaryKeys;
+    }
+
+    private static void writeIndexes(DataOutputStream out, Map<String, ArrayList<IndexMetaData>> indexes)
+            throws IOException {
+        if (indexes == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(indexes.size());
+        for (Map.Entry<String, ArrayList<IndexMetaData>> index : indexes.entrySet()) {
+            writeString(out, index.getKey());
+            out.writeInt(index.getValue().size());
+            for (IndexMetaData column : index.getValue()) {
+                writeString(out, column.getIndexName());
+                out.writeByte(column.getNonUnique() == null ? -1 : column.getNonUnique() ? 1 : 0);
+                writeString(out, column.getColumnName());
+                writeInteger(out, column.getOrdinalPosition());
+                writeString(out, column.getAscOrDesc());
+                writeString(out, column.getType());
+            }
+        }
+    }
+
+    private static Map<String, ArrayList<IndexMetaData>> readIndexes(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count < 0) {
+            return null;
+        }
+        LinkedHashMap<String, ArrayList<IndexMetaData>> indexes = new LinkedHashMap<>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; i++) {
+            String indexName = readString(buffer);
+            int columnCount = buffer.getInt();
+            ArrayList<IndexMetaData> columns = new ArrayList<>(columnCount);
+            for (int j = 0; j < columnCount; j++) {
+                IndexMetaData column = new IndexMetaData();
+                column.setIndexName(readString(buffer));
+                byte nonUnique = buffer.get();
+                column.setNonUnique(nonUnique < 0 ? null : nonUnique == 1);
+                column.setColumnName(readString(buffer));
+                column.setOrdinalPosition(readInteger(buffer));
+                column.setAscOrDesc(readString(buffer));
+                column.setType(readString(buffer));
+                columns.add(column);
+            }
+            indexes.put(indexName, columns);
+        }
+        return indexes;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        if (value == null) {
+            out.writeBoolean(false);
+            return;
+        }
+        out.writeBoolean(true);
+        out.writeInt(value);
+    }
+
+    private static Integer readInteger(ByteBuffer buffer) {
+        return buffer.get() == 0 ? null : buffer.getInt();
+    }
+
+}
@@ -0,0 +1,185 @@
+package com.drizzlepal.jdbc.snapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.drizzlepal.jdbc.DataSource;
+import com.drizzlepal.jdbc.metadata.DatabaseMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 基于快照文件的数据库元数据存储，用于进程启动时的快速预热
+ * <p>
+ * 启动时直接从快照文件加载元数据，随后在后台线程中增量刷新：通过一次表版本查询找出创建时间或修改时间变化的表，
+ * 只重新加载这些表并写回快照文件。变化的表超过总数的十分之一时改为整库批量加载，比逐表加载更快
+ */
+@Slf4j
+public class MetaDataSnapshotStore implements AutoCloseable {
+
+    private final DataSource dataSource;
+
+    private final String schema;
+
+    private final String databaseName;
+
+    private final Path file;
+
+    private final ExecutorService refresher;
+
+    private volatile MetaDataSnapshot snapshot;
+
+    public MetaDataSnapshotStore(DataSource dataSource, String schema, String databaseName, Path file) {
+        this.dataSource = dataSource;
+        this.schema = schema;
+        this.databaseName = databaseName;
+        this.file = file;
+        this.refresher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "drizzlepal-metadata-snapshot-" + databaseName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 获取当前快照，尚未加载时返回 null
+     *
+     * @return 当前快照
+     */
+    public MetaDataSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 预热：快照文件可用时立即返回文件中的快照并在后台增量刷新，否则同步从数据库整库加载并写出快照文件
+     *
+     * @return 可立即使用的快照
+     * @throws SQLException 如果从数据库加载元数据时发生SQL异常
+     * @throws IOException  如果写快照文件时发生IO异常
+     */
+    public MetaDataSnapshot warmStart() throws SQLException, IOException {
+        if (Files.isRegularFile(file)) {
+            try {
+                snapshot = MetaDataSnapshot.readFrom(file);
+                refreshAsync();
+                return snapshot;
+            } catch (IOException e) {
+                log.warn("读取元数据快照文件 {} 失败，改为从数据库加载", file, e);
+            }
+        }
+        return refresh();
+    }
+
+    /**
+     * 在后台线程中增量刷新快照
+     *
+     * @return 刷新完成后的快照
+     */
+    public CompletableFuture<MetaDataSnapshot> refreshAsync() {
+        CompletableFuture<MetaDataSnapshot> future = new CompletableFuture<>();
+        refresher.execute(() -> {
+            try {
+                future.complete(refresh());
+            } catch (Throwable e) {
+                log.warn("刷新数据库 {} 的元数据快照失败", databaseName, e);
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 同步刷新快照，没有任何表发生变化时不重写快照文件
+     *
+     * @return 刷新后的快照
+     * @throws SQLException 如果从数据库加载元数据时发生SQL异常
+     * @throws IOException  如果写快照文件时发生IO异常
+     */
+    public synchronized MetaDataSnapshot refresh() throws SQLException, IOException {
+        MetaDataSnapshot current = snapshot;
+        long now = System.currentTimeMillis();
+        Map<String, String> versions = dataSource.getTableVersions(schema, databaseName);
+        MetaDataSnapshot refreshed = current == null || versions == null ? null
+                : refreshChangedTables(current, versions, now);
+        if (refreshed == current && current != null) {
+            return current;
+        }
+        if (refreshed == null) {
+            refreshed = new MetaDataSnapshot(dataSource.getMetaData(schema, databaseName), versions, now);
+        }
+        refreshed.writeTo(file);
+        snapshot = refreshed;
+        return refreshed;
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * 只重新加载版本变化或新增的表
+     *
+     * @return 没有变化时返回 current，变化过多需要整库加载时返回 null
+     */
+    private MetaDataSnapshot refreshChangedTables(MetaDataSnapshot current, Map<String, String> versions, long now)
+            throws SQLException {
+        HashMap<String, TableMetaData> knownTables = new HashMap<>();
+        for (TableMetaData table : current.getDatabaseMetaData().getTables()) {
+            knownTables.put(table.getName(), table);
+        }
+        LinkedList<String> changedTables = new LinkedList<>();
+        versions.forEach((tableName, version) -> {
+            if (!knownTables.containsKey(tableName) || !version.equals(current.getTableVersions().get(tableName))) {
+                changedTables.add(tableName);
+            }
+        });
+        boolean tableDropped = knownTables.keySet().stream().anyMatch(tableName -> !versions.containsKey(tableName));
+        if (changedTables.isEmpty() && !tableDropped) {
+            return current;
+        }
+        if (changedTables.size() * 10 > versions.size()) {
+            return null;
+        }
+        Map<String, TableMetaData> reloaded;
+        try {
+            reloaded = dataSource.crawlTableMetaData(schema, databaseName, changedTables, 0).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("刷新元数据快照时被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new SQLException("刷新元数据快照失败", e.getCause());
+        }
+        ArrayList<TableMetaData> tables = new ArrayList<>(versions.size());
+        HashMap<String, String> tableVersions = new HashMap<>(versions.size() * 4 / 3 + 1);
+        versions.forEach((tableName, version) -> {
+            TableMetaData table = reloaded.containsKey(tableName) ? reloaded.get(tableName)
+                    : knownTables.get(tableName);
+            if (table != null) {
+                tables.add(table);
+                tableVersions.put(tableName, version);
+            }
+        });
+        tables.sort((a, b) -> a.getName().compareTo(b.getName()));
+        DatabaseMetaData databaseMetaData = new DatabaseMetaData();
+        databaseMetaData.setName(current.getDatabaseMetaData().getName());
+        databaseMetaData.setSchema(current.getDatabaseMetaData().getSchema());
+        databaseMetaData.setTables(tables);
+        return new MetaDataSnapshot(databaseMetaData, tableVersions, now);
+    }
+
+}
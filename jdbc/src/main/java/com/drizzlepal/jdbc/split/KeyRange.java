@@ -0,0 +1,84 @@
+package com.drizzlepal.jdbc.split;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.drizzlepal.jdbc.sql.SqlBuilder;
+
+import lombok.Getter;
+
+/**
+ * 主键区间 (lower, upper]，按 keyColumns 的列顺序比较，lower 为 null 表示没有下界，upper 为 null 表示没有上界
+ * <p>
+ * integral 为 true 时区间只有一个整数键列且边界为 Long，读取过程中可以按键值二分拆分
+ * <p>
+ * within 不为 null 时区间嵌套在外层区间内，条件与外层区间的条件同时成立，用于在只按前导键列划分的整数区间内继续按完整主键拆分
+ */
+@Getter
+public class KeyRange {
+
+    private final List<String> keyColumns;
+
+    private final Object[] lower;
+
+    private final Object[] upper;
+
+    private final boolean integral;
+
+    private final KeyRange within;
+
+    public KeyRange(List<String> keyColumns, Object[] lower, Object[] upper, boolean integral) {
+        this(keyColumns, lower, upper, integral, null);
+    }
+
+    public KeyRange(List<String> keyColumns, Object[] lower, Object[] upper, boolean integral, KeyRange within) {
+        this.keyColumns = keyColumns;
+        this.lower = lower;
+        this.upper = upper;
+        this.integral = integral;
+        this.within = within;
+    }
+
+    /**
+     * 区间条件，没有上下界时返回空字符串，否则返回以 " WHERE " 开头的条件
+     *
+     * @param sqlBuilder 查询所在数据源的 sql 构建器
+     * @return 条件sql，参数由 {@link #parameters()} 给出
+     */
+    public String where(SqlBuilder sqlBuilder) {
+        StringBuilder builder = new StringBuilder(within == null ? "" : within.where(sqlBuilder));
+        if (lower != null) {
+            builder.append(builder.length() == 0 ? " WHERE " : " AND ").append(sqlBuilder.KeyGreaterThan(keyColumns));
+        }
+        if (upper != null) {
+            builder.append(builder.length() == 0 ? " WHERE " : " AND ").append(sqlBuilder.KeyAtMost(keyColumns));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return {@link #where(SqlBuilder)} 条件的参数
+     */
+    public Object[] parameters() {
+        ArrayList<Object> parameters = new ArrayList<>();
+        if (within != null) {
+            parameters.addAll(Arrays.asList(within.parameters()));
+        }
+        if (lower != null) {
+            parameters.addAll(Arrays.asList(SqlBuilder.keyParameters(lower)));
+        }
+        if (upper != null) {
+            parameters.addAll(Arrays.asList(SqlBuilder.keyParameters(upper)));
+        }
+        return parameters.toArray();
+    }
+
+    @Override
+    public String toString() {
+        return (within == null ? "" : within + " ∩ ") + keyColumns + " ("
+                + (lower == null ? "-∞" : Arrays.toString(lower)) + ", "
+                + (upper == null ? "+∞" : Arrays.toString(upper)) + "]";
+    }
+
+}
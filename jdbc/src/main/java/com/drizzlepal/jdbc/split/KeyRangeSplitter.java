@@ -0,0 +1,146 @@
+package com.drizzlepal.jdbc.split;
+
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.drizzlepal.jdbc.DataSource;
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.sql.SqlBuilder;
+import com.drizzlepal.jdbc.utils.MetaDataUtils;
+
+/**
+ * 按主键把表拆分为若干个互不重叠的区间，用于多个连接并发读取
+ * <p>
+ * 首个主键列为整数类型时查询最小值和最大值后等宽拆分，只比较首列，复合主键同样适用；
+ * 数据分布不均匀时由 {@link ParallelTableReader} 在读取过程中继续拆分耗时过长的区间。
+ * 其他主键使用 NTILE 按行数等分，区间边界为每个分桶的最后一个完整主键，天然不受数据倾斜影响，代价是扫描一遍主键索引
+ */
+public class KeyRangeSplitter {
+
+    private final DataSource dataSource;
+
+    public KeyRangeSplitter(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * 把表拆分为最多 count 个区间，区间按主键顺序排列，首尾区间没有下界和上界，拆分之后新增的行同样会被读到
+     *
+     * @param tableMetaData 表元数据，缺少主键或列元数据时从数据源加载
+     * @param count         期望的区间数
+     * @return 按主键顺序排列的区间
+     * @throws SQLException 如果表没有主键或查询时发生SQL异常
+     */
+    public List<KeyRange> split(TableMetaData tableMetaData, int count) throws SQLException {
+        TableMetaData table = MetaDataUtils.complete(dataSource, tableMetaData);
+        List<String> keyColumns = MetaDataUtils.primaryKeyColumns(table);
+        if (keyColumns.isEmpty()) {
+            throw new SQLException("表 " + table.getName() + " 没有主键，无法按主键拆分");
+        }
+        // 无符号 BIGINT 可能超出 long 的范围，按 NTILE 拆分
+        boolean integral = MetaDataUtils.isIntegral(column(table, keyColumns.get(0)));
+        if (count <= 1) {
+            return Collections.singletonList(
+                    new KeyRange(integral ? keyColumns.subList(0, 1) : keyColumns, null, null, integral));
+        }
+        if (integral) {
+            return splitByMinMax(table, keyColumns.get(0), count);
+        }
+        return splitByNtile(table, keyColumns, count);
+    }
+
+    private List<KeyRange> splitByMinMax(TableMetaData tableMetaData, String keyColumn, int count)
+            throws SQLException {
+        SqlBuilder sqlBuilder = dataSource.getSqlBuilder();
+        String column = sqlBuilder.escape(keyColumn);
+        String sql = "SELECT MIN(" + column + "), MAX(" + column + ") FROM " + sqlBuilder.tableName(tableMetaData);
+        List<String> keyColumns = Collections.singletonList(keyColumn);
+        long min;
+        long max;
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            min = resultSet.getLong(1);
+            if (resultSet.wasNull()) {
+                return Collections.singletonList(new KeyRange(keyColumns, null, null, true));
+            }
+            max = resultSet.getLong(2);
+        }
+        BigInteger span = BigInteger.valueOf(max).subtract(BigInteger.valueOf(min));
+        ArrayList<KeyRange> ranges = new ArrayList<>(count + 1);
+        Object[] lower = null;
+        for (int i = 1; i < count; i++) {
+            long boundary = BigInteger.valueOf(min)
+                    .add(span.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(count))).longValue();
+            if (lower != null && (Long) lower[0] >= boundary) {
+                continue;
+            }
+            Object[] upper = new Object[] { boundary };
+            ranges.add(new KeyRange(keyColumns, lower, upper, true));
+            lower = upper;
+        }
+        // 最后一个区间以最大值为上界，读取时才能按键值二分，大于最大值的新增行单独成一个区间
+        if (lower == null || (Long) lower[0] < max) {
+            Object[] upper = new Object[] { max };
+            ranges.add(new KeyRange(keyColumns, lower, upper, true));
+            lower = upper;
+        }
+        ranges.add(new KeyRange(keyColumns, lower, null, true));
+        return ranges;
+    }
+
+    private List<KeyRange> splitByNtile(TableMetaData tableMetaData, List<String> keyColumns, int count)
+            throws SQLException {
+        SqlBuilder sqlBuilder = dataSource.getSqlBuilder();
+        StringBuilder columns = new StringBuilder();
+        StringBuilder descending = new StringBuilder();
+        for (int i = 0; i < keyColumns.size(); i++) {
+            String column = sqlBuilder.escape(keyColumns.get(i));
+            columns.append(i == 0 ? "" : ", ").append(column);
+            descending.append(i == 0 ? "" : ", ").append(column).append(" DESC");
+        }
+        String sql = "SELECT " + columns + " FROM (SELECT " + columns
+                + ", ROW_NUMBER() OVER (PARTITION BY bucket_ ORDER BY " + descending + ") AS rn_ FROM (SELECT "
+                + columns + ", NTILE(" + count + ") OVER (ORDER BY " + columns + ") AS bucket_ FROM "
+                + sqlBuilder.tableName(tableMetaData) + ") b_) r_ WHERE rn_ = 1 ORDER BY " + columns;
+        ArrayList<Object[]> boundaries = new ArrayList<>(count);
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                Object[] key = new Object[keyColumns.size()];
+                for (int i = 0; i < key.length; i++) {
+                    key[i] = resultSet.getObject(i + 1);
+                }
+                boundaries.add(key);
+            }
+        }
+        ArrayList<KeyRange> ranges = new ArrayList<>(boundaries.size());
+        Object[] lower = null;
+        // 最后一个分桶的边界是最大主键，去掉后最后一个区间没有上界
+        for (int i = 0; i < boundaries.size() - 1; i++) {
+            ranges.add(new KeyRange(keyColumns, lower, boundaries.get(i), false));
+            lower = boundaries.get(i);
+        }
+        ranges.add(new KeyRange(keyColumns, lower, null, false));
+        return ranges;
+    }
+
+    private static ColumnMetaData column(TableMetaData tableMetaData, String columnName) throws SQLException {
+        for (ColumnMetaData column : tableMetaData.getColumns()) {
+            if (column.getName().equalsIgnoreCase(columnName)) {
+                return column;
+            }
+        }
+        throw new SQLException("表 " + tableMetaData.getName() + " 中不存在主键列 " + columnName);
+    }
+
+}
@@ -0,0 +1,373 @@
+package com.drizzlepal.jdbc.split;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import com.drizzlepal.jdbc.DataSource;
+import com.drizzlepal.jdbc.exception.ConnectionOperationException;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.sql.SqlBuilder;
+import com.drizzlepal.jdbc.utils.MetaDataUtils;
+import com.drizzlepal.utils.functions.ConsumerThrowable;
+import com.drizzlepal.utils.functions.FunctionThrowable;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 在多个连接池连接上并发读取表的各个主键区间，结果在调用线程上合并交给 sink 处理
+ * <p>
+ * 有序合并时每个区间使用各自的有界队列，按区间顺序依次消费，输出顺序与主键顺序一致；
+ * 无序合并时所有区间共用一个有界队列，先读到的先输出。两种方式的内存占用都只与队列容量有关。
+ * <p>
+ * 整数键区间读取耗时超过已完成区间耗时中位数的若干倍、且没有待执行的区间时，把该区间尚未读取的部分二分，
+ * 后半部分交给空闲线程读取，原区间读到新的上界后提前结束
+ */
+@Slf4j
+public class ParallelTableReader {
+
+    private static final AtomicInteger READER_SEQUENCE = new AtomicInteger();
+
+    private static final long STRAGGLER_FACTOR = 3;
+
+    private static final long POLL_INTERVAL_MS = 200;
+
+    private static final Object STOP = new Object();
+
+    private static final Object END = new Object();
+
+    private static final Object NULL_ROW = new Object();
+
+    private final DataSource dataSource;
+
+    private final int parallelism;
+
+    private final int queueCapacity;
+
+    /**
+     * @param dataSource    数据源
+     * @param parallelism   并发读取的连接数，不应超过连接池最大连接数
+     * @param queueCapacity 每个区间缓存的最大行数
+     */
+    public ParallelTableReader(DataSource dataSource, int parallelism, int queueCapacity) {
+        if (parallelism <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("parallelism and queueCapacity must be positive");
+        }
+        this.dataSource = dataSource;
+        this.parallelism = parallelism;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * 并发读取全部区间，任一区间失败时取消其余区间并抛出异常
+     *
+     * @param <T>           行映射结果类型
+     * @param tableMetaData 表元数据，读取其中的全部列，按其完整主键排序；缺少主键元数据时从数据源加载
+     * @param ranges        按主键顺序排列的区间，通常来自 {@link KeyRangeSplitter}
+     * @param rowMapper     行映射函数，在读取线程上执行
+     * @param sink          结果处理函数，在调用线程上执行
+     * @param ordered       是否按主键顺序输出
+     * @return 读取的行数
+     * @throws ConnectionOperationException 如果读取或处理时发生异常
+     */
+    public <T> long read(TableMetaData tableMetaData, List<KeyRange> ranges, FunctionThrowable<ResultSet, T> rowMapper,
+            ConsumerThrowable<T> sink, boolean ordered) throws ConnectionOperationException {
+        if (ranges.isEmpty()) {
+            return 0;
+        }
+        TableMetaData table;
+        try {
+            table = tableMetaData.getPrimaryKeys() != null ? tableMetaData
+                    : MetaDataUtils.complete(dataSource, tableMetaData);
+        } catch (SQLException e) {
+            throw new ConnectionOperationException(e);
+        }
+        Run<T> run = new Run<>(table, rowMapper, ordered);
+        try {
+            return run.execute(ranges, sink);
+        } catch (ConnectionOperationException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionOperationException(e);
+        } catch (Throwable e) {
+            throw new ConnectionOperationException(e);
+        } finally {
+            run.executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 一次读取的运行状态，区间拆分、完成耗时统计与有序链表的修改都在该对象上同步
+     */
+    private final class Run<T> {
+
+        private final TableMetaData tableMetaData;
+
+        /**
+         * 完整的主键列，整数键区间只按前导键列划分，区间内仍按完整主键排序
+         */
+        private final List<String> keyColumns;
+
+        private final FunctionThrowable<ResultSet, T> rowMapper;
+
+        private final boolean ordered;
+
+        private final ThreadPoolExecutor executor;
+
+        private final BlockingQueue<Object> sharedQueue;
+
+        private final LinkedHashSet<RangeTask> running = new LinkedHashSet<>();
+
+        private final ArrayList<Long> completedNanos = new ArrayList<>();
+
+        private final AtomicInteger total = new AtomicInteger();
+
+        Run(TableMetaData tableMetaData, FunctionThrowable<ResultSet, T> rowMapper, boolean ordered) {
+            this.tableMetaData = tableMetaData;
+            this.keyColumns = MetaDataUtils.primaryKeyColumns(tableMetaData);
+            this.rowMapper = rowMapper;
+            this.ordered = ordered;
+            this.sharedQueue = ordered ? null : new ArrayBlockingQueue<>(queueCapacity * parallelism);
+            String prefix = "drizzlepal-table-reader-" + READER_SEQUENCE.incrementAndGet() + "-";
+            AtomicInteger threadSequence = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, prefix + threadSequence.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+
+        @SuppressWarnings("unchecked")
+        long execute(List<KeyRange> ranges, ConsumerThrowable<T> sink) throws Throwable {
+            RangeTask head = null;
+            RangeTask previous = null;
+            ArrayList<RangeTask> tasks = new ArrayList<>(ranges.size());
+            for (KeyRange range : ranges) {
+                RangeTask task = new RangeTask(range);
+                if (previous == null) {
+                    head = task;
+                } else {
+                    previous.next = task;
+                }
+                previous = task;
+                tasks.add(task);
+            }
+            total.set(tasks.size());
+            tasks.forEach(this::submit);
+            long rows = 0;
+            RangeTask current = head;
+            int finished = 0;
+            while (ordered ? current != null : finished < total.get()) {
+                Object item = (ordered ? current.queue : sharedQueue).poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (item == null) {
+                    maybeSplitStraggler();
+                } else if (item == END) {
+                    finished++;
+                    synchronized (this) {
+                        current = ordered ? current.next : null;
+                    }
+                } else if (item instanceof Failure) {
+                    throw ((Failure) item).cause;
+                } else {
+                    sink.accept(item == NULL_ROW ? null : (T) item);
+                    rows++;
+                }
+            }
+            return rows;
+        }
+
+        private void submit(RangeTask task) {
+            executor.execute(() -> {
+                try {
+                    read(task);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    maybeSplitStraggler();
+                }
+            });
+        }
+
+        private void read(RangeTask task) throws InterruptedException {
+            synchronized (this) {
+                task.startNanos = System.nanoTime();
+                running.add(task);
+            }
+            KeyRange range = task.range;
+            SqlBuilder sqlBuilder = dataSource.getSqlBuilder();
+            StringBuilder sql = new StringBuilder(sqlBuilder.Select(tableMetaData)).append(range.where(sqlBuilder));
+            sql.append(" ORDER BY ");
+            List<String> orderColumns = keyColumns.isEmpty() ? range.getKeyColumns() : keyColumns;
+            for (int i = 0; i < orderColumns.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append(sqlBuilder.escape(orderColumns.get(i)));
+            }
+            String keyColumn = range.getKeyColumns().get(0);
+            FunctionThrowable<ResultSet, Object> mapper = resultSet -> {
+                if (task.integral && !task.accept(resultSet.getLong(keyColumn))) {
+                    return STOP;
+                }
+                return rowMapper.apply(resultSet);
+            };
+            try (Stream<Object> rows = dataSource.queryForStream(sql.toString(), mapper, range.parameters())) {
+                Iterator<Object> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    Object row = iterator.next();
+                    if (row == STOP) {
+                        break;
+                    }
+                    task.queue.put(row == null ? NULL_ROW : row);
+                }
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Throwable e) {
+                synchronized (this) {
+                    task.finished = true;
+                    running.remove(task);
+                }
+                task.queue.put(new Failure(e));
+                return;
+            }
+            synchronized (this) {
+                task.finished = true;
+                running.remove(task);
+                completedNanos.add(System.nanoTime() - task.startNanos);
+            }
+            task.queue.put(END);
+        }
+
+        /**
+         * 有空闲线程且没有待执行的区间时，找出耗时最长的可拆分区间，把尚未读取的部分二分，
+         * 在读取线程完成区间时和调用线程等待数据超时时调用
+         */
+        private synchronized void maybeSplitStraggler() {
+            if (executor.isShutdown() || !executor.getQueue().isEmpty() || running.size() >= parallelism
+                    || completedNanos.isEmpty()) {
+                return;
+            }
+            ArrayList<Long> sorted = new ArrayList<>(completedNanos);
+            sorted.sort(null);
+            long threshold = sorted.get(sorted.size() / 2) * STRAGGLER_FACTOR;
+            long now = System.nanoTime();
+            RangeTask straggler = null;
+            for (RangeTask task : running) {
+                if (task.splittable() && now - task.startNanos > threshold
+                        && (straggler == null || task.startNanos < straggler.startNanos)) {
+                    straggler = task;
+                }
+            }
+            if (straggler == null) {
+                return;
+            }
+            RangeTask tail = straggler.splitRemaining();
+            if (tail == null) {
+                return;
+            }
+            log.debug("表 {} 的区间 {} 读取过慢，拆分出 {}", tableMetaData.getName(), straggler.range, tail.range);
+            tail.next = straggler.next;
+            straggler.next = tail;
+            total.incrementAndGet();
+            submit(tail);
+        }
+
+        /**
+         * 单个区间的读取任务，整数键区间的上界可以在读取过程中缩小
+         */
+        private final class RangeTask {
+
+            private final KeyRange range;
+
+            private final BlockingQueue<Object> queue;
+
+            private final boolean integral;
+
+            private long upperLimit;
+
+            private long lastKey;
+
+            private boolean started;
+
+            private boolean finished;
+
+            private long startNanos;
+
+            private RangeTask next;
+
+            RangeTask(KeyRange range) {
+                this.range = range;
+                this.queue = ordered ? new ArrayBlockingQueue<>(queueCapacity) : sharedQueue;
+                this.integral = range.isIntegral() && range.getKeyColumns().size() == 1;
+                this.upperLimit = integral && range.getUpper() != null ? (Long) range.getUpper()[0] : Long.MAX_VALUE;
+                this.lastKey = integral && range.getLower() != null ? (Long) range.getLower()[0] : Long.MIN_VALUE;
+            }
+
+            /**
+             * 读取线程每读到一行调用一次，键值超过当前上界时返回 false 结束读取
+             */
+            boolean accept(long key) {
+                if (!integral) {
+                    return true;
+                }
+                synchronized (this) {
+                    if (key > upperLimit) {
+                        return false;
+                    }
+                    started = true;
+                    lastKey = key;
+                    return true;
+                }
+            }
+
+            boolean splittable() {
+                return integral && !finished && range.getUpper() != null;
+            }
+
+            /**
+             * 把 (lastKey, upperLimit] 二分，当前任务只读前半部分，返回读取后半部分的新任务
+             */
+            RangeTask splitRemaining() {
+                long lower;
+                long upper;
+                long middle;
+                synchronized (this) {
+                    if (!started && range.getLower() == null) {
+                        return null;
+                    }
+                    lower = lastKey;
+                    upper = upperLimit;
+                    middle = lower + ((upper - lower) >>> 1);
+                    if (middle <= lower || middle >= upper) {
+                        return null;
+                    }
+                    upperLimit = middle;
+                }
+                return new RangeTask(new KeyRange(range.getKeyColumns(), new Object[] { middle },
+                        new Object[] { upper }, true));
+            }
+
+        }
+
+    }
+
+    private static final class Failure {
+
+        private final Throwable cause;
+
+        Failure(Throwable cause) {
+            this.cause = cause;
+        }
+
+    }
+
+}
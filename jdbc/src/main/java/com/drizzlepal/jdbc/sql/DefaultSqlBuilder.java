@@ -1,103 +1,616 @@
 package com.drizzlepal.jdbc.sql;
 
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
 import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.utils.MetaDataUtils;
 import com.drizzlepal.utils.StringUtils;
 
+/**
+ * SqlBuilder 的默认实现，除模板缓存外不持有可变的共享状态，生成的 DML 模板按最近最少使用淘汰，
+ * 多行插入的尾部行数、分页大小与多租户的模式都会产生新的模板，缓存数量有上限
+ * <p>
+ * 方言差异（标识符转义、表名限定、列类型与默认值、列注释）由子类覆盖对应的方法
+ */
 public abstract class DefaultSqlBuilder implements SqlBuilder {
 
-    private final StringBuilder builder = new StringBuilder();
+    private static final int MAX_TEMPLATES = 1024;
 
-    protected String escape(String keyword) {
-        return "`" + keyword + "`";
+    private final Map<TemplateKey, String> templates = new LinkedHashMap<TemplateKey, String>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TemplateKey, String> eldest) {
+            return size() > MAX_TEMPLATES;
+        }
+
+    };
+
+    @Override
+    public String escape(String identifier) {
+        return "`" + identifier.replace("`", "``") + "`";
     }
 
     @Override
-    public String CreateTable(TableMetaData tableMetaData) {
-        builder.delete(0, builder.length());
-        builder.append(CREATE);
+    public String tableName(TableMetaData tableMetaData) {
         if (StringUtils.isNotBlank(tableMetaData.getDatabase())) {
-            builder.append(escape(tableMetaData.getDatabase())).append(".").append(escape(tableMetaData.getName()));
-        } else {
-            builder.append(escape(tableMetaData.getName()));
+            return escape(tableMetaData.getDatabase()) + DOT + escape(tableMetaData.getName());
         }
-        builder.append(SPACE).append(OPEN_PARENTHESIS);
-        tableMetaData.getColumns().stream().forEachOrdered(column -> {
+        return escape(tableMetaData.getName());
+    }
 
-        });
+    @Override
+    public String CreateTable(TableMetaData tableMetaData) {
+        StringBuilder builder = new StringBuilder(CREATE_TABLE);
+        builder.append(tableName(tableMetaData)).append(SPACE).append(OPEN_PARENTHESIS);
+        List<ColumnMetaData> columns = new ArrayList<>(columns(tableMetaData));
+        columns.sort((a, b) -> Integer.compare(position(a), position(b)));
+        for (int i = 0; i < columns.size(); i++) {
+            builder.append(i == 0 ? "" : COMMA + SPACE).append(columnDefinition(columns.get(i)));
+        }
+        List<String> primaryKeys = MetaDataUtils.primaryKeyColumns(tableMetaData);
+        if (!primaryKeys.isEmpty()) {
+            builder.append(COMMA).append(SPACE).append(PRIMARY_KEY).append(SPACE);
+            appendColumns(builder, primaryKeys, COMMA + SPACE);
+            builder.append(CLOSE_PARENTHESIS);
+        }
+        builder.append(CLOSE_PARENTHESIS);
         return builder.toString();
     }
 
     @Override
-    public String Delete() {
-        // TODO Auto-generated method stub
-        return null;
+    public TableMetaData TranslateTable(TableMetaData tableMetaData) {
+        TableMetaData translated = new TableMetaData();
+        translated.setDatabase(tableMetaData.getDatabase());
+        translated.setName(tableMetaData.getName());
+        translated.setRemarks(tableMetaData.getRemarks());
+        ArrayList<ColumnMetaData> columns = new ArrayList<>(columns(tableMetaData).size());
+        for (ColumnMetaData column : columns(tableMetaData)) {
+            ColumnMetaData copy = new ColumnMetaData();
+            copy.setName(column.getName());
+            copy.setRemarks(column.getRemarks());
+            copy.setDatatype(column.getDatatype());
+            copy.setTypeName(column.getTypeName());
+            copy.setLength(column.getLength());
+            copy.setOrdinalPosition(column.getOrdinalPosition());
+            copy.setNullable(column.getNullable());
+            copy.setDecimalDigits(column.getDecimalDigits());
+            translateType(copy, isUnsigned(column));
+            columns.add(copy);
+        }
+        translated.setColumns(columns);
+        if (tableMetaData.getPrimaryKeys() != null) {
+            translated.setPrimaryKeys(new ArrayList<>(tableMetaData.getPrimaryKeys()));
+        }
+        return translated;
+    }
+
+    @Override
+    public String Insert(TableMetaData tableMetaData) {
+        return Insert(tableMetaData, null, 1);
     }
 
     @Override
-    public String Insert() {
-        // TODO Auto-generated method stub
-        return null;
+    public String Insert(TableMetaData tableMetaData, List<String> columns, int rows) {
+        if (rows <= 0) {
+            throw new IllegalArgumentException("rows is invalid");
+        }
+        List<String> insertColumns = orColumnNames(tableMetaData, columns);
+        return template(new TemplateKey(Operation.INSERT, tableMetaData, insertColumns, null, rows),
+                key -> {
+                    StringBuilder builder = new StringBuilder(INSERT_INTO).append(tableName(tableMetaData));
+                    builder.append(SPACE);
+                    appendColumns(builder, insertColumns, COMMA + SPACE);
+                    builder.append(CLOSE_PARENTHESIS).append(VALUES);
+                    String placeholders = placeholders(insertColumns.size());
+                    for (int i = 0; i < rows; i++) {
+                        builder.append(i == 0 ? SPACE : COMMA + SPACE).append(placeholders);
+                    }
+                    return builder.toString();
+                });
     }
 
     @Override
-    public String Select() {
-        // TODO Auto-generated method stub
-        return null;
+    public String Upsert(TableMetaData tableMetaData, List<String> keyColumns, int rows) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " 不支持单语句 upsert");
     }
 
     @Override
-    public String TruncateTable() {
-        // TODO Auto-generated method stub
-        return null;
+    public String CreateStagingTable(TableMetaData tableMetaData, TableMetaData stagingTable) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " 不支持暂存表合并");
     }
 
     @Override
-    public String Update() {
-        // TODO Auto-generated method stub
-        return null;
+    public String Merge(TableMetaData tableMetaData, TableMetaData stagingTable, List<String> keyColumns) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " 不支持暂存表合并");
     }
 
-    private static final String SELECT = "SELECT";
+    @Override
+    public String CopyIn(TableMetaData tableMetaData) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " 不支持 COPY");
+    }
 
-    private static final String DISTINCT = "DISTINCT";
+    /**
+     * upsert 与合并时更新的列：键列以外的全部列
+     *
+     * @param tableMetaData 表元数据
+     * @param keyColumns    键列
+     * @return 更新的列，全部列都是键列时为空
+     */
+    protected static List<String> nonKeyColumns(TableMetaData tableMetaData, List<String> keyColumns) {
+        ArrayList<String> updates = new ArrayList<>();
+        for (ColumnMetaData column : columns(tableMetaData)) {
+            if (!containsIgnoreCase(keyColumns, column.getName())) {
+                updates.add(column.getName());
+            }
+        }
+        return updates;
+    }
 
-    private static final String AS = "AS";
+    @Override
+    public String Delete(TableMetaData tableMetaData) {
+        return Delete(tableMetaData, null);
+    }
 
-    private static final String COUNT = "COUNT";
+    @Override
+    public String Delete(TableMetaData tableMetaData, List<String> whereColumns) {
+        List<String> conditions = orPrimaryKeys(tableMetaData, whereColumns);
+        return template(new TemplateKey(Operation.DELETE, tableMetaData, null, conditions, 0),
+                key -> {
+                    StringBuilder builder = new StringBuilder(DELETE_FROM).append(tableName(tableMetaData));
+                    appendWhere(builder, conditions);
+                    return builder.toString();
+                });
+    }
 
-    private static final String COUNT_ALL = "*";
+    @Override
+    public String Update(TableMetaData tableMetaData) {
+        return Update(tableMetaData, null, null);
+    }
 
-    private static final String COUNT_DISTINCT = "COUNT(DISTINCT";
+    @Override
+    public String Update(TableMetaData tableMetaData, List<String> setColumns, List<String> whereColumns) {
+        List<String> conditions = orPrimaryKeys(tableMetaData, whereColumns);
+        List<String> updates;
+        if (setColumns == null || setColumns.isEmpty()) {
+            updates = new ArrayList<>();
+            for (String column : orColumnNames(tableMetaData, null)) {
+                if (!containsIgnoreCase(conditions, column)) {
+                    updates.add(column);
+                }
+            }
+        } else {
+            updates = setColumns;
+        }
+        if (updates.isEmpty()) {
+            throw new IllegalArgumentException("表 " + tableMetaData.getName() + " 没有可更新的列");
+        }
+        return template(new TemplateKey(Operation.UPDATE, tableMetaData, updates, conditions, 0),
+                key -> {
+                    StringBuilder builder = new StringBuilder(UPDATE).append(tableName(tableMetaData));
+                    builder.append(SPACE).append(SET);
+                    for (int i = 0; i < updates.size(); i++) {
+                        builder.append(i == 0 ? SPACE : COMMA + SPACE).append(escape(updates.get(i))).append(EQUAL)
+                                .append(PARAM_PLACEHOLDER);
+                    }
+                    appendWhere(builder, conditions);
+                    return builder.toString();
+                });
+    }
+
+    @Override
+    public String Select(TableMetaData tableMetaData) {
+        return Select(tableMetaData, null, null);
+    }
 
-    private static final String GROUP_BY = "GROUP BY";
+    @Override
+    public String Select(TableMetaData tableMetaData, List<String> columns, List<String> whereColumns) {
+        List<String> selectColumns = orColumnNames(tableMetaData, columns);
+        List<String> conditions = whereColumns == null ? Collections.emptyList() : whereColumns;
+        return template(
+                new TemplateKey(Operation.SELECT, tableMetaData, selectColumns, conditions, 0), key -> {
+                    StringBuilder builder = new StringBuilder(SELECT);
+                    for (int i = 0; i < selectColumns.size(); i++) {
+                        builder.append(i == 0 ? SPACE : COMMA + SPACE).append(escape(selectColumns.get(i)));
+                    }
+                    builder.append(SPACE).append(FROM).append(SPACE).append(tableName(tableMetaData));
+                    if (!conditions.isEmpty()) {
+                        appendWhere(builder, conditions);
+                    }
+                    return builder.toString();
+                });
+    }
 
-    private static final String ORDER_BY = "ORDER BY";
+    @Override
+    public String TruncateTable(TableMetaData tableMetaData) {
+        return TRUNCATE_TABLE + tableName(tableMetaData);
+    }
+
+    @Override
+    public String Count(TableMetaData tableMetaData) {
+        return "SELECT COUNT(*) FROM " + tableName(tableMetaData);
+    }
+
+    @Override
+    public String DropTable(TableMetaData tableMetaData) {
+        return DROP_TABLE + tableName(tableMetaData);
+    }
+
+    @Override
+    public String AddColumn(TableMetaData tableMetaData, ColumnMetaData column) {
+        return ALTER_TABLE + tableName(tableMetaData) + " ADD COLUMN " + columnDefinition(column);
+    }
+
+    @Override
+    public String DropColumn(TableMetaData tableMetaData, String columnName) {
+        return ALTER_TABLE + tableName(tableMetaData) + " DROP COLUMN " + escape(columnName);
+    }
+
+    @Override
+    public String ModifyColumn(TableMetaData tableMetaData, ColumnMetaData column) {
+        return ALTER_TABLE + tableName(tableMetaData) + " MODIFY COLUMN " + columnDefinition(column);
+    }
+
+    @Override
+    public String AddPrimaryKey(TableMetaData tableMetaData, List<String> columns) {
+        StringBuilder builder = new StringBuilder(ALTER_TABLE).append(tableName(tableMetaData)).append(" ADD ")
+                .append(PRIMARY_KEY).append(SPACE);
+        appendColumns(builder, columns, COMMA + SPACE);
+        return builder.append(CLOSE_PARENTHESIS).toString();
+    }
+
+    @Override
+    public String DropPrimaryKey(TableMetaData tableMetaData, String primaryKeyName) {
+        return ALTER_TABLE + tableName(tableMetaData) + " DROP " + PRIMARY_KEY;
+    }
+
+    @Override
+    public String CreateIndex(TableMetaData tableMetaData, String indexName, List<String> columns, boolean unique) {
+        StringBuilder builder = new StringBuilder(unique ? "CREATE UNIQUE INDEX " : "CREATE INDEX ")
+                .append(escape(indexName)).append(" ON ").append(tableName(tableMetaData)).append(SPACE);
+        appendColumns(builder, columns, COMMA + SPACE);
+        return builder.append(CLOSE_PARENTHESIS).toString();
+    }
+
+    @Override
+    public String DropIndex(TableMetaData tableMetaData, String indexName) {
+        return "DROP INDEX " + escape(indexName) + " ON " + tableName(tableMetaData);
+    }
+
+    @Override
+    public String SelectPage(TableMetaData tableMetaData, List<String> keyColumns, boolean afterKey, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize is invalid");
+        }
+        List<String> conditions = afterKey ? keyColumns : Collections.emptyList();
+        // 映射函数中不能再修改模板缓存，查询全部列的模板先取出
+        String select = Select(tableMetaData);
+        return template(
+                new TemplateKey(Operation.PAGE, tableMetaData, keyColumns, conditions, pageSize), key -> {
+                    StringBuilder builder = new StringBuilder(select);
+                    if (afterKey) {
+                        builder.append(SPACE).append(WHERE).append(SPACE).append(KeyGreaterThan(keyColumns));
+                    }
+                    builder.append(SPACE).append(ORDER_BY);
+                    for (int i = 0; i < keyColumns.size(); i++) {
+                        builder.append(i == 0 ? SPACE : COMMA + SPACE).append(escape(keyColumns.get(i)));
+                    }
+                    return builder.append(SPACE).append(limit(pageSize)).toString();
+                });
+    }
+
+    @Override
+    public String KeyGreaterThan(List<String> keyColumns) {
+        return keyComparison(keyColumns, " > ", " > ");
+    }
+
+    @Override
+    public String KeyAtMost(List<String> keyColumns) {
+        return keyComparison(keyColumns, " < ", " <= ");
+    }
+
+    @Override
+    public String Limit(int rows, long offset) {
+        return "LIMIT " + rows + " OFFSET " + offset;
+    }
 
-    private static final String HAVING = "HAVING";
+    /**
+     * 清空缓存的模板，表结构变化后调用
+     */
+    public void clearTemplates() {
+        synchronized (templates) {
+            templates.clear();
+        }
+    }
+
+    /**
+     * 从缓存中取出模板，不存在时生成，生成函数中不能再调用其他使用模板缓存的方法
+     */
+    private String template(TemplateKey key, Function<TemplateKey, String> generator) {
+        synchronized (templates) {
+            return templates.computeIfAbsent(key, generator);
+        }
+    }
+
+    /**
+     * 列名按数据库的习惯不区分大小写比较
+     */
+    private static boolean containsIgnoreCase(List<String> columns, String column) {
+        for (String candidate : columns) {
+            if (candidate.equalsIgnoreCase(column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 限制返回行数的子句，追加在 ORDER BY 之后
+     *
+     * @param rows 行数
+     * @return 限制行数的子句
+     */
+    protected String limit(int rows) {
+        return "LIMIT " + rows;
+    }
+
+    /**
+     * 建表语句中的列定义：列名、类型、非空约束、默认值
+     *
+     * @param column 列元数据
+     * @return 列定义
+     */
+    protected String columnDefinition(ColumnMetaData column) {
+        StringBuilder builder = new StringBuilder(escape(column.getName())).append(SPACE).append(columnType(column));
+        if (column.getNullable() != null && column.getNullable() == 0) {
+            builder.append(SPACE).append(NOT_NULL);
+        }
+        String defaultValue = defaultValue(column);
+        if (defaultValue != null) {
+            builder.append(SPACE).append(DEFAULT).append(SPACE).append(defaultValue);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 列类型：字符与二进制类型附加长度，定点数附加精度和小数位数，其余类型只使用类型名称
+     *
+     * @param column 列元数据
+     * @return 列类型
+     */
+    protected String columnType(ColumnMetaData column) {
+        String typeName = column.getTypeName();
+        switch (column.getDatatype()) {
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.BINARY:
+            case Types.VARBINARY:
+                return column.getLength() == null || column.getLength() <= 0 ? typeName
+                        : typeName + OPEN_PARENTHESIS + column.getLength() + CLOSE_PARENTHESIS;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                if (column.getLength() == null || column.getLength() <= 0) {
+                    return typeName;
+                }
+                int scale = column.getDecimalDigits() == null ? 0 : column.getDecimalDigits();
+                return typeName + OPEN_PARENTHESIS + column.getLength() + COMMA + scale + CLOSE_PARENTHESIS;
+            default:
+                return typeName;
+        }
+    }
+
+    /**
+     * 建表语句中的默认值表达式，默认原样使用元数据中的默认值
+     *
+     * @param column 列元数据
+     * @return 默认值表达式，没有默认值时返回 null
+     */
+    protected String defaultValue(ColumnMetaData column) {
+        return column.getDefaultValue();
+    }
+
+    /**
+     * 把列类型改写为本方言的类型，设置 typeName、datatype、length 与 decimalDigits，
+     * 长度与精度由 {@link #columnType(ColumnMetaData)} 按 datatype 拼接，typeName 中不需要带长度
+     *
+     * @param column   源列的副本，直接修改
+     * @param unsigned 源列是否为无符号整数
+     */
+    protected abstract void translateType(ColumnMetaData column, boolean unsigned);
+
+    /**
+     * 改写列类型
+     *
+     * @param column   列元数据
+     * @param datatype java.sql.Types 类型代码
+     * @param typeName 类型名称
+     * @param length   长度或精度，不需要时为 null
+     */
+    protected static void setType(ColumnMetaData column, int datatype, String typeName, Integer length) {
+        column.setDatatype(datatype);
+        column.setTypeName(typeName);
+        column.setLength(length);
+        if (datatype != Types.DECIMAL && datatype != Types.NUMERIC) {
+            column.setDecimalDigits(null);
+        }
+    }
+
+    protected static int lengthOf(ColumnMetaData column) {
+        return column.getLength() == null ? -1 : column.getLength();
+    }
 
-    private static final String IN = "IN";
+    private static boolean isUnsigned(ColumnMetaData column) {
+        return column.getTypeName() != null && column.getTypeName().toUpperCase().contains("UNSIGNED");
+    }
+
+    protected static String quoteLiteral(String value) {
+        return SINGLE_QUOTE + value.replace(SINGLE_QUOTE, SINGLE_QUOTE + SINGLE_QUOTE) + SINGLE_QUOTE;
+    }
+
+    private String keyComparison(List<String> keyColumns, String operator, String lastOperator) {
+        StringBuilder builder = new StringBuilder(OPEN_PARENTHESIS);
+        for (int i = 0; i < keyColumns.size(); i++) {
+            builder.append(i == 0 ? OPEN_PARENTHESIS : SPACE + OR + SPACE + OPEN_PARENTHESIS);
+            for (int j = 0; j < i; j++) {
+                builder.append(escape(keyColumns.get(j))).append(EQUAL).append(PARAM_PLACEHOLDER).append(SPACE)
+                        .append(AND).append(SPACE);
+            }
+            builder.append(escape(keyColumns.get(i))).append(i == keyColumns.size() - 1 ? lastOperator : operator)
+                    .append(PARAM_PLACEHOLDER).append(CLOSE_PARENTHESIS);
+        }
+        return builder.append(CLOSE_PARENTHESIS).toString();
+    }
+
+    private void appendColumns(StringBuilder builder, List<String> columns, String separator) {
+        builder.append(OPEN_PARENTHESIS);
+        for (int i = 0; i < columns.size(); i++) {
+            builder.append(i == 0 ? "" : separator).append(escape(columns.get(i)));
+        }
+    }
+
+    private void appendWhere(StringBuilder builder, List<String> conditions) {
+        builder.append(SPACE).append(WHERE);
+        for (int i = 0; i < conditions.size(); i++) {
+            builder.append(i == 0 ? SPACE : SPACE + AND + SPACE).append(escape(conditions.get(i))).append(EQUAL)
+                    .append(PARAM_PLACEHOLDER);
+        }
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder builder = new StringBuilder(OPEN_PARENTHESIS);
+        for (int i = 0; i < count; i++) {
+            builder.append(i == 0 ? PARAM_PLACEHOLDER : COMMA + SPACE + PARAM_PLACEHOLDER);
+        }
+        return builder.append(CLOSE_PARENTHESIS).toString();
+    }
+
+    private static List<ColumnMetaData> columns(TableMetaData tableMetaData) {
+        if (tableMetaData.getColumns() == null || tableMetaData.getColumns().isEmpty()) {
+            throw new IllegalArgumentException("表 " + tableMetaData.getName() + " 没有列元数据");
+        }
+        return tableMetaData.getColumns();
+    }
+
+    private static int position(ColumnMetaData column) {
+        return column.getOrdinalPosition() == null ? Integer.MAX_VALUE : column.getOrdinalPosition();
+    }
+
+    private static List<String> orColumnNames(TableMetaData tableMetaData, List<String> columns) {
+        if (columns != null && !columns.isEmpty()) {
+            return columns;
+        }
+        List<ColumnMetaData> all = columns(tableMetaData);
+        ArrayList<String> names = new ArrayList<>(all.size());
+        for (ColumnMetaData column : all) {
+            names.add(column.getName());
+        }
+        return names;
+    }
+
+    private static List<String> orPrimaryKeys(TableMetaData tableMetaData, List<String> whereColumns) {
+        if (whereColumns != null && !whereColumns.isEmpty()) {
+            return whereColumns;
+        }
+        List<String> primaryKeys = MetaDataUtils.primaryKeyColumns(tableMetaData);
+        if (primaryKeys.isEmpty()) {
+            throw new IllegalArgumentException("表 " + tableMetaData.getName() + " 没有主键，需要指定条件列");
+        }
+        return primaryKeys;
+    }
+
+    private enum Operation {
+        INSERT, DELETE, UPDATE, SELECT, PAGE
+    }
+
+    /**
+     * 模板缓存键，列集合按给定顺序比较，调用方传入的列表会被复制，之后修改不影响缓存
+     */
+    private static final class TemplateKey {
+
+        private final Operation operation;
+
+        private final String database;
+
+        private final String schema;
+
+        private final String table;
+
+        private final List<String> columns;
+
+        private final List<String> conditions;
+
+        private final int rows;
+
+        private final int hash;
+
+        TemplateKey(Operation operation, TableMetaData tableMetaData, List<String> columns, List<String> conditions,
+                int rows) {
+            this.operation = operation;
+            this.database = tableMetaData.getDatabase();
+            this.schema = tableMetaData.getSchema();
+            this.table = tableMetaData.getName();
+            this.columns = columns == null ? null : new ArrayList<>(columns);
+            this.conditions = conditions == null ? null : new ArrayList<>(conditions);
+            this.rows = rows;
+            this.hash = Objects.hash(operation, database, schema, table, this.columns, this.conditions, rows);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TemplateKey)) {
+                return false;
+            }
+            TemplateKey other = (TemplateKey) obj;
+            return hash == other.hash && operation == other.operation && rows == other.rows
+                    && Objects.equals(database, other.database) && Objects.equals(schema, other.schema)
+                    && Objects.equals(table, other.table)
+                    && Objects.equals(columns, other.columns) && Objects.equals(conditions, other.conditions);
+        }
+
+    }
+
+    private static final String SELECT = "SELECT";
 
     private static final String FROM = "FROM";
 
     private static final String WHERE = "WHERE";
 
-    private static final String SET = "SET";
+    private static final String ORDER_BY = "ORDER BY";
 
-    private static final String UPDATE = "UPDATE";
+    private static final String SET = "SET";
 
-    private static final String DELETE = "DELETE";
+    private static final String UPDATE = "UPDATE ";
 
-    private static final String INSERT = "INSERT";
+    private static final String DELETE_FROM = "DELETE FROM ";
 
-    private static final String INTO = "INTO";
+    private static final String INSERT_INTO = "INSERT INTO ";
 
-    private static final String VALUES = "VALUES";
+    private static final String VALUES = " VALUES";
 
     private static final String AND = "AND";
 
     private static final String OR = "OR";
 
-    private static final String EQUAL = "=";
+    private static final String EQUAL = " = ";
 
     private static final String SPACE = " ";
 
@@ -111,8 +624,23 @@ public abstract class DefaultSqlBuilder implements SqlBuilder {
 
     private static final String OPEN_PARENTHESIS = "(";
 
-    private static final String CLOSE_PARENTHESIS = ") ";
+    private static final String CLOSE_PARENTHESIS = ")";
+
+    private static final String CREATE_TABLE = "CREATE TABLE ";
+
+    private static final String TRUNCATE_TABLE = "TRUNCATE TABLE ";
+
+    private static final String DROP_TABLE = "DROP TABLE ";
+
+    /**
+     * 子类拼接修改表语句时使用
+     */
+    protected static final String ALTER_TABLE = "ALTER TABLE ";
+
+    private static final String PRIMARY_KEY = "PRIMARY KEY";
+
+    private static final String NOT_NULL = "NOT NULL";
 
-    private static final String CREATE = "CREATE ";
+    private static final String DEFAULT = "DEFAULT";
 
 }
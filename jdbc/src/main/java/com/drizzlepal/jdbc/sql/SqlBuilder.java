@@ -1,19 +1,259 @@
 package com.drizzlepal.jdbc.sql;
 
+import java.util.List;
+
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
 import com.drizzlepal.jdbc.metadata.TableMetaData;
 
+/**
+ * 按表元数据生成参数化 sql 的构建器，实现需要线程安全，可在多个线程间共享
+ * <p>
+ * DML 模板按（表、列集合、操作）缓存，相同参数重复调用直接返回缓存的 sql；
+ * 未指定列时使用表元数据中的全部列，未指定条件列时使用主键列
+ */
 public interface SqlBuilder {
 
+    /**
+     * 转义标识符，如 MySQL 使用反引号、SQL Server 使用方括号
+     *
+     * @param identifier 标识符
+     * @return 转义后的标识符
+     */
+    String escape(String identifier);
+
+    /**
+     * 带数据库限定的转义表名
+     *
+     * @param tableMetaData 表元数据
+     * @return 表名
+     */
+    String tableName(TableMetaData tableMetaData);
+
+    /**
+     * 建表语句，包含列定义和主键，不缓存
+     *
+     * @param tableMetaData 表元数据
+     * @return 建表sql
+     */
     String CreateTable(TableMetaData tableMetaData);
 
-    String Insert();
+    /**
+     * 把其他数据库的表元数据转换为本方言的表元数据，结果可直接用于 {@link #CreateTable(TableMetaData)}
+     * <p>
+     * 列类型按 java.sql.Types 类型代码映射，超出本方言长度上限的字符与二进制列改用大对象类型；
+     * 默认值表达式在方言之间不通用，转换结果不带默认值。返回新对象，不修改传入的元数据
+     *
+     * @param tableMetaData 源表元数据，需要包含列
+     * @return 本方言的表元数据
+     */
+    TableMetaData TranslateTable(TableMetaData tableMetaData);
+
+    String Insert(TableMetaData tableMetaData);
+
+    /**
+     * 一条语句插入多行的 INSERT ... VALUES (...),(...)
+     *
+     * @param tableMetaData 表元数据
+     * @param columns       插入的列，为空时使用全部列
+     * @param rows          插入的行数
+     * @return 插入sql
+     */
+    String Insert(TableMetaData tableMetaData, List<String> columns, int rows);
+
+    /**
+     * 一条语句插入多行，键已存在时更新键以外的列，如 MySQL 的 INSERT ... ON DUPLICATE KEY UPDATE；
+     * 没有单语句 upsert 的方言抛出 UnsupportedOperationException，改用暂存表与 {@link #Merge}
+     *
+     * @param tableMetaData 表元数据
+     * @param keyColumns    判断行是否已存在的键列，通常为主键或唯一索引的列
+     * @param rows          插入的行数
+     * @return upsert sql，参数按全部列的顺序逐行排列
+     */
+    String Upsert(TableMetaData tableMetaData, List<String> keyColumns, int rows);
+
+    /**
+     * 创建与目标表列相同、不带约束的会话级暂存表，已存在时先删除；不支持暂存表合并的方言抛出 UnsupportedOperationException
+     *
+     * @param tableMetaData 目标表元数据
+     * @param stagingTable  暂存表，只使用其中的表名
+     * @return 建表sql
+     */
+    String CreateStagingTable(TableMetaData tableMetaData, TableMetaData stagingTable);
+
+    /**
+     * 把暂存表中的行合并到目标表，键已存在时更新键以外的列，否则插入；暂存表中的键不能重复
+     *
+     * @param tableMetaData 目标表元数据
+     * @param stagingTable  暂存表，只使用其中的表名
+     * @param keyColumns    合并条件的键列
+     * @return 合并sql
+     */
+    String Merge(TableMetaData tableMetaData, TableMetaData stagingTable, List<String> keyColumns);
+
+    /**
+     * 从客户端流式导入全部列的 COPY ... FROM STDIN 语句，数据为 COPY 文本格式，列的顺序与表元数据一致；
+     * 不支持 COPY 的方言抛出 UnsupportedOperationException
+     *
+     * @param tableMetaData 表元数据
+     * @return COPY 语句
+     */
+    String CopyIn(TableMetaData tableMetaData);
+
+    String Delete(TableMetaData tableMetaData);
+
+    /**
+     * @param tableMetaData 表元数据
+     * @param whereColumns  等值条件列，为空时使用主键列
+     * @return 删除sql
+     */
+    String Delete(TableMetaData tableMetaData, List<String> whereColumns);
+
+    String Update(TableMetaData tableMetaData);
+
+    /**
+     * @param tableMetaData 表元数据
+     * @param setColumns    更新的列，为空时使用条件列以外的全部列
+     * @param whereColumns  等值条件列，为空时使用主键列
+     * @return 更新sql
+     */
+    String Update(TableMetaData tableMetaData, List<String> setColumns, List<String> whereColumns);
+
+    String Select(TableMetaData tableMetaData);
+
+    /**
+     * @param tableMetaData 表元数据
+     * @param columns       查询的列，为空时使用全部列
+     * @param whereColumns  等值条件列，为空时不加条件
+     * @return 查询sql
+     */
+    String Select(TableMetaData tableMetaData, List<String> columns, List<String> whereColumns);
+
+    String TruncateTable(TableMetaData tableMetaData);
+
+    /**
+     * 统计全表行数，结果为一行一列的整数
+     *
+     * @param tableMetaData 表元数据
+     * @return 计数sql
+     */
+    String Count(TableMetaData tableMetaData);
+
+    String DropTable(TableMetaData tableMetaData);
+
+    /**
+     * 新增列，列定义与建表语句相同
+     *
+     * @param tableMetaData 表元数据
+     * @param column        新增的列
+     * @return 修改表sql
+     */
+    String AddColumn(TableMetaData tableMetaData, ColumnMetaData column);
+
+    String DropColumn(TableMetaData tableMetaData, String columnName);
+
+    /**
+     * 把已有列改为新的定义，各方言能修改的属性不同，如 SQL Server 不通过该语句修改默认值
+     *
+     * @param tableMetaData 表元数据
+     * @param column        列的新定义
+     * @return 修改表sql
+     */
+    String ModifyColumn(TableMetaData tableMetaData, ColumnMetaData column);
+
+    /**
+     * @param tableMetaData 表元数据
+     * @param columns       主键列，按主键顺序
+     * @return 修改表sql
+     */
+    String AddPrimaryKey(TableMetaData tableMetaData, List<String> columns);
+
+    /**
+     * @param tableMetaData 表元数据
+     * @param primaryKeyName 主键约束名，MySQL 不需要
+     * @return 修改表sql
+     */
+    String DropPrimaryKey(TableMetaData tableMetaData, String primaryKeyName);
+
+    /**
+     * @param tableMetaData 表元数据
+     * @param indexName     索引名
+     * @param columns       索引列，按索引中的顺序
+     * @param unique        是否唯一索引
+     * @return 建索引sql
+     */
+    String CreateIndex(TableMetaData tableMetaData, String indexName, List<String> columns, boolean unique);
+
+    String DropIndex(TableMetaData tableMetaData, String indexName);
+
+    /**
+     * 按键分页查询全部列，afterKey 为 true 时只查询键大于上一页最后一个键的行，
+     * 参数使用 {@link #keyParameters(Object[])} 展开；按键排序后取前 pageSize 行，无论翻到第几页代价都相同
+     *
+     * @param tableMetaData 表元数据
+     * @param keyColumns    键列，通常为主键
+     * @param afterKey      是否从指定键之后开始
+     * @param pageSize      每页行数
+     * @return 分页查询sql
+     */
+    String SelectPage(TableMetaData tableMetaData, List<String> keyColumns, boolean afterKey, int pageSize);
+
+    /**
+     * 多列键按列顺序比较的条件 (c1, c2, ...) &gt; (?, ?, ...)，展开为 OR 形式以兼容不支持行值比较的数据库，
+     * 参数使用 {@link #keyParameters(Object[])} 展开
+     *
+     * @param keyColumns 键列
+     * @return 条件sql，两侧带括号
+     */
+    String KeyGreaterThan(List<String> keyColumns);
+
+    /**
+     * 多列键按列顺序比较的条件 (c1, c2, ...) &lt;= (?, ?, ...)，参数使用 {@link #keyParameters(Object[])} 展开
+     *
+     * @param keyColumns 键列
+     * @return 条件sql，两侧带括号
+     */
+    String KeyAtMost(List<String> keyColumns);
 
-    String Delete();
+    /**
+     * 跳过 offset 行后取 rows 行的子句，追加在 ORDER BY 之后
+     *
+     * @param rows   行数
+     * @param offset 跳过的行数
+     * @return 限制行数的子句
+     */
+    String Limit(int rows, long offset);
 
-    String Update();
+    /**
+     * 单行校验和表达式，在数据库端按列值计算，NULL 与空字符串的校验和不同
+     *
+     * @param columns 参与计算的列
+     * @return 校验和表达式
+     */
+    String RowChecksum(List<String> columns);
 
-    String Select();
+    /**
+     * 分块校验的聚合表达式：行数与各行校验和的异或聚合，结果与行的顺序无关，没有行时校验和为 0
+     *
+     * @param columns 参与计算的列
+     * @return 两个聚合表达式，以逗号分隔
+     */
+    String ChunkChecksum(List<String> columns);
 
-    String TruncateTable();
+    /**
+     * 展开多列键比较条件的参数，第 i 个分支依次使用键的前 i 列
+     *
+     * @param key 键值
+     * @return 展开后的参数
+     */
+    static Object[] keyParameters(Object[] key) {
+        Object[] parameters = new Object[key.length * (key.length + 1) / 2];
+        int index = 0;
+        for (int i = 0; i < key.length; i++) {
+            for (int j = 0; j <= i; j++) {
+                parameters[index++] = key[j];
+            }
+        }
+        return parameters;
+    }
 
 }
@@ -0,0 +1,378 @@
+package com.drizzlepal.jdbc.sync;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.drizzlepal.jdbc.DataSource;
+import com.drizzlepal.jdbc.exception.ConnectionOperationException;
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.scan.KeysetScanner;
+import com.drizzlepal.jdbc.sql.SqlBuilder;
+import com.drizzlepal.jdbc.utils.MetaDataUtils;
+import com.drizzlepal.jdbc.write.BatchWriter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 基于水位列的增量同步，把源表自上次同步以来的变化写入目标表
+ * <p>
+ * 水位列优先使用更新时间列，其次使用单列整数主键。每次同步先在源库确定本次的上界（更新时间为源库当前时间减去
+ * {@link SyncOptions#getSafetyLagMs()}，整数键为当前最大值），流式读取 (上次水位, 上界] 之间的行，
+ * 经 {@link BatchWriter#replaceExisting(List)} 按主键先删后插写入目标表，全部写入后才把上界记为新的水位，
+ * 中途失败时下次从原水位重新拉取，重复写入不影响结果。
+ * <p>
+ * 水位无法反映删除，每隔 {@link SyncOptions#getDeleteCheckIntervalMs()} 按主键分页扫描目标表，
+ * 在源库中查找每页主键，源库中已不存在的行从目标表删除。主键比较在源库中进行，遵循源库的排序规则
+ */
+@Slf4j
+public class IncrementalSync {
+
+    /**
+     * 核对删除时单条语句的参数个数上限，SQL Server 单条语句最多 2100 个参数
+     */
+    private static final int MAX_STATEMENT_PARAMETERS = 2000;
+
+    private final DataSource source;
+
+    private final DataSource target;
+
+    private final Path stateFile;
+
+    private final SyncOptions options;
+
+    private SyncState state;
+
+    /**
+     * @param source    源数据源
+     * @param target    目标数据源，目标表需要已存在且列与源表一致
+     * @param stateFile 保存水位的本地状态文件
+     * @param options   同步参数
+     */
+    public IncrementalSync(DataSource source, DataSource target, Path stateFile, SyncOptions options) {
+        if (options.getBatchSize() <= 0 || options.getDeleteCheckPageSize() <= 0) {
+            throw new IllegalArgumentException("batchSize and deleteCheckPageSize must be positive");
+        }
+        this.source = source;
+        this.target = target;
+        this.stateFile = stateFile;
+        this.options = options;
+    }
+
+    /**
+     * 依次同步每张表，任一张表失败时抛出异常，之前的表已保存水位
+     *
+     * @param tables 源表，缺少列或主键元数据时从源数据源加载
+     * @return 每张表的同步结果
+     * @throws ConnectionOperationException 如果同步时发生异常
+     */
+    public List<SyncResult> sync(List<TableMetaData> tables) throws ConnectionOperationException {
+        ArrayList<SyncResult> results = new ArrayList<>(tables.size());
+        for (TableMetaData table : tables) {
+            results.add(sync(table));
+        }
+        return results;
+    }
+
+    /**
+     * 同步一张表，首次同步时全量拉取
+     *
+     * @param table 源表，缺少列或主键元数据时从源数据源加载
+     * @return 同步结果
+     * @throws ConnectionOperationException 如果同步时发生异常
+     */
+    public synchronized SyncResult sync(TableMetaData table) throws ConnectionOperationException {
+        long start = System.nanoTime();
+        try {
+            TableMetaData sourceTable = MetaDataUtils.complete(source, table);
+            List<String> keyColumns = primaryKeyColumns(sourceTable);
+            ColumnMetaData column = watermarkColumn(sourceTable, keyColumns);
+            WatermarkType type = isTemporal(column) ? WatermarkType.UPDATE_TIME : WatermarkType.INCREMENTING_KEY;
+            TableMetaData targetTable = new TableMetaData();
+            targetTable.setDatabase(options.getTargetDatabase());
+            targetTable.setName(sourceTable.getName());
+            targetTable.setColumns(sourceTable.getColumns());
+            targetTable.setPrimaryKeys(sourceTable.getPrimaryKeys());
+            SyncState syncState = state();
+            String stateKey = sourceTable.getDatabase() == null ? sourceTable.getName()
+                    : sourceTable.getDatabase() + "." + sourceTable.getName();
+            SyncState.TableState previous = syncState.get(stateKey);
+            Object lower = null;
+            long lastDeleteCheck = 0;
+            if (previous != null) {
+                if (previous.getColumn().equalsIgnoreCase(column.getName())) {
+                    lower = previous.getWatermark();
+                } else {
+                    log.warn("表 {} 的水位列由 {} 变为 {}，重新全量同步", stateKey, previous.getColumn(),
+                            column.getName());
+                }
+                lastDeleteCheck = previous.getLastDeleteCheckMillis();
+            }
+            Object upper = upperBound(sourceTable, column, type);
+            long upserted = 0;
+            if (upper != null && (lower == null || compare(upper, lower) > 0)) {
+                upserted = pull(sourceTable, targetTable, keyColumns, column, type, lower, upper);
+            } else {
+                upper = lower;
+            }
+            long deleted = -1;
+            long now = System.currentTimeMillis();
+            if (options.getDeleteCheckIntervalMs() > 0 && now - lastDeleteCheck >= options.getDeleteCheckIntervalMs()) {
+                deleted = deleteMissing(sourceTable, targetTable, keyColumns);
+                lastDeleteCheck = now;
+            }
+            syncState.put(stateKey, new SyncState.TableState(column.getName(), upper, lastDeleteCheck));
+            syncState.save();
+            SyncResult result = new SyncResult(stateKey, type, column.getName(), upper, upserted, deleted,
+                    (System.nanoTime() - start) / 1_000_000);
+            log.info("增量同步完成：{}", result);
+            return result;
+        } catch (ConnectionOperationException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ConnectionOperationException(e);
+        }
+    }
+
+    /**
+     * 删除状态文件中该表的水位，下次同步时全量拉取
+     *
+     * @param table 源表
+     * @throws IOException 如果读写状态文件时发生IO异常
+     */
+    public synchronized void reset(TableMetaData table) throws IOException {
+        SyncState syncState = state();
+        syncState.remove(table.getDatabase() == null ? table.getName() : table.getDatabase() + "." + table.getName());
+        syncState.save();
+    }
+
+    private long pull(TableMetaData sourceTable, TableMetaData targetTable, List<String> keyColumns,
+            ColumnMetaData column, WatermarkType type, Object lower, Object upper) throws Exception {
+        SqlBuilder sqlBuilder = source.getSqlBuilder();
+        String columnName = sqlBuilder.escape(column.getName());
+        StringBuilder sql = new StringBuilder(sqlBuilder.Select(sourceTable));
+        Object[] params;
+        if (lower != null) {
+            sql.append(" WHERE ").append(columnName).append(" > ? AND ").append(columnName).append(" <= ?");
+            params = new Object[] { lower, upper };
+        } else if (type == WatermarkType.INCREMENTING_KEY) {
+            sql.append(" WHERE ").append(columnName).append(" <= ?");
+            params = new Object[] { upper };
+        } else {
+            // 首次按更新时间同步时不加条件，更新时间为 NULL 的行同样需要同步
+            params = new Object[0];
+        }
+        int columnCount = sourceTable.getColumns().size();
+        long rows = 0;
+        BatchWriter writer = target.openBatchWriter(targetTable, options.getBatchSize(), options.getCommitRows());
+        try {
+            writer.replaceExisting(keyColumns);
+            try (Stream<Object[]> stream = source.queryForStream(sql.toString(), resultSet -> {
+                Object[] row = new Object[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    row[i] = resultSet.getObject(i + 1);
+                }
+                return row;
+            }, params)) {
+                Iterator<Object[]> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    writer.write(iterator.next());
+                    rows++;
+                }
+            }
+        } catch (Exception e) {
+            try {
+                writer.abort();
+            } catch (SQLException abortException) {
+                e.addSuppressed(abortException);
+            }
+            throw e;
+        }
+        writer.close();
+        return rows;
+    }
+
+    private long deleteMissing(TableMetaData sourceTable, TableMetaData targetTable, List<String> keyColumns)
+            throws Exception {
+        TableMetaData targetKeys = new TableMetaData();
+        targetKeys.setDatabase(targetTable.getDatabase());
+        targetKeys.setSchema(targetTable.getSchema());
+        targetKeys.setName(targetTable.getName());
+        ArrayList<ColumnMetaData> keyMetaData = new ArrayList<>(keyColumns.size());
+        for (String keyColumn : keyColumns) {
+            keyMetaData.add(findColumn(sourceTable, keyColumn));
+        }
+        targetKeys.setColumns(keyMetaData);
+        targetKeys.setPrimaryKeys(targetTable.getPrimaryKeys());
+        int pageSize = Math.min(options.getDeleteCheckPageSize(),
+                Math.max(1, MAX_STATEMENT_PARAMETERS / keyColumns.size()));
+        long[] deleted = new long[1];
+        new KeysetScanner(target, targetKeys, pageSize, null).scan(resultSet -> {
+            Object[] key = new Object[keyColumns.size()];
+            for (int i = 0; i < key.length; i++) {
+                key[i] = resultSet.getObject(i + 1);
+            }
+            return key;
+        }, page -> {
+            List<Object[]> missing = findMissing(sourceTable, keyColumns, page);
+            if (!missing.isEmpty()) {
+                deleted[0] += deleteKeys(targetKeys, keyColumns, missing);
+            }
+        });
+        if (deleted[0] > 0) {
+            log.info("表 {} 删除了源表中已不存在的 {} 行", targetTable.getName(), deleted[0]);
+        }
+        return deleted[0];
+    }
+
+    /**
+     * 把一页主键作为派生表与源表做 NOT EXISTS 反连接，返回源表中不存在的主键
+     */
+    private List<Object[]> findMissing(TableMetaData sourceTable, List<String> keyColumns, List<Object[]> keys)
+            throws SQLException {
+        SqlBuilder sqlBuilder = source.getSqlBuilder();
+        StringBuilder sql = new StringBuilder("SELECT v_.p_ FROM (");
+        Object[] params = new Object[keys.size() * keyColumns.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            sql.append(i == 0 ? "SELECT " : " UNION ALL SELECT ").append(i).append(i == 0 ? " AS p_" : "");
+            for (int j = 0; j < keyColumns.size(); j++) {
+                sql.append(", ?").append(i == 0 ? " AS c" + j + "_" : "");
+                params[i * keyColumns.size() + j] = keys.get(i)[j];
+            }
+        }
+        sql.append(") v_ WHERE NOT EXISTS (SELECT 1 FROM ").append(sqlBuilder.tableName(sourceTable))
+                .append(" s_ WHERE ");
+        for (int j = 0; j < keyColumns.size(); j++) {
+            sql.append(j == 0 ? "" : " AND ").append("s_.").append(sqlBuilder.escape(keyColumns.get(j)))
+                    .append(" = v_.c").append(j).append('_');
+        }
+        sql.append(')');
+        ArrayList<Object[]> missing = new ArrayList<>();
+        try (Connection connection = source.getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    missing.add(keys.get(resultSet.getInt(1)));
+                }
+            }
+        }
+        return missing;
+    }
+
+    private long deleteKeys(TableMetaData targetKeys, List<String> keyColumns, List<Object[]> keys)
+            throws SQLException {
+        String sql = target.getSqlBuilder().Delete(targetKeys, keyColumns);
+        long deleted = 0;
+        try (Connection connection = target.getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (Object[] key : keys) {
+                for (int i = 0; i < key.length; i++) {
+                    statement.setObject(i + 1, key[i]);
+                }
+                statement.addBatch();
+            }
+            for (int count : statement.executeBatch()) {
+                deleted += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+        }
+        return deleted;
+    }
+
+    private Object upperBound(TableMetaData sourceTable, ColumnMetaData column, WatermarkType type)
+            throws SQLException {
+        SqlBuilder sqlBuilder = source.getSqlBuilder();
+        String sql = type == WatermarkType.UPDATE_TIME ? "SELECT CURRENT_TIMESTAMP"
+                : "SELECT MAX(" + sqlBuilder.escape(column.getName()) + ") FROM " + sqlBuilder.tableName(sourceTable);
+        try (Connection connection = source.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            if (type == WatermarkType.UPDATE_TIME) {
+                return new Timestamp(resultSet.getTimestamp(1).getTime() - options.getSafetyLagMs());
+            }
+            long max = resultSet.getLong(1);
+            return resultSet.wasNull() ? null : max;
+        }
+    }
+
+    private ColumnMetaData watermarkColumn(TableMetaData table, List<String> keyColumns) throws SQLException {
+        String configured = options.getWatermarkColumns().get(table.getName());
+        if (configured != null) {
+            ColumnMetaData column = findColumn(table, configured);
+            if (!isTemporal(column) && !MetaDataUtils.isIntegral(column)) {
+                throw new SQLException("表 " + table.getName() + " 的水位列 " + configured + " 不是日期时间或整数类型");
+            }
+            return column;
+        }
+        for (String name : options.getUpdateTimeColumnNames()) {
+            for (ColumnMetaData column : table.getColumns()) {
+                if (column.getName().equalsIgnoreCase(name) && isTemporal(column)) {
+                    return column;
+                }
+            }
+        }
+        if (keyColumns.size() == 1) {
+            ColumnMetaData key = findColumn(table, keyColumns.get(0));
+            if (MetaDataUtils.isIntegral(key)) {
+                return key;
+            }
+        }
+        throw new SQLException("表 " + table.getName() + " 没有更新时间列或单列整数主键，无法确定水位列，"
+                + "可通过 SyncOptions.watermarkColumns 指定");
+    }
+
+    private SyncState state() throws IOException {
+        if (state == null) {
+            state = SyncState.load(stateFile);
+        }
+        return state;
+    }
+
+    private static List<String> primaryKeyColumns(TableMetaData table) throws SQLException {
+        List<String> keyColumns = MetaDataUtils.primaryKeyColumns(table);
+        if (keyColumns.isEmpty()) {
+            throw new SQLException("表 " + table.getName() + " 没有主键，无法增量同步");
+        }
+        return keyColumns;
+    }
+
+    private static ColumnMetaData findColumn(TableMetaData table, String name) throws SQLException {
+        for (ColumnMetaData column : table.getColumns()) {
+            if (column.getName().equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+        throw new SQLException("表 " + table.getName() + " 中不存在列 " + name);
+    }
+
+    private static boolean isTemporal(ColumnMetaData column) {
+        switch (column.getDatatype()) {
+            case Types.DATE:
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object a, Object b) {
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.drizzlepal.jdbc.sync;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * 增量同步参数
+ */
+@Data
+public class SyncOptions {
+
+    /**
+     * 目标数据库，为 null 时写入目标连接的默认数据库
+     */
+    private String targetDatabase;
+
+    private int batchSize = 1000;
+
+    /**
+     * 每写入多少行提交一次
+     */
+    private int commitRows = 10000;
+
+    /**
+     * 按更新时间同步时，只拉取更新时间早于源库当前时间减去该值的行，给尚未提交的事务留出时间
+     */
+    private long safetyLagMs = 5000;
+
+    /**
+     * 按主键集合核对删除的间隔，小于等于 0 时不核对删除
+     */
+    private long deleteCheckIntervalMs = 24L * 60 * 60 * 1000;
+
+    /**
+     * 核对删除时每次比对的主键数
+     */
+    private int deleteCheckPageSize = 1000;
+
+    /**
+     * 按顺序匹配的更新时间列名，不区分大小写
+     */
+    private List<String> updateTimeColumnNames = new ArrayList<>(Arrays.asList("update_time", "updated_at",
+            "update_at", "modify_time", "modified_time", "modified_at", "gmt_modified", "last_modified",
+            "last_update"));
+
+    /**
+     * 按表名指定水位列，优先于自动识别
+     */
+    private Map<String, String> watermarkColumns = new HashMap<>();
+
+}
@@ -0,0 +1,45 @@
+package com.drizzlepal.jdbc.sync;
+
+import lombok.Getter;
+
+/**
+ * 单张表一次增量同步的结果
+ */
+@Getter
+public class SyncResult {
+
+    private final String table;
+
+    private final WatermarkType watermarkType;
+
+    private final String watermarkColumn;
+
+    private final Object watermark;
+
+    private final long upsertedRows;
+
+    /**
+     * 本次未核对删除时为 -1
+     */
+    private final long deletedRows;
+
+    private final long elapsedMs;
+
+    SyncResult(String table, WatermarkType watermarkType, String watermarkColumn, Object watermark,
+            long upsertedRows, long deletedRows, long elapsedMs) {
+        this.table = table;
+        this.watermarkType = watermarkType;
+        this.watermarkColumn = watermarkColumn;
+        this.watermark = watermark;
+        this.upsertedRows = upsertedRows;
+        this.deletedRows = deletedRows;
+        this.elapsedMs = elapsedMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: watermark=%s(%s)=%s, upserted=%d, deleted=%d, elapsedMs=%d", table, watermarkColumn,
+                watermarkType, watermark, upsertedRows, deletedRows, elapsedMs);
+    }
+
+}
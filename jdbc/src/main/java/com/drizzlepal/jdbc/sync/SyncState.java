@@ -0,0 +1,131 @@
+package com.drizzlepal.jdbc.sync;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.drizzlepal.jdbc.utils.AtomicFiles;
+import com.drizzlepal.jdbc.utils.TypedValueCodec;
+
+/**
+ * 增量同步的本地状态文件，按表记录水位列、已同步到的水位以及上次核对删除的时间
+ */
+public class SyncState {
+
+    private static final int MAGIC = 0x445A5753;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path file;
+
+    private final LinkedHashMap<String, TableState> tables = new LinkedHashMap<>();
+
+    private SyncState(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @param file 状态文件，不存在时返回空状态
+     * @return 同步状态
+     * @throws IOException 如果读文件时发生IO异常或文件不是有效的状态文件
+     */
+    public static SyncState load(Path file) throws IOException {
+        SyncState state = new SyncState(file);
+        if (!Files.isRegularFile(file)) {
+            return state;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("不是有效的同步状态文件: " + file);
+            }
+            int formatVersion = in.readInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("不支持的同步状态版本: " + formatVersion);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String table = in.readUTF();
+                String column = in.readUTF();
+                Object watermark = TypedValueCodec.readValue(in);
+                long lastDeleteCheckMillis = in.readLong();
+                state.tables.put(table, new TableState(column, watermark, lastDeleteCheckMillis));
+            }
+        } catch (EOFException e) {
+            throw new IOException("同步状态文件不完整: " + file, e);
+        }
+        return state;
+    }
+
+    public synchronized TableState get(String table) {
+        return tables.get(table);
+    }
+
+    public synchronized void put(String table, TableState tableState) {
+        tables.put(table, tableState);
+    }
+
+    /**
+     * 删除表的状态，下次同步时重新全量拉取
+     *
+     * @param table 表名
+     */
+    public synchronized void remove(String table) {
+        tables.remove(table);
+    }
+
+    /**
+     * 通过 {@link AtomicFiles#writeAtomically} 写入全部表的状态
+     *
+     * @throws IOException 如果写文件时发生IO异常或水位值类型不支持
+     */
+    public synchronized void save() throws IOException {
+        AtomicFiles.writeAtomically(file, out -> {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(tables.size());
+            for (Map.Entry<String, TableState> entry : tables.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getValue().getColumn());
+                TypedValueCodec.writeValue(out, entry.getValue().getWatermark());
+                out.writeLong(entry.getValue().getLastDeleteCheckMillis());
+            }
+        });
+    }
+
+    /**
+     * 单张表的同步状态，watermark 为 null 表示尚未完成过同步
+     */
+    public static class TableState {
+
+        private final String column;
+
+        private final Object watermark;
+
+        private final long lastDeleteCheckMillis;
+
+        public TableState(String column, Object watermark, long lastDeleteCheckMillis) {
+            this.column = column;
+            this.watermark = watermark;
+            this.lastDeleteCheckMillis = lastDeleteCheckMillis;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public Object getWatermark() {
+            return watermark;
+        }
+
+        public long getLastDeleteCheckMillis() {
+            return lastDeleteCheckMillis;
+        }
+
+    }
+
+}
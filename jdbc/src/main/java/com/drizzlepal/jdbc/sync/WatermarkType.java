@@ -0,0 +1,18 @@
+package com.drizzlepal.jdbc.sync;
+
+/**
+ * 水位列类型
+ */
+public enum WatermarkType {
+
+    /**
+     * 只增不改的整数键（如自增主键），只能同步新增的行，已同步的行被修改后不会再次同步
+     */
+    INCREMENTING_KEY,
+
+    /**
+     * 每次修改都会刷新的更新时间列，可以同步新增和更新的行
+     */
+    UPDATE_TIME
+
+}
@@ -0,0 +1,52 @@
+package com.drizzlepal.jdbc.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 本地状态文件的写入，先写同目录下的临时文件再替换目标文件，写入过程中失败不会破坏已有文件
+ */
+public class AtomicFiles {
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * 写入文件内容的操作
+     */
+    @FunctionalInterface
+    public interface Content {
+
+        void writeTo(DataOutputStream out) throws IOException;
+
+    }
+
+    /**
+     * 自动创建父目录，写完 &lt;文件名&gt;.tmp 后原子替换目标文件，文件系统不支持原子移动时退化为普通替换
+     *
+     * @param file    目标文件
+     * @param content 写入文件内容的操作
+     * @throws IOException 如果写文件或替换时发生IO异常
+     */
+    public static void writeAtomically(Path file, Content content) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        if (absolute.getParent() != null) {
+            Files.createDirectories(absolute.getParent());
+        }
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            content.writeTo(out);
+        }
+        try {
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+}
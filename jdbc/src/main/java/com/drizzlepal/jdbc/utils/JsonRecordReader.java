@@ -0,0 +1,334 @@
+package com.drizzlepal.jdbc.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.fastjson2.JSONException;
+import com.alibaba.fastjson2.JSONReader;
+
+/**
+ * 从字符流中逐条切分 JSON 记录，每次只缓存一条记录的文本，内存占用与输入大小无关
+ * <p>
+ * 行路径只支持字段名与下标组成的简单路径，如 {@code $.data.rows}、{@code $.rows[0]}、{@code $.rows[*]}；
+ * 路径指向数组时数组的每个元素为一条记录，指向对象时该对象为唯一一条记录。没有行路径时，顶层为数组则按数组元素切分，
+ * 否则按顶层值依次切分，即 NDJSON（每行一个 JSON 对象）
+ */
+final class JsonRecordReader {
+
+    private static final Object WILDCARD = new Object();
+
+    private static final int NOT_STARTED = 0;
+
+    private static final int ARRAY = 1;
+
+    private static final int SEQUENCE = 2;
+
+    private static final int SINGLE = 3;
+
+    private static final int END = 4;
+
+    private final Reader reader;
+
+    private final List<Object> path;
+
+    private final char[] buffer = new char[8192];
+
+    private final StringBuilder record = new StringBuilder();
+
+    private int position;
+
+    private int limit;
+
+    private int state = NOT_STARTED;
+
+    private boolean firstElement = true;
+
+    JsonRecordReader(Reader reader, String rowJsonPath) {
+        this.reader = reader;
+        this.path = parsePath(rowJsonPath);
+    }
+
+    /**
+     * @return 下一条记录的文本，没有更多记录时返回 null
+     * @throws IOException 如果读取输入时发生异常
+     */
+    String next() throws IOException {
+        if (state == NOT_STARTED) {
+            state = locate();
+        }
+        record.setLength(0);
+        switch (state) {
+            case ARRAY:
+                skipWhitespace();
+                if (firstElement) {
+                    firstElement = false;
+                } else if (peek() == ',') {
+                    position++;
+                    skipWhitespace();
+                } else {
+                    expect(']');
+                    state = END;
+                    return null;
+                }
+                if (peek() == ']') {
+                    position++;
+                    state = END;
+                    return null;
+                }
+                readValue(record);
+                return record.toString();
+            case SEQUENCE:
+                skipWhitespace();
+                if (peek() == -1) {
+                    state = END;
+                    return null;
+                }
+                readValue(record);
+                return record.toString();
+            case SINGLE:
+                state = END;
+                readValue(record);
+                return record.toString();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 按行路径定位到记录所在的位置
+     *
+     * @return 切分方式
+     */
+    private int locate() throws IOException {
+        skipWhitespace();
+        if (path.isEmpty()) {
+            if (peek() == '[') {
+                position++;
+                return ARRAY;
+            }
+            return SEQUENCE;
+        }
+        for (int i = 0; i < path.size(); i++) {
+            Object segment = path.get(i);
+            skipWhitespace();
+            if (segment == WILDCARD) {
+                expect('[');
+                return ARRAY;
+            }
+            boolean found = segment instanceof String ? enterField((String) segment) : enterElement((Integer) segment);
+            if (!found) {
+                return END;
+            }
+        }
+        skipWhitespace();
+        if (peek() == '[') {
+            position++;
+            return ARRAY;
+        }
+        return SINGLE;
+    }
+
+    private boolean enterField(String name) throws IOException {
+        if (peek() != '{') {
+            return false;
+        }
+        position++;
+        StringBuilder key = new StringBuilder();
+        for (boolean first = true;; first = false) {
+            skipWhitespace();
+            if (peek() == '}') {
+                return false;
+            }
+            if (!first) {
+                expect(',');
+                skipWhitespace();
+            }
+            key.setLength(0);
+            readString(key);
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            try (JSONReader keyReader = JSONReader.of(key.toString())) {
+                if (name.equals(keyReader.readString())) {
+                    return true;
+                }
+            }
+            readValue(null);
+        }
+    }
+
+    private boolean enterElement(int index) throws IOException {
+        if (peek() != '[') {
+            return false;
+        }
+        position++;
+        for (int i = 0;; i++) {
+            skipWhitespace();
+            if (peek() == ']') {
+                return false;
+            }
+            if (i > 0) {
+                expect(',');
+                skipWhitespace();
+            }
+            if (i == index) {
+                return true;
+            }
+            readValue(null);
+        }
+    }
+
+    /**
+     * 读取一个完整的 JSON 值
+     *
+     * @param out 值的文本，为 null 时只跳过
+     */
+    private void readValue(StringBuilder out) throws IOException {
+        int c = peek();
+        if (c == '"') {
+            readString(out);
+            return;
+        }
+        if (c != '{' && c != '[') {
+            while (c != -1 && c != ',' && c != ']' && c != '}' && !Character.isWhitespace(c)) {
+                append(out, (char) c);
+                position++;
+                c = peek();
+            }
+            return;
+        }
+        int depth = 0;
+        do {
+            c = peek();
+            if (c == -1) {
+                throw new JSONException("JSON 输入不完整");
+            }
+            if (c == '"') {
+                readString(out);
+                continue;
+            }
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            }
+            append(out, (char) c);
+            position++;
+        } while (depth > 0);
+    }
+
+    private void readString(StringBuilder out) throws IOException {
+        expect('"');
+        append(out, '"');
+        for (;;) {
+            int c = read();
+            if (c == -1) {
+                throw new JSONException("JSON 字符串没有结束");
+            }
+            append(out, (char) c);
+            if (c == '\\') {
+                int escaped = read();
+                if (escaped == -1) {
+                    throw new JSONException("JSON 字符串没有结束");
+                }
+                append(out, (char) escaped);
+            } else if (c == '"') {
+                return;
+            }
+        }
+    }
+
+    private void skipWhitespace() throws IOException {
+        int c = peek();
+        while (c != -1 && Character.isWhitespace(c)) {
+            position++;
+            c = peek();
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = read();
+        if (c != expected) {
+            throw new JSONException("JSON 格式错误，应为 '" + expected + "'，实际为 "
+                    + (c == -1 ? "输入结束" : "'" + (char) c + "'"));
+        }
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c != -1) {
+            position++;
+        }
+        return c;
+    }
+
+    private static void append(StringBuilder out, char c) {
+        if (out != null) {
+            out.append(c);
+        }
+    }
+
+    private static List<Object> parsePath(String rowJsonPath) {
+        List<Object> segments = new ArrayList<>();
+        if (rowJsonPath == null || rowJsonPath.trim().isEmpty()) {
+            return segments;
+        }
+        String path = rowJsonPath.trim();
+        if (!path.startsWith("$")) {
+            throw new IllegalArgumentException("不支持的行路径: " + rowJsonPath);
+        }
+        int i = 1;
+        while (i < path.length()) {
+            char c = path.charAt(i);
+            if (c == '.') {
+                int end = i + 1;
+                while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                    end++;
+                }
+                if (end == i + 1) {
+                    throw new IllegalArgumentException("不支持的行路径: " + rowJsonPath);
+                }
+                segments.add(path.substring(i + 1, end));
+                i = end;
+            } else if (c == '[') {
+                int end = path.indexOf(']', i);
+                if (end < 0) {
+                    throw new IllegalArgumentException("不支持的行路径: " + rowJsonPath);
+                }
+                String index = path.substring(i + 1, end).trim();
+                if ("*".equals(index)) {
+                    segments.add(WILDCARD);
+                } else {
+                    try {
+                        segments.add(Integer.parseInt(index));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("不支持的行路径: " + rowJsonPath, e);
+                    }
+                }
+                i = end + 1;
+            } else {
+                throw new IllegalArgumentException("不支持的行路径: " + rowJsonPath);
+            }
+        }
+        int wildcard = segments.indexOf(WILDCARD);
+        if (wildcard >= 0 && wildcard != segments.size() - 1) {
+            throw new IllegalArgumentException("行路径中的 [*] 只能在末尾: " + rowJsonPath);
+        }
+        return segments;
+    }
+
+}
@@ -0,0 +1,361 @@
+package com.drizzlepal.jdbc.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.DatabaseMetaData;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONException;
+import com.alibaba.fastjson2.JSONReader;
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+
+import lombok.Getter;
+
+/**
+ * 按 JSON 记录推断表的列结构，记录可以逐条加入，也可以从字符流中流式读取
+ * <p>
+ * 每列只保存合并后的类型与计数，不保存样本值，内存占用只与列数有关。同一列各记录的类型按以下规则合并：
+ * 整数按取值范围依次放宽为 INTEGER、BIGINT、DECIMAL，出现小数时为 DECIMAL，精度超过 {@value #MAX_DECIMAL_PRECISION}
+ * 时为 DOUBLE；符合 ISO 8601 格式的字符串识别为 DATE、TIMESTAMP 或 TIMESTAMP WITH TIME ZONE，三者混合时取范围最大的；
+ * 其余混合情况以及对象、数组均为 VARCHAR，长度取所有值文本形式的最大长度。记录中缺少的字段与值为 null 的字段都计为空值，
+ * 有空值的列可为空。
+ * <p>
+ * 非线程安全
+ */
+public class JsonSchemaInferrer {
+
+    public static final int MAX_DECIMAL_PRECISION = 38;
+
+    private static final Pattern TEMPORAL = Pattern.compile("\\d{4}-(0[1-9]|1[0-2])-(0[1-9]|[12]\\d|3[01])"
+            + "(?:[T ](?:[01]\\d|2[0-3]):[0-5]\\d(?::[0-5]\\d(?:\\.(\\d{1,9}))?)?(Z|[+-]\\d{2}(?::?\\d{2})?)?)?");
+
+    private final LinkedHashMap<String, Column> columns = new LinkedHashMap<>();
+
+    /**
+     * 已加入的记录数
+     */
+    @Getter
+    private long rows;
+
+    /**
+     * 从字符流中逐条读取记录并加入推断，每次只缓存一条记录的文本
+     *
+     * @param reader      输入，由调用方关闭
+     * @param rowJsonPath 记录所在的路径，见 {@link #accept(String)} 与 {@link JsonRecordReader}，为空时输入为记录数组或
+     *                    NDJSON
+     * @param maxRows     最多读取的记录数，小于等于 0 时读取全部记录
+     * @return 本次读取的记录数
+     * @throws IOException   如果读取输入时发生异常
+     * @throws JSONException 如果输入不是合法的 JSON 或记录不是 JSON 对象
+     */
+    public long infer(Reader reader, String rowJsonPath, long maxRows) throws IOException {
+        JsonRecordReader records = new JsonRecordReader(reader, rowJsonPath);
+        long count = 0;
+        String record;
+        while ((maxRows <= 0 || count < maxRows) && (record = records.next()) != null) {
+            accept(record);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 加入一条记录，用 {@link JSONReader} 逐个字段读取，不构建整条记录的对象
+     *
+     * @param record JSON 对象文本
+     * @throws JSONException 如果记录不是 JSON 对象
+     */
+    public void accept(String record) {
+        try (JSONReader reader = JSONReader.of(record)) {
+            if (!reader.nextIfObjectStart()) {
+                throw new JSONException("记录不是 JSON 对象: " + abbreviate(record));
+            }
+            rows++;
+            while (!reader.nextIfObjectEnd()) {
+                String name = reader.readFieldName();
+                observe(name, reader.readAny());
+            }
+        }
+    }
+
+    /**
+     * 加入一条已解析的记录
+     *
+     * @param record 字段名到值的映射
+     */
+    public void accept(Map<String, ?> record) {
+        rows++;
+        for (Map.Entry<String, ?> entry : record.entrySet()) {
+            observe(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * @return 按字段首次出现顺序排列的列统计
+     */
+    public List<Column> getColumns() {
+        return new ArrayList<>(columns.values());
+    }
+
+    /**
+     * 按推断结果生成列元数据，typeName 为 JDBC 通用类型名称，建表前可用
+     * {@link com.drizzlepal.jdbc.sql.SqlBuilder#TranslateTable} 转换为目标数据库的类型
+     *
+     * @return 按字段首次出现顺序排列的列元数据
+     */
+    public ArrayList<ColumnMetaData> toColumnMetaDatas() {
+        ArrayList<ColumnMetaData> result = new ArrayList<>(columns.size());
+        for (Column column : columns.values()) {
+            result.add(column.toColumnMetaData());
+        }
+        return result;
+    }
+
+    private void observe(String name, Object value) {
+        Column column = columns.get(name);
+        if (column == null) {
+            column = new Column(name, columns.size() + 1);
+            columns.put(name, column);
+        }
+        column.observe(value);
+    }
+
+    private static String abbreviate(String record) {
+        return record.length() <= 64 ? record : record.substring(0, 64) + "...";
+    }
+
+    /**
+     * 推断出的列类型，按声明顺序，数值与时间类型内部后者可以容纳前者
+     */
+    public enum JsonType {
+
+        BOOLEAN(Types.BOOLEAN, "BOOLEAN"),
+
+        INTEGER(Types.INTEGER, "INTEGER"),
+
+        BIGINT(Types.BIGINT, "BIGINT"),
+
+        DECIMAL(Types.DECIMAL, "DECIMAL"),
+
+        DOUBLE(Types.DOUBLE, "DOUBLE"),
+
+        DATE(Types.DATE, "DATE"),
+
+        TIMESTAMP(Types.TIMESTAMP, "TIMESTAMP"),
+
+        TIMESTAMP_WITH_TIMEZONE(Types.TIMESTAMP_WITH_TIMEZONE, "TIMESTAMP WITH TIME ZONE"),
+
+        VARCHAR(Types.VARCHAR, "VARCHAR");
+
+        /**
+         * java.sql.Types 类型代码
+         */
+        @Getter
+        private final int datatype;
+
+        @Getter
+        private final String typeName;
+
+        JsonType(int datatype, String typeName) {
+            this.datatype = datatype;
+            this.typeName = typeName;
+        }
+
+        private boolean isNumeric() {
+            return this.compareTo(INTEGER) >= 0 && this.compareTo(DOUBLE) <= 0;
+        }
+
+        private boolean isTemporal() {
+            return this.compareTo(DATE) >= 0 && this.compareTo(TIMESTAMP_WITH_TIMEZONE) <= 0;
+        }
+
+        private static JsonType widen(JsonType current, JsonType observed) {
+            if (current == null || current == observed) {
+                return observed;
+            }
+            if (current.isNumeric() && observed.isNumeric() || current.isTemporal() && observed.isTemporal()) {
+                return current.compareTo(observed) >= 0 ? current : observed;
+            }
+            return VARCHAR;
+        }
+
+    }
+
+    /**
+     * 一列的统计
+     */
+    @Getter
+    public class Column {
+
+        private final String name;
+
+        private final int ordinalPosition;
+
+        /**
+         * 合并后的类型，只出现过空值时为 null
+         */
+        private JsonType type;
+
+        /**
+         * 非空值的个数
+         */
+        private long valueCount;
+
+        /**
+         * 非空值文本形式的最大长度，字符串为字符数，对象与数组为序列化后的长度
+         */
+        private int maxLength;
+
+        /**
+         * 数值整数部分的最大位数
+         */
+        private int maxIntegerDigits;
+
+        /**
+         * 数值小数部分的最大位数
+         */
+        private int maxScale;
+
+        /**
+         * 时间戳小数秒的最大位数
+         */
+        private int maxFractionalSeconds;
+
+        private Column(String name, int ordinalPosition) {
+            this.name = name;
+            this.ordinalPosition = ordinalPosition;
+        }
+
+        /**
+         * @return 空值的个数，包括记录中缺少该字段的情况
+         */
+        public long getNullCount() {
+            return rows - valueCount;
+        }
+
+        private void observe(Object value) {
+            if (value == null) {
+                return;
+            }
+            valueCount++;
+            String text;
+            JsonType observed;
+            if (value instanceof Boolean) {
+                text = value.toString();
+                observed = JsonType.BOOLEAN;
+            } else if (value instanceof Number) {
+                BigDecimal decimal = toBigDecimal((Number) value);
+                if (decimal == null) {
+                    text = value.toString();
+                    observed = JsonType.DOUBLE;
+                } else {
+                    text = decimal.toPlainString();
+                    observed = numericType(decimal);
+                }
+            } else if (value instanceof String) {
+                text = (String) value;
+                observed = temporalType(text);
+            } else if (value instanceof Map || value instanceof Collection) {
+                text = JSON.toJSONString(value);
+                observed = JsonType.VARCHAR;
+            } else {
+                text = value.toString();
+                observed = JsonType.VARCHAR;
+            }
+            maxLength = Math.max(maxLength, text.length());
+            type = JsonType.widen(type, observed);
+        }
+
+        private JsonType numericType(BigDecimal decimal) {
+            int scale = Math.max(decimal.scale(), 0);
+            maxIntegerDigits = Math.max(maxIntegerDigits, Math.max(decimal.precision() - decimal.scale(), 1));
+            maxScale = Math.max(maxScale, scale);
+            if (decimal.scale() > 0) {
+                return JsonType.DECIMAL;
+            }
+            int bits = decimal.toBigInteger().bitLength();
+            return bits < 32 ? JsonType.INTEGER : bits < 64 ? JsonType.BIGINT : JsonType.DECIMAL;
+        }
+
+        private JsonType temporalType(String text) {
+            if (text.length() < 10 || text.length() > 35 || !Character.isDigit(text.charAt(0))) {
+                return JsonType.VARCHAR;
+            }
+            Matcher matcher = TEMPORAL.matcher(text);
+            if (!matcher.matches()) {
+                return JsonType.VARCHAR;
+            }
+            if (text.length() == 10) {
+                return JsonType.DATE;
+            }
+            String fraction = matcher.group(3);
+            if (fraction != null) {
+                maxFractionalSeconds = Math.max(maxFractionalSeconds, fraction.length());
+            }
+            return matcher.group(4) == null ? JsonType.TIMESTAMP : JsonType.TIMESTAMP_WITH_TIMEZONE;
+        }
+
+        private ColumnMetaData toColumnMetaData() {
+            ColumnMetaData columnMetaData = new ColumnMetaData();
+            columnMetaData.setName(name);
+            columnMetaData.setOrdinalPosition(ordinalPosition);
+            columnMetaData.setNullable(getNullCount() > 0 ? DatabaseMetaData.columnNullable
+                    : DatabaseMetaData.columnNoNulls);
+            columnMetaData.setRemarks("");
+            JsonType resolved = type;
+            if (resolved == JsonType.DECIMAL && maxIntegerDigits + maxScale > MAX_DECIMAL_PRECISION) {
+                resolved = JsonType.DOUBLE;
+            }
+            if (resolved == null) {
+                resolved = JsonType.VARCHAR;
+            }
+            columnMetaData.setDatatype(resolved.getDatatype());
+            columnMetaData.setTypeName(resolved.getTypeName());
+            switch (resolved) {
+                case DECIMAL:
+                    columnMetaData.setLength(maxIntegerDigits + maxScale);
+                    columnMetaData.setDecimalDigits(maxScale);
+                    break;
+                case TIMESTAMP:
+                case TIMESTAMP_WITH_TIMEZONE:
+                    columnMetaData.setDecimalDigits(maxFractionalSeconds);
+                    break;
+                case VARCHAR:
+                    columnMetaData.setLength(maxLength > 0 ? maxLength : null);
+                    break;
+                default:
+                    break;
+            }
+            return columnMetaData;
+        }
+
+    }
+
+    /**
+     * @return 数值对应的定点数，非有限的浮点数返回 null
+     */
+    private static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        }
+        if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        }
+        if (number instanceof Double || number instanceof Float) {
+            double value = number.doubleValue();
+            return Double.isNaN(value) || Double.isInfinite(value) ? null : new BigDecimal(number.toString());
+        }
+        return BigDecimal.valueOf(number.longValue());
+    }
+
+}
@@ -1,43 +1,174 @@
 package com.drizzlepal.jdbc.utils;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
-import com.alibaba.fastjson2.JSONObject;
 import com.alibaba.fastjson2.JSONPath;
+import com.drizzlepal.jdbc.DataSource;
 import com.drizzlepal.jdbc.config.MetaDataUtilsConfig;
 import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.PrimaryKeyMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
 
 public class MetaDataUtils {
 
+    /**
+     * 按行路径取出 JSON 中的记录推断列元数据，路径指向对象时按该对象推断，指向数组时按数组中的所有对象推断
+     * <p>
+     * 整个字符串会被解析到内存中，大输入使用 {@link #jsonStreamAsColumnMetaDatas(Reader, MetaDataUtilsConfig)}
+     *
+     * @param jsonString JSON 字符串
+     * @param config     配置
+     * @return 按字段首次出现顺序排列的列元数据，类型推断规则见 {@link JsonSchemaInferrer}
+     */
     public static ArrayList<ColumnMetaData> jsonStringAsColumnMetaDatas(String jsonString, MetaDataUtilsConfig config) {
-        JSONObject object = (JSONObject) JSONPath.eval(jsonString, config.getRowJsonPath());
-        Object[] keys = object.keySet().toArray();
-        ArrayList<ColumnMetaData> result = new ArrayList<>(keys.length);
-        for (int i = 0; i < keys.length;) {
-            String key = (String) keys[i];
-            ColumnMetaData columnMetaData = new ColumnMetaData();
-            Object value = object.get(key);
-            columnMetaData.setName(key);
-            columnMetaData.setDatatype(0);
-            columnMetaData.setLength(null);
-            if (value == null) {
-                columnMetaData.setNullable(1);
-                columnMetaData.setDefaultValue(null);
-                columnMetaData.setTypeName(null);
-            } else {
-                columnMetaData.setNullable(2);
-                columnMetaData.setDefaultValue(value.toString());
-                columnMetaData.setTypeName(value.getClass().getName());
+        Object rows = JSONPath.eval(jsonString, config.getRowJsonPath());
+        JsonSchemaInferrer inferrer = new JsonSchemaInferrer();
+        if (rows instanceof Map) {
+            inferrer.accept(asRecord(rows));
+        } else if (rows instanceof Collection) {
+            for (Object row : (Collection<?>) rows) {
+                if (row instanceof Map) {
+                    inferrer.accept(asRecord(row));
+                }
+                if (config.getSampleRows() > 0 && inferrer.getRows() >= config.getSampleRows()) {
+                    break;
+                }
             }
-            columnMetaData.setOrdinalPosition(++i);
-            columnMetaData.setDecimalDigits(null);
-            columnMetaData.setRemarks("");
+        }
+        return inferrer.toColumnMetaDatas();
+    }
+
+    /**
+     * 流式读取 JSON 记录推断列元数据，输入可以是记录数组、NDJSON 或行路径指向的数组，每次只缓存一条记录，
+     * 适用于无法整体载入内存的大文件
+     *
+     * @param reader 输入，由调用方关闭
+     * @param config 配置，行路径只支持字段名与下标组成的简单路径
+     * @return 按字段首次出现顺序排列的列元数据，类型推断规则见 {@link JsonSchemaInferrer}
+     * @throws IOException 如果读取输入时发生异常
+     */
+    public static ArrayList<ColumnMetaData> jsonStreamAsColumnMetaDatas(Reader reader, MetaDataUtilsConfig config)
+            throws IOException {
+        JsonSchemaInferrer inferrer = new JsonSchemaInferrer();
+        inferrer.infer(reader, config.getRowJsonPath(), config.getSampleRows());
+        return inferrer.toColumnMetaDatas();
+    }
+
+    /**
+     * 按 UTF-8 流式读取 JSON 记录推断列元数据，见 {@link #jsonStreamAsColumnMetaDatas(Reader, MetaDataUtilsConfig)}
+     *
+     * @param inputStream 输入，由调用方关闭
+     * @param config      配置
+     * @return 按字段首次出现顺序排列的列元数据
+     * @throws IOException 如果读取输入时发生异常
+     */
+    public static ArrayList<ColumnMetaData> jsonStreamAsColumnMetaDatas(InputStream inputStream,
+            MetaDataUtilsConfig config) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), 1 << 16);
+        return jsonStreamAsColumnMetaDatas(reader, config);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, ?> asRecord(Object row) {
+        return (Map<String, ?>) row;
+    }
+
+    /**
+     * 按结果集元数据生成查询列的元数据，只填充列标签、类型代码、类型名称和位置
+     *
+     * @param metaData 结果集元数据
+     * @return 按位置排列的列元数据
+     * @throws SQLException 如果读取元数据时发生SQL异常
+     */
+    public static ArrayList<ColumnMetaData> resultSetMetaDataAsColumnMetaDatas(ResultSetMetaData metaData)
+            throws SQLException {
+        int count = metaData.getColumnCount();
+        ArrayList<ColumnMetaData> result = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            ColumnMetaData columnMetaData = new ColumnMetaData();
+            columnMetaData.setName(metaData.getColumnLabel(i));
+            columnMetaData.setDatatype(metaData.getColumnType(i));
+            columnMetaData.setTypeName(metaData.getColumnTypeName(i));
+            columnMetaData.setOrdinalPosition(i);
             result.add(columnMetaData);
         }
         return result;
     }
 
+    /**
+     * @param tableMetaData 表元数据
+     * @return 按主键顺序排列的主键列名，没有主键时为空
+     */
+    public static List<String> primaryKeyColumns(TableMetaData tableMetaData) {
+        if (tableMetaData.getPrimaryKeys() == null || tableMetaData.getPrimaryKeys().isEmpty()) {
+            return Collections.emptyList();
+        }
+        ArrayList<PrimaryKeyMetaData> primaryKeys = new ArrayList<>(tableMetaData.getPrimaryKeys());
+        primaryKeys.sort((a, b) -> Integer.compare(a.getKeySeq(), b.getKeySeq()));
+        ArrayList<String> names = new ArrayList<>(primaryKeys.size());
+        for (PrimaryKeyMetaData primaryKey : primaryKeys) {
+            names.add(primaryKey.getColumnName());
+        }
+        return names;
+    }
+
+    /**
+     * 列的取值是否都能用 long 表示，可以按数值区间拆分或作为水位；无符号 BIGINT 可能超出 long 的范围
+     *
+     * @param column 列元数据
+     * @return 是否为 long 范围内的整数列
+     */
+    public static boolean isIntegral(ColumnMetaData column) {
+        switch (column.getDatatype()) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return true;
+            case Types.BIGINT:
+                return column.getTypeName() == null
+                        || !column.getTypeName().toUpperCase().startsWith("BIGINT UNSIGNED");
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 复制表元数据，缺少的列与主键元数据从数据源加载，不修改传入的对象
+     *
+     * @param dataSource    表所在的数据源
+     * @param tableMetaData 表元数据，至少包含表名
+     * @return 带列与主键元数据的副本
+     * @throws SQLException 如果加载元数据时发生SQL异常
+     */
+    public static TableMetaData complete(DataSource dataSource, TableMetaData tableMetaData) throws SQLException {
+        TableMetaData completed = new TableMetaData();
+        completed.setDatabase(tableMetaData.getDatabase());
+        completed.setSchema(tableMetaData.getSchema());
+        completed.setName(tableMetaData.getName());
+        completed.setRemarks(tableMetaData.getRemarks());
+        completed.setColumns(tableMetaData.getColumns() != null ? tableMetaData.getColumns()
+                : dataSource.getColumnMetaData(tableMetaData.getSchema(), tableMetaData.getDatabase(),
+                        tableMetaData.getName()));
+        completed.setPrimaryKeys(tableMetaData.getPrimaryKeys() != null ? tableMetaData.getPrimaryKeys()
+                : dataSource.getPrimaryKeys(tableMetaData.getSchema(), tableMetaData.getDatabase(),
+                        tableMetaData.getName()));
+        completed.setIndexes(tableMetaData.getIndexes());
+        return completed;
+    }
+
     public static Class<?> mapSqlTypeToJavaClass(int sqlType) {
         switch (sqlType) {
             case Types.BIT:
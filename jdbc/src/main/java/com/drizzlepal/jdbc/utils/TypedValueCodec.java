@@ -0,0 +1,146 @@
+package com.drizzlepal.jdbc.utils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.util.UUID;
+
+/**
+ * 按类型标记读写单个值，用于断点、水位等本地状态文件，只支持 JDBC 主键与水位列常见的数值、字符串、日期时间、UUID 与二进制类型
+ * <p>
+ * 新类型只追加标记，已有标记的含义不变，旧文件仍可读取
+ */
+public class TypedValueCodec {
+
+    private TypedValueCodec() {
+    }
+
+    public static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(0);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+                || value instanceof Byte) {
+            out.writeByte(1);
+            out.writeLong(((Number) value).longValue());
+        } else if (value instanceof String) {
+            byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            out.writeByte(2);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(3);
+            out.writeUTF(((BigDecimal) value).toString());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(4);
+            out.writeUTF(value.toString());
+        } else if (value instanceof Timestamp) {
+            out.writeByte(5);
+            out.writeLong(((Timestamp) value).getTime());
+            out.writeInt(((Timestamp) value).getNanos());
+        } else if (value instanceof Date) {
+            out.writeByte(6);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof Time) {
+            out.writeByte(7);
+            out.writeLong(((Time) value).getTime());
+        } else if (value instanceof LocalDateTime) {
+            out.writeByte(8);
+            out.writeUTF(value.toString());
+        } else if (value instanceof LocalDate) {
+            out.writeByte(9);
+            out.writeUTF(value.toString());
+        } else if (value instanceof LocalTime) {
+            out.writeByte(10);
+            out.writeUTF(value.toString());
+        } else if (value instanceof byte[]) {
+            out.writeByte(11);
+            out.writeInt(((byte[]) value).length);
+            out.write((byte[]) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(12);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            out.writeByte(13);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof UUID) {
+            out.writeByte(14);
+            out.writeLong(((UUID) value).getMostSignificantBits());
+            out.writeLong(((UUID) value).getLeastSignificantBits());
+        } else if (value instanceof OffsetDateTime) {
+            out.writeByte(15);
+            out.writeUTF(value.toString());
+        } else if (value instanceof OffsetTime) {
+            out.writeByte(16);
+            out.writeUTF(value.toString());
+        } else if (value instanceof Instant) {
+            out.writeByte(17);
+            out.writeLong(((Instant) value).getEpochSecond());
+            out.writeInt(((Instant) value).getNano());
+        } else {
+            throw new IOException("不支持的值类型: " + value.getClass().getName());
+        }
+    }
+
+    public static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case 0:
+                return null;
+            case 1:
+                return in.readLong();
+            case 2:
+                byte[] chars = new byte[in.readInt()];
+                in.readFully(chars);
+                return new String(chars, StandardCharsets.UTF_8);
+            case 3:
+                return new BigDecimal(in.readUTF());
+            case 4:
+                return new BigInteger(in.readUTF());
+            case 5:
+                Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                return timestamp;
+            case 6:
+                return new Date(in.readLong());
+            case 7:
+                return new Time(in.readLong());
+            case 8:
+                return LocalDateTime.parse(in.readUTF());
+            case 9:
+                return LocalDate.parse(in.readUTF());
+            case 10:
+                return LocalTime.parse(in.readUTF());
+            case 11:
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                return bytes;
+            case 12:
+                return in.readDouble();
+            case 13:
+                return in.readBoolean();
+            case 14:
+                return new UUID(in.readLong(), in.readLong());
+            case 15:
+                return OffsetDateTime.parse(in.readUTF());
+            case 16:
+                return OffsetTime.parse(in.readUTF());
+            case 17:
+                return Instant.ofEpochSecond(in.readLong(), in.readInt());
+            default:
+                throw new IOException("存在未知的值类型标记: " + type);
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.drizzlepal.jdbc.verify;
+
+import java.util.Arrays;
+
+import lombok.Getter;
+
+/**
+ * 一行差异，key 为主键值，按主键列顺序排列
+ */
+@Getter
+public class RowDifference {
+
+    public enum Type {
+
+        /**
+         * 源表有、目标表没有
+         */
+        MISSING_IN_TARGET,
+
+        /**
+         * 目标表有、源表没有
+         */
+        EXTRA_IN_TARGET,
+
+        /**
+         * 两边都有但列值不同
+         */
+        CHANGED
+
+    }
+
+    private final Object[] key;
+
+    private final Type type;
+
+    RowDifference(Object[] key, Type type) {
+        this.key = key;
+        this.type = type;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + Arrays.toString(key);
+    }
+
+}
@@ -0,0 +1,467 @@
+package com.drizzlepal.jdbc.verify;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import com.drizzlepal.jdbc.DataSource;
+import com.drizzlepal.jdbc.exception.ConnectionOperationException;
+import com.drizzlepal.jdbc.exception.UncheckedJdbcException;
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.split.KeyRange;
+import com.drizzlepal.jdbc.split.KeyRangeSplitter;
+import com.drizzlepal.jdbc.sql.SqlBuilder;
+import com.drizzlepal.jdbc.utils.MetaDataUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 按主键区间比较两个数据源中同一张表的数据
+ * <p>
+ * 表按主键拆分为若干区间并发校验，每个区间在两端分别计算行数与校验和的聚合值，一致的区间只传输两个数字；
+ * 不一致的区间继续二分（整数键按键值二分，其他键按行数取中位键），直到行数不超过
+ * {@link VerifyOptions#getLeafRows()} 时取两端每行的主键与校验和逐行比对，找出缺失、多余和被修改的行。
+ * <p>
+ * 两端方言相同时校验和在数据库端计算（MySQL 为 BIT_XOR(CRC32(...))，SQL Server 为
+ * CHECKSUM_AGG(BINARY_CHECKSUM(...))）；不同数据库的校验和算法不同无法直接比较，此时读取区间内的行在本地按统一的
+ * 值格式计算 CRC32，需要传输整张表的数据
+ */
+@Slf4j
+public class TableVerifier {
+
+    private final DataSource source;
+
+    private final DataSource target;
+
+    private final VerifyOptions options;
+
+    /**
+     * @param source  源数据源
+     * @param target  目标数据源，目标表的列名需要与源表一致
+     * @param options 校验参数
+     */
+    public TableVerifier(DataSource source, DataSource target, VerifyOptions options) {
+        if (options.getChunks() <= 0 || options.getParallelism() <= 0 || options.getLeafRows() <= 0) {
+            throw new IllegalArgumentException("chunks, parallelism and leafRows must be positive");
+        }
+        this.source = source;
+        this.target = target;
+        this.options = options;
+    }
+
+    /**
+     * @param table 源表，缺少列或主键元数据时从源数据源加载
+     * @return 校验结果
+     * @throws ConnectionOperationException 如果表没有主键或查询时发生异常
+     */
+    public VerifyReport verify(TableMetaData table) throws ConnectionOperationException {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+        try {
+            Run run = new Run(MetaDataUtils.complete(source, table));
+            List<KeyRange> ranges = new KeyRangeSplitter(source).split(run.sourceTable, options.getChunks());
+            ArrayList<ChunkTask> tasks = new ArrayList<>(ranges.size());
+            for (KeyRange range : ranges) {
+                tasks.add(new ChunkTask(run, range, true));
+            }
+            pool.submit(() -> ForkJoinTask.invokeAll(tasks)).get();
+            VerifyReport report = new VerifyReport(run.sourceTable.getName(), run.chunks.get(),
+                    run.mismatchedChunks.get(), run.sourceRows.get(), run.targetRows.get(), run.differences,
+                    run.truncated, (System.nanoTime() - start) / 1_000_000);
+            log.info("数据校验完成：{}", report);
+            return report;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedJdbcException ? e.getCause().getCause() : e.getCause();
+            throw new ConnectionOperationException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionOperationException(e);
+        } catch (SQLException | RuntimeException e) {
+            throw new ConnectionOperationException(e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 一张表的校验状态，由各区间任务并发更新
+     */
+    private final class Run {
+
+        private final TableMetaData sourceTable;
+
+        private final TableMetaData targetTable;
+
+        private final List<String> columns;
+
+        private final List<String> keyColumns;
+
+        private final int[] keyIndexes;
+
+        private final boolean serverChecksum;
+
+        private final AtomicLong chunks = new AtomicLong();
+
+        private final AtomicLong mismatchedChunks = new AtomicLong();
+
+        private final AtomicLong sourceRows = new AtomicLong();
+
+        private final AtomicLong targetRows = new AtomicLong();
+
+        private final List<RowDifference> differences = new ArrayList<>();
+
+        private volatile boolean truncated;
+
+        Run(TableMetaData sourceTable) throws SQLException {
+            this.sourceTable = sourceTable;
+            this.targetTable = new TableMetaData();
+            targetTable.setDatabase(options.getTargetDatabase());
+            targetTable.setName(sourceTable.getName());
+            targetTable.setColumns(sourceTable.getColumns());
+            targetTable.setPrimaryKeys(sourceTable.getPrimaryKeys());
+            this.columns = new ArrayList<>(sourceTable.getColumns().size());
+            for (ColumnMetaData column : sourceTable.getColumns()) {
+                columns.add(column.getName());
+            }
+            this.keyColumns = MetaDataUtils.primaryKeyColumns(sourceTable);
+            if (keyColumns.isEmpty()) {
+                throw new SQLException("表 " + sourceTable.getName() + " 没有主键，无法按区间校验");
+            }
+            this.keyIndexes = new int[keyColumns.size()];
+            for (int i = 0; i < keyIndexes.length; i++) {
+                keyIndexes[i] = indexOf(keyColumns.get(i));
+            }
+            this.serverChecksum = source.getSqlBuilder().getClass() == target.getSqlBuilder().getClass();
+        }
+
+        int indexOf(String column) throws SQLException {
+            for (int i = 0; i < columns.size(); i++) {
+                if (columns.get(i).equalsIgnoreCase(column)) {
+                    return i;
+                }
+            }
+            throw new SQLException("表 " + sourceTable.getName() + " 中不存在列 " + column);
+        }
+
+        boolean isFull() {
+            return truncated;
+        }
+
+        void addDifference(Object[] key, RowDifference.Type type) {
+            synchronized (differences) {
+                if (differences.size() >= options.getMaxDifferences()) {
+                    truncated = true;
+                    return;
+                }
+                differences.add(new RowDifference(key, type));
+            }
+        }
+
+    }
+
+    /**
+     * 区间的行数、校验和以及整数键区间两端实际的最小、最大键
+     */
+    private static final class Checksum {
+
+        private long count;
+
+        private long hash;
+
+        private Long min;
+
+        private Long max;
+
+        boolean matches(Checksum other) {
+            return count == other.count && hash == other.hash;
+        }
+
+    }
+
+    private final class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Run run;
+
+        private final KeyRange range;
+
+        private final boolean top;
+
+        ChunkTask(Run run, KeyRange range, boolean top) {
+            this.run = run;
+            this.range = range;
+            this.top = top;
+        }
+
+        @Override
+        protected void compute() {
+            if (run.isFull()) {
+                return;
+            }
+            try {
+                Checksum sourceChecksum = checksum(source, run.sourceTable);
+                Checksum targetChecksum = checksum(target, run.targetTable);
+                run.chunks.incrementAndGet();
+                if (top) {
+                    run.sourceRows.addAndGet(sourceChecksum.count);
+                    run.targetRows.addAndGet(targetChecksum.count);
+                }
+                if (sourceChecksum.matches(targetChecksum)) {
+                    return;
+                }
+                run.mismatchedChunks.incrementAndGet();
+                List<KeyRange> halves = Math.max(sourceChecksum.count, targetChecksum.count) <= options.getLeafRows()
+                        ? null
+                        : bisect(sourceChecksum, targetChecksum);
+                if (halves == null) {
+                    compareRows();
+                } else {
+                    invokeAll(new ChunkTask(run, halves.get(0), false), new ChunkTask(run, halves.get(1), false));
+                }
+            } catch (SQLException e) {
+                throw new UncheckedJdbcException(e);
+            }
+        }
+
+        private Checksum checksum(DataSource dataSource, TableMetaData table) throws SQLException {
+            SqlBuilder sqlBuilder = dataSource.getSqlBuilder();
+            Checksum checksum = new Checksum();
+            if (!run.serverChecksum) {
+                int keyIndex = range.isIntegral() ? run.indexOf(range.getKeyColumns().get(0)) : -1;
+                query(dataSource, sqlBuilder.Select(table) + range.where(sqlBuilder), resultSet -> {
+                    checksum.count++;
+                    checksum.hash ^= rowChecksum(resultSet);
+                    if (keyIndex >= 0) {
+                        long key = resultSet.getLong(keyIndex + 1);
+                        checksum.min = checksum.min == null ? key : Math.min(checksum.min, key);
+                        checksum.max = checksum.max == null ? key : Math.max(checksum.max, key);
+                    }
+                });
+                return checksum;
+            }
+            StringBuilder sql = new StringBuilder("SELECT ").append(sqlBuilder.ChunkChecksum(run.columns));
+            if (range.isIntegral()) {
+                String keyColumn = sqlBuilder.escape(range.getKeyColumns().get(0));
+                sql.append(", MIN(").append(keyColumn).append("), MAX(").append(keyColumn).append(')');
+            }
+            sql.append(" FROM ").append(sqlBuilder.tableName(table)).append(range.where(sqlBuilder));
+            query(dataSource, sql.toString(), resultSet -> {
+                checksum.count = resultSet.getLong(1);
+                checksum.hash = resultSet.getLong(2);
+                if (range.isIntegral()) {
+                    long min = resultSet.getLong(3);
+                    checksum.min = resultSet.wasNull() ? null : min;
+                    long max = resultSet.getLong(4);
+                    checksum.max = resultSet.wasNull() ? null : max;
+                }
+            });
+            return checksum;
+        }
+
+        /**
+         * 整数键按两端实际的最小、最大键取中点；其他键在行数较多的一端按键排序取中位键。整数区间只按前导键列划分，
+         * 区间内前导键列都相同而无法取中点时，在该区间内改为按完整主键取中位键。无法再拆分时返回 null
+         */
+        private List<KeyRange> bisect(Checksum sourceChecksum, Checksum targetChecksum) throws SQLException {
+            if (range.isIntegral()) {
+                Long low = min(sourceChecksum.min, targetChecksum.min);
+                Long high = max(sourceChecksum.max, targetChecksum.max);
+                if (low == null) {
+                    return null;
+                }
+                if (low.longValue() == high.longValue()) {
+                    return run.keyColumns.size() > 1
+                            ? bisectByMedian(sourceChecksum, targetChecksum, run.keyColumns, null, null, range)
+                            : null;
+                }
+                Object[] middle = new Object[] { low + ((high - low) >>> 1) };
+                ArrayList<KeyRange> halves = new ArrayList<>(2);
+                halves.add(new KeyRange(range.getKeyColumns(), range.getLower(), middle, true));
+                halves.add(new KeyRange(range.getKeyColumns(), middle, range.getUpper(), true));
+                return halves;
+            }
+            return bisectByMedian(sourceChecksum, targetChecksum, range.getKeyColumns(), range.getLower(),
+                    range.getUpper(), range.getWithin());
+        }
+
+        private List<KeyRange> bisectByMedian(Checksum sourceChecksum, Checksum targetChecksum,
+                List<String> keyColumns, Object[] lower, Object[] upper, KeyRange within) throws SQLException {
+            boolean sourceLarger = sourceChecksum.count >= targetChecksum.count;
+            long count = Math.max(sourceChecksum.count, targetChecksum.count);
+            if (count < 2) {
+                return null;
+            }
+            DataSource dataSource = sourceLarger ? source : target;
+            TableMetaData table = sourceLarger ? run.sourceTable : run.targetTable;
+            SqlBuilder sqlBuilder = dataSource.getSqlBuilder();
+            StringBuilder columns = new StringBuilder();
+            for (int i = 0; i < keyColumns.size(); i++) {
+                columns.append(i == 0 ? "" : ", ").append(sqlBuilder.escape(keyColumns.get(i)));
+            }
+            String sql = "SELECT " + columns + " FROM " + sqlBuilder.tableName(table) + range.where(sqlBuilder)
+                    + " ORDER BY " + columns + " " + sqlBuilder.Limit(1, (count - 1) / 2);
+            Object[] middle = new Object[keyColumns.size()];
+            query(dataSource, sql, resultSet -> {
+                for (int i = 0; i < middle.length; i++) {
+                    middle[i] = resultSet.getObject(i + 1);
+                }
+            });
+            ArrayList<KeyRange> halves = new ArrayList<>(2);
+            halves.add(new KeyRange(keyColumns, lower, middle, false, within));
+            halves.add(new KeyRange(keyColumns, middle, upper, false, within));
+            return halves;
+        }
+
+        private void compareRows() throws SQLException {
+            Map<String, RowChecksum> sourceRows = rowChecksums(source, run.sourceTable);
+            Map<String, RowChecksum> targetRows = rowChecksums(target, run.targetTable);
+            for (Map.Entry<String, RowChecksum> entry : sourceRows.entrySet()) {
+                RowChecksum other = targetRows.remove(entry.getKey());
+                if (other == null) {
+                    run.addDifference(entry.getValue().key, RowDifference.Type.MISSING_IN_TARGET);
+                } else if (other.hash != entry.getValue().hash) {
+                    run.addDifference(entry.getValue().key, RowDifference.Type.CHANGED);
+                }
+            }
+            for (RowChecksum extra : targetRows.values()) {
+                run.addDifference(extra.key, RowDifference.Type.EXTRA_IN_TARGET);
+            }
+        }
+
+        private Map<String, RowChecksum> rowChecksums(DataSource dataSource, TableMetaData table)
+                throws SQLException {
+            SqlBuilder sqlBuilder = dataSource.getSqlBuilder();
+            HashMap<String, RowChecksum> rows = new HashMap<>();
+            if (!run.serverChecksum) {
+                query(dataSource, sqlBuilder.Select(table) + range.where(sqlBuilder), resultSet -> {
+                    Object[] key = new Object[run.keyIndexes.length];
+                    for (int i = 0; i < key.length; i++) {
+                        key[i] = resultSet.getObject(run.keyIndexes[i] + 1);
+                    }
+                    rows.put(canonicalKey(key), new RowChecksum(key, rowChecksum(resultSet)));
+                });
+                return rows;
+            }
+            StringBuilder sql = new StringBuilder("SELECT ");
+            for (String keyColumn : run.keyColumns) {
+                sql.append(sqlBuilder.escape(keyColumn)).append(", ");
+            }
+            sql.append(sqlBuilder.RowChecksum(run.columns)).append(" FROM ").append(sqlBuilder.tableName(table))
+                    .append(range.where(sqlBuilder));
+            int keyCount = run.keyColumns.size();
+            query(dataSource, sql.toString(), resultSet -> {
+                Object[] key = new Object[keyCount];
+                for (int i = 0; i < keyCount; i++) {
+                    key[i] = resultSet.getObject(i + 1);
+                }
+                rows.put(canonicalKey(key), new RowChecksum(key, resultSet.getLong(keyCount + 1)));
+            });
+            return rows;
+        }
+
+        private void query(DataSource dataSource, String sql, RowHandler handler) throws SQLException {
+            Object[] params = range.parameters();
+            try (Connection connection = dataSource.getConnection();
+                    PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    statement.setObject(i + 1, params[i]);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        handler.handle(resultSet);
+                    }
+                }
+            }
+        }
+
+    }
+
+    private static final class RowChecksum {
+
+        private final Object[] key;
+
+        private final long hash;
+
+        RowChecksum(Object[] key, long hash) {
+            this.key = key;
+            this.hash = hash;
+        }
+
+    }
+
+    @FunctionalInterface
+    private interface RowHandler {
+
+        void handle(ResultSet resultSet) throws SQLException;
+
+    }
+
+    /**
+     * 本地计算的行校验和，值按与驱动无关的格式转为文本：数值去掉末尾的 0，时间戳转为本地日期时间，二进制转为十六进制
+     */
+    private static long rowChecksum(ResultSet resultSet) throws SQLException {
+        CRC32 crc = new CRC32();
+        int columnCount = resultSet.getMetaData().getColumnCount();
+        for (int i = 1; i <= columnCount; i++) {
+            crc.update(canonical(resultSet.getObject(i)).getBytes(StandardCharsets.UTF_8));
+            crc.update(0x1F);
+        }
+        return crc.getValue();
+    }
+
+    private static String canonicalKey(Object[] key) {
+        StringBuilder builder = new StringBuilder();
+        for (Object value : key) {
+            builder.append(canonical(value)).append('\u001F');
+        }
+        return builder.toString();
+    }
+
+    private static String canonical(Object value) {
+        if (value == null) {
+            return "\u0000";
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? "1" : "0";
+        }
+        if (value instanceof Number) {
+            return new BigDecimal(value.toString()).stripTrailingZeros().toPlainString();
+        }
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime().toString();
+        }
+        if (value instanceof byte[]) {
+            StringBuilder builder = new StringBuilder();
+            for (byte b : (byte[]) value) {
+                builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return builder.toString();
+        }
+        return value.toString();
+    }
+
+    private static Long min(Long a, Long b) {
+        return a == null ? b : b == null ? a : Long.valueOf(Math.min(a, b));
+    }
+
+    private static Long max(Long a, Long b) {
+        return a == null ? b : b == null ? a : Long.valueOf(Math.max(a, b));
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.drizzlepal.jdbc.verify;
+
+import lombok.Data;
+
+/**
+ * 数据一致性校验参数
+ */
+@Data
+public class VerifyOptions {
+
+    /**
+     * 目标数据库，为 null 时使用目标连接的默认数据库
+     */
+    private String targetDatabase;
+
+    /**
+     * 初始拆分的区间数
+     */
+    private int chunks = 16;
+
+    /**
+     * 同时校验的区间数，每个区间同一时刻在源端和目标端最多各占一个连接
+     */
+    private int parallelism = 4;
+
+    /**
+     * 区间行数不超过该值时不再二分，直接逐行比对
+     */
+    private int leafRows = 1000;
+
+    /**
+     * 最多记录的差异行数，达到后停止继续二分
+     */
+    private int maxDifferences = 1000;
+
+}
@@ -0,0 +1,62 @@
+package com.drizzlepal.jdbc.verify;
+
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * 一张表的校验结果
+ */
+@Getter
+public class VerifyReport {
+
+    private final String table;
+
+    /**
+     * 执行过校验和比较的区间数，包括二分产生的子区间
+     */
+    private final long chunks;
+
+    /**
+     * 校验和不一致的区间数
+     */
+    private final long mismatchedChunks;
+
+    private final long sourceRows;
+
+    private final long targetRows;
+
+    private final List<RowDifference> differences;
+
+    /**
+     * 差异行数达到上限后停止了二分，differences 不完整
+     */
+    private final boolean truncated;
+
+    private final long elapsedMs;
+
+    VerifyReport(String table, long chunks, long mismatchedChunks, long sourceRows, long targetRows,
+            List<RowDifference> differences, boolean truncated, long elapsedMs) {
+        this.table = table;
+        this.chunks = chunks;
+        this.mismatchedChunks = mismatchedChunks;
+        this.sourceRows = sourceRows;
+        this.targetRows = targetRows;
+        this.differences = Collections.unmodifiableList(differences);
+        this.truncated = truncated;
+        this.elapsedMs = elapsedMs;
+    }
+
+    public boolean isConsistent() {
+        return mismatchedChunks == 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: consistent=%b, sourceRows=%d, targetRows=%d, chunks=%d, mismatchedChunks=%d, "
+                + "differences=%d%s, elapsedMs=%d", table, isConsistent(), sourceRows, targetRows, chunks,
+                mismatchedChunks, differences.size(), truncated ? "+" : "", elapsedMs);
+    }
+
+}
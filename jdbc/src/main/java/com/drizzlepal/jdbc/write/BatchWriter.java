@@ -0,0 +1,445 @@
+package com.drizzlepal.jdbc.write;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.metrics.MetricsSink;
+import com.drizzlepal.jdbc.sql.SqlBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 按表元数据批量写入数据的写入器，独占一个连接，非线程安全
+ * <p>
+ * 驱动支持批量改写时（MySQL rewriteBatchedStatements、SQL Server useBulkCopyForBatchInsert）使用 JDBC batch，
+ * 由驱动合并为多行插入或批量复制；否则使用 SqlBuilder 生成一条语句插入多行的 INSERT ... VALUES (...),(...)。
+ * 调用 {@link #copy(CopyIn)} 后改为把每批编码为 COPY 文本格式，通过驱动的 COPY 协议导入（PostgreSQL、人大金仓）。
+ * 每累计 batchSize 行执行一次，每累计 commitRows 行提交一次，关闭时写入剩余的行并提交。
+ * 调用 {@link #replaceExisting(List)} 后每批插入前先按键删除已存在的行
+ */
+@Slf4j
+public class BatchWriter implements AutoCloseable {
+
+    /**
+     * 多行插入单条语句的参数个数上限，SQL Server 单条语句最多 2100 个参数
+     */
+    private static final int MAX_STATEMENT_PARAMETERS = 2000;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Connection connection;
+
+    private final boolean autoCommit;
+
+    private final String tableName;
+
+    private final int[] columnTypes;
+
+    private final SqlBuilder sqlBuilder;
+
+    private final TableMetaData table;
+
+    private final int batchSize;
+
+    private final int commitRows;
+
+    private final boolean driverBatch;
+
+    private final int rowsPerStatement;
+
+    private final ArrayList<Object[]> pending;
+
+    private final BatchWriterStats stats = new BatchWriterStats();
+
+    private MetricsSink metrics = MetricsSink.NOOP;
+
+    private PreparedStatement statement;
+
+    private int[] replaceKeyIndexes;
+
+    private ArrayList<Object[]> pendingKeys;
+
+    private PreparedStatement deleteStatement;
+
+    private CopyIn copyIn;
+
+    private String copySql;
+
+    /**
+     * 当前批次 COPY 文本格式的数据
+     */
+    private StringBuilder copyBuffer;
+
+    private int pendingRows;
+
+    private long uncommittedRows;
+
+    private boolean closed;
+
+    /**
+     * @param connection  写入使用的连接，关闭写入器时一并关闭
+     * @param sqlBuilder  生成插入语句的 sql 构建器
+     * @param table       目标表元数据，按 columns 的顺序写入每一列
+     * @param batchSize   每批写入的行数
+     * @param commitRows  每写入多少行提交一次，小于等于 0 时只在 flush 和关闭时提交
+     * @param driverBatch 驱动是否会改写 JDBC batch
+     * @throws SQLException 如果准备连接时发生SQL异常
+     */
+    public BatchWriter(Connection connection, SqlBuilder sqlBuilder, TableMetaData table, int batchSize, int commitRows,
+            boolean driverBatch) throws SQLException {
+        if (table.getColumns() == null || table.getColumns().isEmpty()) {
+            throw new IllegalArgumentException("表 " + table.getName() + " 没有列元数据");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize is invalid");
+        }
+        this.connection = connection;
+        this.sqlBuilder = sqlBuilder;
+        this.table = table;
+        this.tableName = table.getName();
+        this.batchSize = batchSize;
+        this.commitRows = commitRows;
+        this.driverBatch = driverBatch;
+        List<ColumnMetaData> columns = table.getColumns();
+        this.columnTypes = new int[columns.size()];
+        this.rowsPerStatement = Math.max(1, Math.min(batchSize, MAX_STATEMENT_PARAMETERS / columns.size()));
+        this.pending = new ArrayList<>(driverBatch ? 0 : batchSize);
+        for (int i = 0; i < columns.size(); i++) {
+            columnTypes[i] = columns.get(i).getDatatype();
+        }
+        this.autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+    }
+
+    /**
+     * @param metrics 每执行完一批时接收写入行数与耗时
+     * @return 当前写入器
+     */
+    public BatchWriter metrics(MetricsSink metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * 写入前先按键删除目标表中已存在的行，删除与插入在同一事务中执行，同一批数据重复写入的结果不变，
+     * 需要在写入第一行之前调用
+     *
+     * @param keyColumns 键列，通常为主键
+     * @return 当前写入器
+     * @throws SQLException 如果键列不在表元数据中或已经写入过数据
+     */
+    public BatchWriter replaceExisting(List<String> keyColumns) throws SQLException {
+        if (pendingRows > 0 || stats.getRows() > 0) {
+            throw new SQLException("写入数据之后不能再修改写入方式");
+        }
+        List<ColumnMetaData> columns = table.getColumns();
+        int[] indexes = new int[keyColumns.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = -1;
+            for (int j = 0; j < columns.size(); j++) {
+                if (columns.get(j).getName().equalsIgnoreCase(keyColumns.get(i))) {
+                    indexes[i] = j;
+                }
+            }
+            if (indexes[i] < 0) {
+                throw new SQLException("表 " + tableName + " 中不存在键列 " + keyColumns.get(i));
+            }
+        }
+        this.deleteStatement = connection.prepareStatement(sqlBuilder.Delete(table, keyColumns));
+        this.replaceKeyIndexes = indexes;
+        this.pendingKeys = new ArrayList<>(batchSize);
+        return this;
+    }
+
+    /**
+     * 改为通过 COPY ... FROM STDIN 导入每批数据，COPY 在当前事务中执行，提交与按键替换的方式不变，
+     * 需要在写入第一行之前调用
+     *
+     * @param copyIn 执行 COPY 的驱动接口
+     * @return 当前写入器
+     * @throws SQLException 如果已经写入过数据
+     */
+    public BatchWriter copy(CopyIn copyIn) throws SQLException {
+        if (pendingRows > 0 || stats.getRows() > 0) {
+            throw new SQLException("写入数据之后不能再修改写入方式");
+        }
+        this.copySql = sqlBuilder.CopyIn(table);
+        this.copyIn = copyIn;
+        this.copyBuffer = new StringBuilder();
+        return this;
+    }
+
+    /**
+     * 写入一行，值的顺序与表元数据中列的顺序一致
+     *
+     * @param row 行数据
+     * @throws SQLException 如果执行批次或提交时发生SQL异常
+     */
+    public void write(Object... row) throws SQLException {
+        if (closed) {
+            throw new SQLException("写入器已关闭");
+        }
+        if (row.length != columnTypes.length) {
+            throw new SQLException(
+                    "表 " + tableName + " 有 " + columnTypes.length + " 列，写入的行有 " + row.length + " 个值");
+        }
+        if (replaceKeyIndexes != null) {
+            Object[] key = new Object[replaceKeyIndexes.length];
+            for (int i = 0; i < key.length; i++) {
+                key[i] = row[replaceKeyIndexes[i]];
+            }
+            pendingKeys.add(key);
+        }
+        if (copyIn != null) {
+            appendCopyRow(row);
+        } else if (driverBatch) {
+            if (statement == null) {
+                statement = connection.prepareStatement(sqlBuilder.Insert(table));
+            }
+            bindRow(statement, 0, row);
+            statement.addBatch();
+        } else {
+            pending.add(row);
+        }
+        if (++pendingRows >= batchSize) {
+            executeBatch();
+        }
+    }
+
+    /**
+     * 写入所有缓存的行并提交
+     *
+     * @throws SQLException 如果执行批次或提交时发生SQL异常
+     */
+    public void flush() throws SQLException {
+        executeBatch();
+        commit();
+    }
+
+    public BatchWriterStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } catch (SQLException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackException) {
+                e.addSuppressed(rollbackException);
+            }
+            throw e;
+        } finally {
+            closed = true;
+            release();
+            log.debug("表 {} 批量写入完成：{}", tableName, stats);
+        }
+    }
+
+    /**
+     * 丢弃缓存和尚未提交的行并关闭连接，已经提交的行不会回滚，用于写入过程被取消或上游失败
+     *
+     * @throws SQLException 如果回滚或关闭连接时发生SQL异常
+     */
+    public void abort() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        pending.clear();
+        if (pendingKeys != null) {
+            pendingKeys.clear();
+        }
+        if (copyBuffer != null) {
+            copyBuffer.setLength(0);
+        }
+        try {
+            connection.rollback();
+        } finally {
+            release();
+        }
+    }
+
+    private void release() throws SQLException {
+        try {
+            if (statement != null) {
+                statement.close();
+            }
+            if (deleteStatement != null) {
+                deleteStatement.close();
+            }
+            connection.setAutoCommit(autoCommit);
+        } finally {
+            connection.close();
+        }
+    }
+
+    private void executeBatch() throws SQLException {
+        int rows = pendingRows;
+        if (rows == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (replaceKeyIndexes != null) {
+            deleteExisting();
+        }
+        if (copyIn != null) {
+            executeCopy();
+        } else if (driverBatch) {
+            statement.executeBatch();
+        } else {
+            executeMultiRowInsert();
+        }
+        pending.clear();
+        pendingRows = 0;
+        long batchNanos = System.nanoTime() - start;
+        stats.onBatch(rows, batchNanos);
+        metrics.rowsWritten(tableName, rows, batchNanos);
+        uncommittedRows += rows;
+        if (commitRows > 0 && uncommittedRows >= commitRows) {
+            commit();
+        }
+    }
+
+    private void deleteExisting() throws SQLException {
+        for (Object[] key : pendingKeys) {
+            for (int i = 0; i < key.length; i++) {
+                deleteStatement.setObject(i + 1, key[i]);
+            }
+            deleteStatement.addBatch();
+        }
+        deleteStatement.executeBatch();
+        pendingKeys.clear();
+    }
+
+    private void executeCopy() throws SQLException {
+        try {
+            copyIn.copyIn(connection, copySql, new StringReader(copyBuffer.toString()));
+        } catch (IOException e) {
+            throw new SQLException("表 " + tableName + " COPY 导入失败", e);
+        }
+        copyBuffer.setLength(0);
+    }
+
+    /**
+     * COPY 文本格式：列之间以制表符分隔，NULL 为 \N，反斜杠与控制字符转义，二进制为 bytea 的十六进制格式
+     */
+    private void appendCopyRow(Object[] row) {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                copyBuffer.append('\t');
+            }
+            Object value = row[i];
+            if (value == null) {
+                copyBuffer.append("\\N");
+            } else if (value instanceof byte[]) {
+                copyBuffer.append("\\\\x");
+                for (byte b : (byte[]) value) {
+                    copyBuffer.append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+                }
+            } else {
+                appendCopyText(copyText(value));
+            }
+        }
+        copyBuffer.append('\n');
+    }
+
+    private void appendCopyText(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    copyBuffer.append("\\\\");
+                    break;
+                case '\t':
+                    copyBuffer.append("\\t");
+                    break;
+                case '\n':
+                    copyBuffer.append("\\n");
+                    break;
+                case '\r':
+                    copyBuffer.append("\\r");
+                    break;
+                default:
+                    copyBuffer.append(c);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * java.sql 的日期时间类型与 java.time 类型的 toString 都是数据库可以解析的格式，java.util.Date 按时间戳输出
+     */
+    private static String copyText(Object value) {
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        if (value.getClass() == Date.class) {
+            return new Timestamp(((Date) value).getTime()).toString();
+        }
+        return value.toString();
+    }
+
+    /**
+     * 整条语句复用缓存的预编译语句，不足整条的尾部单独生成一次
+     */
+    private void executeMultiRowInsert() throws SQLException {
+        int offset = 0;
+        while (pending.size() - offset >= rowsPerStatement) {
+            if (statement == null) {
+                statement = connection.prepareStatement(sqlBuilder.Insert(table, null, rowsPerStatement));
+            }
+            bindRows(statement, offset, rowsPerStatement);
+            statement.executeUpdate();
+            offset += rowsPerStatement;
+        }
+        int tail = pending.size() - offset;
+        if (tail > 0) {
+            try (PreparedStatement tailStatement = connection.prepareStatement(sqlBuilder.Insert(table, null, tail))) {
+                bindRows(tailStatement, offset, tail);
+                tailStatement.executeUpdate();
+            }
+        }
+    }
+
+    private void commit() throws SQLException {
+        if (uncommittedRows == 0) {
+            return;
+        }
+        connection.commit();
+        uncommittedRows = 0;
+        stats.onCommit();
+    }
+
+    private void bindRows(PreparedStatement target, int offset, int rows) throws SQLException {
+        for (int i = 0; i < rows; i++) {
+            bindRow(target, i * columnTypes.length, pending.get(offset + i));
+        }
+    }
+
+    private void bindRow(PreparedStatement target, int parameterOffset, Object[] row) throws SQLException {
+        for (int i = 0; i < row.length; i++) {
+            if (row[i] == null) {
+                target.setNull(parameterOffset + i + 1, columnTypes[i]);
+            } else {
+                target.setObject(parameterOffset + i + 1, row[i]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.drizzlepal.jdbc.write;
+
+import lombok.Getter;
+
+/**
+ * 批量写入统计，记录写入行数、批次数、提交次数、死锁重试次数以及批次耗时
+ */
+@Getter
+public class BatchWriterStats {
+
+    private final long startNanos = System.nanoTime();
+
+    private long rows;
+
+    private long batches;
+
+    private long commits;
+
+    private long totalBatchNanos;
+
+    private long maxBatchNanos;
+
+    private long deadlockRetries;
+
+    void onBatch(int batchRows, long batchNanos) {
+        rows += batchRows;
+        batches++;
+        totalBatchNanos += batchNanos;
+        maxBatchNanos = Math.max(maxBatchNanos, batchNanos);
+    }
+
+    void onCommit() {
+        commits++;
+    }
+
+    void onDeadlockRetry() {
+        deadlockRetries++;
+    }
+
+    /**
+     * 从创建写入器到现在的平均写入速度
+     *
+     * @return 每秒写入行数
+     */
+    public double getRowsPerSecond() {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed <= 0 ? 0 : rows * 1_000_000_000D / elapsed;
+    }
+
+    public double getAverageBatchLatencyMs() {
+        return batches == 0 ? 0 : totalBatchNanos / 1_000_000D / batches;
+    }
+
+    public double getMaxBatchLatencyMs() {
+        return maxBatchNanos / 1_000_000D;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "rows=%d, batches=%d, commits=%d, deadlockRetries=%d, rows/s=%.1f, avgBatchMs=%.2f, maxBatchMs=%.2f",
+                rows, batches, commits, deadlockRetries, getRowsPerSecond(), getAverageBatchLatencyMs(),
+                getMaxBatchLatencyMs());
+    }
+
+}
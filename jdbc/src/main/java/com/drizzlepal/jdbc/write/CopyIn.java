@@ -0,0 +1,26 @@
+package com.drizzlepal.jdbc.write;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 通过驱动的 COPY 协议把客户端数据流导入表中，由支持 COPY 的数据源提供给批量写入器
+ */
+@FunctionalInterface
+public interface CopyIn {
+
+    /**
+     * 执行 COPY ... FROM STDIN，在连接当前的事务中执行
+     *
+     * @param connection 数据库连接
+     * @param sql        COPY 语句
+     * @param data       COPY 文本格式的数据，每行一条记录
+     * @return 导入的行数
+     * @throws SQLException 如果执行 COPY 时发生SQL异常
+     * @throws IOException  如果读取数据时发生异常
+     */
+    long copyIn(Connection connection, String sql, Reader data) throws SQLException, IOException;
+
+}
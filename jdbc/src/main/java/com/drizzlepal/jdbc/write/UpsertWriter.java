@@ -0,0 +1,515 @@
+package com.drizzlepal.jdbc.write;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.drizzlepal.jdbc.DataSource;
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.IndexMetaData;
+import com.drizzlepal.jdbc.metadata.PrimaryKeyMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.metrics.MetricsSink;
+import com.drizzlepal.jdbc.sql.SqlBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 按键批量写入或更新的写入器，同一批数据重复写入的结果不变，独占一个连接，非线程安全
+ * <p>
+ * 支持单语句 upsert 的方言（MySQL INSERT ... ON DUPLICATE KEY UPDATE）直接执行多行 upsert；
+ * 否则（SQL Server）每批先写入会话级暂存表，再用一条 MERGE 合并到目标表。
+ * 每批在一个事务中执行并提交，批内键相同的行只保留最后一行，键可比较时按键排序，使并发写入按相同顺序加锁。
+ * 发生死锁时回滚该批并随机退避后重试，重试多次仍然死锁时把该批拆成两半分别执行，缩小单个事务持有的锁
+ */
+@Slf4j
+public class UpsertWriter implements AutoCloseable {
+
+    /**
+     * 多行语句单条的参数个数上限，SQL Server 单条语句最多 2100 个参数
+     */
+    private static final int MAX_STATEMENT_PARAMETERS = 2000;
+
+    private static final int MAX_DEADLOCK_RETRIES = 3;
+
+    private static final String STAGING_TABLE = "#drizzlepal_upsert";
+
+    private final Connection connection;
+
+    private final boolean autoCommit;
+
+    private final SqlBuilder sqlBuilder;
+
+    private final TableMetaData table;
+
+    private final List<String> keyColumns;
+
+    private final int[] keyIndexes;
+
+    private final int[] columnTypes;
+
+    private final int batchSize;
+
+    private final boolean driverBatch;
+
+    private final TableMetaData stagingTable;
+
+    private final int rowsPerStatement;
+
+    private final ArrayList<Object[]> pending;
+
+    private final BatchWriterStats stats = new BatchWriterStats();
+
+    private MetricsSink metrics = MetricsSink.NOOP;
+
+    private PreparedStatement statement;
+
+    private boolean closed;
+
+    /**
+     * @param connection  写入使用的连接，关闭写入器时一并关闭
+     * @param sqlBuilder  sql 构建器
+     * @param table       目标表元数据，按 columns 的顺序写入每一列
+     * @param keyColumns  判断行是否已存在的键列，通常来自 {@link #keyColumns(DataSource, TableMetaData)}
+     * @param batchSize   每批写入的行数，每批一个事务
+     * @param driverBatch 驱动是否会改写 JDBC batch
+     * @param staged      是否通过暂存表与 MERGE 合并，方言没有单语句 upsert 时为 true
+     * @throws SQLException 如果键列不在表元数据中或创建暂存表时发生SQL异常
+     */
+    public UpsertWriter(Connection connection, SqlBuilder sqlBuilder, TableMetaData table, List<String> keyColumns,
+            int batchSize, boolean driverBatch, boolean staged) throws SQLException {
+        if (table.getColumns() == null || table.getColumns().isEmpty()) {
+            throw new IllegalArgumentException("表 " + table.getName() + " 没有列元数据");
+        }
+        if (keyColumns == null || keyColumns.isEmpty()) {
+            throw new IllegalArgumentException("表 " + table.getName() + " 没有指定键列");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize is invalid");
+        }
+        this.connection = connection;
+        this.sqlBuilder = sqlBuilder;
+        this.table = table;
+        this.keyColumns = keyColumns;
+        this.batchSize = batchSize;
+        this.driverBatch = driverBatch;
+        List<ColumnMetaData> columns = table.getColumns();
+        this.columnTypes = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            columnTypes[i] = columns.get(i).getDatatype();
+        }
+        this.keyIndexes = new int[keyColumns.size()];
+        for (int i = 0; i < keyIndexes.length; i++) {
+            keyIndexes[i] = -1;
+            for (int j = 0; j < columns.size(); j++) {
+                if (columns.get(j).getName().equalsIgnoreCase(keyColumns.get(i))) {
+                    keyIndexes[i] = j;
+                }
+            }
+            if (keyIndexes[i] < 0) {
+                throw new SQLException("表 " + table.getName() + " 中不存在键列 " + keyColumns.get(i));
+            }
+        }
+        this.rowsPerStatement = Math.max(1, Math.min(batchSize, MAX_STATEMENT_PARAMETERS / columns.size()));
+        this.pending = new ArrayList<>(batchSize);
+        if (staged) {
+            stagingTable = new TableMetaData();
+            stagingTable.setName(STAGING_TABLE);
+            stagingTable.setColumns(table.getColumns());
+        } else {
+            stagingTable = null;
+        }
+        this.autoCommit = connection.getAutoCommit();
+        if (staged) {
+            try (Statement create = connection.createStatement()) {
+                create.execute(sqlBuilder.CreateStagingTable(table, stagingTable));
+            }
+        }
+        connection.setAutoCommit(false);
+    }
+
+    /**
+     * 确定判断行是否已存在的键列：表元数据或数据库中的主键，没有主键时使用列数最少的唯一索引
+     *
+     * @param dataSource    表所在的数据源
+     * @param tableMetaData 表元数据
+     * @return 按键内顺序排列的键列
+     * @throws SQLException 如果表既没有主键也没有唯一索引，或查询元数据时发生SQL异常
+     */
+    public static List<String> keyColumns(DataSource dataSource, TableMetaData tableMetaData) throws SQLException {
+        List<PrimaryKeyMetaData> primaryKeys = tableMetaData.getPrimaryKeys();
+        if (primaryKeys == null || primaryKeys.isEmpty()) {
+            primaryKeys = dataSource.getPrimaryKeys(null, tableMetaData.getDatabase(), tableMetaData.getName());
+        }
+        if (primaryKeys != null && !primaryKeys.isEmpty()) {
+            ArrayList<PrimaryKeyMetaData> sorted = new ArrayList<>(primaryKeys);
+            sorted.sort(Comparator.comparingInt(PrimaryKeyMetaData::getKeySeq));
+            ArrayList<String> keyColumns = new ArrayList<>(sorted.size());
+            for (PrimaryKeyMetaData primaryKey : sorted) {
+                keyColumns.add(primaryKey.getColumnName());
+            }
+            return keyColumns;
+        }
+        Map<String, ArrayList<IndexMetaData>> indexes = tableMetaData.getIndexes();
+        if (indexes == null) {
+            indexes = dataSource.getIndexMetaData(null, tableMetaData.getDatabase(), tableMetaData.getName(), true);
+        }
+        List<IndexMetaData> best = null;
+        for (ArrayList<IndexMetaData> index : indexes.values()) {
+            boolean unique = !index.isEmpty() && !Boolean.TRUE.equals(index.get(0).getNonUnique());
+            if (unique && (best == null || index.size() < best.size())) {
+                best = index;
+            }
+        }
+        if (best == null) {
+            throw new SQLException("表 " + tableMetaData.getName() + " 没有主键或唯一索引，无法按键写入");
+        }
+        ArrayList<IndexMetaData> sorted = new ArrayList<>(best);
+        sorted.sort(Comparator.comparingInt(IndexMetaData::getOrdinalPosition));
+        ArrayList<String> keyColumns = new ArrayList<>(sorted.size());
+        for (IndexMetaData column : sorted) {
+            keyColumns.add(column.getColumnName());
+        }
+        return keyColumns;
+    }
+
+    /**
+     * @param metrics 每执行完一批时接收写入行数与耗时
+     * @return 当前写入器
+     */
+    public UpsertWriter metrics(MetricsSink metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * 写入一行，值的顺序与表元数据中列的顺序一致
+     *
+     * @param row 行数据
+     * @throws SQLException 如果执行批次时发生SQL异常
+     */
+    public void write(Object... row) throws SQLException {
+        if (closed) {
+            throw new SQLException("写入器已关闭");
+        }
+        if (row.length != columnTypes.length) {
+            throw new SQLException(
+                    "表 " + table.getName() + " 有 " + columnTypes.length + " 列，写入的行有 " + row.length + " 个值");
+        }
+        pending.add(row);
+        if (pending.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * 写入并提交所有缓存的行
+     *
+     * @throws SQLException 如果执行批次时发生SQL异常
+     */
+    public void flush() throws SQLException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<Object[]> rows = prepareBatch();
+        int written = pending.size();
+        execute(rows);
+        pending.clear();
+        long batchNanos = System.nanoTime() - start;
+        stats.onBatch(written, batchNanos);
+        metrics.rowsWritten(table.getName(), written, batchNanos);
+    }
+
+    public BatchWriterStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return 判断行是否已存在的键列
+     */
+    public List<String> getKeyColumns() {
+        return keyColumns;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } catch (Throwable e) {
+            closed = true;
+            // 关闭连接失败不能掩盖写入失败
+            try {
+                release();
+            } catch (Throwable releaseException) {
+                e.addSuppressed(releaseException);
+            }
+            throw e;
+        }
+        closed = true;
+        release();
+        log.debug("表 {} 按键批量写入完成：{}", table.getName(), stats);
+    }
+
+    /**
+     * 丢弃缓存的行并关闭连接，已经提交的批次不会回滚
+     *
+     * @throws SQLException 如果关闭连接时发生SQL异常
+     */
+    public void abort() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        pending.clear();
+        release();
+    }
+
+    private void release() throws SQLException {
+        try {
+            if (statement != null) {
+                statement.close();
+            }
+            if (stagingTable != null) {
+                // 暂存表属于会话，连接归还连接池后仍然存在
+                try (Statement drop = connection.createStatement()) {
+                    drop.execute("DROP TABLE " + sqlBuilder.tableName(stagingTable));
+                }
+                connection.commit();
+            }
+            connection.setAutoCommit(autoCommit);
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * 去掉批内键重复的行（保留最后一行），键可比较时按键排序
+     */
+    private List<Object[]> prepareBatch() {
+        LinkedHashMap<List<Object>, Object[]> unique = new LinkedHashMap<>(pending.size() * 4 / 3 + 1);
+        for (Object[] row : pending) {
+            List<Object> key = key(row);
+            // 先移除再放入，保留最后一次出现的位置，与逐行执行的结果一致
+            unique.remove(key);
+            unique.put(key, row);
+        }
+        Collection<Object[]> rows = unique.values();
+        ArrayList<Object[]> batch = new ArrayList<>(rows);
+        if (isKeySortable(batch)) {
+            batch.sort(this::compareKeys);
+        }
+        return batch;
+    }
+
+    private void execute(List<Object[]> rows) throws SQLException {
+        for (int attempt = 1;; attempt++) {
+            try {
+                if (stagingTable != null) {
+                    executeMerge(rows);
+                } else {
+                    executeUpsert(rows);
+                }
+                connection.commit();
+                stats.onCommit();
+                return;
+            } catch (SQLException e) {
+                try {
+                    connection.rollback();
+                    if (driverBatch && statement != null) {
+                        statement.clearBatch();
+                    }
+                } catch (SQLException rollbackException) {
+                    e.addSuppressed(rollbackException);
+                }
+                if (!isDeadlock(e)) {
+                    throw e;
+                }
+                stats.onDeadlockRetry();
+                if (attempt > MAX_DEADLOCK_RETRIES && rows.size() > 1) {
+                    log.debug("表 {} 的 {} 行批次连续死锁 {} 次，拆分后重试", table.getName(), rows.size(), attempt);
+                    int half = rows.size() / 2;
+                    execute(rows.subList(0, half));
+                    execute(rows.subList(half, rows.size()));
+                    return;
+                }
+                if (attempt > MAX_DEADLOCK_RETRIES * 2) {
+                    throw e;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void executeUpsert(List<Object[]> rows) throws SQLException {
+        if (driverBatch) {
+            if (statement == null) {
+                statement = connection.prepareStatement(sqlBuilder.Upsert(table, keyColumns, 1));
+            }
+            for (Object[] row : rows) {
+                bindRow(statement, 0, row);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            return;
+        }
+        executeMultiRow(rows, table, count -> sqlBuilder.Upsert(table, keyColumns, count));
+    }
+
+    private void executeMerge(List<Object[]> rows) throws SQLException {
+        try (Statement merge = connection.createStatement()) {
+            merge.execute(sqlBuilder.TruncateTable(stagingTable));
+            if (driverBatch) {
+                if (statement == null) {
+                    statement = connection.prepareStatement(sqlBuilder.Insert(stagingTable));
+                }
+                for (Object[] row : rows) {
+                    bindRow(statement, 0, row);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            } else {
+                executeMultiRow(rows, stagingTable, count -> sqlBuilder.Insert(stagingTable, null, count));
+            }
+            merge.executeUpdate(sqlBuilder.Merge(table, stagingTable, keyColumns));
+        }
+    }
+
+    /**
+     * 整条语句复用缓存的预编译语句，不足整条的尾部单独生成一次
+     */
+    private void executeMultiRow(List<Object[]> rows, TableMetaData target, StatementSql sql) throws SQLException {
+        int offset = 0;
+        while (rows.size() - offset >= rowsPerStatement) {
+            if (statement == null) {
+                statement = connection.prepareStatement(sql.of(rowsPerStatement));
+            }
+            bindRows(statement, rows, offset, rowsPerStatement);
+            statement.executeUpdate();
+            offset += rowsPerStatement;
+        }
+        int tail = rows.size() - offset;
+        if (tail > 0) {
+            try (PreparedStatement tailStatement = connection.prepareStatement(sql.of(tail))) {
+                bindRows(tailStatement, rows, offset, tail);
+                tailStatement.executeUpdate();
+            }
+        }
+    }
+
+    private void bindRows(PreparedStatement target, List<Object[]> rows, int offset, int count) throws SQLException {
+        for (int i = 0; i < count; i++) {
+            bindRow(target, i * columnTypes.length, rows.get(offset + i));
+        }
+    }
+
+    private void bindRow(PreparedStatement target, int parameterOffset, Object[] row) throws SQLException {
+        for (int i = 0; i < row.length; i++) {
+            if (row[i] == null) {
+                target.setNull(parameterOffset + i + 1, columnTypes[i]);
+            } else {
+                target.setObject(parameterOffset + i + 1, row[i]);
+            }
+        }
+    }
+
+    private List<Object> key(Object[] row) {
+        Object[] key = new Object[keyIndexes.length];
+        for (int i = 0; i < key.length; i++) {
+            Object value = row[keyIndexes[i]];
+            // 二进制键按内容比较
+            key[i] = value instanceof byte[] ? new String((byte[]) value, StandardCharsets.ISO_8859_1) : value;
+        }
+        return Arrays.asList(key);
+    }
+
+    /**
+     * 每个键列的值都是同一个可比较类型时才排序，避免比较不同类型的值
+     */
+    private boolean isKeySortable(List<Object[]> rows) {
+        for (int keyIndex : keyIndexes) {
+            Class<?> type = null;
+            for (Object[] row : rows) {
+                Object value = row[keyIndex];
+                if (value == null) {
+                    continue;
+                }
+                if (type == null) {
+                    if (!(value instanceof Comparable)) {
+                        return false;
+                    }
+                    type = value.getClass();
+                } else if (value.getClass() != type) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private int compareKeys(Object[] a, Object[] b) {
+        for (int keyIndex : keyIndexes) {
+            Object left = a[keyIndex];
+            Object right = b[keyIndex];
+            int result;
+            if (left == null || right == null) {
+                result = left == null ? (right == null ? 0 : -1) : 1;
+            } else {
+                result = ((Comparable) left).compareTo(right);
+            }
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    private static void backoff(int attempt) throws SQLException {
+        long maxMs = Math.min(1000, 10L << attempt);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxMs / 2, maxMs + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("等待死锁重试时被中断", e);
+        }
+    }
+
+    /**
+     * SQLSTATE 40001 为序列化失败（MySQL 1213、SQL Server 1205 死锁均使用该状态），
+     * MySQL 锁等待超时 1205 与死锁同样可以通过回滚重试解决
+     */
+    static boolean isDeadlock(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                SQLException sqlException = (SQLException) cause;
+                if ("40001".equals(sqlException.getSQLState()) || sqlException.getErrorCode() == 1213
+                        || sqlException.getErrorCode() == 1205) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    private interface StatementSql {
+
+        String of(int rows);
+
+    }
+
+}
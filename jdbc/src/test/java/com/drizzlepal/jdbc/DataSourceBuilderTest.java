@@ -0,0 +1,39 @@
+package com.drizzlepal.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.InetSocketAddress;
+
+import org.junit.jupiter.api.Test;
+
+import com.drizzlepal.jdbc.metrics.InMemoryMetricsSink;
+
+public class DataSourceBuilderTest {
+
+    @Test
+    public void testReplicaConfigMatchesPrimary() throws Exception {
+        DataSourceBuilder builder = DataSourceBuilder.builder(DatabaseType.MYSQL).host("127.0.0.1").port(3306)
+                .userName("root").password("root").schema("app").database("shop").maxActive(12).minIdle(2)
+                .maxWaitMs(3000).metaDataCache(60000, 256).fetch(500, 1 << 20).slowQueryThresholdMs(200)
+                .statementCacheSize(16).replicaLag(1000, 200).connectionParam("useSSL", "false")
+                .metrics(new InMemoryMetricsSink());
+        Field databaseConfig = DataSourceBuilder.class.getDeclaredField("databaseConfig");
+        databaseConfig.setAccessible(true);
+        DefaultDatabaseConfig primary = (DefaultDatabaseConfig) databaseConfig.get(builder);
+        DefaultDatabaseConfig replica = builder.replicaConfig(new InetSocketAddress("10.0.0.2", 3307));
+        assertEquals("10.0.0.2", replica.getHost());
+        assertEquals(Integer.valueOf(3307), replica.getPort());
+        // 新增的配置项没有复制到副本时这里失败
+        for (Field field : DefaultDatabaseConfig.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.getName().equals("host")
+                    || field.getName().equals("port")) {
+                continue;
+            }
+            field.setAccessible(true);
+            assertEquals(field.get(primary), field.get(replica), field.getName());
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.drizzlepal.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.drizzlepal.jdbc.exception.ConfigInvalidException;
+
+public class DataSourceRegistryTest {
+
+    private static DataSourceBuilder builder(String database, int maxActive) {
+        return DataSourceBuilder.builder(DatabaseType.MYSQL).host("127.0.0.1").port(3306).userName("root")
+                .password("root").database(database).maxActive(maxActive).maxWaitMs(250);
+    }
+
+    @Test
+    public void testCreateOnce() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        try (DataSourceRegistry registry = new DataSourceRegistry(tenant -> {
+            created.incrementAndGet();
+            Thread.sleep(50);
+            return builder(tenant, 4);
+        }, 16, 60000)) {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<DataSource>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> registry.get("tenant_a")));
+            }
+            DataSource first = futures.get(0).get();
+            for (Future<DataSource> future : futures) {
+                assertSame(first, future.get());
+            }
+            executor.shutdown();
+            assertEquals(1, created.get());
+            assertEquals(4, registry.getReservedConnections());
+        }
+    }
+
+    @Test
+    public void testGlobalCap() throws Exception {
+        try (DataSourceRegistry registry = new DataSourceRegistry(tenant -> builder(tenant, 8), 16, 60000)) {
+            DataSource a = registry.get("a");
+            registry.get("b");
+            registry.get("c");
+            assertEquals(2, registry.size());
+            assertEquals(16, registry.getReservedConnections());
+            assertNotSame(a, registry.get("a"));
+            assertEquals(16, registry.getReservedConnections());
+        }
+        try (DataSourceRegistry registry = new DataSourceRegistry(tenant -> builder(tenant, 32), 16, 60000)) {
+            assertThrows(ConfigInvalidException.class, () -> registry.get("a"));
+            assertEquals(0, registry.size());
+        }
+        try (DataSourceRegistry registry = new DataSourceRegistry(tenant -> builder(tenant, 4).maxWaitMs(100), 16,
+                60000)) {
+            assertThrows(ConfigInvalidException.class, () -> registry.get("a"));
+            assertEquals(0, registry.getReservedConnections());
+        }
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.drizzlepal.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.drizzlepal.jdbc.database.mysql.DataSourceMysql;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.metadata.TableStatistics;
+
+public class MetaDataCachingDataSourceTest {
+
+    private static final long TTL_MS = 50;
+
+    /**
+     * 不访问数据库的被装饰数据源，表版本与加载次数由测试控制
+     */
+    private static class FakeDataSource extends DataSourceMysql {
+
+        private final Map<String, String> versions = new HashMap<>();
+
+        private boolean versionsSupported = true;
+
+        private final AtomicInteger tableLoads = new AtomicInteger();
+
+        private final AtomicInteger versionQueries = new AtomicInteger();
+
+        private final AtomicInteger statisticsQueries = new AtomicInteger();
+
+        private FakeDataSource() {
+            super(config());
+        }
+
+        private static DefaultDatabaseConfig config() {
+            DefaultDatabaseConfig config = DatabaseType.MYSQL.initDataConfig();
+            config.setHost("127.0.0.1");
+            config.setPort(3306);
+            config.setDatabase("shop");
+            return config;
+        }
+
+        @Override
+        public Map<String, String> getTableVersions(String schema, String databaseName) {
+            versionQueries.incrementAndGet();
+            return versionsSupported ? new HashMap<>(versions) : null;
+        }
+
+        @Override
+        public TableMetaData getTableMetaData(String schema, String databaseName, String tableName) {
+            tableLoads.incrementAndGet();
+            TableMetaData tableMetaData = new TableMetaData();
+            tableMetaData.setName(tableName);
+            return tableMetaData;
+        }
+
+        @Override
+        public Map<String, TableStatistics> getTableStatistics(String schema, String databaseName) {
+            statisticsQueries.incrementAndGet();
+            Map<String, TableStatistics> statistics = new HashMap<>();
+            statistics.put("goods", new TableStatistics());
+            return statistics;
+        }
+
+    }
+
+    private static TableMetaData get(MetaDataCachingDataSource dataSource, String tableName) throws SQLException {
+        return dataSource.getTableMetaData(null, "shop", tableName);
+    }
+
+    @Test
+    public void testRenewUnchangedTableAfterTtl() throws Exception {
+        FakeDataSource delegate = new FakeDataSource();
+        delegate.versions.put("goods", "v1");
+        try (MetaDataCachingDataSource dataSource = new MetaDataCachingDataSource(delegate, TTL_MS, 16)) {
+            TableMetaData goods = get(dataSource, "goods");
+            assertSame(goods, get(dataSource, "goods"));
+            assertEquals(1, dataSource.getHitCount());
+            assertEquals(1, dataSource.getMissCount());
+            // 过期后表版本未变化，只续期不重新加载
+            Thread.sleep(TTL_MS + 30);
+            assertSame(goods, get(dataSource, "goods"));
+            assertEquals(1, delegate.tableLoads.get());
+            assertEquals(2, delegate.versionQueries.get());
+            // 续期后在有效期内不再查询表版本
+            assertSame(goods, get(dataSource, "goods"));
+            assertEquals(2, delegate.versionQueries.get());
+            assertEquals(3, dataSource.getHitCount());
+        }
+    }
+
+    @Test
+    public void testReloadChangedTableAfterTtl() throws Exception {
+        FakeDataSource delegate = new FakeDataSource();
+        delegate.versions.put("goods", "v1");
+        delegate.versions.put("orders", "v1");
+        try (MetaDataCachingDataSource dataSource = new MetaDataCachingDataSource(delegate, TTL_MS, 16)) {
+            TableMetaData goods = get(dataSource, "goods");
+            TableMetaData orders = get(dataSource, "orders");
+            delegate.versions.put("goods", "v2");
+            Thread.sleep(TTL_MS + 30);
+            // 一次表版本查询同时校验同库内其他已缓存的表
+            assertSame(orders, get(dataSource, "orders"));
+            assertEquals(1, dataSource.getInvalidationCount());
+            assertEquals(1, dataSource.size());
+            assertNotSame(goods, get(dataSource, "goods"));
+            assertEquals(3, delegate.tableLoads.get());
+            assertEquals(2, delegate.versionQueries.get());
+        }
+    }
+
+    @Test
+    public void testReloadAfterTtlWithoutTableVersions() throws Exception {
+        FakeDataSource delegate = new FakeDataSource();
+        delegate.versionsSupported = false;
+        try (MetaDataCachingDataSource dataSource = new MetaDataCachingDataSource(delegate, TTL_MS, 16)) {
+            TableMetaData goods = get(dataSource, "goods");
+            assertSame(goods, get(dataSource, "goods"));
+            Thread.sleep(TTL_MS + 30);
+            assertNotSame(goods, get(dataSource, "goods"));
+            assertEquals(2, delegate.tableLoads.get());
+        }
+    }
+
+    @Test
+    public void testInvalidateAndEvict() throws Exception {
+        FakeDataSource delegate = new FakeDataSource();
+        try (MetaDataCachingDataSource dataSource = new MetaDataCachingDataSource(delegate, 60000, 2)) {
+            TableMetaData goods = get(dataSource, "goods");
+            dataSource.invalidate("goods");
+            assertEquals(1, dataSource.getInvalidationCount());
+            assertNotSame(goods, get(dataSource, "goods"));
+            get(dataSource, "orders");
+            get(dataSource, "goods");
+            // 超过最大缓存数量时淘汰最近最少使用的 orders
+            get(dataSource, "users");
+            assertEquals(2, dataSource.size());
+            assertEquals(1, dataSource.getEvictionCount());
+            get(dataSource, "goods");
+            get(dataSource, "orders");
+            assertEquals(5, delegate.tableLoads.get());
+            dataSource.invalidateAll();
+            assertEquals(0, dataSource.size());
+            assertEquals(3, dataSource.getInvalidationCount());
+        }
+    }
+
+    @Test
+    public void testStatisticsCachedWithinTtl() throws Exception {
+        FakeDataSource delegate = new FakeDataSource();
+        try (MetaDataCachingDataSource dataSource = new MetaDataCachingDataSource(delegate, TTL_MS, 16)) {
+            TableStatistics goods = dataSource.getTableStatistics(null, "shop", "goods", false);
+            assertSame(goods, dataSource.getTableStatistics(null, "shop", "goods", false));
+            assertEquals(1, dataSource.getTableStatistics(null, "shop").size());
+            assertEquals(1, delegate.statisticsQueries.get());
+            Thread.sleep(TTL_MS + 30);
+            assertNotSame(goods, dataSource.getTableStatistics(null, "shop", "goods", false));
+            assertEquals(2, delegate.statisticsQueries.get());
+        }
+    }
+
+}
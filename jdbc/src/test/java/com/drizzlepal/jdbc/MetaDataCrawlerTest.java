@@ -0,0 +1,98 @@
+package com.drizzlepal.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class MetaDataCrawlerTest {
+
+    @Test
+    public void testKeepsOrderWithinParallelism() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<String> names = Arrays.asList("e", "d", "c", "b", "a");
+        Map<String, String> result = new MetaDataCrawler(2, 0).crawl(names, name -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return name.toUpperCase();
+        }).get(5, TimeUnit.SECONDS);
+        assertEquals(names, new ArrayList<>(result.keySet()));
+        assertEquals(Arrays.asList("E", "D", "C", "B", "A"), new ArrayList<>(result.values()));
+        assertTrue(maxRunning.get() <= 2);
+        assertTrue(new MetaDataCrawler(2, 0).crawl(Collections.emptyList(), name -> name).isDone());
+    }
+
+    @Test
+    public void testFailureCancelsOtherTasks() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        SQLException failure = new SQLException("表不存在");
+        CompletableFuture<Map<String, String>> result = new MetaDataCrawler(2, 0).crawl(Arrays.asList("slow", "bad"),
+                name -> {
+                    if (name.equals("bad")) {
+                        started.await();
+                        throw failure;
+                    }
+                    started.countDown();
+                    return block(interrupted);
+                });
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertSame(failure, e.getCause());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTimeoutCancelsTask() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<Map<String, String>> result = new MetaDataCrawler(1, 100)
+                .crawl(Collections.singletonList("slow"), name -> block(interrupted));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCallerCancelInterruptsTasks() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<Map<String, String>> result = new MetaDataCrawler(1, 0)
+                .crawl(Collections.singletonList("slow"), name -> {
+                    started.countDown();
+                    return block(interrupted);
+                });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        result.cancel(true);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 模拟长时间执行的元数据查询，被中断时计数
+     */
+    private static String block(CountDownLatch interrupted) {
+        try {
+            Thread.sleep(60000);
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.drizzlepal.jdbc.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.drizzlepal.jdbc.DataSource;
+
+public class AsyncDataSourceTest {
+
+    /**
+     * sql 为 slow 的语句一直执行到被 Statement.cancel 中止，其余语句立即返回 1
+     */
+    private static class FakeDataSource {
+
+        private final AtomicInteger connections = new AtomicInteger();
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private final CountDownLatch cancelled = new CountDownLatch(1);
+
+        private final DataSource dataSource = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[] { DataSource.class }, (proxy, method, args) -> {
+                    if (!method.getName().equals("getConnection")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    connections.incrementAndGet();
+                    return connection();
+                });
+
+        private Connection connection() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, (proxy, method, args) -> method.getName()
+                            .equals("prepareStatement") ? statement((String) args[0]) : null);
+        }
+
+        private PreparedStatement statement(String sql) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "executeUpdate":
+                                if (!sql.equals("slow")) {
+                                    return 1;
+                                }
+                                started.countDown();
+                                if (!cancelled.await(10, TimeUnit.SECONDS)) {
+                                    throw new IllegalStateException("语句没有被取消");
+                                }
+                                throw new SQLException("canceling statement due to user request", "57014");
+                            case "cancel":
+                                cancelled.countDown();
+                                return null;
+                            default:
+                                return null;
+                        }
+                    });
+        }
+
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        FakeDataSource fake = new FakeDataSource();
+        try (AsyncDataSource async = new AsyncDataSource(fake.dataSource, null, 2)) {
+            assertEquals(1, async.update("fast", 1000, 1).get(5, TimeUnit.SECONDS));
+            assertEquals(1, fake.connections.get());
+        }
+    }
+
+    @Test
+    public void testTimeoutCancelsRunningStatement() throws Exception {
+        FakeDataSource fake = new FakeDataSource();
+        try (AsyncDataSource async = new AsyncDataSource(fake.dataSource, null, 2)) {
+            CompletableFuture<Integer> future = async.update("slow", 100);
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+            assertTrue(fake.cancelled.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testCancelAbortsRunningStatement() throws Exception {
+        FakeDataSource fake = new FakeDataSource();
+        try (AsyncDataSource async = new AsyncDataSource(fake.dataSource, null, 2)) {
+            CompletableFuture<Integer> future = async.update("slow", 0);
+            assertTrue(fake.started.await(5, TimeUnit.SECONDS));
+            future.cancel(true);
+            assertTrue(fake.cancelled.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testQueuedCallTimesOutWithoutRunning() throws Exception {
+        FakeDataSource fake = new FakeDataSource();
+        try (AsyncDataSource async = new AsyncDataSource(fake.dataSource, null, 1)) {
+            CompletableFuture<Integer> running = async.update("slow", 0);
+            assertTrue(fake.started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Integer> queued = async.update("fast", 50);
+            assertEquals(1, async.getQueuedCount());
+            ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+            running.cancel(true);
+            // 排队期间已超时的调用不再借用连接
+            assertEquals(1, async.update("fast", 0).get(5, TimeUnit.SECONDS));
+            assertEquals(2, fake.connections.get());
+            assertEquals(0, async.getQueuedCount());
+        }
+    }
+
+    @Test
+    public void testCloseRejectsQueuedCalls() throws Exception {
+        FakeDataSource fake = new FakeDataSource();
+        AsyncDataSource async = new AsyncDataSource(fake.dataSource, null, 1);
+        CompletableFuture<Integer> running = async.update("slow", 0);
+        assertTrue(fake.started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> queued = async.update("fast", 0);
+        async.close();
+        ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        running.cancel(true);
+        assertTrue(fake.cancelled.await(5, TimeUnit.SECONDS));
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.drizzlepal.jdbc.columnar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+
+public class ColumnarResultTest {
+
+    private static ColumnMetaData column(String name, int datatype) {
+        ColumnMetaData column = new ColumnMetaData();
+        column.setName(name);
+        column.setDatatype(datatype);
+        return column;
+    }
+
+    /**
+     * 只实现按列序号读取当前行的结果集
+     */
+    private static ResultSet cursor(Object[][] rows, int[] current) {
+        boolean[] wasNull = new boolean[1];
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("wasNull")) {
+                        return wasNull[0];
+                    }
+                    Object value = rows[current[0]][(Integer) args[0] - 1];
+                    wasNull[0] = value == null;
+                    switch (method.getName()) {
+                        case "getLong":
+                            return value == null ? 0L : ((Number) value).longValue();
+                        case "getDouble":
+                            return value == null ? 0D : ((Number) value).doubleValue();
+                        default:
+                            return value;
+                    }
+                });
+    }
+
+    private static ColumnarResult load(Object[][] rows) throws Exception {
+        List<ColumnMetaData> columns = new ArrayList<>();
+        columns.add(column("id", Types.INTEGER));
+        columns.add(column("score", Types.DOUBLE));
+        columns.add(column("city", Types.VARCHAR));
+        ColumnarResultBuilder builder = new ColumnarResultBuilder(columns, 2);
+        int[] current = new int[1];
+        ResultSet resultSet = cursor(rows, current);
+        for (current[0] = 0; current[0] < rows.length; current[0]++) {
+            builder.accept(resultSet);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void testTypedColumns() throws Exception {
+        ColumnarResult result = load(new Object[][] { { 1, 1.5D, "hz" }, { 2, null, "sh" }, { null, 3D, "hz" },
+                { 4, 4D, null }, { 5, 5D, "sh" } });
+        assertEquals(5, result.getRowCount());
+        LongColumnVector id = (LongColumnVector) result.getColumn("id");
+        assertEquals(2L, id.getLong(1));
+        assertTrue(id.isNull(2));
+        assertEquals(Integer.valueOf(5), id.getObject(4));
+        assertEquals(1, id.getNullCount());
+        StringColumnVector city = (StringColumnVector) result.getColumn(2);
+        assertEquals(2, city.getDictionarySize());
+        assertEquals(city.getCode(0), city.getCode(2));
+        assertEquals(-1, city.getCode(3));
+        assertNull(result.getColumn(1).getObject(1));
+    }
+
+    @Test
+    public void testSliceAndRowView() throws Exception {
+        ColumnarResult result = load(new Object[][] { { 1, 1D, "a" }, { 2, null, "b" }, { 3, 3D, "c" },
+                { 4, 4D, "d" } });
+        ColumnarResult slice = result.slice(1, 2);
+        assertEquals(2, slice.getRowCount());
+        long sum = 0;
+        int rows = 0;
+        for (ColumnarResult.RowView row : slice) {
+            sum += row.getLong("id");
+            rows++;
+        }
+        assertEquals(5L, sum);
+        assertEquals(2, rows);
+        assertTrue(slice.getColumn("score").isNull(0));
+        assertFalse(slice.getColumn("score").isNull(1));
+        assertEquals("b", slice.iterator().next().getString(2));
+        assertEquals(Integer.valueOf(3), slice.slice(1, 1).getColumn(0).getObject(0));
+    }
+
+    @Test
+    public void testNullBitmapCoversAllRows() throws Exception {
+        Object[][] rows = new Object[2000][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Object[] { i == 5 ? null : i, i == 1500 ? null : 1D, "a" };
+        }
+        ColumnarResult result = load(rows);
+        ColumnVector id = result.getColumn("id");
+        assertTrue(id.isNull(5));
+        assertFalse(id.isNull(1500));
+        assertFalse(id.isNull(1999));
+        assertEquals(1, id.getNullCount());
+        assertTrue(result.getColumn("score").isNull(1500));
+        assertEquals(1, result.getColumn("score").getNullCount());
+        assertEquals(0, result.getColumn("city").getNullCount());
+        assertEquals(Integer.valueOf(1999), result.slice(1024, 976).getColumn(0).getObject(975));
+    }
+
+    @Test
+    public void testUnsignedIntegers() throws Exception {
+        List<ColumnMetaData> columns = new ArrayList<>();
+        columns.add(column("tiny", Types.TINYINT));
+        columns.add(column("small", Types.SMALLINT));
+        columns.add(column("id", Types.INTEGER));
+        ColumnarResultBuilder builder = new ColumnarResultBuilder(columns, 1);
+        Object[][] rows = { { 255, 65535, 4294967295L }, { -1, -1, -1 } };
+        int[] current = new int[1];
+        ResultSet resultSet = cursor(rows, current);
+        for (current[0] = 0; current[0] < rows.length; current[0]++) {
+            builder.accept(resultSet);
+        }
+        ColumnarResult result = builder.build();
+        assertEquals(Integer.valueOf(255), result.getColumn(0).getObject(0));
+        assertEquals(Integer.valueOf(65535), result.getColumn(1).getObject(0));
+        assertEquals(Long.valueOf(4294967295L), result.getColumn(2).getObject(0));
+        assertEquals(Integer.valueOf(-1), result.getColumn(0).getObject(1));
+        assertEquals(Integer.valueOf(-1), result.getColumn(2).getObject(1));
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.drizzlepal.jdbc.diff;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.drizzlepal.jdbc.database.mysql.SqlBuilderMysql;
+import com.drizzlepal.jdbc.diff.ColumnChange.Attribute;
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.DatabaseMetaData;
+import com.drizzlepal.jdbc.metadata.IndexMetaData;
+import com.drizzlepal.jdbc.metadata.PrimaryKeyMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.jdbc.snapshot.MetaDataSnapshot;
+
+public class SchemaDifferTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static ColumnMetaData column(String name, int datatype, String typeName, Integer length, int position) {
+        ColumnMetaData column = new ColumnMetaData();
+        column.setName(name);
+        column.setDatatype(datatype);
+        column.setTypeName(typeName);
+        column.setLength(length);
+        column.setOrdinalPosition(position);
+        column.setNullable(1);
+        return column;
+    }
+
+    private static TableMetaData table(String name, ColumnMetaData... columns) {
+        TableMetaData table = new TableMetaData();
+        table.setDatabase("test");
+        table.setName(name);
+        table.setColumns(new ArrayList<>(Arrays.asList(columns)));
+        table.setPrimaryKeys(new ArrayList<>());
+        table.setIndexes(new HashMap<>());
+        PrimaryKeyMetaData primaryKey = new PrimaryKeyMetaData();
+        primaryKey.setColumnName("id");
+        primaryKey.setKeySeq(1);
+        primaryKey.setPkName("PRIMARY");
+        table.getPrimaryKeys().add(primaryKey);
+        index(table, "PRIMARY", false, "id");
+        return table;
+    }
+
+    private static void index(TableMetaData table, String name, boolean nonUnique, String... columns) {
+        ArrayList<IndexMetaData> index = new ArrayList<>();
+        for (int i = 0; i < columns.length; i++) {
+            IndexMetaData column = new IndexMetaData();
+            column.setIndexName(name);
+            column.setNonUnique(nonUnique);
+            column.setColumnName(columns[i]);
+            column.setOrdinalPosition(i + 1);
+            index.add(column);
+        }
+        table.getIndexes().put(name, index);
+    }
+
+    private static DatabaseMetaData database(TableMetaData... tables) {
+        DatabaseMetaData database = new DatabaseMetaData();
+        database.setName("test");
+        database.setTables(new ArrayList<>(Arrays.asList(tables)));
+        return database;
+    }
+
+    private static DatabaseMetaData source() {
+        TableMetaData goods = table("goods", column("id", Types.BIGINT, "BIGINT", 19, 1),
+                column("name", Types.VARCHAR, "VARCHAR", 32, 2), column("legacy", Types.INTEGER, "INT", 10, 3));
+        index(goods, "idx_name", true, "name");
+        index(goods, "idx_legacy", true, "legacy");
+        return database(goods, table("unused", column("id", Types.BIGINT, "BIGINT", 19, 1)));
+    }
+
+    private static DatabaseMetaData target() {
+        ColumnMetaData name = column("NAME", Types.VARCHAR, "varchar", 64, 2);
+        name.setDefaultValue("none");
+        TableMetaData goods = table("GOODS", column("id", Types.BIGINT, "BIGINT", 20, 1), name,
+                column("price", Types.DECIMAL, "DECIMAL", 10, 3));
+        goods.getColumns().get(2).setDecimalDigits(2);
+        index(goods, "idx_name", false, "name", "id");
+        index(goods, "idx_price", true, "price");
+        return database(goods, table("orders", column("id", Types.BIGINT, "BIGINT", 19, 1)));
+    }
+
+    @Test
+    public void testDiff() {
+        SchemaDiff diff = new SchemaDiffer().diff(source(), target());
+        assertEquals("orders", diff.getAddedTables().get(0).getName());
+        assertEquals("unused", diff.getDroppedTables().get(0).getName());
+        assertEquals(1, diff.getChangedTables().size());
+        TableDiff goods = diff.getChangedTables().get(0);
+        assertEquals("price", goods.getAddedColumns().get(0).getName());
+        assertEquals("legacy", goods.getDroppedColumns().get(0).getName());
+        // BIGINT 的长度不参与比较，类型名不区分大小写
+        assertEquals(1, goods.getChangedColumns().size());
+        assertEquals(EnumSet.of(Attribute.LENGTH, Attribute.DEFAULT), goods.getChangedColumns().get(0).getAttributes());
+        assertEquals("idx_name", goods.getChangedIndexes().get(0).getTarget().getName());
+        assertEquals("idx_price", goods.getAddedIndexes().get(0).getName());
+        assertEquals("idx_legacy", goods.getDroppedIndexes().get(0).getName());
+        assertFalse(goods.isPrimaryKeyChanged());
+
+        assertEquals(Arrays.asList("DROP INDEX `idx_legacy` ON `test`.`goods`",
+                "DROP INDEX `idx_name` ON `test`.`goods`",
+                "ALTER TABLE `test`.`goods` DROP COLUMN `legacy`",
+                "ALTER TABLE `test`.`goods` ADD COLUMN `price` DECIMAL(10,2)",
+                "ALTER TABLE `test`.`goods` MODIFY COLUMN `NAME` varchar(64) DEFAULT 'none'",
+                "CREATE UNIQUE INDEX `idx_name` ON `test`.`goods` (`name`, `id`)",
+                "CREATE INDEX `idx_price` ON `test`.`goods` (`price`)",
+                "CREATE TABLE `test`.`orders` (`id` BIGINT, PRIMARY KEY (`id`))",
+                "DROP TABLE `test`.`unused`"), diff.migration(new SqlBuilderMysql(), true));
+        assertEquals(7, diff.migration(new SqlBuilderMysql(), false).size());
+    }
+
+    @Test
+    public void testDiffSnapshots() throws IOException {
+        Path source = tempDir.resolve("source.snapshot");
+        Path target = tempDir.resolve("target.snapshot");
+        new MetaDataSnapshot(source(), null, 1L).writeTo(source);
+        new MetaDataSnapshot(target(), null, 2L).writeTo(target);
+        SchemaDiff diff = new SchemaDiffer().diff(source, target);
+        assertEquals(1, diff.getAddedTables().size());
+        assertEquals(1, diff.getDroppedTables().size());
+        assertEquals(1, diff.getChangedTables().size());
+        assertTrue(new SchemaDiffer().diff(source, source).isEmpty());
+    }
+
+}
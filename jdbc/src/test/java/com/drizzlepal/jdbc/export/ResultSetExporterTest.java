@@ -0,0 +1,114 @@
+package com.drizzlepal.jdbc.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+
+public class ResultSetExporterTest {
+
+    private static ColumnMetaData column(String name, int datatype) {
+        ColumnMetaData column = new ColumnMetaData();
+        column.setName(name);
+        column.setDatatype(datatype);
+        return column;
+    }
+
+    private static List<ColumnMetaData> columns() {
+        List<ColumnMetaData> columns = new ArrayList<>();
+        columns.add(column("id", Types.BIGINT));
+        columns.add(column("name", Types.VARCHAR));
+        columns.add(column("amount", Types.DECIMAL));
+        columns.add(column("created_at", Types.TIMESTAMP));
+        return columns;
+    }
+
+    /**
+     * 只实现按列序号读取当前行的结果集
+     */
+    private static ResultSet cursor(Object[][] rows, int[] current) {
+        boolean[] wasNull = new boolean[1];
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("wasNull")) {
+                        return wasNull[0];
+                    }
+                    Object value = rows[current[0]][(Integer) args[0] - 1];
+                    wasNull[0] = value == null;
+                    if (method.getName().equals("getLong")) {
+                        return value == null ? 0L : ((Number) value).longValue();
+                    }
+                    return value;
+                });
+    }
+
+    private static void write(ResultSetExporter exporter, Object[][] rows) throws Exception {
+        int[] current = new int[1];
+        ResultSet resultSet = cursor(rows, current);
+        for (current[0] = 0; current[0] < rows.length; current[0]++) {
+            exporter.accept(resultSet);
+        }
+        exporter.close();
+    }
+
+    private static final Object[][] ROWS = { { 1L, "plain", new BigDecimal("12.50"), null },
+            { -42L, "a,\"quoted\"\n值", new BigDecimal("7"), Timestamp.valueOf("2024-03-05 08:09:10.12") },
+            { null, null, null, Timestamp.valueOf("1999-12-31 23:59:59") } };
+
+    @Test
+    public void testCsv() throws Exception {
+        Path file = Files.createTempFile("export", ".csv");
+        try {
+            write(new ResultSetExporter(file, new ExportOptions(), columns()), ROWS);
+            String expected = "id,name,amount,created_at\n"
+                    + "1,plain,12.50,\n"
+                    + "-42,\"a,\"\"quoted\"\"\n值\",7,2024-03-05 08:09:10.12\n"
+                    + ",,,1999-12-31 23:59:59\n";
+            assertEquals(expected, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testGzipJsonLines() throws Exception {
+        Path file = Files.createTempFile("export", ".jsonl.gz");
+        try {
+            ExportOptions options = new ExportOptions();
+            options.setFormat(ExportFormat.JSON_LINES);
+            options.setCompression(ExportCompression.GZIP);
+            options.setBufferBytes(64);
+            write(new ResultSetExporter(file, options, columns()), ROWS);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                byte[] chunk = new byte[256];
+                for (int read; (read = in.read(chunk)) > 0;) {
+                    bytes.write(chunk, 0, read);
+                }
+            }
+            String expected = "{\"id\":1,\"name\":\"plain\",\"amount\":12.50,\"created_at\":null}\n"
+                    + "{\"id\":-42,\"name\":\"a,\\\"quoted\\\"\\n值\",\"amount\":7,"
+                    + "\"created_at\":\"2024-03-05 08:09:10.12\"}\n"
+                    + "{\"id\":null,\"name\":null,\"amount\":null,\"created_at\":\"1999-12-31 23:59:59\"}\n";
+            assertEquals(expected, new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.drizzlepal.jdbc.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.drizzlepal.jdbc.DataSource;
+import com.drizzlepal.jdbc.database.mysql.SqlBuilderMysql;
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.PrimaryKeyMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+import com.drizzlepal.utils.functions.ConsumerThrowable;
+
+public class TableExporterTest {
+
+    private static final Object[][] ROWS = { { 1L, "a" }, { 2L, "b" }, { 3L, "c" }, { 4L, "d" } };
+
+    private static TableMetaData table() {
+        ColumnMetaData id = new ColumnMetaData();
+        id.setName("id");
+        id.setDatatype(Types.BIGINT);
+        id.setTypeName("BIGINT");
+        ColumnMetaData name = new ColumnMetaData();
+        name.setName("name");
+        name.setDatatype(Types.VARCHAR);
+        PrimaryKeyMetaData primaryKey = new PrimaryKeyMetaData();
+        primaryKey.setColumnName("id");
+        primaryKey.setKeySeq(1);
+        TableMetaData table = new TableMetaData();
+        table.setName("goods");
+        table.setColumns(new ArrayList<>(Arrays.asList(id, name)));
+        table.setPrimaryKeys(new ArrayList<>(Arrays.asList(primaryKey)));
+        return table;
+    }
+
+    /**
+     * 只实现按列序号读取当前行的结果集
+     */
+    private static ResultSet cursor(Object[][] rows, int[] current) {
+        boolean[] wasNull = new boolean[1];
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next":
+                            return ++current[0] < rows.length;
+                        case "wasNull":
+                            return wasNull[0];
+                        case "close":
+                            return null;
+                        default:
+                            Object value = rows[current[0]][(Integer) args[0] - 1];
+                            wasNull[0] = value == null;
+                            if (method.getName().equals("getLong")) {
+                                return value == null ? 0L : ((Number) value).longValue();
+                            }
+                            return value;
+                    }
+                });
+    }
+
+    /**
+     * 主键最小值与最大值由 getConnection 的语句返回，区间查询在内存中按 (lower, upper] 过滤
+     */
+    @SuppressWarnings("unchecked")
+    private static DataSource dataSource() {
+        Statement statement = (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                new Class<?>[] { Statement.class }, (proxy, method, args) -> method.getName().equals("executeQuery")
+                        ? cursor(new Object[][] { { 1L, 4L } }, new int[] { -1 })
+                        : null);
+        Connection connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> method.getName().equals("createStatement") ? statement : null);
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[] { DataSource.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getSqlBuilder":
+                            return new SqlBuilderMysql();
+                        case "getConnection":
+                            return connection;
+                        case "query":
+                            String sql = (String) args[0];
+                            Object[] params = (Object[]) args[2];
+                            int next = 0;
+                            Long lower = sql.contains(" > ?") ? (Long) params[next++] : null;
+                            Long upper = sql.contains(" <= ?") ? (Long) params[next] : null;
+                            List<Object[]> rows = new ArrayList<>();
+                            for (Object[] row : ROWS) {
+                                long id = (Long) row[0];
+                                if ((lower == null || id > lower) && (upper == null || id <= upper)) {
+                                    rows.add(row);
+                                }
+                            }
+                            int[] current = new int[1];
+                            ResultSet resultSet = cursor(rows.toArray(new Object[0][]), current);
+                            for (current[0] = 0; current[0] < rows.size(); current[0]++) {
+                                ((ConsumerThrowable<ResultSet>) args[1]).accept(resultSet);
+                            }
+                            return (long) rows.size();
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    @Test
+    public void testHeaderOnlyInFirstFile() throws Exception {
+        Path directory = Files.createTempDirectory("export");
+        ExportOptions options = new ExportOptions();
+        options.setFiles(2);
+        options.setParallelism(2);
+        List<Path> files = new TableExporter(dataSource(), options).export(table(), directory);
+        try {
+            assertEquals(3, files.size());
+            StringBuilder joined = new StringBuilder();
+            for (Path file : files) {
+                joined.append(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            }
+            assertEquals("id,name\n1,a\n2,b\n", new String(Files.readAllBytes(files.get(0)), StandardCharsets.UTF_8));
+            assertEquals("3,c\n4,d\n", new String(Files.readAllBytes(files.get(1)), StandardCharsets.UTF_8));
+            assertEquals("id,name\n1,a\n2,b\n3,c\n4,d\n", joined.toString());
+            assertTrue(options.isHeader());
+        } finally {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.drizzlepal.jdbc.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.utils.functions.FunctionThrowable;
+
+public class RowMapperFactoryTest {
+
+    public static class User {
+
+        private long id;
+
+        private String userName;
+
+        private Integer age;
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public void setUserName(String userName) {
+            this.userName = userName;
+        }
+
+        public void setAge(Integer age) {
+            this.age = age;
+        }
+
+    }
+
+    public static class Point {
+
+        private final int x;
+
+        private final double y;
+
+        public Point(int x, double y) {
+            this.x = x;
+            this.y = y;
+        }
+
+    }
+
+    private static List<ColumnMetaData> columns(Object... nameAndTypes) {
+        List<ColumnMetaData> columns = new ArrayList<>();
+        for (int i = 0; i < nameAndTypes.length; i += 2) {
+            ColumnMetaData column = new ColumnMetaData();
+            column.setName((String) nameAndTypes[i]);
+            column.setDatatype((Integer) nameAndTypes[i + 1]);
+            column.setOrdinalPosition(i / 2 + 1);
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    /**
+     * 只实现按列序号读取的结果集
+     */
+    private static ResultSet row(Object... values) {
+        boolean[] wasNull = new boolean[1];
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("wasNull")) {
+                        return wasNull[0];
+                    }
+                    Object value = values[(Integer) args[0] - 1];
+                    wasNull[0] = value == null;
+                    switch (method.getName()) {
+                        case "getLong":
+                            return value == null ? 0L : ((Number) value).longValue();
+                        case "getInt":
+                            return value == null ? 0 : ((Number) value).intValue();
+                        case "getDouble":
+                            return value == null ? 0D : ((Number) value).doubleValue();
+                        default:
+                            return value;
+                    }
+                });
+    }
+
+    @Test
+    public void testSetterBinding() throws Throwable {
+        FunctionThrowable<ResultSet, User> mapper = RowMapperFactory.bind(
+                columns("ID", Types.BIGINT, "user_name", Types.VARCHAR, "AGE", Types.INTEGER, "extra", Types.VARCHAR),
+                User.class);
+        User user = mapper.apply(row(7L, "alice", null, "ignored"));
+        assertEquals(7L, user.id);
+        assertEquals("alice", user.userName);
+        assertNull(user.age);
+        assertEquals(Integer.valueOf(30), mapper.apply(row(8L, "bob", 30, null)).age);
+    }
+
+    @Test
+    public void testConstructorAndScalarBinding() throws Throwable {
+        Point point = RowMapperFactory.bind(columns("x", Types.INTEGER, "y", Types.DOUBLE), Point.class)
+                .apply(row(3, 1.5D));
+        assertEquals(3, point.x);
+        assertEquals(1.5D, point.y);
+        Long count = RowMapperFactory.bind(columns("count(*)", Types.BIGINT), Long.class).apply(row(42L));
+        assertEquals(Long.valueOf(42L), count);
+    }
+
+}
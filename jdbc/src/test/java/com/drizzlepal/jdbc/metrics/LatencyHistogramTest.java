@@ -0,0 +1,39 @@
+package com.drizzlepal.jdbc.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBuckets() {
+        for (long micros : new long[] { 0, 1, 127, 128, 129, 255, 256, 1000, 123456789, (1L << 32) - 1 }) {
+            int index = LatencyHistogram.bucketIndex(micros);
+            long upper = LatencyHistogram.highestEquivalentValue(index);
+            assertTrue(upper >= micros, "upper bound of " + micros);
+            assertTrue(upper - micros <= micros / 64, "precision of " + micros);
+            assertTrue(index < LatencyHistogram.BUCKETS);
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketIndex((1L << 32) - 1));
+    }
+
+    @Test
+    public void testPercentileAndMerge() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            a.record(i * 1000L);
+            b.record(i * 1_000_000L);
+        }
+        assertEquals(50, a.getPercentileMicros(50));
+        assertEquals(100, a.getPercentileMicros(100));
+        a.merge(b);
+        assertEquals(200, a.getCount());
+        assertEquals(100_000, a.getMaxMicros());
+        long p75 = a.getPercentileMicros(75);
+        assertTrue(p75 >= 50_000 && p75 <= 50_000 + 50_000 / 64, String.valueOf(p75));
+    }
+
+}
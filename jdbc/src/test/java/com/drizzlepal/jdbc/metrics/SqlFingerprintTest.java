@@ -0,0 +1,17 @@
+package com.drizzlepal.jdbc.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class SqlFingerprintTest {
+
+    @Test
+    public void testCompute() {
+        assertEquals("SELECT * FROM `t` WHERE id IN (?+) AND name = ? AND c1 > ?",
+                SqlFingerprint.compute("SELECT  *\n FROM `t` WHERE id IN (1, 2,3) AND name = 'a''b' AND c1 > 10.5"));
+        assertEquals("INSERT INTO [t] ([a], [b]) VALUES (?+)",
+                SqlFingerprint.compute("INSERT INTO [t] ([a], [b]) VALUES (?, ?), (?, ?) /* batch */"));
+    }
+
+}
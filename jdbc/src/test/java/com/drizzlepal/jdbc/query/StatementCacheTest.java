@@ -0,0 +1,127 @@
+package com.drizzlepal.jdbc.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class StatementCacheTest {
+
+    /**
+     * 只记录语句是否关闭的连接，解包时返回 physical
+     */
+    private static Connection connection(Connection physical, Set<PreparedStatement> closed, String[] catalog) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isWrapperFor":
+                            return physical != null;
+                        case "unwrap":
+                            return physical;
+                        case "getCatalog":
+                            return catalog[0];
+                        case "isClosed":
+                            return false;
+                        case "prepareStatement":
+                            return statement(closed);
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private static PreparedStatement statement(Set<PreparedStatement> closed) {
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            closed.add((PreparedStatement) proxy);
+                            return null;
+                        case "isClosed":
+                            return closed.contains(proxy);
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    @Test
+    public void testReuseAndEviction() throws Exception {
+        Set<PreparedStatement> closed = new HashSet<>();
+        String[] catalog = { "test" };
+        Connection physical = connection(null, closed, catalog);
+        try (StatementCache cache = new StatementCache(2)) {
+            PreparedStatement first = cache.prepare(connection(physical, closed, catalog), "a");
+            cache.release(first);
+            // 再次借到同一物理连接时复用
+            assertSame(first, cache.prepare(connection(physical, closed, catalog), "a"));
+            PreparedStatement second = cache.prepare(physical, "b");
+            cache.prepare(physical, "a");
+            cache.prepare(physical, "c");
+            assertTrue(closed.contains(second));
+            assertFalse(closed.contains(first));
+            assertEquals(2, cache.size());
+            catalog[0] = "other";
+            assertNotSame(first, cache.prepare(physical, "a"));
+            cache.evict(physical, "a");
+            assertEquals(1, cache.size());
+        }
+        assertEquals(4, closed.size());
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        Set<PreparedStatement> closed = new HashSet<>();
+        Connection connection = connection(null, closed, new String[1]);
+        try (StatementCache cache = new StatementCache(0)) {
+            PreparedStatement statement = cache.prepare(connection, "a");
+            assertNotSame(statement, cache.prepare(connection, "a"));
+            cache.release(statement);
+            assertTrue(closed.contains(statement));
+            assertEquals(0, cache.size());
+        }
+    }
+
+    @Test
+    public void testPurgeClosedConnections() throws Exception {
+        Set<PreparedStatement> closed = new HashSet<>();
+        boolean[] physicalClosed = new boolean[1];
+        Connection physical = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isWrapperFor":
+                            return false;
+                        case "isClosed":
+                            return physicalClosed[0];
+                        case "prepareStatement":
+                            return statement(closed);
+                        default:
+                            return null;
+                    }
+                });
+        Connection stable = connection(null, closed, new String[1]);
+        try (StatementCache cache = new StatementCache(2, 0)) {
+            cache.prepare(physical, "a");
+            cache.prepare(stable, "a");
+            assertEquals(2, cache.size());
+            // 连接池不再新建连接时，已关闭连接的缓存也会被清理
+            physicalClosed[0] = true;
+            cache.prepare(stable, "a");
+            assertEquals(1, cache.size());
+        }
+    }
+
+}
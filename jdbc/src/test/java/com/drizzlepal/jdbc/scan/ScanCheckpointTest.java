@@ -0,0 +1,37 @@
+package com.drizzlepal.jdbc.scan;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ScanCheckpointTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Timestamp timestamp = Timestamp.valueOf("2024-01-02 03:04:05.123456789");
+        Object[] lastKey = new Object[] { 42L, "键", new BigDecimal("1.50"), timestamp,
+                LocalDateTime.of(2024, 1, 2, 3, 4, 5), null };
+        Path file = tempDir.resolve("scan.checkpoint");
+        new ScanCheckpoint("test.goods", Arrays.asList("a", "b", "c", "d", "e", "f"), lastKey, 1000, 10)
+                .writeTo(file);
+        ScanCheckpoint checkpoint = ScanCheckpoint.readFrom(file);
+        assertEquals("test.goods", checkpoint.getTable());
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e", "f"), checkpoint.getKeyColumns());
+        assertEquals(1000L, checkpoint.getRows());
+        assertEquals(10L, checkpoint.getPages());
+        assertArrayEquals(lastKey, checkpoint.getLastKey());
+    }
+
+}
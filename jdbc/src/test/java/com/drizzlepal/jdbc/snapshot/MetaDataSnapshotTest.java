@@ -0,0 +1,116 @@
+package com.drizzlepal.jdbc.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.DatabaseMetaData;
+import com.drizzlepal.jdbc.metadata.IndexMetaData;
+import com.drizzlepal.jdbc.metadata.PrimaryKeyMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+
+public class MetaDataSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        ColumnMetaData id = new ColumnMetaData();
+        id.setName("id");
+        id.setDatatype(-5);
+        id.setTypeName("BIGINT");
+        id.setLength(19);
+        id.setOrdinalPosition(1);
+        id.setNullable(0);
+        id.setDecimalDigits(0);
+        ColumnMetaData name = new ColumnMetaData();
+        name.setName("name");
+        name.setRemarks("名称");
+        name.setDatatype(12);
+        name.setTypeName("VARCHAR");
+        name.setLength(64);
+        name.setOrdinalPosition(2);
+        name.setNullable(1);
+        PrimaryKeyMetaData primaryKey = new PrimaryKeyMetaData();
+        primaryKey.setColumnName("id");
+        primaryKey.setKeySeq(1);
+        primaryKey.setPkName("PRIMARY");
+        IndexMetaData index = new IndexMetaData();
+        index.setIndexName("idx_name");
+        index.setNonUnique(true);
+        index.setColumnName("name");
+        index.setOrdinalPosition(1);
+        index.setAscOrDesc("A");
+        index.setType("3");
+        TableMetaData table = new TableMetaData();
+        table.setDatabase("test");
+        table.setName("user");
+        table.setRemarks("用户");
+        table.setColumns(new ArrayList<>());
+        table.getColumns().add(id);
+        table.getColumns().add(name);
+        table.setPrimaryKeys(new ArrayList<>());
+        table.getPrimaryKeys().add(primaryKey);
+        table.setIndexes(new HashMap<>());
+        table.getIndexes().put("idx_name", new ArrayList<>());
+        table.getIndexes().get("idx_name").add(index);
+        TableMetaData empty = new TableMetaData();
+        empty.setDatabase("test");
+        empty.setName("empty");
+        DatabaseMetaData databaseMetaData = new DatabaseMetaData();
+        databaseMetaData.setName("test");
+        databaseMetaData.setTables(new ArrayList<>());
+        databaseMetaData.getTables().add(table);
+        databaseMetaData.getTables().add(empty);
+        HashMap<String, String> versions = new HashMap<>();
+        versions.put("user", "2024-01-01 00:00:00.0/null");
+
+        Path file = tempDir.resolve("snapshot").resolve("test.snapshot");
+        new MetaDataSnapshot(databaseMetaData, versions, 42L).writeTo(file);
+        MetaDataSnapshot snapshot = MetaDataSnapshot.readFrom(file);
+
+        assertEquals(42L, snapshot.getCreatedAt());
+        assertEquals(versions, snapshot.getTableVersions());
+        assertEquals("test", snapshot.getDatabaseMetaData().getName());
+        assertNull(snapshot.getDatabaseMetaData().getSchema());
+        assertEquals(2, snapshot.getDatabaseMetaData().getTables().size());
+        TableMetaData readTable = snapshot.getDatabaseMetaData().getTables().get(0);
+        assertEquals("user", readTable.getName());
+        assertEquals("用户", readTable.getRemarks());
+        assertEquals(2, readTable.getColumns().size());
+        assertEquals("id", readTable.getColumns().get(0).getName());
+        assertEquals(-5, readTable.getColumns().get(0).getDatatype());
+        assertEquals(Integer.valueOf(19), readTable.getColumns().get(0).getLength());
+        assertEquals("名称", readTable.getColumns().get(1).getRemarks());
+        assertNull(readTable.getColumns().get(1).getDecimalDigits());
+        assertEquals("id", readTable.getPrimaryKeys().get(0).getColumnName());
+        assertEquals("PRIMARY", readTable.getPrimaryKeys().get(0).getPkName());
+        IndexMetaData readIndex = readTable.getIndexes().get("idx_name").get(0);
+        assertEquals(Boolean.TRUE, readIndex.getNonUnique());
+        assertEquals("name", readIndex.getColumnName());
+        assertEquals("3", readIndex.getType());
+        TableMetaData readEmpty = snapshot.getDatabaseMetaData().getTables().get(1);
+        assertNull(readEmpty.getColumns());
+        assertNull(readEmpty.getPrimaryKeys());
+        assertNull(readEmpty.getIndexes());
+    }
+
+    @Test
+    public void testReadInvalidFile() throws IOException {
+        Path file = tempDir.resolve("invalid.snapshot");
+        Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+        assertThrows(IOException.class, () -> MetaDataSnapshot.readFrom(file));
+    }
+
+}
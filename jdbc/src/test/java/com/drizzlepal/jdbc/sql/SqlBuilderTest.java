@@ -0,0 +1,219 @@
+package com.drizzlepal.jdbc.sql;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.drizzlepal.jdbc.database.kingbase.mode.mysql.SqlBuilderKingbaseMysqlMode;
+import com.drizzlepal.jdbc.database.mysql.SqlBuilderMysql;
+import com.drizzlepal.jdbc.database.postgresql.SqlBuilderPostgresql;
+import com.drizzlepal.jdbc.database.sqlserver.SqlBuilderSqlServer;
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.PrimaryKeyMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+
+public class SqlBuilderTest {
+
+    private static TableMetaData table() {
+        ColumnMetaData id = new ColumnMetaData();
+        id.setName("id");
+        id.setDatatype(-5);
+        id.setTypeName("BIGINT");
+        id.setOrdinalPosition(1);
+        id.setNullable(0);
+        ColumnMetaData name = new ColumnMetaData();
+        name.setName("name");
+        name.setRemarks("名称");
+        name.setDatatype(12);
+        name.setTypeName("VARCHAR");
+        name.setLength(64);
+        name.setOrdinalPosition(2);
+        name.setNullable(1);
+        name.setDefaultValue("it's");
+        ColumnMetaData price = new ColumnMetaData();
+        price.setName("price");
+        price.setDatatype(3);
+        price.setTypeName("DECIMAL");
+        price.setLength(10);
+        price.setDecimalDigits(2);
+        price.setOrdinalPosition(3);
+        price.setNullable(1);
+        PrimaryKeyMetaData primaryKey = new PrimaryKeyMetaData();
+        primaryKey.setColumnName("id");
+        primaryKey.setKeySeq(1);
+        TableMetaData table = new TableMetaData();
+        table.setDatabase("test");
+        table.setName("goods");
+        table.setColumns(new ArrayList<>(Arrays.asList(id, name, price)));
+        table.setPrimaryKeys(new ArrayList<>(Arrays.asList(primaryKey)));
+        return table;
+    }
+
+    @Test
+    public void testMysql() {
+        SqlBuilder builder = new SqlBuilderMysql();
+        TableMetaData table = table();
+        assertEquals("CREATE TABLE `test`.`goods` (`id` BIGINT NOT NULL,"
+                + " `name` VARCHAR(64) DEFAULT 'it''s' COMMENT '名称', `price` DECIMAL(10,2), PRIMARY KEY (`id`))",
+                builder.CreateTable(table));
+        assertEquals("INSERT INTO `test`.`goods` (`id`, `name`, `price`) VALUES (?, ?, ?), (?, ?, ?)",
+                builder.Insert(table, null, 2));
+        assertEquals("UPDATE `test`.`goods` SET `name` = ?, `price` = ? WHERE `id` = ?", builder.Update(table));
+        assertEquals("DELETE FROM `test`.`goods` WHERE `id` = ?", builder.Delete(table));
+        assertEquals("SELECT `id`, `name` FROM `test`.`goods` WHERE `price` = ? AND `id` = ?",
+                builder.Select(table, Arrays.asList("id", "name"), Arrays.asList("price", "id")));
+        assertEquals("TRUNCATE TABLE `test`.`goods`", builder.TruncateTable(table));
+        assertEquals("SELECT `id`, `name`, `price` FROM `test`.`goods` ORDER BY `id` LIMIT 10",
+                builder.SelectPage(table, Arrays.asList("id"), false, 10));
+        assertSame(builder.Insert(table), builder.Insert(table()));
+        assertEquals("((`a` > ?) OR (`a` = ? AND `b` > ?))", builder.KeyGreaterThan(Arrays.asList("a", "b")));
+        assertEquals("((`a` < ?) OR (`a` = ? AND `b` <= ?))", builder.KeyAtMost(Arrays.asList("a", "b")));
+        assertArrayEquals(new Object[] { 1, 1, 2 }, SqlBuilder.keyParameters(new Object[] { 1, 2 }));
+    }
+
+    @Test
+    public void testSqlServer() {
+        SqlBuilder builder = new SqlBuilderSqlServer();
+        TableMetaData table = table();
+        table.getColumns().get(1).setLength(-1);
+        table.getColumns().get(1).setDefaultValue("('x')");
+        assertEquals("CREATE TABLE [test]..[goods] ([id] BIGINT NOT NULL, [name] VARCHAR(MAX) DEFAULT ('x'),"
+                + " [price] DECIMAL(10,2), PRIMARY KEY ([id]))", builder.CreateTable(table));
+        assertEquals("SELECT [id], [name], [price] FROM [test]..[goods]", builder.Select(table));
+        assertEquals("[a]]b]", builder.escape("a]b"));
+        assertEquals("SELECT [id], [name], [price] FROM [test]..[goods] WHERE (([id] > ?)) ORDER BY [id]"
+                + " OFFSET 0 ROWS FETCH NEXT 100 ROWS ONLY",
+                builder.SelectPage(table, Arrays.asList("id"), true, 100));
+        TableMetaData sales = table();
+        sales.setSchema("sales");
+        assertEquals("SELECT [id], [name], [price] FROM [test].[sales].[goods]", builder.Select(sales));
+        assertEquals("DELETE FROM [test].[sales].[goods] WHERE [id] = ?", builder.Delete(sales));
+        sales.setDatabase(null);
+        assertEquals("TRUNCATE TABLE [sales].[goods]", builder.TruncateTable(sales));
+    }
+
+    @Test
+    public void testPostgresql() {
+        SqlBuilder builder = new SqlBuilderPostgresql();
+        TableMetaData table = table();
+        table.getColumns().get(1).setDefaultValue(null);
+        assertEquals("CREATE TABLE \"goods\" (\"id\" BIGINT NOT NULL, \"name\" VARCHAR(64),"
+                + " \"price\" DECIMAL(10,2), PRIMARY KEY (\"id\"))", builder.CreateTable(table));
+        assertEquals("INSERT INTO \"goods\" (\"id\", \"name\", \"price\") VALUES (?, ?, ?)"
+                + " ON CONFLICT (\"id\") DO UPDATE SET \"name\" = EXCLUDED.\"name\", \"price\" = EXCLUDED.\"price\"",
+                builder.Upsert(table, Arrays.asList("id"), 1));
+        assertEquals("COPY \"goods\" (\"id\", \"name\", \"price\") FROM STDIN", builder.CopyIn(table));
+        assertEquals("ALTER TABLE \"goods\" DROP CONSTRAINT \"goods_pkey\"", builder.DropPrimaryKey(table, null));
+        assertEquals("COUNT(*), CAST(COALESCE(SUM(('x' || substr(md5(concat_ws('#', \"id\", \"name\","
+                + " concat((\"id\" IS NULL)::int, (\"name\" IS NULL)::int))), 1, 16))::bit(64)::bigint)"
+                + " % 9223372036854775807, 0) AS BIGINT)", builder.ChunkChecksum(Arrays.asList("id", "name")));
+        ColumnMetaData hits = new ColumnMetaData();
+        hits.setName("hits");
+        hits.setDatatype(-5);
+        hits.setTypeName("BIGINT UNSIGNED");
+        hits.setOrdinalPosition(4);
+        hits.setNullable(1);
+        table.getColumns().add(hits);
+        assertEquals("CREATE TABLE `goods` (`id` BIGINT NOT NULL, `name` VARCHAR(64), `price` NUMERIC(10,2),"
+                + " `hits` NUMERIC(20,0), PRIMARY KEY (`id`))",
+                new SqlBuilderKingbaseMysqlMode().CreateTable(builder.TranslateTable(table)));
+        assertEquals("COPY \"goods\" (\"id\", \"name\", \"price\", \"hits\") FROM STDIN",
+                new SqlBuilderKingbaseMysqlMode().CopyIn(table));
+        assertThrows(UnsupportedOperationException.class, () -> new SqlBuilderMysql().CopyIn(table));
+    }
+
+    @Test
+    public void testDeleteWithoutPrimaryKey() {
+        TableMetaData table = table();
+        table.setPrimaryKeys(null);
+        assertThrows(IllegalArgumentException.class, () -> new SqlBuilderMysql().Delete(table));
+    }
+
+    @Test
+    public void testTranslateTable() {
+        TableMetaData source = table();
+        ColumnMetaData content = new ColumnMetaData();
+        content.setName("content");
+        content.setDatatype(-1);
+        content.setTypeName("LONGTEXT");
+        content.setOrdinalPosition(4);
+        content.setNullable(1);
+        ColumnMetaData hits = new ColumnMetaData();
+        hits.setName("hits");
+        hits.setDatatype(-5);
+        hits.setTypeName("BIGINT UNSIGNED");
+        hits.setOrdinalPosition(5);
+        hits.setNullable(1);
+        source.getColumns().add(content);
+        source.getColumns().add(hits);
+        TableMetaData translated = new SqlBuilderSqlServer().TranslateTable(source);
+        assertEquals("CREATE TABLE [test]..[goods] ([id] BIGINT NOT NULL, [name] NVARCHAR(64), [price] DECIMAL(10,2),"
+                + " [content] NVARCHAR(MAX), [hits] DECIMAL(20,0), PRIMARY KEY ([id]))",
+                new SqlBuilderSqlServer().CreateTable(translated));
+        assertEquals("VARCHAR", source.getColumns().get(1).getTypeName());
+        assertEquals("CREATE TABLE `test`.`goods` (`id` BIGINT NOT NULL, `name` VARCHAR(64) COMMENT '名称',"
+                + " `price` DECIMAL(10,2), `content` LONGTEXT, `hits` DECIMAL(20,0), PRIMARY KEY (`id`))",
+                new SqlBuilderMysql().CreateTable(new SqlBuilderMysql().TranslateTable(translated)));
+    }
+
+    @Test
+    public void testChecksum() {
+        assertEquals("COUNT(*), COALESCE(BIT_XOR(CRC32(CONCAT_WS('#', `id`, `name`,"
+                + " CONCAT(ISNULL(`id`), ISNULL(`name`))))), 0)",
+                new SqlBuilderMysql().ChunkChecksum(Arrays.asList("id", "name")));
+        assertEquals("COUNT_BIG(*), COALESCE(CHECKSUM_AGG(BINARY_CHECKSUM([id], [name])), 0)",
+                new SqlBuilderSqlServer().ChunkChecksum(Arrays.asList("id", "name")));
+        assertEquals("LIMIT 1 OFFSET 10", new SqlBuilderMysql().Limit(1, 10));
+        assertEquals("OFFSET 10 ROWS FETCH NEXT 1 ROWS ONLY", new SqlBuilderSqlServer().Limit(1, 10));
+    }
+
+    @Test
+    public void testUpsert() {
+        TableMetaData table = table();
+        assertEquals("INSERT INTO `test`.`goods` (`id`, `name`, `price`) VALUES (?, ?, ?), (?, ?, ?)"
+                + " ON DUPLICATE KEY UPDATE `name` = VALUES(`name`), `price` = VALUES(`price`)",
+                new SqlBuilderMysql().Upsert(table, Arrays.asList("id"), 2));
+        TableMetaData staging = new TableMetaData();
+        staging.setName("#stage");
+        assertEquals("MERGE INTO [test]..[goods] WITH (HOLDLOCK) AS t USING [#stage] AS s ON t.[id] = s.[id]"
+                + " WHEN MATCHED THEN UPDATE SET t.[name] = s.[name], t.[price] = s.[price]"
+                + " WHEN NOT MATCHED THEN INSERT ([id], [name], [price]) VALUES (s.[id], s.[name], s.[price]);",
+                new SqlBuilderSqlServer().Merge(table, staging, Arrays.asList("id")));
+        assertThrows(UnsupportedOperationException.class,
+                () -> new SqlBuilderSqlServer().Upsert(table, Arrays.asList("id"), 1));
+    }
+
+    @Test
+    public void testUpdateKeyColumnsIgnoreCase() {
+        TableMetaData table = table();
+        assertEquals("UPDATE `test`.`goods` SET `name` = ?, `price` = ? WHERE `ID` = ?",
+                new SqlBuilderMysql().Update(table, null, Arrays.asList("ID")));
+    }
+
+    @Test
+    public void testTemplatesForManyRowCounts() {
+        SqlBuilder builder = new SqlBuilderMysql();
+        TableMetaData table = table();
+        String single = builder.Insert(table, null, 1);
+        // 超过缓存上限后淘汰的模板重新生成，结果不变
+        for (int rows = 1; rows <= 3000; rows++) {
+            builder.Insert(table, null, rows);
+        }
+        assertEquals(single, builder.Insert(table, null, 1));
+        assertEquals(single + ", (?, ?, ?)", builder.Insert(table, null, 2));
+    }
+
+    @Test
+    public void testCount() {
+        TableMetaData table = table();
+        assertEquals("SELECT COUNT(*) FROM `test`.`goods`", new SqlBuilderMysql().Count(table));
+        assertEquals("SELECT COUNT_BIG(*) FROM [test]..[goods]", new SqlBuilderSqlServer().Count(table));
+    }
+
+}
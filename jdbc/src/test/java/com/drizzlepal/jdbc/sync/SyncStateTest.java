@@ -0,0 +1,37 @@
+package com.drizzlepal.jdbc.sync;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SyncStateTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        Path file = tempDir.resolve("sync.state");
+        SyncState state = SyncState.load(file);
+        assertNull(state.get("test.goods"));
+        Timestamp watermark = Timestamp.valueOf("2024-01-02 03:04:05.5");
+        state.put("test.goods", new SyncState.TableState("update_time", watermark, 1000L));
+        state.put("test.orders", new SyncState.TableState("id", 42L, 0L));
+        state.save();
+        SyncState loaded = SyncState.load(file);
+        assertEquals("update_time", loaded.get("test.goods").getColumn());
+        assertEquals(watermark, loaded.get("test.goods").getWatermark());
+        assertEquals(1000L, loaded.get("test.goods").getLastDeleteCheckMillis());
+        assertEquals(42L, loaded.get("test.orders").getWatermark());
+        loaded.remove("test.orders");
+        loaded.save();
+        assertNull(SyncState.load(file).get("test.orders"));
+    }
+
+}
@@ -1,11 +1,19 @@
 package com.drizzlepal.jdbc.utils;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
 import java.io.IOException;
+import java.io.StringReader;
+import java.sql.DatabaseMetaData;
+import java.sql.Types;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
 import com.alibaba.fastjson2.JSON;
 import com.drizzlepal.jdbc.config.MetaDataUtilsConfig;
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
 import com.drizzlepal.utils.FileUtils;
 import com.drizzlepal.utils.exception.FileNotFoundException;
 
@@ -21,4 +29,65 @@ public class MetaDataUtilsTest {
         });
     }
 
+    @Test
+    public void testStreamInference() throws IOException {
+        String json = "{\"total\": 3, \"data\": {\"rows\": [\n"
+                + "  {\"id\": 1, \"amount\": 10, \"name\": \"a\", \"created\": \"2024-12-06\", \"tags\": [\"x\"]},\n"
+                + "  {\"id\": 3000000000, \"amount\": 1.25, \"name\": \"a\\\"bc\",\n"
+                + "   \"created\": \"2024-12-06 10:21:16.123\"},\n"
+                + "  {\"id\": 3, \"amount\": 100.5, \"name\": null, \"created\": \"2024-12-07T08:00:00\",\n"
+                + "   \"flag\": true}\n"
+                + "]}}";
+        MetaDataUtilsConfig config = new MetaDataUtilsConfig();
+        config.setRowJsonPath("$.data.rows");
+        List<ColumnMetaData> columns = MetaDataUtils.jsonStreamAsColumnMetaDatas(new StringReader(json), config);
+        assertEquals(6, columns.size());
+
+        ColumnMetaData id = columns.get(0);
+        assertEquals(Types.BIGINT, id.getDatatype());
+        assertEquals(DatabaseMetaData.columnNoNulls, id.getNullable().intValue());
+
+        ColumnMetaData amount = columns.get(1);
+        assertEquals(Types.DECIMAL, amount.getDatatype());
+        assertEquals(5, amount.getLength().intValue());
+        assertEquals(2, amount.getDecimalDigits().intValue());
+
+        ColumnMetaData name = columns.get(2);
+        assertEquals(Types.VARCHAR, name.getDatatype());
+        assertEquals(4, name.getLength().intValue());
+        assertEquals(DatabaseMetaData.columnNullable, name.getNullable().intValue());
+
+        ColumnMetaData created = columns.get(3);
+        assertEquals(Types.TIMESTAMP, created.getDatatype());
+        assertEquals(3, created.getDecimalDigits().intValue());
+
+        ColumnMetaData tags = columns.get(4);
+        assertEquals("tags", tags.getName());
+        assertEquals(Types.VARCHAR, tags.getDatatype());
+        assertEquals(5, tags.getLength().intValue());
+
+        ColumnMetaData flag = columns.get(5);
+        assertEquals(Types.BOOLEAN, flag.getDatatype());
+        assertEquals(DatabaseMetaData.columnNullable, flag.getNullable().intValue());
+    }
+
+    @Test
+    public void testNdjsonInference() throws IOException {
+        String ndjson = "{\"a\": 1, \"b\": \"2024-01-01T00:00:00Z\", \"c\": null}\n"
+                + "\n"
+                + "{\"a\": \"x\", \"b\": \"2024-01-01\"}\n"
+                + "{\"a\": 2, \"b\": \"2024-01-02T00:00:00+08:00\"}\n";
+        JsonSchemaInferrer inferrer = new JsonSchemaInferrer();
+        assertEquals(3, inferrer.infer(new StringReader(ndjson), null, 0));
+        List<JsonSchemaInferrer.Column> columns = inferrer.getColumns();
+        assertEquals(JsonSchemaInferrer.JsonType.VARCHAR, columns.get(0).getType());
+        assertEquals(JsonSchemaInferrer.JsonType.TIMESTAMP_WITH_TIMEZONE, columns.get(1).getType());
+        assertNull(columns.get(2).getType());
+        assertEquals(3, columns.get(2).getNullCount());
+
+        JsonSchemaInferrer sampled = new JsonSchemaInferrer();
+        assertEquals(1, sampled.infer(new StringReader(ndjson), null, 1));
+        assertEquals(JsonSchemaInferrer.JsonType.INTEGER, sampled.getColumns().get(0).getType());
+    }
+
 }
@@ -0,0 +1,48 @@
+package com.drizzlepal.jdbc.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+public class TypedValueCodecTest {
+
+    @Test
+    public void testRoundTripUuidAndZonedTimes() throws IOException {
+        // PostgreSQL uuid、timestamptz 与 timetz 主键的驱动返回类型
+        List<Object> values = Arrays.asList(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"),
+                OffsetDateTime.of(2024, 1, 2, 3, 4, 5, 123456789, ZoneOffset.ofHours(8)),
+                OffsetTime.of(3, 4, 5, 0, ZoneOffset.UTC), Instant.ofEpochSecond(1704164645L, 987654321));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (Object value : values) {
+                TypedValueCodec.writeValue(out, value);
+            }
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            for (Object value : values) {
+                assertEquals(value, TypedValueCodec.readValue(in));
+            }
+        }
+    }
+
+    @Test
+    public void testUnsupportedType() {
+        DataOutputStream out = new DataOutputStream(new ByteArrayOutputStream());
+        assertThrows(IOException.class, () -> TypedValueCodec.writeValue(out, new Object()));
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.drizzlepal.jdbc.write;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedReader;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.drizzlepal.jdbc.database.mysql.SqlBuilderMysql;
+import com.drizzlepal.jdbc.database.postgresql.SqlBuilderPostgresql;
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+
+public class BatchWriterTest {
+
+    private static TableMetaData table(String... columns) {
+        TableMetaData table = new TableMetaData();
+        table.setName("t");
+        table.setColumns(new ArrayList<>());
+        for (String name : columns) {
+            ColumnMetaData column = new ColumnMetaData();
+            column.setName(name);
+            column.setDatatype(Types.VARCHAR);
+            table.getColumns().add(column);
+        }
+        return table;
+    }
+
+    @Test
+    public void testCopyEncoding() throws Exception {
+        RecordingConnection recording = new RecordingConnection();
+        List<String> copies = new ArrayList<>();
+        Timestamp timestamp = Timestamp.valueOf("2024-01-02 03:04:05");
+        try (BatchWriter writer = new BatchWriter(recording.connection, new SqlBuilderPostgresql(),
+                table("id", "name", "data", "at", "price"), 10, 0, false)) {
+            writer.copy((connection, sql, data) -> {
+                copies.add(sql);
+                copies.add(new BufferedReader(data).lines().collect(Collectors.joining("\n", "", "\n")));
+                return 0;
+            });
+            writer.write(1L, "a\tb\\c\nd\re", new byte[] { 0x0f, (byte) 0xa0 }, new Date(timestamp.getTime()),
+                    new BigDecimal("1E+3"));
+            writer.write(2L, null, null, java.sql.Date.valueOf("2024-01-02"), null);
+        }
+        assertEquals(Arrays.asList("COPY \"t\" (\"id\", \"name\", \"data\", \"at\", \"price\") FROM STDIN",
+                "1\ta\\tb\\\\c\\nd\\re\t\\\\x0fa0\t2024-01-02 03:04:05.0\t1000\n"
+                        + "2\t\\N\t\\N\t2024-01-02\t\\N\n"),
+                copies);
+        assertEquals(0, recording.executions.size());
+        assertEquals(1, recording.commits);
+    }
+
+    @Test
+    public void testMultiRowInsertChunks() throws Exception {
+        RecordingConnection recording = new RecordingConnection();
+        String[] columns = new String[400];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = "c" + i;
+        }
+        // 2000 个参数上限下每条语句 5 行，12 行拆为两条复用的整条语句和一条 2 行的尾部语句
+        try (BatchWriter writer = new BatchWriter(recording.connection, new SqlBuilderMysql(), table(columns), 100, 0,
+                false)) {
+            for (int i = 0; i < 12; i++) {
+                Object[] row = new Object[columns.length];
+                row[0] = i;
+                writer.write(row);
+            }
+        }
+        assertEquals(2, recording.prepared.size());
+        assertNotEquals(recording.prepared.get(0), recording.prepared.get(1));
+        assertEquals(3, recording.executions.size());
+        int[] rows = { 5, 5, 2 };
+        int first = 0;
+        for (int i = 0; i < rows.length; i++) {
+            RecordingConnection.Execution execution = recording.executions.get(i);
+            assertEquals(recording.prepared.get(i < 2 ? 0 : 1), execution.sql);
+            assertEquals(rows[i] * columns.length, execution.sql.chars().filter(c -> c == '?').count());
+            assertEquals(rows[i] * columns.length, execution.parameters.size());
+            for (int j = 0; j < rows[i]; j++) {
+                assertEquals(first++, execution.parameters.get(j * columns.length));
+            }
+        }
+        assertEquals(1, recording.commits);
+    }
+
+    @Test
+    public void testReplaceExistingDeletesKeysBeforeInsert() throws Exception {
+        RecordingConnection recording = new RecordingConnection();
+        try (BatchWriter writer = new BatchWriter(recording.connection, new SqlBuilderMysql(), table("id", "name"), 2,
+                0, false)) {
+            writer.replaceExisting(Collections.singletonList("ID"));
+            writer.write(1, "a");
+            writer.write(1, "b");
+            writer.write(2, "c");
+            assertThrows(SQLException.class, () -> writer.replaceExisting(Collections.singletonList("id")));
+        }
+        List<String> executions = new ArrayList<>();
+        for (RecordingConnection.Execution execution : recording.executions) {
+            executions.add(execution.sql + " " + execution.parameters);
+        }
+        // 每批先删除该批全部键对应的已有行，再插入，同一批重复写入的结果不变
+        assertEquals(Arrays.asList("DELETE FROM `t` WHERE `ID` = ? [1]", "DELETE FROM `t` WHERE `ID` = ? [1]",
+                "INSERT INTO `t` (`id`, `name`) VALUES (?, ?), (?, ?) [1, a, 1, b]",
+                "DELETE FROM `t` WHERE `ID` = ? [2]", "INSERT INTO `t` (`id`, `name`) VALUES (?, ?) [2, c]"),
+                executions);
+        assertEquals(1, recording.commits);
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.drizzlepal.jdbc.write;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * 记录语句执行情况的连接，executeUpdate 与 executeBatch 中的每一组参数按执行顺序各记为一次执行
+ */
+final class RecordingConnection {
+
+    static final class Execution {
+
+        final String sql;
+
+        final List<Object> parameters;
+
+        Execution(String sql, List<Object> parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+
+    }
+
+    final List<Execution> executions = new ArrayList<>();
+
+    /**
+     * 按调用顺序记录的 prepareStatement 语句
+     */
+    final List<String> prepared = new ArrayList<>();
+
+    int commits;
+
+    int rollbacks;
+
+    /**
+     * 每次执行前调用，返回的异常不为 null 时抛出且不记录该次执行
+     */
+    Function<Execution, SQLException> failure = execution -> null;
+
+    /**
+     * 不为 null 时关闭连接抛出该异常
+     */
+    SQLException closeFailure;
+
+    final Connection connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getAutoCommit":
+                        return true;
+                    case "prepareStatement":
+                        prepared.add((String) args[0]);
+                        return statement((String) args[0]);
+                    case "createStatement":
+                        return statement(null);
+                    case "commit":
+                        commits++;
+                        return null;
+                    case "rollback":
+                        rollbacks++;
+                        return null;
+                    case "close":
+                        if (closeFailure != null) {
+                            throw closeFailure;
+                        }
+                        return null;
+                    default:
+                        return null;
+                }
+            });
+
+    private void execute(String sql, List<Object> parameters) throws SQLException {
+        Execution execution = new Execution(sql, parameters);
+        SQLException e = failure.apply(execution);
+        if (e != null) {
+            throw e;
+        }
+        executions.add(execution);
+    }
+
+    private Object statement(String sql) {
+        TreeMap<Integer, Object> parameters = new TreeMap<>();
+        List<List<Object>> batch = new ArrayList<>();
+        Class<?> type = sql == null ? Statement.class : PreparedStatement.class;
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "setObject":
+                    parameters.put((Integer) args[0], args[1]);
+                    return null;
+                case "setNull":
+                    parameters.put((Integer) args[0], null);
+                    return null;
+                case "addBatch":
+                    batch.add(new ArrayList<>(parameters.values()));
+                    parameters.clear();
+                    return null;
+                case "clearBatch":
+                    batch.clear();
+                    return null;
+                case "executeUpdate":
+                    if (sql == null) {
+                        execute((String) args[0], new ArrayList<>());
+                    } else {
+                        execute(sql, new ArrayList<>(parameters.values()));
+                        parameters.clear();
+                    }
+                    return 1;
+                case "execute":
+                    execute((String) args[0], new ArrayList<>());
+                    return false;
+                case "executeBatch":
+                    int[] counts = new int[batch.size()];
+                    try {
+                        for (List<Object> entry : batch) {
+                            execute(sql, entry);
+                        }
+                    } finally {
+                        batch.clear();
+                    }
+                    return counts;
+                default:
+                    return null;
+            }
+        });
+    }
+
+}
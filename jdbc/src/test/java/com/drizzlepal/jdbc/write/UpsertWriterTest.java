@@ -0,0 +1,126 @@
+package com.drizzlepal.jdbc.write;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.drizzlepal.jdbc.database.mysql.SqlBuilderMysql;
+import com.drizzlepal.jdbc.metadata.ColumnMetaData;
+import com.drizzlepal.jdbc.metadata.TableMetaData;
+
+public class UpsertWriterTest {
+
+    private static TableMetaData table(int keyType) {
+        ColumnMetaData key = new ColumnMetaData();
+        key.setName("k");
+        key.setDatatype(keyType);
+        ColumnMetaData value = new ColumnMetaData();
+        value.setName("v");
+        value.setDatatype(Types.VARCHAR);
+        TableMetaData table = new TableMetaData();
+        table.setName("t");
+        table.setColumns(new ArrayList<>(Arrays.asList(key, value)));
+        return table;
+    }
+
+    private static UpsertWriter writer(RecordingConnection recording, int keyType) throws SQLException {
+        return new UpsertWriter(recording.connection, new SqlBuilderMysql(), table(keyType),
+                Collections.singletonList("k"), 10, false, false);
+    }
+
+    @Test
+    public void testLastRowWinsForBinaryKeys() throws Exception {
+        RecordingConnection recording = new RecordingConnection();
+        byte[] replaced = { 1 };
+        try (UpsertWriter writer = writer(recording, Types.VARBINARY)) {
+            writer.write(new byte[] { 1 }, "a");
+            writer.write(new byte[] { 2 }, "b");
+            writer.write(replaced, "c");
+        }
+        assertEquals(1, recording.executions.size());
+        List<Object> parameters = recording.executions.get(0).parameters;
+        // 二进制键按内容去重，不可比较的键保持最后一次出现的顺序
+        assertEquals(4, parameters.size());
+        assertArrayEquals(new byte[] { 2 }, (byte[]) parameters.get(0));
+        assertEquals("b", parameters.get(1));
+        assertSame(replaced, parameters.get(2));
+        assertEquals("c", parameters.get(3));
+        assertEquals(1, recording.commits);
+    }
+
+    @Test
+    public void testSortsOnlyKeysOfOneType() throws Exception {
+        RecordingConnection recording = new RecordingConnection();
+        try (UpsertWriter writer = writer(recording, Types.INTEGER)) {
+            writer.write(3, "c");
+            writer.write(1, "a");
+            writer.write(2, "b");
+            writer.flush();
+            // Integer 与 Long 混合时不排序，也不抛出 ClassCastException
+            writer.write(2, "b");
+            writer.write(1L, "a");
+        }
+        assertEquals(2, recording.executions.size());
+        assertEquals(Arrays.asList(1, "a", 2, "b", 3, "c"), recording.executions.get(0).parameters);
+        assertEquals(Arrays.asList(2, "b", 1L, "a"), recording.executions.get(1).parameters);
+    }
+
+    @Test
+    public void testIsDeadlock() {
+        assertTrue(UpsertWriter.isDeadlock(new SQLException("deadlock", "40001")));
+        assertTrue(UpsertWriter.isDeadlock(new SQLException("deadlock", "HY000", 1213)));
+        SQLException lockWait = new SQLException("lock wait timeout", "HY000", 1205);
+        assertTrue(UpsertWriter.isDeadlock(
+                new SQLException("batch failed", "HY000", 0, new RuntimeException(lockWait))));
+        assertFalse(UpsertWriter.isDeadlock(new SQLException("duplicate key", "23000", 1062)));
+        assertFalse(UpsertWriter.isDeadlock(
+                new SQLException("batch failed", "HY000", 0, new IllegalStateException("closed"))));
+    }
+
+    @Test
+    public void testSplitsBatchOnRepeatedDeadlock() throws Exception {
+        RecordingConnection recording = new RecordingConnection();
+        // 多于一行的语句总是死锁，拆分到单行后成功
+        recording.failure = execution -> execution.parameters.size() > 2
+                ? new SQLException("deadlock", "40001", 1213)
+                : null;
+        try (UpsertWriter writer = writer(recording, Types.INTEGER)) {
+            writer.write(1, "a");
+            writer.write(2, "b");
+            writer.flush();
+            assertEquals(4, writer.getStats().getDeadlockRetries());
+            assertEquals(2, writer.getStats().getCommits());
+            assertEquals(2, writer.getStats().getRows());
+        }
+        assertEquals(2, recording.executions.size());
+        assertEquals(Arrays.asList(1, "a"), recording.executions.get(0).parameters);
+        assertEquals(Arrays.asList(2, "b"), recording.executions.get(1).parameters);
+        assertEquals(4, recording.rollbacks);
+    }
+
+    @Test
+    public void testCloseKeepsFlushFailure() throws Exception {
+        RecordingConnection recording = new RecordingConnection();
+        SQLException flushFailure = new SQLException("duplicate key", "23000", 1062);
+        recording.failure = execution -> flushFailure;
+        recording.closeFailure = new SQLException("connection reset", "08006");
+        UpsertWriter writer = writer(recording, Types.INTEGER);
+        writer.write(1, "a");
+        SQLException e = assertThrows(SQLException.class, writer::close);
+        assertSame(flushFailure, e);
+        assertArrayEquals(new Throwable[] { recording.closeFailure }, e.getSuppressed());
+    }
+
+}